@@ -20,6 +20,7 @@ package com.thoughtworks.go.api;
 import com.thoughtworks.go.api.base.JsonOutputWriter;
 import com.thoughtworks.go.api.base.OutputListWriter;
 import com.thoughtworks.go.api.base.OutputWriter;
+import com.thoughtworks.go.api.util.RenderedJsonCache;
 import com.thoughtworks.go.server.service.result.HttpLocalizedOperationResult;
 import com.thoughtworks.go.server.service.result.HttpOperationResult;
 import com.thoughtworks.go.spark.RequestContext;
@@ -35,6 +36,7 @@ import java.util.function.Consumer;
 public interface ControllerMethods {
 
     String NOTHING = "";
+    String COMPACT = "compact";
 
     default boolean fresh(Request req, String etagFromServer) {
         String etagFromClient = getIfNoneMatch(req);
@@ -88,25 +90,64 @@ public interface ControllerMethods {
         return writerForTopLevelObject(request, response, writer -> writer.add("message", result.fullMessage()));
     }
 
+    /**
+     * Responses are pretty printed unless the client asks for compact json, either through a {@code compact=true}
+     * query parameter or a {@code compact=true} parameter on the accept header.
+     */
+    default boolean prettyPrint(Request request) {
+        if ("true".equalsIgnoreCase(request.queryParams(COMPACT))) {
+            return false;
+        }
+        String accept = request.headers("Accept");
+        if (accept == null) {
+            return true;
+        }
+        for (String parameter : accept.split("[;,]")) {
+            String[] nameAndValue = parameter.split("=", 2);
+            if (nameAndValue.length == 2 && COMPACT.equalsIgnoreCase(nameAndValue[0].trim()) && "true".equalsIgnoreCase(nameAndValue[1].trim())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     default String writerForTopLevelObject(Request request, Response response, Consumer<OutputWriter> consumer) throws IOException {
-        new JsonOutputWriter(response.raw().getWriter(), RequestContext.requestContext(request)).forTopLevelObject(consumer);
+        new JsonOutputWriter(response.raw().getWriter(), RequestContext.requestContext(request), prettyPrint(request)).forTopLevelObject(consumer);
+        return NOTHING;
+    }
+
+    /**
+     * Streams the object to the response as it is rendered, remembering the rendering for the etag so that it is
+     * written out as is, without rendering the object again, while the etag stays the same.
+     */
+    default String writerForTopLevelObject(Request request, Response response, RenderedJsonCache cache, String etag, Consumer<OutputWriter> consumer) throws IOException {
+        String key = String.join("/", etag, prettyPrint(request) ? "pretty" : COMPACT, RequestContext.requestContext(request).urlFor(""));
+        String rendered = cache.get(key);
+        if (rendered != null) {
+            response.raw().getWriter().write(rendered);
+            return NOTHING;
+        }
+
+        RenderedJsonCache.Recording recording = cache.record(key, response.raw().getWriter());
+        new JsonOutputWriter(recording, RequestContext.requestContext(request), prettyPrint(request)).forTopLevelObject(consumer);
+        recording.remember();
         return NOTHING;
     }
 
     default String writerForTopLevelArray(Request request, Response response, Consumer<OutputListWriter> consumer) throws IOException {
-        new JsonOutputWriter(response.raw().getWriter(), RequestContext.requestContext(request)).forTopLevelArray(consumer);
+        new JsonOutputWriter(response.raw().getWriter(), RequestContext.requestContext(request), prettyPrint(request)).forTopLevelArray(consumer);
         return NOTHING;
     }
 
     default String jsonizeAsTopLevelObject(Request request, Consumer<OutputWriter> consumer) {
         StringWriter writer = new StringWriter(1024);
-        new JsonOutputWriter(writer, RequestContext.requestContext(request)).forTopLevelObject(consumer);
+        new JsonOutputWriter(writer, RequestContext.requestContext(request), prettyPrint(request)).forTopLevelObject(consumer);
         return writer.toString();
     }
 
     default String jsonizeAsTopLevelArray(Request request, Consumer<OutputListWriter> consumer) {
         StringWriter writer = new StringWriter(1024);
-        new JsonOutputWriter(writer, RequestContext.requestContext(request)).forTopLevelArray(consumer);
+        new JsonOutputWriter(writer, RequestContext.requestContext(request), prettyPrint(request)).forTopLevelArray(consumer);
         return writer.toString();
     }
 
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.api.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/* Understands remembering the json rendered for an etag, so that representations which have not changed are not rendered again. */
+public class RenderedJsonCache {
+    private final int maxEntries;
+    private final long maxTotalLength;
+    private final LinkedHashMap<String, String> rendered = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalLength;
+
+    /**
+     * @param maxEntries     the number of renderings to remember
+     * @param maxTotalLength the number of characters all remembered renderings may add up to
+     */
+    public RenderedJsonCache(int maxEntries, long maxTotalLength) {
+        this.maxEntries = maxEntries;
+        this.maxTotalLength = maxTotalLength;
+    }
+
+    /**
+     * @param key must change whenever the rendered json would, typically an etag along with anything else the
+     *            rendering depends on
+     * @return the json remembered for the key, or null when there is none
+     */
+    public synchronized String get(String key) {
+        return rendered.get(key);
+    }
+
+    /**
+     * Starts rendering the json for the key straight to the given writer, keeping a copy of what is written through
+     * the returned recording to remember once it is complete.
+     */
+    public Recording record(String key, Writer out) {
+        return new Recording(key, out);
+    }
+
+    public synchronized int size() {
+        return rendered.size();
+    }
+
+    private synchronized void remember(String key, String json) {
+        String previous = rendered.put(key, json);
+        totalLength += json.length() - (previous == null ? 0 : previous.length());
+
+        Iterator<Map.Entry<String, String>> leastRecentlyUsed = rendered.entrySet().iterator();
+        while ((rendered.size() > maxEntries || totalLength > maxTotalLength) && leastRecentlyUsed.hasNext()) {
+            totalLength -= leastRecentlyUsed.next().getValue().length();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    /* Understands writing json through to its destination while keeping a copy of it, as long as it fits in the cache. */
+    public class Recording extends Writer {
+        private final String key;
+        private final Writer out;
+        private StringBuilder written = new StringBuilder();
+
+        private Recording(String key, Writer out) {
+            this.key = key;
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            out.write(chars, offset, length);
+            if (written == null) {
+                return;
+            }
+            if (written.length() + length > maxTotalLength) {
+                written = null;
+            } else {
+                written.append(chars, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        /**
+         * Remembers what was written, to be called only once the json is complete. Renderings larger than the total
+         * length of the cache are not remembered.
+         */
+        public void remember() {
+            if (written != null) {
+                RenderedJsonCache.this.remember(key, written.toString());
+            }
+        }
+    }
+}
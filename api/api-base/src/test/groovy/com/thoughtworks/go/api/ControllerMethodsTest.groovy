@@ -94,4 +94,26 @@ class ControllerMethodsTest {
       assertThat(controllerMethods.getIfMatch(RequestResponseFactory.create(req))).isEqualTo('foo')
     }
   }
+
+  @Nested
+  class PrettyPrint {
+
+    @Test
+    void 'should pretty print by default'() {
+      def req = HttpRequestBuilder.GET('/foo').withHeaders(['accept': 'application/vnd.go.cd.v4+json']).build()
+      assertThat(controllerMethods.prettyPrint(RequestResponseFactory.create(req))).isTrue()
+    }
+
+    @Test
+    void 'should not pretty print when compact json is asked for through query param'() {
+      def req = HttpRequestBuilder.GET('/foo?compact=true').build()
+      assertThat(controllerMethods.prettyPrint(RequestResponseFactory.create(req))).isFalse()
+    }
+
+    @Test
+    void 'should not pretty print when compact json is asked for through accept header'() {
+      def req = HttpRequestBuilder.GET('/foo').withHeaders(['accept': 'application/vnd.go.cd.v4+json; compact=true']).build()
+      assertThat(controllerMethods.prettyPrint(RequestResponseFactory.create(req))).isFalse()
+    }
+  }
 }
@@ -82,6 +82,30 @@ class JsonOutputWriterTest {
     assertThat(result.toString()).containsPattern("\"key3\" *: *1234567891234")
   }
 
+  @Test
+  void 'should not indent output when pretty printing is turned off'() {
+    def result = new StringWriter()
+
+    new JsonOutputWriter(result, new TestRequestContext(), false).forTopLevelObject { writer ->
+      writer
+        .add("key1", "value1")
+        .addChild("child") { child -> child.add("key2", "value2") }
+    }
+
+    assertThat(result.toString()).isEqualTo('{"key1":"value1","child":{"key2":"value2"}}')
+  }
+
+  @Test
+  void 'should not indent top level arrays when pretty printing is turned off'() {
+    def result = new StringWriter()
+
+    new JsonOutputWriter(result, new TestRequestContext(), false).forTopLevelArray { listWriter ->
+      listWriter.value("value1").value("value2")
+    }
+
+    assertThat(result.toString()).isEqualTo('["value1","value2"]')
+  }
+
   @Test
   void 'should output a child object'() {
     def result = new StringWriter()
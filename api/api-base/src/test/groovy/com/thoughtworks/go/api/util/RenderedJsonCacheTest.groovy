@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.api.util
+
+import org.junit.jupiter.api.Test
+
+import static org.assertj.core.api.Assertions.assertThat
+
+class RenderedJsonCacheTest {
+
+  @Test
+  void 'should write through and remember what was recorded once complete'() {
+    def cache = new RenderedJsonCache(10, 1024)
+    def out = new StringWriter()
+
+    def recording = cache.record('etag', out)
+    recording.write('{"a":1}')
+    assertThat(cache.get('etag')).isNull()
+    recording.remember()
+
+    assertThat(out.toString()).isEqualTo('{"a":1}')
+    assertThat(cache.get('etag')).isEqualTo('{"a":1}')
+  }
+
+  @Test
+  void 'should not remember a recording which was not completed'() {
+    def cache = new RenderedJsonCache(10, 1024)
+
+    cache.record('etag', new StringWriter()).write('{"a":')
+
+    assertThat(cache.get('etag')).isNull()
+    assertThat(cache.size()).isEqualTo(0)
+  }
+
+  @Test
+  void 'should forget least recently used renderings beyond the number of entries'() {
+    def cache = new RenderedJsonCache(2, 1024)
+    render(cache, 'etag1', '{}')
+    render(cache, 'etag2', '{}')
+    cache.get('etag1')
+
+    render(cache, 'etag3', '{}')
+
+    assertThat(cache.size()).isEqualTo(2)
+    assertThat(cache.get('etag1')).isEqualTo('{}')
+    assertThat(cache.get('etag2')).isNull()
+  }
+
+  @Test
+  void 'should forget renderings beyond the total length'() {
+    def cache = new RenderedJsonCache(10, 10)
+    render(cache, 'etag1', '123456')
+
+    render(cache, 'etag2', '123456')
+
+    assertThat(cache.size()).isEqualTo(1)
+    assertThat(cache.get('etag2')).isEqualTo('123456')
+  }
+
+  @Test
+  void 'should write out but not remember renderings larger than the total length'() {
+    def cache = new RenderedJsonCache(10, 4)
+
+    assertThat(render(cache, 'etag', '123456')).isEqualTo('123456')
+    assertThat(cache.size()).isEqualTo(0)
+  }
+
+  private static String render(RenderedJsonCache cache, String key, String json) {
+    def out = new StringWriter()
+    def recording = cache.record(key, out)
+    recording.write(json)
+    recording.remember()
+    return out.toString()
+  }
+}
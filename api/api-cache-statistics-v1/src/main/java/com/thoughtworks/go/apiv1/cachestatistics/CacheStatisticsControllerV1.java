@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.apiv1.cachestatistics;
+
+import com.thoughtworks.go.api.ApiController;
+import com.thoughtworks.go.api.ApiVersion;
+import com.thoughtworks.go.api.spring.ApiAuthenticationHelper;
+import com.thoughtworks.go.apiv1.cachestatistics.representers.CacheRegionUsageRepresenter;
+import com.thoughtworks.go.server.cache.CacheRegionUsage;
+import com.thoughtworks.go.server.service.CacheStatisticsService;
+import com.thoughtworks.go.spark.Routes;
+import com.thoughtworks.go.spark.spring.SparkSpringController;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import spark.Request;
+import spark.Response;
+
+import java.util.List;
+
+import static spark.Spark.*;
+
+@Component
+public class CacheStatisticsControllerV1 extends ApiController implements SparkSpringController {
+    private final CacheStatisticsService cacheStatisticsService;
+    private final ApiAuthenticationHelper apiAuthenticationHelper;
+
+    @Autowired
+    public CacheStatisticsControllerV1(CacheStatisticsService cacheStatisticsService, ApiAuthenticationHelper apiAuthenticationHelper) {
+        super(ApiVersion.v1);
+        this.cacheStatisticsService = cacheStatisticsService;
+        this.apiAuthenticationHelper = apiAuthenticationHelper;
+    }
+
+    @Override
+    public String controllerBasePath() {
+        return Routes.CacheStatistics.BASE;
+    }
+
+    @Override
+    public void setupRoutes() {
+        path(controllerBasePath(), () -> {
+            before("", mimeType, this::setContentType);
+            before("", mimeType, apiAuthenticationHelper::checkAdminUserAnd403);
+
+            get("", mimeType, this::index);
+        });
+    }
+
+    public String index(Request request, Response response) {
+        List<CacheRegionUsage> regions = cacheStatisticsService.getRegions();
+        return jsonizeAsTopLevelArray(request, outputListWriter -> CacheRegionUsageRepresenter.toJSON(outputListWriter, regions));
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.apiv1.cachestatistics.representers;
+
+import com.thoughtworks.go.api.base.OutputListWriter;
+import com.thoughtworks.go.server.cache.CacheRegionUsage;
+
+import java.util.Collection;
+
+public class CacheRegionUsageRepresenter {
+
+    public static void toJSON(OutputListWriter outputListWriter, Collection<CacheRegionUsage> regions) {
+        regions.forEach(region ->
+            outputListWriter.addChild(writer ->
+                writer.add("cache", region.getCache())
+                    .add("region", region.getRegion())
+                    .add("hits", region.getHits())
+                    .add("misses", region.getMisses())
+                    .add("puts", region.getPuts())
+                    .add("removals", region.getRemovals())
+                    .add("evictions", region.getEvictions())
+                    .addIfNotNull("entries", region.getEntries() == CacheRegionUsage.UNKNOWN_ENTRIES ? null : region.getEntries()))
+        );
+    }
+}
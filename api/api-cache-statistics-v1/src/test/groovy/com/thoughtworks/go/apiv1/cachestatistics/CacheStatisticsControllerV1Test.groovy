@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.apiv1.cachestatistics
+
+import com.thoughtworks.go.api.SecurityTestTrait
+import com.thoughtworks.go.api.spring.ApiAuthenticationHelper
+import com.thoughtworks.go.apiv1.cachestatistics.representers.CacheRegionUsageRepresenter
+import com.thoughtworks.go.server.cache.CacheRegionUsage
+import com.thoughtworks.go.server.service.CacheStatisticsService
+import com.thoughtworks.go.spark.AdminUserSecurity
+import com.thoughtworks.go.spark.ControllerTrait
+import com.thoughtworks.go.spark.Routes
+import com.thoughtworks.go.spark.SecurityServiceTrait
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Nested
+import org.junit.jupiter.api.Test
+import org.mockito.Mock
+
+import static org.mockito.Mockito.when
+import static org.mockito.MockitoAnnotations.initMocks
+
+class CacheStatisticsControllerV1Test implements SecurityServiceTrait, ControllerTrait<CacheStatisticsControllerV1> {
+  @Mock
+  CacheStatisticsService cacheStatisticsService
+
+  @BeforeEach
+  void setUp() {
+    initMocks(this)
+  }
+
+  @Override
+  CacheStatisticsControllerV1 createControllerInstance() {
+    return new CacheStatisticsControllerV1(cacheStatisticsService, new ApiAuthenticationHelper(securityService, goConfigService))
+  }
+
+  @Nested
+  class Index {
+    @Nested
+    class Security implements SecurityTestTrait, AdminUserSecurity {
+
+      @Override
+      String getControllerMethodUnderTest() {
+        return "index"
+      }
+
+      @Override
+      void makeHttpCall() {
+        getWithApiHeader(Routes.CacheStatistics.BASE)
+      }
+    }
+
+    @Nested
+    class AsAdmin {
+      @BeforeEach
+      void setUp() {
+        enableSecurity()
+        loginAsAdmin()
+      }
+
+      @Test
+      void 'should render usage of every cache region'() {
+        def regions = [
+          new CacheRegionUsage("goCache", "com.thoughtworks.go.domain.Pipeline.$history", 10, 2, 3, 1, 0, 2),
+          new CacheRegionUsage("artifacts", "ZipArtifactCache", 4, 1, 1, 0, 0, CacheRegionUsage.UNKNOWN_ENTRIES)
+        ]
+        when(cacheStatisticsService.getRegions()).thenReturn(regions)
+
+        getWithApiHeader(Routes.CacheStatistics.BASE)
+
+        assertThatResponse()
+          .isOk()
+          .hasContentType(controller.mimeType)
+          .hasBodyWithJsonArray(regions, CacheRegionUsageRepresenter)
+      }
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.apiv1.cachestatistics.representers
+
+import com.thoughtworks.go.server.cache.CacheRegionUsage
+import org.junit.jupiter.api.Test
+
+import static com.thoughtworks.go.api.base.JsonUtils.toArrayString
+import static net.javacrumbs.jsonunit.fluent.JsonFluentAssert.assertThatJson
+
+class CacheRegionUsageRepresenterTest {
+
+  @Test
+  void 'should serialize'() {
+    def usage = new CacheRegionUsage("goCache", "pipeline_history_", 10, 2, 3, 1, 4, 2)
+    def actualJson = toArrayString({ CacheRegionUsageRepresenter.toJSON(it, [usage]) })
+
+    assertThatJson(actualJson).isEqualTo([[
+                                            cache    : "goCache",
+                                            region   : "pipeline_history_",
+                                            hits     : 10,
+                                            misses   : 2,
+                                            puts     : 3,
+                                            removals : 1,
+                                            evictions: 4,
+                                            entries  : 2
+                                          ]])
+  }
+
+  @Test
+  void 'should not render entries when they are not known'() {
+    def usage = new CacheRegionUsage("artifacts", "ZipArtifactCache", 1, 0, 0, 0, 0, CacheRegionUsage.UNKNOWN_ENTRIES)
+    def actualJson = toArrayString({ CacheRegionUsageRepresenter.toJSON(it, [usage]) })
+
+    assertThatJson(actualJson).isEqualTo([[
+                                            cache    : "artifacts",
+                                            region   : "ZipArtifactCache",
+                                            hits     : 1,
+                                            misses   : 0,
+                                            puts     : 0,
+                                            removals : 0,
+                                            evictions: 0
+                                          ]])
+  }
+}
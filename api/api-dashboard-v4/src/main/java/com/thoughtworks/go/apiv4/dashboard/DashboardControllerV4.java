@@ -20,10 +20,10 @@ import com.thoughtworks.go.api.ApiController;
 import com.thoughtworks.go.api.ApiVersion;
 import com.thoughtworks.go.api.spring.ApiAuthenticationHelper;
 import com.thoughtworks.go.api.util.MessageJson;
+import com.thoughtworks.go.api.util.RenderedJsonCache;
 import com.thoughtworks.go.apiv4.dashboard.representers.DashboardFor;
 import com.thoughtworks.go.apiv4.dashboard.representers.DashboardRepresenter;
-import com.thoughtworks.go.server.dashboard.GoDashboardEnvironment;
-import com.thoughtworks.go.server.dashboard.GoDashboardPipelineGroup;
+import com.thoughtworks.go.server.dashboard.GoDashboardView;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.domain.user.DashboardFilter;
 import com.thoughtworks.go.server.domain.user.PipelineSelections;
@@ -32,7 +32,6 @@ import com.thoughtworks.go.server.service.PipelineSelectionsService;
 import com.thoughtworks.go.server.service.support.toggle.Toggles;
 import com.thoughtworks.go.spark.Routes;
 import com.thoughtworks.go.spark.spring.SparkSpringController;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -40,8 +39,6 @@ import spark.Request;
 import spark.Response;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
 
 import static com.thoughtworks.go.server.domain.user.DashboardFilter.DEFAULT_NAME;
 import static spark.Spark.*;
@@ -53,12 +50,14 @@ public class DashboardControllerV4 extends ApiController implements SparkSpringC
     private static final int ACCEPTED = 202;
 
     private static final String COOKIE_NAME = "selected_pipelines";
-    private static final String SEP_CHAR = "/";
     private static final String VIEW_NAME = "viewName";
+    private static final int MAX_RENDERED_DASHBOARDS = 100;
+    private static final long MAX_RENDERED_DASHBOARDS_LENGTH = 16 * 1024 * 1024;
 
     private final PipelineSelectionsService pipelineSelectionsService;
     private final GoDashboardService goDashboardService;
     private final ApiAuthenticationHelper apiAuthenticationHelper;
+    private final RenderedJsonCache renderedDashboards = new RenderedJsonCache(MAX_RENDERED_DASHBOARDS, MAX_RENDERED_DASHBOARDS_LENGTH);
 
     @Autowired
     public DashboardControllerV4(ApiAuthenticationHelper apiAuthenticationHelper, PipelineSelectionsService pipelineSelectionsService, GoDashboardService goDashboardService) {
@@ -99,33 +98,22 @@ public class DashboardControllerV4 extends ApiController implements SparkSpringC
         final boolean allowEmpty = Toggles.isToggleOn(Toggles.ALLOW_EMPTY_PIPELINE_GROUPS_DASHBOARD) &&
                 "true".equalsIgnoreCase(request.queryParams("allowEmpty"));
 
-        List<GoDashboardPipelineGroup> pipelineGroups = goDashboardService.allPipelineGroupsForDashboard(filter, userName, allowEmpty);
-        List<GoDashboardEnvironment> environments = goDashboardService.allEnvironmentsForDashboard(filter, userName);
+        GoDashboardView view = goDashboardService.dashboardViewFor(filter, personalization.etag(), userName, allowEmpty);
 
-        String etag = calcEtag(userName, pipelineGroups, environments);
-
-        if (fresh(request, etag)) {
+        if (fresh(request, view.etag())) {
             return notModified(response);
         }
 
-        setEtagHeader(response, etag);
+        setEtagHeader(response, view.etag());
 
-        return writerForTopLevelObject(request, response, outputWriter ->
+        return writerForTopLevelObject(request, response, renderedDashboards, view.etag() + "/" + personalization.etag(), outputWriter ->
                 DashboardRepresenter.toJSON(
                         outputWriter,
-                        new DashboardFor(pipelineGroups, environments, userName, personalization.etag())
+                        new DashboardFor(view.pipelineGroups(), view.environments(), userName, personalization.etag())
                 )
         );
     }
 
-    private String calcEtag(Username username, List<GoDashboardPipelineGroup> pipelineGroups, List<GoDashboardEnvironment> environments) {
-        final String pipelineSegment = pipelineGroups.stream().
-                map(GoDashboardPipelineGroup::etag).collect(Collectors.joining(SEP_CHAR));
-        final String environmentSegment = environments.stream().
-                map(GoDashboardEnvironment::etag).collect(Collectors.joining(SEP_CHAR));
-        return DigestUtils.md5Hex(StringUtils.joinWith(SEP_CHAR, username.getUsername(), pipelineSegment, environmentSegment));
-    }
-
     private String getViewName(Request request) {
         final String viewName = request.queryParams(VIEW_NAME);
         return StringUtils.isBlank(viewName) ? DEFAULT_NAME : viewName;
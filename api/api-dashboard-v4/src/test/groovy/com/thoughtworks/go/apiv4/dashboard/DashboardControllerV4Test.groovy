@@ -24,6 +24,7 @@ import com.thoughtworks.go.config.security.Permissions
 import com.thoughtworks.go.config.security.users.Everyone
 import com.thoughtworks.go.server.dashboard.GoDashboardEnvironment
 import com.thoughtworks.go.server.dashboard.GoDashboardPipelineGroup
+import com.thoughtworks.go.server.dashboard.GoDashboardView
 import com.thoughtworks.go.server.domain.user.Filters
 import com.thoughtworks.go.server.domain.user.PipelineSelections
 import com.thoughtworks.go.server.service.GoDashboardService
@@ -40,6 +41,7 @@ import org.junit.jupiter.api.Nested
 import org.junit.jupiter.api.Test
 import org.mockito.Mock
 
+import static org.assertj.core.api.Assertions.assertThat
 import static org.mockito.ArgumentMatchers.*
 import static org.mockito.Mockito.*
 import static org.mockito.MockitoAnnotations.initMocks
@@ -99,8 +101,7 @@ class DashboardControllerV4Test implements SecurityServiceTrait, ControllerTrait
 
         when(pipelineSelectionsService.load((String) isNull(), any(Long.class))).thenReturn(PipelineSelections.ALL)
         when(goDashboardService.hasEverLoadedCurrentState()).thenReturn(true)
-        when(goDashboardService.allPipelineGroupsForDashboard(eq(Filters.WILDCARD_FILTER), eq(currentUsername()), anyBoolean())).thenReturn([group])
-        when(goDashboardService.allEnvironmentsForDashboard(eq(Filters.WILDCARD_FILTER), eq(currentUsername()))).thenReturn([env])
+        when(goDashboardService.dashboardViewFor(eq(Filters.WILDCARD_FILTER), eq(PipelineSelections.ALL.etag()), eq(currentUsername()), anyBoolean())).thenReturn(new GoDashboardView(currentUsername(), [group], [env]))
 
         getWithApiHeader(controller.controllerPath())
 
@@ -109,6 +110,48 @@ class DashboardControllerV4Test implements SecurityServiceTrait, ControllerTrait
           .hasBodyWithJsonObject(new DashboardFor([group], [env], currentUsername(), PipelineSelections.ALL.etag()), DashboardRepresenter)
       }
 
+      @Test
+      void 'should get compact dashboard json when asked for'() {
+        loginAsUser()
+
+        def group = pipelineGroup('group1')
+        def env = environment('env1')
+
+        when(pipelineSelectionsService.load((String) isNull(), any(Long.class))).thenReturn(PipelineSelections.ALL)
+        when(goDashboardService.hasEverLoadedCurrentState()).thenReturn(true)
+        when(goDashboardService.dashboardViewFor(eq(Filters.WILDCARD_FILTER), eq(PipelineSelections.ALL.etag()), eq(currentUsername()), anyBoolean())).thenReturn(new GoDashboardView(currentUsername(), [group], [env]))
+
+        getWithApiHeader(controller.controllerPath() + '?compact=true')
+
+        assertThatResponse()
+          .isOk()
+          .hasBodyWithJsonObject(new DashboardFor([group], [env], currentUsername(), PipelineSelections.ALL.etag()), DashboardRepresenter)
+        assertThat(response.getContentAsString()).doesNotContain("\n")
+      }
+
+      @Test
+      void 'should write out the dashboard json rendered earlier while its etag stays the same'() {
+        loginAsUser()
+
+        def group = pipelineGroup('group1')
+        def env = environment('env1')
+        def view = spy(new GoDashboardView(currentUsername(), [group], [env]))
+
+        when(pipelineSelectionsService.load((String) isNull(), any(Long.class))).thenReturn(PipelineSelections.ALL)
+        when(goDashboardService.hasEverLoadedCurrentState()).thenReturn(true)
+        when(goDashboardService.dashboardViewFor(eq(Filters.WILDCARD_FILTER), eq(PipelineSelections.ALL.etag()), eq(currentUsername()), anyBoolean())).thenReturn(view)
+
+        getWithApiHeader(controller.controllerPath())
+        def rendered = response.getContentAsString()
+        getWithApiHeader(controller.controllerPath())
+
+        assertThatResponse()
+          .isOk()
+          .hasBodyWithJsonObject(new DashboardFor([group], [env], currentUsername(), PipelineSelections.ALL.etag()), DashboardRepresenter)
+        assertThat(response.getContentAsString()).isEqualTo(rendered)
+        verify(view, times(1)).pipelineGroups()
+      }
+
       @Test
       void 'should render 304 if content matches'() {
         loginAsUser()
@@ -118,8 +161,7 @@ class DashboardControllerV4Test implements SecurityServiceTrait, ControllerTrait
 
         when(pipelineSelectionsService.load((String) isNull(), any(Long.class))).thenReturn(PipelineSelections.ALL)
         when(goDashboardService.hasEverLoadedCurrentState()).thenReturn(true)
-        when(goDashboardService.allPipelineGroupsForDashboard(eq(Filters.WILDCARD_FILTER), eq(currentUsername()), anyBoolean())).thenReturn([group])
-        when(goDashboardService.allEnvironmentsForDashboard(eq(Filters.WILDCARD_FILTER), eq(currentUsername()))).thenReturn([env])
+        when(goDashboardService.dashboardViewFor(eq(Filters.WILDCARD_FILTER), eq(PipelineSelections.ALL.etag()), eq(currentUsername()), anyBoolean())).thenReturn(new GoDashboardView(currentUsername(), [group], [env]))
 
         def etag = computeEtag([group], [env])
         getWithApiHeader(controller.controllerBasePath(), ['if-none-match': etag])
@@ -134,11 +176,10 @@ class DashboardControllerV4Test implements SecurityServiceTrait, ControllerTrait
       void 'should get empty json when dashboard is empty'() {
         def pipelineSelections = PipelineSelections.ALL
         when(pipelineSelectionsService.load((String) isNull(), any(Long.class))).thenReturn(pipelineSelections)
-        when(goDashboardService.allPipelineGroupsForDashboard(eq(Filters.WILDCARD_FILTER), eq(currentUsername()), anyBoolean())).thenReturn([])
-        when(goDashboardService.allEnvironmentsForDashboard(eq(Filters.WILDCARD_FILTER), eq(currentUsername()))).thenReturn([])
         when(goDashboardService.hasEverLoadedCurrentState()).thenReturn(true)
 
         loginAsUser()
+        when(goDashboardService.dashboardViewFor(eq(Filters.WILDCARD_FILTER), eq(pipelineSelections.etag()), eq(currentUsername()), anyBoolean())).thenReturn(new GoDashboardView(currentUsername(), [], []))
         getWithApiHeader(controller.controllerPath())
 
         assertThatResponse()
@@ -177,7 +218,7 @@ class DashboardControllerV4Test implements SecurityServiceTrait, ControllerTrait
         when(pipelineSelectionsService.load((String) isNull(), any(Long.class))).thenReturn(pipelineSelections)
         when(goDashboardService.hasEverLoadedCurrentState()).thenReturn(true)
         def pipelineGroups = [pipelineGroup]
-        when(goDashboardService.allPipelineGroupsForDashboard(eq(Filters.WILDCARD_FILTER), eq(currentUsername()), anyBoolean())).thenReturn(pipelineGroups)
+        when(goDashboardService.dashboardViewFor(eq(Filters.WILDCARD_FILTER), eq(pipelineSelections.etag()), eq(currentUsername()), anyBoolean())).thenReturn(new GoDashboardView(currentUsername(), pipelineGroups, []))
 
         String etag = computeEtag(pipelineGroups, [])
         getWithApiHeader(controller.controllerBasePath(), ['if-none-match': etag])
@@ -188,7 +229,7 @@ class DashboardControllerV4Test implements SecurityServiceTrait, ControllerTrait
 
         loginAsPipelineViewUser()
 
-        when(goDashboardService.allPipelineGroupsForDashboard(eq(Filters.WILDCARD_FILTER), eq(currentUsername()))).thenReturn(pipelineGroups)
+        when(goDashboardService.dashboardViewFor(eq(Filters.WILDCARD_FILTER), eq(pipelineSelections.etag()), eq(currentUsername()), anyBoolean())).thenReturn(new GoDashboardView(currentUsername(), pipelineGroups, []))
         getWithApiHeader(controller.controllerBasePath(), ['if-none-match': etag])
         assertThatResponse()
           .isOk()
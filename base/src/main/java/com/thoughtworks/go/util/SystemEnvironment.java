@@ -30,6 +30,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.zip.Deflater;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
@@ -110,7 +111,11 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static final String TFS_SOCKET_TIMEOUT_PROPERTY = "tfs.socket.block.timeout";
 
     public static GoSystemProperty<Integer> RESOLVE_FANIN_MAX_BACK_TRACK_LIMIT = new CachedProperty<>(new GoIntSystemProperty("resolve.fanin.max.backtrack.limit", 100));
+    public static GoSystemProperty<Boolean> RESOLVE_FANIN_CACHE_ENABLED = new GoBooleanSystemProperty("resolve.fanin.cache.enabled", true);
     public static GoSystemProperty<Integer> MATERIAL_UPDATE_INACTIVE_TIMEOUT = new CachedProperty<>(new GoIntSystemProperty("material.update.inactive.timeout", 15));
+    public static GoSystemProperty<Integer> MATERIAL_UPDATE_MAX_CONCURRENT_PER_HOST = new GoIntSystemProperty("go.material.update.max.concurrent.per.host", 0);
+    public static GoSystemProperty<Integer> MATERIAL_UPDATE_MAX_BACKOFF_FACTOR = new GoIntSystemProperty("go.material.update.max.backoff.factor", 1);
+    public static GoSystemProperty<Integer> MATERIAL_UPDATE_WEBHOOK_POLL_FACTOR = new GoIntSystemProperty("go.material.update.webhook.poll.factor", 4);
 
     public static GoSystemProperty<Integer> H2_DB_TRACE_LEVEL = new GoIntSystemProperty("h2.trace.level", 1);
     public static GoSystemProperty<Integer> H2_DB_TRACE_FILE_SIZE_MB = new GoIntSystemProperty("h2.trace.file.size.mb", 16);
@@ -140,13 +145,27 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static GoSystemProperty<String> COMMAND_REPOSITORY_DIRECTORY = new CachedProperty<>(new GoStringSystemProperty("command.repo.dir", DB_BASE_DIR + "command_repository"));
     public static GoSystemProperty<Integer> IDLE_TIMEOUT = new GoIntSystemProperty("idle.timeout", 30000);
     public static GoSystemProperty<Integer> RESPONSE_BUFFER_SIZE = new GoIntSystemProperty("response.buffer.size", 32768);
+    public static GoSystemProperty<Integer> CONSOLE_PUBLISH_BUFFER_SIZE_IN_BYTES = new GoIntSystemProperty("go.console.publish.buffer.size.bytes", 1024 * 1024);
+    public static GoSystemProperty<Boolean> ARTIFACT_ZIP_STREAMING_ENABLED = new GoBooleanSystemProperty("go.artifact.zip.streaming.enabled", true);
+    public static GoSystemProperty<Boolean> ARTIFACT_ZIP_CACHE_ENABLED = new GoBooleanSystemProperty("go.artifact.zip.cache.enabled", false);
+    public static GoSystemProperty<Boolean> ARTIFACT_DEDUPLICATION_ENABLED = new GoBooleanSystemProperty("go.artifact.deduplication.enabled", false);
+    public static GoSystemProperty<Integer> ARTIFACT_CLEANUP_PARALLELISM = new GoIntSystemProperty("go.artifact.cleanup.parallelism", 4);
+    public static GoSystemProperty<Long> ARTIFACT_CLEANUP_MAX_BYTES_PER_SECOND = new GoLongSystemProperty("go.artifact.cleanup.max.bytes.per.second", 0L);
+    public static GoSystemProperty<Boolean> INCREMENTAL_BACKUPS_ENABLED = new GoBooleanSystemProperty("go.server.backup.incremental", false);
+    public static GoSystemProperty<Integer> ARTIFACT_ZIP_COMPRESSION_LEVEL = new GoIntSystemProperty("go.artifact.zip.compression.level", Deflater.DEFAULT_COMPRESSION);
+    public static GoSystemProperty<Integer> ARTIFACT_CHECKSUM_THREADS = new GoIntSystemProperty("go.artifact.checksum.threads", Runtime.getRuntime().availableProcessors());
+    public static GoSystemProperty<Integer> ARTIFACT_PUBLISH_CONCURRENCY = new GoIntSystemProperty("go.artifact.publish.concurrency", 1);
+    public static GoSystemProperty<Integer> CONSOLE_LOG_LINE_INDEX_INTERVAL = new CachedProperty<>(new GoIntSystemProperty("go.console.log.line.index.interval", 1000));
     public static final GoSystemProperty<Integer> API_REQUEST_IDLE_TIMEOUT_IN_SECONDS = new GoIntSystemProperty("api.request.idle.timeout.seconds", 300);
     public static final GoSystemProperty<Integer> AGENT_REQUEST_IDLE_TIMEOUT_IN_SECONDS = new GoIntSystemProperty("agent.request.idle.timeout.seconds", 30);
+    public static final GoSystemProperty<Integer> AGENT_WORK_LONG_POLL_TIMEOUT_IN_MILLIS = new GoIntSystemProperty("go.agent.work.long.poll.timeout.millis", 0);
     public static final GoSystemProperty<Integer> GO_SERVER_SESSION_TIMEOUT_IN_SECONDS = new GoIntSystemProperty("go.server.session.timeout.seconds", 60 * 60 * 24 * 14);
     public static final GoSystemProperty<Integer> GO_SERVER_SESSION_COOKIE_MAX_AGE_IN_SECONDS = new GoIntSystemProperty("go.sessioncookie.maxage.seconds", 60 * 60 * 24 * 14);
     public static final GoSystemProperty<Boolean> GO_SERVER_SESSION_COOKIE_SECURE = new GoBooleanSystemProperty("go.sessioncookie.secure", false);
     public static final GoSystemProperty<String> AGENT_EXTRA_PROPERTIES = new GoStringSystemProperty("gocd.agent.extra.properties", "");
     public static final GoSystemProperty<Integer> JMS_LISTENER_BACKOFF_TIME = new GoIntSystemProperty("go.jms.listener.backoff.time.in.milliseconds", 5000);
+    public static final GoSystemProperty<String> MESSAGING_IMPLEMENTATION = new GoStringSystemProperty("go.messaging.implementation", "activemq");
+    public static final GoSystemProperty<Integer> IN_MEMORY_MESSAGING_QUEUE_CAPACITY = new GoIntSystemProperty("go.messaging.in.memory.queue.capacity", 10000);
 
     public static final GoSystemProperty<Integer> GO_SERVER_AUTHORIZATION_EXTENSION_CALLS_CACHE_TIMEOUT_IN_SECONDS = new GoIntSystemProperty("go.server.authorization.extension.calls.cache.timeout.in.secs", 60 * 30);
 
@@ -202,7 +221,11 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static GoSystemProperty<Boolean> GO_API_WITH_SAFE_MODE = new GoBooleanSystemProperty("go.api.with.safe.mode", true);
     public static GoSystemProperty<Integer> MAX_PENDING_AGENTS_ALLOWED = new GoIntSystemProperty("max.pending.agents.allowed", 100);
     public static GoSystemProperty<Boolean> CHECK_AND_REMOVE_DUPLICATE_MODIFICATIONS = new GoBooleanSystemProperty("go.modifications.removeDuplicates", true);
+    public static GoSystemProperty<Integer> MODIFICATIONS_BULK_INSERT_THRESHOLD = new GoIntSystemProperty("go.modifications.bulk.insert.threshold", 100);
+    public static GoSystemProperty<Integer> MODIFICATIONS_BULK_INSERT_BATCH_SIZE = new GoIntSystemProperty("go.modifications.bulk.insert.batch.size", 500);
     public static GoSystemProperty<String> GO_AGENT_KEYSTORE_PASSWORD = new GoStringSystemProperty("go.agent.keystore.password", "agent5s0repa55w0rd");
+    public static GoSystemProperty<Long> AGENT_ARTIFACT_CACHE_MAX_SIZE_MB = new GoLongSystemProperty("go.agent.artifact.cache.max.size.mb", 0L);
+    public static GoSystemProperty<String> AGENT_ARTIFACT_CACHE_DIR = new GoStringSystemProperty("go.agent.artifact.cache.dir", "artifact-cache");
     public static GoSystemProperty<String> GO_SERVER_KEYSTORE_PASSWORD = new GoStringSystemProperty("go.server.keystore.password", "serverKeystorepa55w0rd");
     private static final GoSystemProperty<Boolean> GO_AGENT_USE_SSL_CONTEXT = new GoBooleanSystemProperty("go.agent.reuse.ssl.context", true);
     public static final GoSystemProperty<Boolean> GO_DIAGNOSTICS_MODE = new GoBooleanSystemProperty("go.diagnostics.mode", false);
@@ -230,6 +253,7 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     private static GoSystemProperty<Boolean> GO_PLUGIN_CLASSLOADER_OLD = new GoBooleanSystemProperty("gocd.plugins.classloader.old", false);
     public static final GoSystemProperty<String> LOADING_PAGE = new GoStringSystemProperty("loading.page.resource.path", "/loading_pages/new.loading.page.html");
     public static GoSystemProperty<Long> NOTIFICATION_PLUGIN_MESSAGES_TTL = new GoLongSystemProperty("plugins.notification.message.ttl.millis", 2 * 60 * 1000L);
+    public static GoSystemProperty<Long> ELASTIC_AGENT_ASSIGNMENT_DECISION_TTL = new GoLongSystemProperty("go.elastic.agent.assignment.decision.ttl.millis", 0L);
 
     public static GoSystemProperty<Boolean> ENABLE_HSTS_HEADER = new GoBooleanSystemProperty("gocd.enable.hsts.header", false);
     public static GoSystemProperty<Long> HSTS_HEADER_MAX_AGE = new GoLongSystemProperty("gocd.hsts.header.max.age", ONE_YEAR);
@@ -733,6 +757,10 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
         return MATERIAL_UPDATE_IDLE_INTERVAL.getValue();
     }
 
+    public long getElasticAgentAssignmentDecisionTtl() {
+        return ELASTIC_AGENT_ASSIGNMENT_DECISION_TTL.getValue();
+    }
+
     public boolean isDefaultDbProvider() {
         return GO_DATABASE_PROVIDER.getValue().equals(H2_DATABASE);
     }
@@ -773,6 +801,27 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
         return GO_FETCH_ARTIFACT_TEMPLATE_AUTO_SUGGEST.getValue();
     }
 
+    public boolean isArtifactZipStreamingEnabled() {
+        return get(ARTIFACT_ZIP_STREAMING_ENABLED);
+    }
+
+    public boolean isArtifactZipCacheEnabled() {
+        return get(ARTIFACT_ZIP_CACHE_ENABLED);
+    }
+
+    /**
+     * Level used to zip artifact folders for download, from {@link Deflater#NO_COMPRESSION} (store) to
+     * {@link Deflater#BEST_COMPRESSION}. Anything out of range falls back to {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public int artifactZipCompressionLevel() {
+        int level = get(ARTIFACT_ZIP_COMPRESSION_LEVEL);
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            LOG.warn("Ignoring invalid value {} for {}, using the default compression level", level, ARTIFACT_ZIP_COMPRESSION_LEVEL.propertyName());
+            return Deflater.DEFAULT_COMPRESSION;
+        }
+        return level;
+    }
+
     public String getUpdateServerUrl() {
         return GO_UPDATE_SERVER_URL.getValue();
     }
@@ -19,6 +19,7 @@ import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -137,6 +138,10 @@ public class ZipUtil {
         }
         try {
             outputFile.getParentFile().mkdirs();
+            // an existing file may be a hard link shared with other files, so it is replaced rather than written over
+            if (outputFile.isFile()) {
+                Files.delete(outputFile.toPath());
+            }
             try (FileOutputStream os = new FileOutputStream(outputFile)) {
                 IOUtils.copyLarge(entryInputStream, os);
                 if (zipEntryHandler != null) {
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.regex.Pattern;
+
+/**
+ * @understands keeping artifacts fetched by an agent on disk, keyed by their md5 checksum, so that fetching the same
+ * artifact again does not need to download it from the server. Artifacts are copied in and out of the cache rather than
+ * linked, so that nothing a job does to its working directory can change a cache entry, or the other way around.
+ */
+public class ArtifactFetchCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ArtifactFetchCache.class);
+    private static final Pattern MD5 = Pattern.compile("[0-9a-f]{32}");
+    private static final String IN_PROGRESS_SUFFIX = ".tmp";
+
+    private final File cacheDir;
+    private final long maxSizeInBytes;
+
+    public ArtifactFetchCache(SystemEnvironment systemEnvironment) {
+        this(new File(systemEnvironment.get(SystemEnvironment.AGENT_ARTIFACT_CACHE_DIR)),
+                systemEnvironment.get(SystemEnvironment.AGENT_ARTIFACT_CACHE_MAX_SIZE_MB) * FileUtils.ONE_MB);
+    }
+
+    public ArtifactFetchCache(File cacheDir, long maxSizeInBytes) {
+        this.cacheDir = cacheDir;
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    public static ArtifactFetchCache disabled() {
+        return new ArtifactFetchCache(null, 0);
+    }
+
+    public boolean isEnabled() {
+        return maxSizeInBytes > 0;
+    }
+
+    /**
+     * Puts a copy of the cached artifact with the given checksum at the destination.
+     *
+     * @return false when the artifact is not cached, in which case the destination is left alone
+     */
+    public synchronized boolean fetchInto(String md5, File destination) {
+        File cached = entryFor(md5);
+        if (cached == null || !cached.isFile()) {
+            return false;
+        }
+        try {
+            // guards against an entry which was damaged on disk
+            if (!md5.equalsIgnoreCase(md5Of(cached))) {
+                LOG.warn("[Artifact Cache] Discarding cached artifact {} as its contents no longer match its checksum", cached);
+                FileUtils.deleteQuietly(cached);
+                return false;
+            }
+            Files.deleteIfExists(destination.toPath());
+            FileUtils.copyFile(cached, destination, false);
+            cached.setLastModified(System.currentTimeMillis());
+            return true;
+        } catch (IOException e) {
+            LOG.warn("[Artifact Cache] Could not use cached artifact {} for {}", cached, destination, e);
+            return false;
+        }
+    }
+
+    /**
+     * Remembers an artifact whose contents are known to match the given checksum, evicting the least recently used
+     * artifacts to stay within the size of the cache.
+     */
+    public synchronized void store(String md5, File artifact) {
+        File cached = entryFor(md5);
+        if (cached == null || !artifact.isFile() || artifact.length() > maxSizeInBytes) {
+            return;
+        }
+        if (cached.isFile()) {
+            cached.setLastModified(System.currentTimeMillis());
+            return;
+        }
+
+        File inProgress = new File(cacheDir, cached.getName() + IN_PROGRESS_SUFFIX);
+        try {
+            FileUtils.forceMkdir(cacheDir);
+            evictToMakeRoomFor(artifact.length());
+            FileUtils.deleteQuietly(inProgress);
+            FileUtils.copyFile(artifact, inProgress, false);
+            Files.move(inProgress.toPath(), cached.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            LOG.debug("[Artifact Cache] Cached artifact {} as {}", artifact, cached);
+        } catch (IOException e) {
+            LOG.warn("[Artifact Cache] Could not cache artifact {}", artifact, e);
+            FileUtils.deleteQuietly(inProgress);
+        }
+    }
+
+    private File entryFor(String md5) {
+        if (!isEnabled() || md5 == null || !MD5.matcher(md5.toLowerCase()).matches()) {
+            return null;
+        }
+        return new File(cacheDir, md5.toLowerCase());
+    }
+
+    private void evictToMakeRoomFor(long size) {
+        File[] entries = cacheDir.listFiles(file -> file.isFile() && MD5.matcher(file.getName()).matches());
+        if (entries == null) {
+            return;
+        }
+        long total = Arrays.stream(entries).mapToLong(File::length).sum();
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+        for (File leastRecentlyUsed : entries) {
+            if (total + size <= maxSizeInBytes) {
+                return;
+            }
+            total -= leastRecentlyUsed.length();
+            FileUtils.deleteQuietly(leastRecentlyUsed);
+        }
+    }
+
+    private String md5Of(File file) throws IOException {
+        try (InputStream stream = new FileInputStream(file)) {
+            return DigestUtils.md5Hex(stream);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * A sparse line-offset index kept next to a console log. Every {@code interval} lines, the byte offset at which that
+ * line starts is recorded, so that a reader interested in line {@code n} can seek to the closest preceding entry
+ * instead of decoding the whole log from the beginning.
+ * <p>
+ * The index file is a plain sequence of big-endian longs; entry {@code k} holds the byte offset of line
+ * {@code (k + 1) * interval}. It is only ever an accelerator: a missing, partial or stale index simply degrades
+ * to reading from the start of the log.
+ */
+public class ConsoleLogLineIndex {
+    public static final String INDEX_FILE_EXTENSION = ".idx";
+    private static final int ENTRY_SIZE = Long.BYTES;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Path logFile;
+    private final Path indexFile;
+    private final int interval;
+
+    public ConsoleLogLineIndex(Path logFile, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Line index interval must be positive, was " + interval);
+        }
+        this.logFile = logFile;
+        this.indexFile = indexFileFor(logFile);
+        this.interval = interval;
+    }
+
+    public static Path indexFileFor(Path logFile) {
+        return Paths.get(logFile.toString() + INDEX_FILE_EXTENSION);
+    }
+
+    /**
+     * Byte offsets can only be computed without decoding when line terminators are single bytes that never occur
+     * inside a multi-byte sequence.
+     */
+    public static boolean supports(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset) || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    public Path indexFile() {
+        return indexFile;
+    }
+
+    /**
+     * Scans the log from the last indexed line up to the current end of file and appends any new entries. The cost
+     * is proportional to the bytes written since the last entry, not to the size of the log.
+     */
+    public void update() throws IOException {
+        if (!Files.exists(logFile)) {
+            return;
+        }
+
+        try (FileChannel index = FileChannel.open(indexFile, CREATE, READ, WRITE);
+             FileChannel log = FileChannel.open(logFile, READ)) {
+            FileLock lock = tryLock(index);
+            if (lock == null) {
+                return; // somebody else is updating this index; they will pick up our bytes too
+            }
+
+            try {
+                appendNewEntries(index, log);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * @return the closest indexed position at or before {@code line}; {@link Position#START} when there is none
+     */
+    public Position positionAtOrBefore(long line) {
+        if (line < interval || !Files.exists(indexFile)) {
+            return Position.START;
+        }
+
+        try (FileChannel index = FileChannel.open(indexFile, READ)) {
+            long entries = index.size() / ENTRY_SIZE;
+            long entry = Math.min(line / interval, entries);
+            if (entry == 0) {
+                return Position.START;
+            }
+
+            long offset = readEntry(index, entry - 1);
+            if (offset < 0 || offset > Files.size(logFile)) {
+                return Position.START;
+            }
+            return new Position(entry * interval, offset);
+        } catch (IOException e) {
+            return Position.START;
+        }
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(indexFile);
+    }
+
+    private void appendNewEntries(FileChannel index, FileChannel log) throws IOException {
+        long entries = index.size() / ENTRY_SIZE;
+        long offset = entries == 0 ? 0L : readEntry(index, entries - 1);
+
+        if (offset > log.size()) {
+            // the log was replaced underneath us; start over
+            entries = 0;
+            offset = 0L;
+        }
+        index.truncate(entries * ENTRY_SIZE);
+        index.position(entries * ENTRY_SIZE);
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long end = log.size();
+        long linesSinceEntry = 0;
+        boolean pendingCarriageReturn = false;
+
+        log.position(offset);
+        long bufferStart = offset;
+        while (bufferStart < end) {
+            buffer.clear();
+            if (buffer.limit() > end - bufferStart) {
+                buffer.limit((int) (end - bufferStart));
+            }
+            int read = log.read(buffer);
+            if (read <= 0) {
+                break;
+            }
+
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                long lineEnd = -1;
+
+                if (pendingCarriageReturn) {
+                    pendingCarriageReturn = false;
+                    lineEnd = (b == '\n') ? bufferStart + i + 1 : bufferStart + i;
+                    if (b == '\r') {
+                        pendingCarriageReturn = true;
+                    }
+                } else if (b == '\n') {
+                    lineEnd = bufferStart + i + 1;
+                } else if (b == '\r') {
+                    pendingCarriageReturn = true;
+                }
+
+                if (lineEnd >= 0 && ++linesSinceEntry == interval) {
+                    linesSinceEntry = 0;
+                    entry.clear();
+                    entry.putLong(lineEnd).flip();
+                    index.write(entry);
+                }
+            }
+            bufferStart += read;
+        }
+        // a trailing '\r' may still turn into "\r\n", so the line it ends is only indexed on the next update
+    }
+
+    private static long readEntry(FileChannel index, long entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE);
+        long position = entry * ENTRY_SIZE;
+        while (buffer.hasRemaining()) {
+            if (index.read(buffer, position + buffer.position()) < 0) {
+                return -1L;
+            }
+        }
+        buffer.flip();
+        return buffer.getLong();
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    public static class Position {
+        public static final Position START = new Position(0L, 0L);
+
+        private final long line;
+        private final long byteOffset;
+
+        Position(long line, long byteOffset) {
+            this.line = line;
+            this.byteOffset = byteOffset;
+        }
+
+        public long line() {
+            return line;
+        }
+
+        public long byteOffset() {
+            return byteOffset;
+        }
+    }
+}
@@ -17,19 +17,27 @@ package com.thoughtworks.go.domain;
 
 import com.thoughtworks.go.util.SystemEnvironment;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
  * Encapsulates a stream of lines from a console log file while keeping track of the number of lines processed
- * as well as the starting line to read.
+ * as well as the starting line to read. When a {@link ConsoleLogLineIndex} is available, reading starts from the
+ * closest indexed byte offset instead of the beginning of the file.
  */
 public class ConsoleStreamer implements ConsoleConsumer {
     private Path path;
+    private ConsoleLogLineIndex index;
     private Stream stream;
     private Iterator iterator;
 
@@ -37,8 +45,13 @@ public class ConsoleStreamer implements ConsoleConsumer {
     private long count = 0L;
 
     public ConsoleStreamer(Path path, long start) {
+        this(path, start, null);
+    }
+
+    public ConsoleStreamer(Path path, long start, ConsoleLogLineIndex index) {
         this.path = path;
         this.start = (start < 0L) ? 0L : start;
+        this.index = index;
     }
 
     /**
@@ -54,7 +67,7 @@ public class ConsoleStreamer implements ConsoleConsumer {
     public long stream(Consumer<String> action) throws IOException {
         long linesStreamed = 0L;
 
-        if (null == stream) stream = Files.lines(path, new SystemEnvironment().consoleLogCharsetAsCharset()).skip(start);
+        if (null == stream) stream = openStream();
         if (null == iterator) iterator = stream.iterator();
 
         while (iterator.hasNext()) {
@@ -66,6 +79,31 @@ public class ConsoleStreamer implements ConsoleConsumer {
         return linesStreamed;
     }
 
+    private Stream<String> openStream() throws IOException {
+        Charset charset = new SystemEnvironment().consoleLogCharsetAsCharset();
+        ConsoleLogLineIndex.Position position = (null == index) ? ConsoleLogLineIndex.Position.START : index.positionAtOrBefore(start);
+
+        if (position.byteOffset() == 0L) {
+            return Files.lines(path, charset).skip(start);
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            channel.position(position.byteOffset());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel, charset.newDecoder(), -1));
+        return reader.lines().skip(start - position.line()).onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @Override
     public void close() {
         if (null != stream) {
@@ -63,6 +63,13 @@ public class DownloadAction {
         }
     }
 
+    /**
+     * @return true when the handler could put the artifact in place from the cache, without going to the server
+     */
+    public boolean performFromCache(FetchHandler handler, ArtifactFetchCache cache) {
+        return handler.fetchFromCache(cache, goPublisher);
+    }
+
     private void publishDownloadError(String url, String cause, long backout) {
         String message = String.format("Could not fetch artifact %s. Pausing %s seconds to retry. Error was : %s", url, backout, cause);
         goPublisher.taggedConsumeLineWithPrefix(GoPublisher.ERR, message);
@@ -30,4 +30,14 @@ public interface FetchHandler extends Serializable {
 
     void useArtifactMd5Checksums(ArtifactMd5Checksums artifactMd5Checksums);
 
+    /**
+     * @return true when the artifact was put in place from the cache, so that it need not be downloaded
+     */
+    default boolean fetchFromCache(ArtifactFetchCache cache, GoPublisher goPublisher) {
+        return false;
+    }
+
+    default void addToCache(ArtifactFetchCache cache) {
+    }
+
 }
@@ -20,13 +20,13 @@ import com.thoughtworks.go.validation.ChecksumValidator;
 import com.thoughtworks.go.work.GoPublisher;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletResponse;
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
 import java.net.URLEncoder;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
@@ -35,13 +35,15 @@ import java.util.Date;
 
 import static java.lang.String.format;
 
-public class FileHandler implements FetchHandler {
+public class FileHandler implements ResumableFetchHandler {
 
     private final File artifact;
     private final String srcFile;
     private static final Logger LOG = LoggerFactory.getLogger(FileHandler.class);
     private ArtifactMd5Checksums artifactMd5Checksums;
     private ChecksumValidationPublisher checksumValidationPublisher;
+    private transient String downloadedMd5;
+    private transient boolean interrupted;
 
     public FileHandler(File artifact, String srcFile) {
         this.artifact = artifact;
@@ -64,14 +66,39 @@ public class FileHandler implements FetchHandler {
 
     @Override
     public void handle(InputStream stream) throws IOException {
+        download(stream, getMd5(), false);
+    }
+
+    @Override
+    public long resumableFrom() {
+        return interrupted && artifact.isFile() ? artifact.length() : 0;
+    }
+
+    @Override
+    public void handleRemainder(InputStream stream, long offset) throws IOException {
+        if (offset != resumableFrom()) {
+            throw new IOException(format("Cannot resume download of artifact %s from byte %d", artifact.getName(), offset));
+        }
+        LOG.info("[Artifact File Download] Resuming download of artifact {} from byte {}", artifact.getName(), offset);
         MessageDigest digest = getMd5();
-        try (DigestInputStream digestInputStream = new DigestInputStream(stream, digest)) {
+        try (DigestInputStream alreadyDownloaded = new DigestInputStream(new FileInputStream(artifact), digest)) {
+            IOUtils.copyLarge(alreadyDownloaded, NullOutputStream.NULL_OUTPUT_STREAM);
+        }
+        download(stream, digest, true);
+    }
+
+    private void download(InputStream stream, MessageDigest digest, boolean append) throws IOException {
+        interrupted = true;
+        try (DigestInputStream digestInputStream = new DigestInputStream(stream, digest);
+             OutputStream output = FileUtils.openOutputStream(artifact, append)) {
             LOG.info("[Artifact File Download] [{}] Download of artifact {} started", new Date(), artifact.getName());
-            FileUtils.copyInputStreamToFile(digestInputStream, artifact);
+            IOUtils.copyLarge(digestInputStream, output);
             LOG.info("[Artifact File Download] [{}] Download of artifact {} ended", new Date(), artifact.getName());
         }
+        interrupted = false;
 
         String artifactMD5 = Hex.encodeHexString(digest.digest());
+        downloadedMd5 = artifactMD5;
         new ChecksumValidator(artifactMd5Checksums).validate(srcFile, artifactMD5, checksumValidationPublisher);
     }
 
@@ -95,6 +122,29 @@ public class FileHandler implements FetchHandler {
         this.artifactMd5Checksums = artifactMd5Checksums;
     }
 
+    @Override
+    public boolean fetchFromCache(ArtifactFetchCache cache, GoPublisher goPublisher) {
+        String expectedMd5 = expectedMd5();
+        if (expectedMd5 == null || !cache.fetchInto(expectedMd5, artifact)) {
+            return false;
+        }
+        LOG.info("[Artifact File Download] Artifact {} put in place from the artifact cache", artifact.getName());
+        goPublisher.taggedConsumeLineWithPrefix(GoPublisher.OUT, format("Saved artifact to [%s] from the agent's artifact cache after verifying the integrity of its contents.", artifact));
+        return true;
+    }
+
+    @Override
+    public void addToCache(ArtifactFetchCache cache) {
+        String expectedMd5 = expectedMd5();
+        if (expectedMd5 != null && expectedMd5.equalsIgnoreCase(downloadedMd5)) {
+            cache.store(expectedMd5, artifact);
+        }
+    }
+
+    private String expectedMd5() {
+        return artifactMd5Checksums == null ? null : artifactMd5Checksums.md5For(srcFile);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
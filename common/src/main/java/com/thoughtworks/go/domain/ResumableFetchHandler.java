@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link FetchHandler} which can pick up an interrupted download where it stopped instead of downloading it again.
+ */
+public interface ResumableFetchHandler extends FetchHandler {
+    /**
+     * @return the number of bytes already received by an interrupted download, which can be picked up from there
+     * rather than downloaded again; 0 when there is nothing to resume
+     */
+    long resumableFrom();
+
+    /**
+     * Picks up an interrupted download with the rest of the content, starting at the given offset.
+     */
+    void handleRemainder(InputStream stream, long offset) throws IOException;
+}
@@ -47,13 +47,23 @@ public class FetchArtifactBuilder extends Builder {
     }
 
     public void fetch(DownloadAction downloadAction, URLService urlService) throws Exception {
+        fetch(downloadAction, urlService, ArtifactFetchCache.disabled());
+    }
+
+    public void fetch(DownloadAction downloadAction, URLService urlService, ArtifactFetchCache artifactFetchCache) throws Exception {
         downloadChecksumFile(downloadAction, urlService.baseRemoteURL());
-        downloadArtifact(downloadAction, urlService.baseRemoteURL());
+        downloadArtifact(downloadAction, urlService.baseRemoteURL(), artifactFetchCache);
     }
 
-    private void downloadArtifact(DownloadAction downloadAction, String baseRemoteUrl) throws Exception {
+    private void downloadArtifact(DownloadAction downloadAction, String baseRemoteUrl, ArtifactFetchCache artifactFetchCache) throws Exception {
         handler.useArtifactMd5Checksums(checksumFileHandler.getArtifactMd5Checksums());
+        if (artifactFetchCache.isEnabled() && downloadAction.performFromCache(handler, artifactFetchCache)) {
+            return;
+        }
         pullArtifact(downloadAction, handler.url(baseRemoteUrl, artifactLocator()), handler);
+        if (artifactFetchCache.isEnabled()) {
+            handler.addToCache(artifactFetchCache);
+        }
     }
 
     private void downloadChecksumFile(DownloadAction downloadAction, String baseRemoteUrl) throws Exception {
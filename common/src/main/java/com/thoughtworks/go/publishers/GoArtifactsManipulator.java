@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.publishers;
 
+import com.thoughtworks.go.domain.ArtifactFetchCache;
 import com.thoughtworks.go.domain.DownloadAction;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.Property;
@@ -37,8 +38,15 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.Deflater;
 
 import static com.thoughtworks.go.util.ArtifactLogUtil.getConsoleOutputFolderAndFileNameUrl;
@@ -55,13 +63,21 @@ public class GoArtifactsManipulator {
     private final HttpService httpService;
     private final URLService urlService;
     private final ZipUtil zipUtil;
+    private final SystemEnvironment systemEnvironment;
+    private final ArtifactFetchCache artifactFetchCache;
     private static final Logger LOGGER = LoggerFactory.getLogger(GoArtifactsManipulator.class);
 
-    @Autowired
     public GoArtifactsManipulator(HttpService httpService, URLService urlService, ZipUtil zipUtil) {
+        this(httpService, urlService, zipUtil, new SystemEnvironment());
+    }
+
+    @Autowired
+    public GoArtifactsManipulator(HttpService httpService, URLService urlService, ZipUtil zipUtil, SystemEnvironment systemEnvironment) {
         this.httpService = httpService;
         this.urlService = urlService;
         this.zipUtil = zipUtil;
+        this.systemEnvironment = systemEnvironment;
+        this.artifactFetchCache = new ArtifactFetchCache(systemEnvironment);
     }
 
     public void publish(DefaultGoPublisher goPublisher, String destPath, File source, JobIdentifier jobIdentifier) {
@@ -73,15 +89,11 @@ public class GoArtifactsManipulator {
 
         int publishingAttempts = 0;
         Throwable lastException = null;
+        Properties checksums = null;
         while (publishingAttempts < PUBLISH_MAX_RETRIES) {
-            File tmpDir = null;
             try {
                 publishingAttempts++;
 
-                tmpDir = FileUtil.createTempFolder();
-                File dataToUpload = new File(tmpDir, source.getName() + ".zip");
-                zipUtil.zip(source, dataToUpload, Deflater.BEST_SPEED);
-
                 long size = 0;
                 if (source.isDirectory()) {
                     size = FileUtils.sizeOfDirectory(source);
@@ -94,7 +106,11 @@ public class GoArtifactsManipulator {
                 String normalizedDestPath = FilenameUtils.separatorsToUnix(destPath);
                 String url = urlService.getUploadUrlOfAgent(jobIdentifier, normalizedDestPath, publishingAttempts);
 
-                int statusCode = httpService.upload(url, size, dataToUpload, artifactChecksums(source, normalizedDestPath));
+                if (checksums == null) {
+                    checksums = artifactChecksums(source, normalizedDestPath);
+                }
+
+                int statusCode = httpService.upload(url, size, new ZippingContentBody(source, zipUtil, Deflater.BEST_SPEED), checksums);
 
                 if (statusCode == HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE) {
                     String message = String.format("Artifact upload for file %s (Size: %s) was denied by the server. This usually happens when server runs out of disk space.",
@@ -113,8 +129,6 @@ public class GoArtifactsManipulator {
                 LOGGER.error(message, e);
                 goPublisher.taggedConsumeLineWithPrefix(PUBLISH_ERR, message);
                 lastException = e;
-            } finally {
-                FileUtils.deleteQuietly(tmpDir);
             }
         }
         if (lastException != null) {
@@ -137,13 +151,49 @@ public class GoArtifactsManipulator {
     private Properties computeChecksumForContentsOfDirectory(File directory, String destPath) throws IOException {
         Collection<File> fileStructure = FileUtils.listFiles(directory, null, true);
         Properties checksumProperties = new Properties();
-        for (File file : fileStructure) {
-            String filePath = removeStart(file.getAbsolutePath(), directory.getParentFile().getAbsolutePath());
-            try (FileInputStream inputStream = new FileInputStream(file)) {
-                checksumProperties.setProperty(getEffectiveFileName(destPath, FilenameUtils.separatorsToUnix(filePath)), md5Hex(inputStream));
+        int threads = Math.min(fileStructure.size(), systemEnvironment.get(SystemEnvironment.ARTIFACT_CHECKSUM_THREADS));
+        if (threads <= 1) {
+            for (File file : fileStructure) {
+                addChecksum(checksumProperties, directory, file, destPath);
+            }
+            return checksumProperties;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "artifact-checksum-" + directory.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> checksums = new ArrayList<>(fileStructure.size());
+            for (File file : fileStructure) {
+                checksums.add(executor.submit(() -> {
+                    addChecksum(checksumProperties, directory, file, destPath);
+                    return null;
+                }));
+            }
+            for (Future<?> checksum : checksums) {
+                checksum.get();
             }
+            return checksumProperties;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while computing checksums for " + directory.getAbsolutePath(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to compute checksums for " + directory.getAbsolutePath(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void addChecksum(Properties checksumProperties, File directory, File file, String destPath) throws IOException {
+        String filePath = removeStart(file.getAbsolutePath(), directory.getParentFile().getAbsolutePath());
+        try (FileInputStream inputStream = new FileInputStream(file)) {
+            checksumProperties.setProperty(getEffectiveFileName(destPath, FilenameUtils.separatorsToUnix(filePath)), md5Hex(inputStream));
         }
-        return checksumProperties;
     }
 
     private Properties computeChecksumForFile(String sourceName, String md5, String destPath) {
@@ -168,7 +218,7 @@ public class GoArtifactsManipulator {
             String fetchMsg = String.format("Fetching artifact [%s] from [%s]", fetchArtifactBuilder.getSrc(),
                     fetchArtifactBuilder.jobLocatorForDisplay());
             goPublisher.taggedConsumeLineWithPrefix(DefaultGoPublisher.OUT, fetchMsg);
-            fetchArtifactBuilder.fetch(new DownloadAction(httpService, goPublisher, new SystemTimeClock()), urlService);
+            fetchArtifactBuilder.fetch(new DownloadAction(httpService, goPublisher, new SystemTimeClock()), urlService, artifactFetchCache);
         } catch (Exception e) {
             String fetchMsg = String.format("Failed to save artifact [%s] to [%s]",
                     fetchArtifactBuilder.getSrc(), fetchArtifactBuilder.getDest());
@@ -199,6 +249,6 @@ public class GoArtifactsManipulator {
     public ConsoleOutputTransmitter createConsoleOutputTransmitter(JobIdentifier jobIdentifier,
                                                                    AgentIdentifier agentIdentifier, String consoleLogCharset) {
         String consoleUrl = urlService.getUploadUrlOfAgent(jobIdentifier, getConsoleOutputFolderAndFileNameUrl());
-        return new ConsoleOutputTransmitter(new RemoteConsoleAppender(consoleUrl, httpService, consoleLogCharset));
+        return new ConsoleOutputTransmitter(new RemoteConsoleAppender(consoleUrl, httpService, consoleLogCharset), Charset.forName(consoleLogCharset));
     }
 }
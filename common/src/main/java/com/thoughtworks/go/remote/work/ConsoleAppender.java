@@ -16,7 +16,12 @@
 package com.thoughtworks.go.remote.work;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 
 public interface ConsoleAppender {
     void append(String content) throws IOException;
+
+    default void append(byte[] content, int offset, int length, Charset charset) throws IOException {
+        append(new String(content, offset, length, charset));
+    }
 }
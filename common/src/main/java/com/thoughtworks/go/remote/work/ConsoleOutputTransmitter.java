@@ -17,38 +17,68 @@ package com.thoughtworks.go.remote.work;
 
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.command.TaggedStreamConsumer;
-import org.apache.commons.collections4.queue.CircularFifoQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
-import static java.lang.String.format;
+import static com.thoughtworks.go.util.SystemEnvironment.CONSOLE_PUBLISH_BUFFER_SIZE_IN_BYTES;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+/**
+ * Buffers tagged console lines as bytes and ships them to the server in chunks. Once the buffer holds more than the
+ * configured number of bytes, the thread producing output flushes it to the server itself, which slows a chatty build
+ * down to the rate at which the server accepts output. While the server cannot be reached, that size is a hard cap:
+ * lines past it are dropped and counted, and a notice of how many were lost is sent once the server is back.
+ */
 public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(ConsoleOutputTransmitter.class);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final String NO_TAG = "  ";
 
-    private final CircularFifoQueue buffer = new CircularFifoQueue(10 * 1024); // maximum 10k lines
     private final ConsoleAppender consoleAppender;
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+    private final Charset charset;
+    private final int maxBufferedBytes;
     private final ScheduledThreadPoolExecutor executor;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final Object bufferLock = new Object();
+    private final Object flushLock = new Object();
+    private final StringBuilder line = new StringBuilder();
+    private ConsoleBuffer buffer = new ConsoleBuffer();
+    private ConsoleBuffer sending = new ConsoleBuffer();
+    private long timestampMillis = -1;
+    private String timestamp;
+    private volatile boolean lastFlushFailed;
+    private long droppedLines;
 
     public ConsoleOutputTransmitter(ConsoleAppender consoleAppender) {
-        this(consoleAppender, new SystemEnvironment().getConsolePublishInterval(), new ScheduledThreadPoolExecutor(1));
+        this(consoleAppender, UTF_8);
+    }
+
+    public ConsoleOutputTransmitter(ConsoleAppender consoleAppender, Charset charset) {
+        this(consoleAppender, charset, new SystemEnvironment().getConsolePublishInterval(), new ScheduledThreadPoolExecutor(1));
     }
 
     protected ConsoleOutputTransmitter(ConsoleAppender consoleAppender, Integer consolePublishInterval,
                                        ScheduledThreadPoolExecutor scheduledThreadPoolExecutor) {
+        this(consoleAppender, UTF_8, consolePublishInterval, scheduledThreadPoolExecutor);
+    }
+
+    protected ConsoleOutputTransmitter(ConsoleAppender consoleAppender, Charset charset, Integer consolePublishInterval,
+                                       ScheduledThreadPoolExecutor scheduledThreadPoolExecutor) {
         this.consoleAppender = consoleAppender;
+        this.charset = charset;
+        this.maxBufferedBytes = new SystemEnvironment().get(CONSOLE_PUBLISH_BUFFER_SIZE_IN_BYTES);
         this.executor = scheduledThreadPoolExecutor;
         executor.scheduleAtFixedRate(this, 0L, consolePublishInterval, TimeUnit.SECONDS);
-
     }
 
     @Override
@@ -58,12 +88,18 @@ public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Run
 
     @Override
     public void taggedConsumeLine(String tag, String line) {
-        synchronized (buffer) {
-            if (null == tag) tag = "  ";
-            String date = dateFormat.format(new Date());
-            String prepend = format("%s|%s", tag, date);
-            String multilineJoin = "\n" + prepend + " ";
-            buffer.add(format("%s %s", prepend, line).replaceAll("\n", multilineJoin));
+        boolean full;
+        synchronized (bufferLock) {
+            if (lastFlushFailed && buffer.size() >= maxBufferedBytes) {
+                droppedLines++;
+                return;
+            }
+            append(null == tag ? NO_TAG : tag, line == null ? "null" : line);
+            full = buffer.size() >= maxBufferedBytes;
+        }
+
+        if (full && !lastFlushFailed) {
+            flushToServer();
         }
     }
 
@@ -77,30 +113,49 @@ public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Run
     }
 
     public void flushToServer() {
-        if (buffer.isEmpty()) {
-            return;
-        }
-
-        List sent = new ArrayList();
-        try {
-            synchronized (buffer) {
-                while (!buffer.isEmpty()) {
-                    sent.add(buffer.remove());
+        synchronized (flushLock) {
+            synchronized (bufferLock) {
+                if (buffer.size() == 0) {
+                    return;
                 }
+                ConsoleBuffer filled = buffer;
+                buffer = sending;
+                sending = filled;
             }
-            StringBuilder result = new StringBuilder();
-            for (Object string : sent) {
-                result.append(string);
-                result.append("\n");
+
+            try {
+                consoleAppender.append(sending.bytes(), 0, sending.size(), charset);
+                lastFlushFailed = false;
+                sending.reset();
+                reportDroppedLines();
+            } catch (IOException e) {
+                LOGGER.warn("Could not send console output to server", e);
+                lastFlushFailed = true;
+                synchronized (bufferLock) {
+                    // keep unsent output ahead of anything written while we were sending
+                    sending.write(buffer.bytes(), 0, buffer.size());
+                    buffer.reset();
+                    ConsoleBuffer unsent = sending;
+                    sending = buffer;
+                    buffer = unsent;
+                }
             }
-            consoleAppender.append(result.toString());
-        } catch (IOException e) {
-            LOGGER.warn("Could not send console output to server", e);
-            synchronized (buffer) {
-                sent.addAll(buffer);
-                buffer.clear();
-                buffer.addAll(sent);
+        }
+    }
+
+    private void reportDroppedLines() {
+        synchronized (bufferLock) {
+            if (droppedLines == 0) {
+                return;
             }
+            // the notice goes ahead of the output written since the lines were dropped
+            ConsoleBuffer written = buffer;
+            buffer = sending;
+            append(NOTICE, String.format("%d lines of console output were dropped while the server could not be reached", droppedLines));
+            buffer.write(written.bytes(), 0, written.size());
+            written.reset();
+            sending = written;
+            droppedLines = 0;
         }
     }
 
@@ -109,4 +164,40 @@ public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Run
         flushToServer();
         executor.shutdown();
     }
+
+    private void append(String tag, String text) {
+        String time = currentTimestamp();
+        line.setLength(0);
+        line.append(tag).append('|').append(time).append(' ');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            line.append(c);
+            if (c == '\n') {
+                line.append(tag).append('|').append(time).append(' ');
+            }
+        }
+        line.append('\n');
+
+        byte[] bytes = line.toString().getBytes(charset);
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    private String currentTimestamp() {
+        long now = System.currentTimeMillis();
+        if (now != timestampMillis) {
+            timestampMillis = now;
+            timestamp = TIME_FORMAT.format(Instant.ofEpochMilli(now).atZone(zone));
+        }
+        return timestamp;
+    }
+
+    private static class ConsoleBuffer extends ByteArrayOutputStream {
+        ConsoleBuffer() {
+            super(8 * 1024);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
 }
@@ -16,13 +16,17 @@
 package com.thoughtworks.go.remote.work;
 
 import com.thoughtworks.go.util.HttpService;
+import org.apache.http.HttpHeaders;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.entity.ByteArrayEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPOutputStream;
 
 public class RemoteConsoleAppender implements ConsoleAppender {
 
@@ -30,22 +34,33 @@ public class RemoteConsoleAppender implements ConsoleAppender {
 
     private String consoleUri;
     private HttpService httpService;
-    private final String charset;
+    private final Charset charset;
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(8 * 1024);
 
     public RemoteConsoleAppender(String consoleUri, HttpService httpService, String charset) {
         this.consoleUri = consoleUri;
         this.httpService = httpService;
-        this.charset = charset;
+        this.charset = Charset.forName(charset);
     }
 
     @Override
     public void append(String content) throws IOException {
+        byte[] bytes = content.getBytes(charset);
+        append(bytes, 0, bytes.length, charset);
+    }
+
+    @Override
+    public synchronized void append(byte[] content, int offset, int length, Charset charset) throws IOException {
         HttpPut putMethod = new HttpPut(consoleUri);
         try {
             LOGGER.debug("Appending console to URL -> {}", consoleUri);
-            StringEntity entity = new StringEntity(content, charset);
-            putMethod.setEntity(entity);
-            HttpService.setSizeHeader(putMethod, entity.getContentLength());
+            compressed.reset();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 8 * 1024)) {
+                gzip.write(content, offset, length);
+            }
+            putMethod.setEntity(new ByteArrayEntity(compressed.toByteArray()));
+            putMethod.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            HttpService.setSizeHeader(putMethod, length);
             try (CloseableHttpResponse response = httpService.execute(putMethod)) {
                 LOGGER.debug("Got {}", response.getStatusLine().getStatusCode());
             }
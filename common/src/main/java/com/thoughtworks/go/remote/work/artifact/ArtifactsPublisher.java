@@ -22,6 +22,7 @@ import com.thoughtworks.go.domain.ArtifactPlanType;
 import com.thoughtworks.go.plugin.access.artifact.ArtifactExtension;
 import com.thoughtworks.go.plugin.access.artifact.model.PublishArtifactResponse;
 import com.thoughtworks.go.plugin.infra.PluginRequestProcessorRegistry;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.command.EnvironmentVariableContext;
 import com.thoughtworks.go.work.GoPublisher;
 import org.apache.commons.io.FileUtils;
@@ -31,9 +32,14 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.thoughtworks.go.remote.work.artifact.ArtifactRequestProcessor.Request.CONSOLE_LOG;
 import static com.thoughtworks.go.util.GoConstants.PRODUCT_NAME;
@@ -48,7 +54,7 @@ public class ArtifactsPublisher implements Serializable {
     private final ArtifactPlanFilter artifactPlanFilter;
     private ArtifactExtension artifactExtension;
     private ArtifactStores artifactStores;
-    private final List<ArtifactPlan> failedArtifact = new ArrayList<>();
+    private final List<ArtifactPlan> failedArtifact = Collections.synchronizedList(new ArrayList<>());
 
     public ArtifactsPublisher(GoPublisher goPublisher, ArtifactExtension artifactExtension, ArtifactStores artifactStores, PluginRequestProcessorRegistry pluginRequestProcessorRegistry, File workingDirectory) {
         this.goPublisher = goPublisher;
@@ -70,13 +76,7 @@ public class ArtifactsPublisher implements Serializable {
                 mergedPlans.add(0, new ArtifactPlan(ArtifactPlanType.file, format("%s%s*", pluggableArtifactFolder.getName(), File.separator), PLUGGABLE_ARTIFACT_METADATA_FOLDER));
             }
 
-            for (ArtifactPlan artifactPlan : mergedPlans) {
-                try {
-                    artifactPlan.publishBuiltInArtifacts(goPublisher, workingDirectory);
-                } catch (Exception e) {
-                    failedArtifact.add(artifactPlan);
-                }
-            }
+            publishBuiltInArtifacts(mergedPlans);
 
             if (!failedArtifact.isEmpty()) {
                 StringBuilder builder = new StringBuilder();
@@ -90,6 +90,46 @@ public class ArtifactsPublisher implements Serializable {
         }
     }
 
+    private void publishBuiltInArtifacts(List<ArtifactPlan> artifactPlans) {
+        int concurrency = Math.min(artifactPlans.size(), new SystemEnvironment().get(SystemEnvironment.ARTIFACT_PUBLISH_CONCURRENCY));
+        if (concurrency <= 1) {
+            for (ArtifactPlan artifactPlan : artifactPlans) {
+                publishBuiltInArtifact(artifactPlan);
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "artifact-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> uploads = new ArrayList<>(artifactPlans.size());
+            for (ArtifactPlan artifactPlan : artifactPlans) {
+                uploads.add(executor.submit(() -> publishBuiltInArtifact(artifactPlan)));
+            }
+            for (Future<?> upload : uploads) {
+                upload.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(format("[%s] Interrupted while uploading artifacts.", PRODUCT_NAME), e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void publishBuiltInArtifact(ArtifactPlan artifactPlan) {
+        try {
+            artifactPlan.publishBuiltInArtifacts(goPublisher, workingDirectory);
+        } catch (Exception e) {
+            failedArtifact.add(artifactPlan);
+        }
+    }
+
     private boolean isMetadataFolderEmpty(File pluggableArtifactFolder) {
         return pluggableArtifactFolder != null && pluggableArtifactFolder.list().length == 0;
     }
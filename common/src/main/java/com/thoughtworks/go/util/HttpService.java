@@ -19,6 +19,8 @@ import com.thoughtworks.go.agent.common.ssl.GoAgentServerHttpClient;
 import com.thoughtworks.go.agent.common.ssl.GoAgentServerHttpClientBuilder;
 import com.thoughtworks.go.config.AgentRegistry;
 import com.thoughtworks.go.domain.FetchHandler;
+import com.thoughtworks.go.domain.ResumableFetchHandler;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -27,6 +29,7 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.entity.mime.content.ByteArrayBody;
+import org.apache.http.entity.mime.content.ContentBody;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.message.BasicNameValuePair;
 import org.slf4j.Logger;
@@ -73,29 +76,50 @@ public class HttpService {
         }
         LOGGER.info("Uploading file [{}] to url [{}]", absolutePath, url);
 
-        HttpPost filePost = createHttpPostForUpload(url, size, artifactFile, artifactChecksums);
+        return executeUpload(url, size, absolutePath, httpClientFactory.createMultipartRequestEntity(artifactFile, artifactChecksums));
+    }
+
+    /**
+     * Uploads the artifact as the zip part of a multipart request; the body is written while the request is being sent
+     * so it may be produced on the fly, e.g. by a {@link ZippingContentBody}.
+     */
+    public int upload(String url, long size, ContentBody artifact, Properties artifactChecksums) throws IOException {
+        LOGGER.info("Uploading [{}] to url [{}]", artifact.getFilename(), url);
+        return executeUpload(url, size, artifact.getFilename(), httpClientFactory.createMultipartRequestEntity(artifact, artifactChecksums));
+    }
+
+    private int executeUpload(String url, long size, String artifactName, HttpEntity entity) throws IOException {
+        HttpPost filePost = createHttpPostForUpload(url, size, entity);
         try (CloseableHttpResponse response = execute(filePost)) {
             return response.getStatusLine().getStatusCode();
         } catch (IOException e) {
-            LOGGER.error("Error while uploading file [{}]", artifactFile.getAbsolutePath(), e);
+            LOGGER.error("Error while uploading file [{}]", artifactName, e);
             throw e;
         } finally {
             filePost.releaseConnection();
         }
     }
 
-    private HttpPost createHttpPostForUpload(String url, long size, File artifactFile, Properties artifactChecksums) throws IOException {
+    private HttpPost createHttpPostForUpload(String url, long size, HttpEntity entity) {
         HttpPost filePost = httpClientFactory.createPost(url);
         setSizeHeader(filePost, size);
         filePost.setHeader("Confirm", "true");
-        filePost.setEntity(httpClientFactory.createMultipartRequestEntity(artifactFile, artifactChecksums));
+        filePost.setEntity(entity);
         return filePost;
     }
 
+    /**
+     * Downloads the url into the handler, asking only for the remaining bytes when the handler has an interrupted
+     * download to pick up. A resumed download is reported as a 200, like a complete one.
+     */
     public int download(String url, FetchHandler handler) throws IOException {
         HttpGet toGet = null;
         try {
             toGet = httpClientFactory.createGet(url);
+            long resumeFrom = handler instanceof ResumableFetchHandler ? ((ResumableFetchHandler) handler).resumableFrom() : 0;
+            if (resumeFrom > 0) {
+                toGet.setHeader("Range", "bytes=" + resumeFrom + "-");
+            }
             PerfTimer timer = PerfTimer.start(String.format("Downloading from url [%s]", url));
             try (CloseableHttpResponse response = execute(toGet)) {
                 timer.stop();
@@ -108,6 +132,16 @@ public class HttpService {
                         }
                     }
                 }
+                if (statusCode == HttpServletResponse.SC_PARTIAL_CONTENT) {
+                    if (resumeFrom <= 0 || !startsAt(response, resumeFrom) || response.getEntity() == null) {
+                        throw new IOException(String.format("Unexpected partial content from [%s]", url));
+                    }
+                    LOGGER.info("Resuming download from [{}] at byte {}", url, resumeFrom);
+                    try (InputStream is = response.getEntity().getContent()) {
+                        ((ResumableFetchHandler) handler).handleRemainder(is, resumeFrom);
+                    }
+                    return HttpServletResponse.SC_OK;
+                }
                 return statusCode;
             }
         } catch (IOException e) {
@@ -120,6 +154,11 @@ public class HttpService {
         }
     }
 
+    private boolean startsAt(CloseableHttpResponse response, long offset) {
+        Header contentRange = response.getFirstHeader("Content-Range");
+        return contentRange != null && contentRange.getValue().trim().startsWith("bytes " + offset + "-");
+    }
+
     public void postProperty(String url, String value) throws IOException {
         LOGGER.info("Posting property to the URL {}Property Value ={}", url, value);
         HttpPost post = httpClientFactory.createPost(url);
@@ -172,8 +211,12 @@ public class HttpService {
         }
 
         public HttpEntity createMultipartRequestEntity(File artifact, Properties artifactChecksums) throws IOException {
+            return createMultipartRequestEntity(new FileBody(artifact), artifactChecksums);
+        }
+
+        public HttpEntity createMultipartRequestEntity(ContentBody artifact, Properties artifactChecksums) throws IOException {
             MultipartEntityBuilder entityBuilder = MultipartEntityBuilder.create();
-            entityBuilder.addPart(GoConstants.ZIP_MULTIPART_FILENAME, new FileBody(artifact));
+            entityBuilder.addPart(GoConstants.ZIP_MULTIPART_FILENAME, artifact);
             if (artifactChecksums != null) {
                 ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
                 artifactChecksums.store(outputStream, "");
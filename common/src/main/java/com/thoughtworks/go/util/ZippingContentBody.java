@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MIME;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * @understands zipping a file or folder straight into a multipart upload, so no zip is written to disk first
+ */
+public class ZippingContentBody extends AbstractContentBody {
+    private final File source;
+    private final ZipUtil zipUtil;
+    private final int level;
+
+    public ZippingContentBody(File source, ZipUtil zipUtil, int level) {
+        super(ContentType.APPLICATION_OCTET_STREAM);
+        this.source = source;
+        this.zipUtil = zipUtil;
+        this.level = level;
+    }
+
+    public File getSource() {
+        return source;
+    }
+
+    @Override
+    public String getFilename() {
+        return source.getName() + ".zip";
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        zipUtil.zip(source, new CloseShieldOutputStream(out), level);
+    }
+
+    @Override
+    public String getTransferEncoding() {
+        return MIME.ENC_BINARY;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactFetchCacheTest {
+    @TempDir
+    Path tempDir;
+    private File cacheDir;
+    private ArtifactFetchCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cacheDir = tempDir.resolve("cache").toFile();
+        cache = new ArtifactFetchCache(cacheDir, 20);
+    }
+
+    @Test
+    void shouldPutCachedArtifactsInPlace() throws IOException {
+        File artifact = artifact("downloaded/a.jar", "0123456789");
+        cache.store(md5("0123456789"), artifact);
+
+        File destination = tempDir.resolve("working-dir/lib/a.jar").toFile();
+
+        assertThat(cache.fetchInto(md5("0123456789"), destination)).isTrue();
+        assertThat(read(destination)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void shouldKeepCachedArtifactsApartFromWorkingDirectories() throws IOException {
+        File artifact = artifact("downloaded/a.jar", "0123456789");
+        cache.store(md5("0123456789"), artifact);
+        Files.write(artifact.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+
+        File destination = tempDir.resolve("working-dir/lib/a.jar").toFile();
+        assertThat(cache.fetchInto(md5("0123456789"), destination)).isTrue();
+        Files.write(destination.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+
+        File cached = new File(cacheDir, md5("0123456789"));
+        assertThat(read(cached)).isEqualTo("0123456789");
+        assertThat(Files.isSameFile(cached.toPath(), destination.toPath())).isFalse();
+    }
+
+    @Test
+    void shouldNotTouchTheModificationTimeOfFetchedArtifactsWhenTheyAreUsedAgain() throws IOException {
+        cache.store(md5("0123456789"), artifact("downloaded/a.jar", "0123456789"));
+        File destination = tempDir.resolve("working-dir/lib/a.jar").toFile();
+        assertThat(cache.fetchInto(md5("0123456789"), destination)).isTrue();
+        destination.setLastModified(System.currentTimeMillis() - 60_000);
+        long fetchedAt = destination.lastModified();
+
+        assertThat(cache.fetchInto(md5("0123456789"), tempDir.resolve("other-working-dir/a.jar").toFile())).isTrue();
+
+        assertThat(destination.lastModified()).isEqualTo(fetchedAt);
+    }
+
+    @Test
+    void shouldMissArtifactsWhichWereNeverCached() {
+        File destination = tempDir.resolve("a.jar").toFile();
+
+        assertThat(cache.fetchInto(md5("0123456789"), destination)).isFalse();
+        assertThat(destination).doesNotExist();
+    }
+
+    @Test
+    void shouldDiscardCachedArtifactsWhichWereChangedInPlace() throws IOException {
+        File artifact = artifact("downloaded/a.jar", "0123456789");
+        cache.store(md5("0123456789"), artifact);
+        Files.write(new File(cacheDir, md5("0123456789")).toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(cache.fetchInto(md5("0123456789"), tempDir.resolve("a.jar").toFile())).isFalse();
+        assertThat(new File(cacheDir, md5("0123456789"))).doesNotExist();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedArtifactsToStayWithinItsSize() throws IOException {
+        File first = artifact("first", "0123456789");
+        File second = artifact("second", "abcdefghij");
+        cache.store(md5("0123456789"), first);
+        cache.store(md5("abcdefghij"), second);
+        new File(cacheDir, md5("0123456789")).setLastModified(System.currentTimeMillis() - 60_000);
+
+        cache.store(md5("ABCDEFGHIJ"), artifact("third", "ABCDEFGHIJ"));
+
+        assertThat(new File(cacheDir, md5("0123456789"))).doesNotExist();
+        assertThat(new File(cacheDir, md5("abcdefghij"))).exists();
+        assertThat(new File(cacheDir, md5("ABCDEFGHIJ"))).exists();
+    }
+
+    @Test
+    void shouldNotCacheArtifactsLargerThanItsSize() throws IOException {
+        cache.store(md5("this is more than twenty bytes"), artifact("large", "this is more than twenty bytes"));
+
+        assertThat(cacheDir.listFiles()).isNull();
+    }
+
+    @Test
+    void shouldIgnoreChecksumsWhichCannotBeCacheEntries() throws IOException {
+        cache.store("../../etc/passwd", artifact("a.jar", "0123456789"));
+
+        assertThat(cacheDir).doesNotExist();
+        assertThat(cache.fetchInto("../../etc/passwd", tempDir.resolve("b.jar").toFile())).isFalse();
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() throws IOException {
+        ArtifactFetchCache disabled = ArtifactFetchCache.disabled();
+        disabled.store(md5("0123456789"), artifact("a.jar", "0123456789"));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.fetchInto(md5("0123456789"), tempDir.resolve("b.jar").toFile())).isFalse();
+    }
+
+    private File artifact(String path, String contents) throws IOException {
+        Path artifact = tempDir.resolve(path);
+        Files.createDirectories(artifact.getParent());
+        return Files.write(artifact, contents.getBytes(StandardCharsets.UTF_8)).toFile();
+    }
+
+    private String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private String md5(String contents) {
+        return DigestUtils.md5Hex(contents);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConsoleLogLineIndexTest {
+    @TempDir
+    Path tempDir;
+    private Path log;
+
+    @BeforeEach
+    void setUp() {
+        log = tempDir.resolve("console.log");
+    }
+
+    @Test
+    void shouldRecordOffsetOfEveryNthLine() throws IOException {
+        append("l0\nl1\nl2\nl3\nl4\n");
+        ConsoleLogLineIndex index = new ConsoleLogLineIndex(log, 2);
+
+        index.update();
+
+        assertPosition(index.positionAtOrBefore(0), 0, 0);
+        assertPosition(index.positionAtOrBefore(1), 0, 0);
+        assertPosition(index.positionAtOrBefore(2), 2, 6);
+        assertPosition(index.positionAtOrBefore(3), 2, 6);
+        assertPosition(index.positionAtOrBefore(4), 4, 12);
+        assertPosition(index.positionAtOrBefore(100), 4, 12);
+    }
+
+    @Test
+    void shouldOnlyIndexNewContentOnSubsequentUpdates() throws IOException {
+        ConsoleLogLineIndex index = new ConsoleLogLineIndex(log, 2);
+        append("l0\nl1\nl2");
+        index.update();
+        assertPosition(index.positionAtOrBefore(4), 2, 6);
+
+        append("-continued\nl3\n");
+        index.update();
+
+        assertPosition(index.positionAtOrBefore(4), 4, 22);
+        assertThat(Files.size(index.indexFile())).isEqualTo(2 * Long.BYTES);
+    }
+
+    @Test
+    void shouldTreatCarriageReturnsAsLineTerminatorsLikeTheReader() throws IOException {
+        ConsoleLogLineIndex index = new ConsoleLogLineIndex(log, 1);
+        append("a\r\nb\rc\n\r");
+        index.update();
+
+        assertPosition(index.positionAtOrBefore(1), 1, 3);
+        assertPosition(index.positionAtOrBefore(2), 2, 5);
+        assertPosition(index.positionAtOrBefore(3), 3, 7);
+        // the trailing '\r' may still be followed by '\n', so it is not indexed yet
+        assertPosition(index.positionAtOrBefore(4), 3, 7);
+
+        append("\nd\n");
+        index.update();
+
+        assertPosition(index.positionAtOrBefore(4), 4, 9);
+        assertPosition(index.positionAtOrBefore(5), 5, 11);
+    }
+
+    @Test
+    void shouldIgnoreIndexThatPointsBeyondTheLog() throws IOException {
+        append("l0\nl1\nl2\n");
+        ConsoleLogLineIndex index = new ConsoleLogLineIndex(log, 1);
+        index.update();
+
+        Files.write(log, "l0\n".getBytes(StandardCharsets.UTF_8));
+
+        assertPosition(index.positionAtOrBefore(2), 0, 0);
+
+        index.update();
+        assertPosition(index.positionAtOrBefore(2), 1, 3);
+    }
+
+    @Test
+    void shouldStartFromTheBeginningWhenThereIsNoIndex() {
+        ConsoleLogLineIndex index = new ConsoleLogLineIndex(log, 10);
+
+        assertPosition(index.positionAtOrBefore(1000), 0, 0);
+    }
+
+    @Test
+    void shouldDeleteIndexFile() throws IOException {
+        append("l0\n");
+        ConsoleLogLineIndex index = new ConsoleLogLineIndex(log, 1);
+        index.update();
+        assertThat(index.indexFile()).exists();
+
+        index.delete();
+
+        assertThat(index.indexFile()).doesNotExist();
+    }
+
+    @Test
+    void shouldOnlySupportCharsetsWithSingleByteLineTerminators() {
+        assertThat(ConsoleLogLineIndex.supports(StandardCharsets.UTF_8)).isTrue();
+        assertThat(ConsoleLogLineIndex.supports(StandardCharsets.ISO_8859_1)).isTrue();
+        assertThat(ConsoleLogLineIndex.supports(StandardCharsets.UTF_16)).isFalse();
+    }
+
+    @Test
+    void shouldRejectNonPositiveInterval() {
+        assertThatThrownBy(() -> new ConsoleLogLineIndex(log, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void streamerShouldSeekUsingIndex() throws Exception {
+        List<String> lines = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            content.append("line ").append(i).append("\n");
+        }
+        append(content.toString());
+        ConsoleLogLineIndex index = new ConsoleLogLineIndex(log, 1000);
+        index.update();
+
+        try (ConsoleStreamer streamer = new ConsoleStreamer(log, 2497, index)) {
+            streamer.stream(lines::add);
+            assertThat(streamer.totalLinesConsumed()).isEqualTo(3L);
+        }
+
+        assertThat(lines).containsExactly("line 2497", "line 2498", "line 2499");
+    }
+
+    private void append(String text) throws IOException {
+        if (Files.exists(log)) {
+            Files.write(log, text.getBytes(StandardCharsets.UTF_8), APPEND);
+        } else {
+            Files.write(log, text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void assertPosition(ConsoleLogLineIndex.Position position, long line, long byteOffset) {
+        assertThat(position.line()).isEqualTo(line);
+        assertThat(position.byteOffset()).isEqualTo(byteOffset);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.EnvironmentPipelineConfig;
+import com.thoughtworks.go.config.EnvironmentPipelinesConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnvironmentPipelineMatchersTest {
+    private EnvironmentPipelineMatchers matchers;
+
+    @BeforeEach
+    void setUp() {
+        matchers = new EnvironmentPipelineMatchers(asList(
+                matcher("uat", asList("uat-agent", "omnipresent-agent"), "uat-pipeline"),
+                matcher("prod", asList("prod-agent", "omnipresent-agent"), "prod-pipeline", "deploy")
+        ));
+    }
+
+    @Test
+    void shouldOnlyMatchPipelinesWithoutEnvironmentForAgentWithoutEnvironment() {
+        Predicate<String> matching = matchers.pipelinesMatching("no-env-agent");
+
+        assertThat(matching.test("no-env-pipeline")).isTrue();
+        assertThat(matching.test("uat-pipeline")).isFalse();
+        assertThat(matching.test("DEPLOY")).isFalse();
+    }
+
+    @Test
+    void shouldMatchPipelinesInAnyEnvironmentOfTheAgentIgnoringCase() {
+        Predicate<String> matching = matchers.pipelinesMatching("omnipresent-agent");
+
+        assertThat(matching.test("UAT-pipeline")).isTrue();
+        assertThat(matching.test("deploy")).isTrue();
+        assertThat(matching.test("no-env-pipeline")).isFalse();
+    }
+
+    @Test
+    void shouldAgreeWithMatchForEveryPipelineAndAgent() {
+        for (String agent : asList("no-env-agent", "uat-agent", "prod-agent", "omnipresent-agent")) {
+            Predicate<String> matching = matchers.pipelinesMatching(agent);
+            for (String pipeline : asList("no-env-pipeline", "uat-pipeline", "prod-pipeline", "Deploy")) {
+                assertThat(matching.test(pipeline)).as(agent + " / " + pipeline).isEqualTo(matchers.match(pipeline, agent));
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchEverythingWhenThereAreNoEnvironments() {
+        assertThat(new EnvironmentPipelineMatchers(singletonList(matcher("empty", emptyList()))).pipelinesMatching("agent").test("pipeline")).isTrue();
+        assertThat(new EnvironmentPipelineMatchers().pipelinesMatching("agent").test("pipeline")).isTrue();
+    }
+
+    private static EnvironmentPipelineMatcher matcher(String name, List<String> agents, String... pipelines) {
+        EnvironmentPipelinesConfig pipelineConfigs = new EnvironmentPipelinesConfig();
+        for (String pipeline : pipelines) {
+            pipelineConfigs.add(new EnvironmentPipelineConfig(new CaseInsensitiveString(pipeline)));
+        }
+        return new EnvironmentPipelineMatcher(new CaseInsensitiveString(name), agents, pipelineConfigs);
+    }
+}
@@ -21,9 +21,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.Matchers.not;
@@ -129,4 +127,70 @@ public class FileHandlerTest {
         }
     }
 
+    @Test
+    public void shouldAddVerifiedDownloadsToTheArtifactCache() throws IOException {
+        String md5 = CachedDigestUtils.md5Hex(new ByteArrayInputStream("Hello world".getBytes()));
+        when(checksums.md5For("src/file/path")).thenReturn(md5);
+        fileHandler.useArtifactMd5Checksums(checksums);
+        ArtifactFetchCache cache = mock(ArtifactFetchCache.class);
+
+        fileHandler.handle(new ByteArrayInputStream("Hello world".getBytes()));
+        fileHandler.addToCache(cache);
+
+        verify(cache).store(md5, artifact);
+    }
+
+    @Test
+    public void shouldNotAddDownloadsWhichCouldNotBeVerifiedToTheArtifactCache() throws IOException {
+        ArtifactFetchCache cache = mock(ArtifactFetchCache.class);
+
+        fileHandler.handle(new ByteArrayInputStream("Hello world".getBytes()));
+        fileHandler.addToCache(cache);
+
+        verifyZeroInteractions(cache);
+    }
+
+    @Test
+    public void shouldPutArtifactInPlaceFromTheArtifactCache() {
+        when(checksums.md5For("src/file/path")).thenReturn("some-md5");
+        fileHandler.useArtifactMd5Checksums(checksums);
+        ArtifactFetchCache cache = mock(ArtifactFetchCache.class);
+        when(cache.fetchInto("some-md5", artifact)).thenReturn(true);
+
+        assertThat(fileHandler.fetchFromCache(cache, goPublisher), is(true));
+        assertThat(goPublisher.getMessage(), containsString("Saved artifact to [foo] from the agent's artifact cache after verifying the integrity of its contents."));
+    }
+
+    @Test
+    public void shouldResumeAnInterruptedDownloadAndVerifyTheWholeArtifact() throws IOException {
+        when(checksums.md5For("src/file/path")).thenReturn(CachedDigestUtils.md5Hex(new ByteArrayInputStream("Hello world".getBytes())));
+        fileHandler.useArtifactMd5Checksums(checksums);
+        InputStream droppedHalfway = new SequenceInputStream(new ByteArrayInputStream("Hello".getBytes()), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+
+        try {
+            fileHandler.handle(droppedHalfway);
+            fail("Should have failed as the connection was dropped");
+        } catch (IOException expected) {
+        }
+        assertThat(fileHandler.resumableFrom(), is(5L));
+
+        fileHandler.handleRemainder(new ByteArrayInputStream(" world".getBytes()), 5L);
+        fileHandler.handleResult(200, goPublisher);
+
+        assertThat(FileUtils.readFileToString(artifact, UTF_8), is("Hello world"));
+        assertThat(fileHandler.resumableFrom(), is(0L));
+        assertThat(goPublisher.getMessage(), containsString("Saved artifact to [foo] after verifying the integrity of its contents."));
+    }
+
+    @Test
+    public void shouldNotResumeDownloadsWhichWereNotInterrupted() throws IOException {
+        FileUtils.writeStringToFile(artifact, "from an earlier job", UTF_8);
+
+        assertThat(fileHandler.resumableFrom(), is(0L));
+    }
 }
@@ -169,6 +169,27 @@ public class FetchArtifactBuilderTest {
         verifyNoMoreInteractions(downloadAction);
     }
 
+    @Test
+    public void shouldNotDownloadArtifactsWhichArePutInPlaceFromTheArtifactCache() throws Exception {
+        File consolelog = new File(new File("pipelines" + '/' + "cruise" + '/' + dest), "console.log");
+        FileHandler fileHandler = new FileHandler(consolelog, getSrc());
+        FetchArtifactBuilder builder = getBuilder(new JobIdentifier("foo", -1, "label-1", "dev", "1", "linux", 1L),
+                "cruise-output/console.log", "lib/a.jar", fileHandler, checksumFileHandler);
+        ArtifactFetchCache cache = mock(ArtifactFetchCache.class);
+
+        when(cache.isEnabled()).thenReturn(true);
+        when(urlService.baseRemoteURL()).thenReturn("http://foo.bar:8153/go");
+        when(checksumFileHandler.url("http://foo.bar:8153/go", "foo/label-1/dev/1/linux")).thenReturn("http://foo.bar:8153/go/files/foo/label-1/dev/1/linux/cruise-output/md5.checksum");
+        when(checksumFileHandler.getArtifactMd5Checksums()).thenReturn(new ArtifactMd5Checksums(new java.util.Properties()));
+        when(downloadAction.performFromCache(fileHandler, cache)).thenReturn(true);
+
+        builder.fetch(downloadAction, urlService, cache);
+
+        verify(downloadAction).perform(eq("http://foo.bar:8153/go/files/foo/label-1/dev/1/linux/cruise-output/md5.checksum"), any(FetchHandler.class));
+        verify(downloadAction).performFromCache(fileHandler, cache);
+        verifyNoMoreInteractions(downloadAction);
+    }
+
     @Test
     public void shouldReturnURLEndsWithDotZipWhenRequestingFolder() throws Exception {
         String src = "cruise-output";
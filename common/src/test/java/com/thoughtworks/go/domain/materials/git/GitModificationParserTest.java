@@ -15,11 +15,15 @@
  */
 package com.thoughtworks.go.domain.materials.git;
 
+import com.thoughtworks.go.domain.materials.ModifiedAction;
+import com.thoughtworks.go.domain.materials.ModifiedFile;
 import com.thoughtworks.go.util.DateUtils;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import org.junit.Test;
 
+import java.util.List;
+
 public class GitModificationParserTest {
 
     GitModificationParser parser = new GitModificationParser();
@@ -102,4 +106,33 @@ public class GitModificationParserTest {
                 parser.getModifications().get(1).getComment(),
                 is("My Comment 2"));
     }
+
+    @Test
+    public void shouldAddFilesListedByNameStatusToTheirCommit() {
+        simulateOneComment();
+        parser.processLine("");
+        parser.processLine("    My Comment 1");
+        parser.processLine("    M\tnot-a-file-but-part-of-the-comment");
+        parser.processLine("");
+        parser.processLine("M\tsrc/main/Foo.java");
+        parser.processLine("A\tREADME with spaces.md");
+        simulateOneComment();
+        parser.processLine("");
+        parser.processLine("    My Comment 2");
+        parser.processLine("");
+        parser.processLine("D\tbuild.xml");
+
+        List<ModifiedFile> first = parser.getModifications().get(0).getModifiedFiles();
+        assertThat(first.size(), is(2));
+        assertThat(first.get(0).getFileName(), is("src/main/Foo.java"));
+        assertThat(first.get(0).getAction(), is(ModifiedAction.modified));
+        assertThat(first.get(1).getFileName(), is("README with spaces.md"));
+        assertThat(first.get(1).getAction(), is(ModifiedAction.added));
+        assertThat(parser.getModifications().get(0).getComment(), is("My Comment 1\nM\tnot-a-file-but-part-of-the-comment"));
+
+        List<ModifiedFile> second = parser.getModifications().get(1).getModifiedFiles();
+        assertThat(second.size(), is(1));
+        assertThat(second.get(0).getFileName(), is("build.xml"));
+        assertThat(second.get(0).getAction(), is(ModifiedAction.deleted));
+    }
 }
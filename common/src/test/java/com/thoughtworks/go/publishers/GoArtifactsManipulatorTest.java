@@ -24,18 +24,25 @@ import com.thoughtworks.go.server.service.AgentRuntimeInfo;
 import com.thoughtworks.go.util.CachedDigestUtils;
 import com.thoughtworks.go.util.HttpService;
 import com.thoughtworks.go.util.ReflectionUtil;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.ZipUtil;
+import com.thoughtworks.go.util.ZippingContentBody;
 import com.thoughtworks.go.work.DefaultGoPublisher;
-import org.apache.commons.collections4.queue.CircularFifoQueue;
 import org.apache.commons.io.FileUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.Properties;
+import java.util.zip.ZipInputStream;
 
 import static com.thoughtworks.go.util.SystemUtil.currentWorkingDirectory;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -67,19 +74,24 @@ public class GoArtifactsManipulatorTest {
         goPublisher = new DefaultGoPublisher(goArtifactsManipulatorStub, jobIdentifier, new BuildRepositoryRemoteStub(), agentRuntimeInfo, "utf-8");
     }
 
+    @After
+    public void tearDown() {
+        new SystemEnvironment().clearProperty(SystemEnvironment.ARTIFACT_CHECKSUM_THREADS.propertyName());
+    }
+
     @Test
     public void shouldBombWithErrorWhenStatusCodeReturnedIsRequestEntityTooLarge() throws IOException, InterruptedException {
-        when(httpService.upload(any(String.class), eq(tempFile.length()), any(File.class), any(Properties.class))).thenReturn(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        when(httpService.upload(any(String.class), eq(tempFile.length()), any(ZippingContentBody.class), any(Properties.class))).thenReturn(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
 
-        CircularFifoQueue buffer = (CircularFifoQueue) ReflectionUtil.getField(ReflectionUtil.getField(goPublisher, "consoleOutputTransmitter"), "buffer");
-        synchronized (buffer) {
+        Object transmitter = ReflectionUtil.getField(goPublisher, "consoleOutputTransmitter");
+        synchronized (ReflectionUtil.getField(transmitter, "bufferLock")) {
             try {
                 goArtifactsManipulatorStub.publish(goPublisher, "some_dest", tempFile, jobIdentifier);
                 fail("should have thrown request entity too large error");
             } catch (RuntimeException e) {
                 String expectedMessage = "Artifact upload for file " + tempFile.getAbsolutePath() + " (Size: "+ tempFile.length() +") was denied by the server. This usually happens when server runs out of disk space.";
                 assertThat(e.getMessage(), is("java.lang.RuntimeException: " + expectedMessage + ".  HTTP return code is 413"));
-                assertThat(buffer.toString().contains(expectedMessage), is(true));
+                assertThat(ReflectionUtil.getField(transmitter, "buffer").toString().contains(expectedMessage), is(true));
             }
         }
     }
@@ -87,12 +99,12 @@ public class GoArtifactsManipulatorTest {
     @Test
     public void uploadShouldBeGivenFileSize() throws IOException {
 
-        when(httpService.upload(any(String.class), eq(tempFile.length()), any(File.class), any(Properties.class))).thenReturn(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        when(httpService.upload(any(String.class), eq(tempFile.length()), any(ZippingContentBody.class), any(Properties.class))).thenReturn(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
         try {
             goArtifactsManipulatorStub.publish(goPublisher, "dest", tempFile, jobIdentifier);
             fail("should have thrown request entity too large error");
         } catch (RuntimeException e) {
-            verify(httpService).upload(any(String.class), eq(tempFile.length()), any(File.class), any(Properties.class));
+            verify(httpService).upload(any(String.class), eq(tempFile.length()), any(ZippingContentBody.class), any(Properties.class));
         }
     }
 
@@ -104,7 +116,7 @@ public class GoArtifactsManipulatorTest {
         Properties properties = new Properties();
         properties.setProperty("dest/path/file.txt", md5);
 
-        when(httpService.upload(any(String.class), eq(tempFile.length()), any(File.class), eq(properties))).thenReturn(HttpServletResponse.SC_OK);
+        when(httpService.upload(any(String.class), eq(tempFile.length()), any(ZippingContentBody.class), eq(properties))).thenReturn(HttpServletResponse.SC_OK);
 
         goArtifactsManipulatorStub.publish(goPublisher, "/dest/path", tempFile, jobIdentifier);
     }
@@ -117,7 +129,7 @@ public class GoArtifactsManipulatorTest {
         Properties properties = new Properties();
         properties.setProperty("file.txt", md5);
 
-        when(httpService.upload(any(String.class), eq(tempFile.length()), any(File.class), eq(properties))).thenReturn(HttpServletResponse.SC_OK);
+        when(httpService.upload(any(String.class), eq(tempFile.length()), any(ZippingContentBody.class), eq(properties))).thenReturn(HttpServletResponse.SC_OK);
 
         goArtifactsManipulatorStub.publish(goPublisher, "", tempFile, jobIdentifier);
     }
@@ -133,11 +145,42 @@ public class GoArtifactsManipulatorTest {
         FileUtils.writeStringToFile(anotherFile, secondData, UTF_8);
 
 
-        when(httpService.upload(any(String.class), eq(FileUtils.sizeOfDirectory(artifactFolder)), any(File.class), eq(expectedProperties(data, secondData)))).thenReturn(HttpServletResponse.SC_OK);
+        when(httpService.upload(any(String.class), eq(FileUtils.sizeOfDirectory(artifactFolder)), any(ZippingContentBody.class), eq(expectedProperties(data, secondData)))).thenReturn(HttpServletResponse.SC_OK);
 
         goArtifactsManipulatorStub.publish(goPublisher, "dest", artifactFolder, jobIdentifier);
     }
 
+    @Test
+    public void shouldComputeChecksumsForADirectoryInParallel() throws IOException {
+        new SystemEnvironment().setProperty(SystemEnvironment.ARTIFACT_CHECKSUM_THREADS.propertyName(), "4");
+        Properties expected = new Properties();
+        for (int i = 0; i < 50; i++) {
+            String data = "file number " + i;
+            FileUtils.writeStringToFile(new File(artifactFolder, "nested/file" + i + ".txt"), data, UTF_8);
+            expected.setProperty("dest/artifact_folder/nested/file" + i + ".txt", CachedDigestUtils.md5Hex(data));
+        }
+        expected.setProperty("dest/artifact_folder/file.txt", CachedDigestUtils.md5Hex("some-random-data"));
+
+        when(httpService.upload(any(String.class), eq(FileUtils.sizeOfDirectory(artifactFolder)), any(ZippingContentBody.class), eq(expected))).thenReturn(HttpServletResponse.SC_OK);
+
+        goArtifactsManipulatorStub.publish(goPublisher, "dest", artifactFolder, jobIdentifier);
+    }
+
+    @Test
+    public void shouldStreamZipOfArtifactWithoutWritingItToDisk() throws IOException {
+        ArgumentCaptor<ZippingContentBody> body = ArgumentCaptor.forClass(ZippingContentBody.class);
+        when(httpService.upload(any(String.class), eq(FileUtils.sizeOfDirectory(artifactFolder)), body.capture(), any(Properties.class))).thenReturn(HttpServletResponse.SC_OK);
+
+        goArtifactsManipulatorStub.publish(goPublisher, "dest", artifactFolder, jobIdentifier);
+
+        assertThat(body.getValue().getSource(), is(artifactFolder));
+        ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+        body.getValue().writeTo(zipped);
+        File unzipped = temporaryFolder.newFolder("unzipped");
+        new ZipUtil().unzip(new ZipInputStream(new ByteArrayInputStream(zipped.toByteArray())), unzipped);
+        assertThat(FileUtils.readFileToString(new File(unzipped, "artifact_folder/file.txt"), UTF_8), is("some-random-data"));
+    }
+
     private Properties expectedProperties(String data, String secondData) {
         Properties properties = new Properties();
         properties.setProperty("dest/artifact_folder/file.txt", CachedDigestUtils.md5Hex(data));
@@ -22,10 +22,14 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 
-import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -43,6 +47,7 @@ public class ConsoleOutputTransmitterTest {
 
         requestArgumentCaptor = ArgumentCaptor.forClass(String.class);
         doNothing().when(consoleAppender).append(requestArgumentCaptor.capture());
+        doCallRealMethod().when(consoleAppender).append(any(byte[].class), anyInt(), anyInt(), any(Charset.class));
         transmitter = new ConsoleOutputTransmitter(consoleAppender, 0, mock(ScheduledThreadPoolExecutor.class));
     }
 
@@ -69,4 +74,74 @@ public class ConsoleOutputTransmitterTest {
 
         verify(consoleAppender, never()).append(any(String.class));
     }
+
+    @Test
+    public void shouldPrefixEveryLineOfMultilineOutputWithTagAndTimestamp() throws Exception {
+        transmitter.taggedConsumeLine("!!", "first\nsecond");
+
+        transmitter.flushToServer();
+
+        String[] lines = requestArgumentCaptor.getValue().split("\n");
+        assertThat(lines.length, is(2));
+        assertThat(lines[0], matchesPattern("!!\\|\\d{2}:\\d{2}:\\d{2}\\.\\d{3} first"));
+        assertThat(lines[1], matchesPattern("!!\\|\\d{2}:\\d{2}:\\d{2}\\.\\d{3} second"));
+    }
+
+    @Test
+    public void shouldKeepOutputThatCouldNotBeSentAheadOfNewOutput() throws Exception {
+        doThrow(new IOException("server unavailable")).doNothing().when(consoleAppender).append(requestArgumentCaptor.capture());
+
+        transmitter.consumeLine("first line");
+        transmitter.flushToServer();
+        transmitter.consumeLine("second line");
+        transmitter.flushToServer();
+
+        String sent = requestArgumentCaptor.getValue();
+        assertThat(sent, containsString("first line\n"));
+        assertThat(sent.indexOf("first line"), lessThan(sent.indexOf("second line")));
+    }
+
+    @Test
+    public void shouldFlushFromProducingThreadInsteadOfDroppingOutputWhenBufferIsFull() throws Exception {
+        new SystemEnvironment().setProperty(SystemEnvironment.CONSOLE_PUBLISH_BUFFER_SIZE_IN_BYTES.propertyName(), "64");
+        try {
+            ConsoleOutputTransmitter smallBuffer = new ConsoleOutputTransmitter(consoleAppender, 0, mock(ScheduledThreadPoolExecutor.class));
+            for (int i = 0; i < 20; i++) {
+                smallBuffer.consumeLine("line number " + i);
+            }
+            smallBuffer.stop();
+
+            String allSent = String.join("", requestArgumentCaptor.getAllValues());
+            for (int i = 0; i < 20; i++) {
+                assertThat(allSent, containsString("line number " + i + "\n"));
+            }
+            verify(consoleAppender, atLeast(2)).append(any(String.class));
+        } finally {
+            new SystemEnvironment().clearProperty(SystemEnvironment.CONSOLE_PUBLISH_BUFFER_SIZE_IN_BYTES.propertyName());
+        }
+    }
+
+    @Test
+    public void shouldDropAndCountLinesPastTheBufferSizeWhileTheServerCannotBeReached() throws Exception {
+        new SystemEnvironment().setProperty(SystemEnvironment.CONSOLE_PUBLISH_BUFFER_SIZE_IN_BYTES.propertyName(), "64");
+        try {
+            doThrow(new IOException("server unavailable")).doNothing().when(consoleAppender).append(requestArgumentCaptor.capture());
+            ConsoleOutputTransmitter smallBuffer = new ConsoleOutputTransmitter(consoleAppender, 0, mock(ScheduledThreadPoolExecutor.class));
+            for (int i = 0; i < 20; i++) {
+                smallBuffer.consumeLine("line number " + i);
+            }
+            smallBuffer.flushToServer();
+            smallBuffer.consumeLine("back online");
+            smallBuffer.stop();
+
+            List<String> attempts = requestArgumentCaptor.getAllValues();
+            String allSent = String.join("", attempts.subList(1, attempts.size()));
+            assertThat(allSent, containsString("line number 2\n"));
+            assertThat(allSent, not(containsString("line number 3\n")));
+            assertThat(allSent, containsString("17 lines of console output were dropped while the server could not be reached"));
+            assertThat(allSent.indexOf("were dropped"), lessThan(allSent.indexOf("back online")));
+        } finally {
+            new SystemEnvironment().clearProperty(SystemEnvironment.CONSOLE_PUBLISH_BUFFER_SIZE_IN_BYTES.propertyName());
+        }
+    }
 }
@@ -17,7 +17,9 @@ package com.thoughtworks.go.remote.work;
 
 import com.thoughtworks.go.domain.FetchHandler;
 import com.thoughtworks.go.util.HttpService;
+import com.thoughtworks.go.util.ZippingContentBody;
 import org.apache.commons.io.IOUtils;
+import org.apache.http.entity.mime.content.ContentBody;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.ByteArrayInputStream;
@@ -49,6 +51,14 @@ public class HttpServiceStub extends HttpService {
         return returnCode;
     }
 
+    @Override
+    public int upload(String url, long size, ContentBody artifact, Properties artifactChecksums) throws IOException {
+        uploadedFiles.put(url, ((ZippingContentBody) artifact).getSource());
+        uploadedFileUrls.add(url);
+
+        return returnCode;
+    }
+
     public Map<String, File> getUploadedFiles() {
         return uploadedFiles;
     }
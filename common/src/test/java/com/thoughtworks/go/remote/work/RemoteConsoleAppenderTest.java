@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.remote.work;
+
+import com.thoughtworks.go.util.HttpService;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static com.thoughtworks.go.util.HttpService.GO_ARTIFACT_PAYLOAD_SIZE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class RemoteConsoleAppenderTest {
+    @Test
+    public void shouldSendConsoleOutputGzippedWithItsUncompressedSize() throws IOException {
+        HttpService httpService = mock(HttpService.class);
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"));
+        ArgumentCaptor<HttpPut> request = ArgumentCaptor.forClass(HttpPut.class);
+        when(httpService.execute(request.capture())).thenReturn(response);
+        byte[] output = "  |12:00:00.000 some console output\n".getBytes(UTF_8);
+
+        new RemoteConsoleAppender("http://server/console", httpService, "UTF-8").append(output, 0, output.length, UTF_8);
+
+        HttpPut put = request.getValue();
+        assertThat(put.getFirstHeader(HttpHeaders.CONTENT_ENCODING).getValue(), is("gzip"));
+        assertThat(put.getFirstHeader(GO_ARTIFACT_PAYLOAD_SIZE).getValue(), is(String.valueOf(output.length)));
+        try (GZIPInputStream unzipped = new GZIPInputStream(put.getEntity().getContent())) {
+            assertThat(IOUtils.toString(unzipped, UTF_8), is("  |12:00:00.000 some console output\n"));
+        }
+        verify(response).close();
+    }
+}
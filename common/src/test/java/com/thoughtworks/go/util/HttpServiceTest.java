@@ -18,6 +18,7 @@ package com.thoughtworks.go.util;
 import com.thoughtworks.go.agent.common.ssl.GoAgentServerHttpClient;
 import com.thoughtworks.go.config.AgentRegistry;
 import com.thoughtworks.go.domain.FetchHandler;
+import com.thoughtworks.go.domain.ResumableFetchHandler;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpVersion;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
@@ -25,6 +26,7 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.message.BasicHeader;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.message.BasicStatusLine;
 import org.junit.Before;
@@ -114,6 +116,51 @@ public class HttpServiceTest {
         service.download(url, fetchHandler);
         verify(httpClient).execute(mockGetMethod);
         verify(fetchHandler).handle(instream);
+        verify(mockGetMethod, never()).setHeader(eq("Range"), anyString());
+    }
+
+    @Test
+    public void shouldAskOnlyForTheRemainingBytesWhenResumingAnInterruptedDownload() throws IOException, URISyntaxException {
+        String url = "http://blah";
+        ResumableFetchHandler fetchHandler = mock(ResumableFetchHandler.class);
+        when(fetchHandler.resumableFrom()).thenReturn(100L);
+
+        HttpGet mockGetMethod = mock(HttpGet.class);
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        BasicHttpEntity basicHttpEntity = new BasicHttpEntity();
+        ByteArrayInputStream instream = new ByteArrayInputStream(new byte[]{});
+        basicHttpEntity.setContent(instream);
+        when(response.getEntity()).thenReturn(basicHttpEntity);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 206, "Partial Content"));
+        when(response.getFirstHeader("Content-Range")).thenReturn(new BasicHeader("Content-Range", "bytes 100-199/200"));
+        when(httpClient.execute(mockGetMethod)).thenReturn(response);
+        when(httpClientFactory.createGet(url)).thenReturn(mockGetMethod);
+        when(mockGetMethod.getURI()).thenReturn(new URI(url));
+
+        int statusCode = service.download(url, fetchHandler);
+
+        assertEquals(200, statusCode);
+        verify(mockGetMethod).setHeader("Range", "bytes=100-");
+        verify(fetchHandler).handleRemainder(instream, 100L);
+        verify(fetchHandler, never()).handle(any());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldNotResumeDownloadWhenServerSendsADifferentRange() throws IOException, URISyntaxException {
+        String url = "http://blah";
+        ResumableFetchHandler fetchHandler = mock(ResumableFetchHandler.class);
+        when(fetchHandler.resumableFrom()).thenReturn(100L);
+
+        HttpGet mockGetMethod = mock(HttpGet.class);
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getEntity()).thenReturn(new BasicHttpEntity());
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 206, "Partial Content"));
+        when(response.getFirstHeader("Content-Range")).thenReturn(new BasicHeader("Content-Range", "bytes 0-199/200"));
+        when(httpClient.execute(mockGetMethod)).thenReturn(response);
+        when(httpClientFactory.createGet(url)).thenReturn(mockGetMethod);
+        when(mockGetMethod.getURI()).thenReturn(new URI(url));
+
+        service.download(url, fetchHandler);
     }
 
     @Test
@@ -162,6 +162,11 @@ class SystemEnvironmentTest {
         assertThat(systemEnvironment.getMaterialUpdateIdleInterval()).isEqualTo(20L);
     }
 
+    @Test
+    void shouldNotRememberElasticAgentAssignmentDecisionsByDefault() {
+        assertThat(systemEnvironment.getElasticAgentAssignmentDecisionTtl()).isEqualTo(0L);
+    }
+
     @Test
     void shouldUnderstandH2CacheSize() {
         assertThat(systemEnvironment.getCruiseDbCacheSize()).isEqualTo(String.valueOf(128 * 1024));
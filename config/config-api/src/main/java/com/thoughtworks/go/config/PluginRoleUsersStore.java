@@ -19,11 +19,13 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.SetMultimap;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 
 public class PluginRoleUsersStore {
     private final SetMultimap<PluginRoleConfig, RoleUser> roleToUsersMappings = synchronizedSetMultimap(HashMultimap.create());
+    private final AtomicLong version = new AtomicLong();
 
     private PluginRoleUsersStore() {
 
@@ -34,7 +36,9 @@ public class PluginRoleUsersStore {
     }
 
     public void assignRole(String user, PluginRoleConfig pluginRoleConfig) {
-        roleToUsersMappings.put(pluginRoleConfig, new RoleUser(user));
+        if (roleToUsersMappings.put(pluginRoleConfig, new RoleUser(user))) {
+            version.incrementAndGet();
+        }
     }
 
     public List<RoleUser> usersInRole(PluginRoleConfig pluginRoleConfig) {
@@ -51,6 +55,7 @@ public class PluginRoleUsersStore {
 
     public void remove(PluginRoleConfig pluginRole) {
         roleToUsersMappings.removeAll(pluginRole);
+        version.incrementAndGet();
     }
 
     public void remove(Collection<PluginRoleConfig> pluginRoles) {
@@ -67,6 +72,14 @@ public class PluginRoleUsersStore {
                 roleToUsersMappings.get(pluginRole).remove(roleUser);
             }
         }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Changes every time users are assigned to or removed from plugin roles.
+     */
+    public long version() {
+        return version.get();
     }
 
     protected Set<PluginRoleConfig> pluginRoles() {
@@ -76,6 +89,7 @@ public class PluginRoleUsersStore {
 //    Used only in tests
     public void clearAll() {
         roleToUsersMappings.clear();
+        version.incrementAndGet();
     }
 
     private static class PluginRoleUsersStoreHolder {
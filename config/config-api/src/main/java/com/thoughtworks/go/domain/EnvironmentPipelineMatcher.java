@@ -65,6 +65,10 @@ public class EnvironmentPipelineMatcher {
         return pipelineConfigs.containsPipelineNamed(new CaseInsensitiveString(pipelineName));
     }
 
+    List<CaseInsensitiveString> pipelineNames() {
+        return pipelineConfigs.getNames();
+    }
+
     public CaseInsensitiveString name() {
         return name;
     }
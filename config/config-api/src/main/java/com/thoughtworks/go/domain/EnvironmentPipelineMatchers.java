@@ -15,7 +15,10 @@
  */
 package com.thoughtworks.go.domain;
 
-import java.util.Collection;
+import com.thoughtworks.go.config.CaseInsensitiveString;
+
+import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * @understands matching job with agents in situations where either, both or none are in environment
@@ -37,6 +40,31 @@ public class EnvironmentPipelineMatchers extends BaseCollection<EnvironmentPipel
         return !pipelineReferenced(pipelineName) && !agentReferenced(uuid);
     }
 
+    /**
+     * Equivalent to calling {@link #match(String, String)} for every pipeline with the same agent, but looks up
+     * the environments of the agent and of the pipelines once, instead of scanning every environment per pipeline.
+     */
+    public Predicate<String> pipelinesMatching(String uuid) {
+        Set<CaseInsensitiveString> agentEnvironments = new HashSet<>();
+        Map<CaseInsensitiveString, Set<CaseInsensitiveString>> pipelineEnvironments = new HashMap<>();
+        for (EnvironmentPipelineMatcher matcher : this) {
+            if (matcher.hasAgent(uuid)) {
+                agentEnvironments.add(matcher.name());
+            }
+            for (CaseInsensitiveString pipelineName : matcher.pipelineNames()) {
+                pipelineEnvironments.computeIfAbsent(pipelineName, name -> new HashSet<>()).add(matcher.name());
+            }
+        }
+
+        return pipelineName -> {
+            Set<CaseInsensitiveString> environments = pipelineEnvironments.get(new CaseInsensitiveString(pipelineName));
+            if (environments == null) {
+                return agentEnvironments.isEmpty();
+            }
+            return !Collections.disjoint(environments, agentEnvironments);
+        };
+    }
+
     private boolean agentReferenced(String uuid) {
         for(EnvironmentPipelineMatcher matcher : this) {
             if (matcher.hasAgent(uuid)) {
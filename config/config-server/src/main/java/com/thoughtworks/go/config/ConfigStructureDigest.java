@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.List;
+
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+
+/**
+ * @understands computing a digest of a config element by walking the same annotated fields that {@link MagicalGoConfigXmlWriter}
+ * writes out, without building or serializing an xml document
+ */
+public class ConfigStructureDigest {
+    private static final byte SEPARATOR = 0;
+    private static final String NULL_MARKER = "\u0001null";
+
+    private final ConfigCache configCache;
+    private final ConfigElementImplementationRegistry registry;
+
+    public ConfigStructureDigest(ConfigCache configCache, ConfigElementImplementationRegistry registry) {
+        this.configCache = configCache;
+        this.registry = registry;
+    }
+
+    public String md5Of(Object domainObject) {
+        MessageDigest digest = DigestUtils.getMd5Digest();
+        updateWithElement(digest, domainObject);
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private void updateWithElement(MessageDigest digest, Object element) {
+        updateWithString(digest, element.getClass().getName());
+        List<GoConfigFieldWriter> fields = new GoConfigClassWriter(element.getClass(), configCache, registry).getAllFields(element);
+        for (GoConfigFieldWriter field : fields) {
+            updateWithString(digest, field.getConfigField().getName());
+            Object value = field.getValue();
+            if (value == null) {
+                updateWithString(digest, NULL_MARKER);
+            } else if (field.isSubtag()) {
+                updateWithElement(digest, value);
+            } else if (field.isAttribute() || field.isConfigValue()) {
+                updateWithString(digest, valueString(value));
+            }
+        }
+
+        if (element instanceof Collection) {
+            for (Object item : (Collection) element) {
+                if (item == null) {
+                    updateWithString(digest, NULL_MARKER);
+                } else {
+                    updateWithElement(digest, item);
+                }
+            }
+        } else if (fields.isEmpty()) {
+            updateWithString(digest, valueString(element));
+        }
+        digest.update(SEPARATOR);
+    }
+
+    private void updateWithString(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update(SEPARATOR);
+    }
+
+    private String valueString(Object value) {
+        ConfigAttributeValue attributeValue = value.getClass().getAnnotation(ConfigAttributeValue.class);
+        if (attributeValue == null) {
+            return value.toString();
+        }
+        try {
+            Field field = attributeValueField(value.getClass(), attributeValue);
+            field.setAccessible(true);
+            return String.valueOf(field.get(value));
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw bomb(e);
+        }
+    }
+
+    private Field attributeValueField(Class clazz, ConfigAttributeValue attributeValue) throws NoSuchFieldException {
+        try {
+            return clazz.getDeclaredField(attributeValue.fieldName());
+        } catch (NoSuchFieldException e) {
+            Class superclass = clazz.getSuperclass();
+            if (superclass == null) {
+                throw e;
+            }
+            return attributeValueField(superclass, attributeValue);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import com.rits.cloning.Cloner;
 import com.thoughtworks.go.config.BasicCruiseConfig.AllPipelineConfigs;
 import com.thoughtworks.go.config.BasicCruiseConfig.AllTemplatesWithAssociatedPipelines;
 import com.thoughtworks.go.config.BasicCruiseConfig.PipelineNameToConfigMap;
+import com.thoughtworks.go.security.GoCipher;
 
 // Cloner to handle nullification of specific classes in config objects.
 // A specific field can be ignored from being cloned by setting `cloner.setNullTransient(true)` and marking the field as 'transient',
@@ -29,6 +30,10 @@ import com.thoughtworks.go.config.BasicCruiseConfig.PipelineNameToConfigMap;
 // Thing is BasicCruiseConfig.groups is a type of ArrayList.
 // ArrayList.elementData is a transient field which doesn't get cloned, causing NullPointerExceptions when `groups` is accessed from the cloned object.
 // This is one place to mark all the classes to be ignored during clone.
+//
+// Instances which never change once created are shared between the original and the clone rather than copied. Every
+// pipeline, stage, material and environment variable carries a few of these, so on large configs copying them made up
+// a good part of the time and garbage of a clone.
 public class GoConfigCloner extends Cloner {
     public GoConfigCloner() {
         nullInsteadOfClone(AllPipelineConfigs.class,
@@ -36,5 +41,7 @@ public class GoConfigCloner extends Cloner {
                 PipelineNameToConfigMap.class,
                 CachedPluggableArtifactConfigs.class,
                 CachedFetchPluggableArtifactTasks.class);
+        registerImmutable(CaseInsensitiveString.class);
+        dontClone(GoCipher.class);
     }
 }
@@ -34,6 +34,7 @@ import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.lib.*;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.slf4j.Logger;
@@ -48,6 +49,8 @@ import java.io.IOException;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.StreamSupport;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -69,6 +72,9 @@ public class ConfigRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(ConfigRepository.class.getName());
     private Git git;
     private Repository gitRepo;
+    private final ConfigRevisionIndex revisionIndex;
+    // gc repacks and prunes objects from under readers that do not take the repository lock
+    private final ReadWriteLock gcLock = new ReentrantReadWriteLock();
 
     @Autowired
     public ConfigRepository(SystemEnvironment systemEnvironment) throws IOException {
@@ -78,6 +84,7 @@ public class ConfigRepository {
         gitRepo = new FileRepositoryBuilder().setGitDir(configRepoDir).build();
         gitRepo.getConfig().setInt("gc", null, "auto", 0);
         git = new Git(gitRepo);
+        revisionIndex = new ConfigRevisionIndex(gitRepo);
     }
 
 
@@ -122,6 +129,7 @@ public class ConfigRepository {
                 public void run() throws Exception {
                     addCommand.addFilepattern(CRUISE_CONFIG_XML).call();
                     git.commit().setAuthor(rev.getUsername(), STUDIOS_PRODUCT).setMessage(rev.getComment()).call();
+                    refreshRevisionIndex();
                 }
             });
         } catch (Exception e) {
@@ -136,6 +144,15 @@ public class ConfigRepository {
         }
     }
 
+    private <T, E extends Exception> T readCommitted(ThrowingFn<T, E> read) throws E {
+        gcLock.readLock().lock();
+        try {
+            return read.call();
+        } finally {
+            gcLock.readLock().unlock();
+        }
+    }
+
     public GoConfigRevision getRevision(String md5) throws GitAPIException {
         return CURRENT.equals(md5) ? getCurrentRevision() : findRevisionByMd5(md5);
     }
@@ -145,13 +162,32 @@ public class ConfigRepository {
         return command.call();
     }
 
+    private void refreshRevisionIndex() {
+        try {
+            revisionIndex.refresh();
+        } catch (IOException e) {
+            LOGGER.warn("[CONFIG REPOSITORY] Could not update the config revision index", e);
+        }
+    }
+
     private GoConfigRevision findRevisionByMd5(final String md5) throws GitAPIException {
-        return doLocked(() -> getGoConfigRevision(getRevCommitForMd5(md5)));
+        // reads only committed objects, so it waits for gc but not for a config save holding the lock
+        return readCommitted(() -> getGoConfigRevision(getRevCommitForMd5(md5)));
     }
 
     public RevCommit getRevCommitForMd5(String md5) throws GitAPIException {
         Assert.notNull(md5, "md5 is required");
 
+        try {
+            ObjectId commitId = revisionIndex.commitFor(GoConfigRevision.esc(md5));
+            if (commitId == null) {
+                throw new IllegalArgumentException(String.format("There is no config version corresponding to md5: '%s'", md5));
+            }
+            return parseCommit(commitId);
+        } catch (IOException e) {
+            LOGGER.warn("[CONFIG REPOSITORY] Could not use the config revision index, searching the history instead", e);
+        }
+
         final String expectedPart = GoConfigRevision.Fragment.md5.represent(GoConfigRevision.esc(md5));
         for (RevCommit revision : revisions()) {
             String message = revision.getFullMessage();
@@ -162,15 +198,26 @@ public class ConfigRepository {
         throw new IllegalArgumentException(String.format("There is no config version corresponding to md5: '%s'", md5));
     }
 
-    RevCommit getRevCommitForCommitSHA(String commitSHA) throws GitAPIException {
-        for (RevCommit revision : revisions()) {
-            if (revision.getName().equals(commitSHA)) {
-                return revision;
+    RevCommit getRevCommitForCommitSHA(String commitSHA) {
+        try {
+            if (ObjectId.isId(commitSHA)) {
+                return parseCommit(ObjectId.fromString(commitSHA));
             }
+        } catch (MissingObjectException | IncorrectObjectTypeException e) {
+            // fall through, there is no such commit
+        } catch (IOException e) {
+            LOGGER.error("Could not read commit {} from the config repository found at path '{}'", commitSHA, workingDir.getAbsolutePath(), e);
+            throw new RuntimeException("Error while reading a commit from the config repository.", e);
         }
         throw new IllegalArgumentException(String.format("There is no commit corresponding to SHA: '%s'", commitSHA));
     }
 
+    private RevCommit parseCommit(ObjectId commitId) throws IOException {
+        try (RevWalk walk = new RevWalk(gitRepo)) {
+            return walk.parseCommit(commitId);
+        }
+    }
+
     public GoConfigRevision getCurrentRevision() {
         return doLocked(() -> {
             RevCommit revision;
@@ -251,7 +298,7 @@ public class ConfigRepository {
     }
 
     public String configChangesFor(final String laterMD5, final String earlierMD5) throws GitAPIException {
-        return doLocked(() -> {
+        return readCommitted(() -> {
             RevCommit laterCommit = null;
             RevCommit earlierCommit = null;
             if (!StringUtils.isBlank(laterMD5)) {
@@ -264,7 +311,7 @@ public class ConfigRepository {
     }
 
     public String configChangesForCommits(final String fromRevision, final String toRevision) throws GitAPIException {
-        return doLocked(() -> {
+        return readCommitted(() -> {
             RevCommit laterCommit = null;
             RevCommit earlierCommit = null;
             if (!StringUtils.isBlank(fromRevision)) {
@@ -385,6 +432,7 @@ public class ConfigRepository {
         doLocked(new VoidThrowingFn<Exception>() {
             @Override
             public void run() throws Exception {
+                gcLock.writeLock().lock();
                 try {
                     LOGGER.info("Before GC: {}", git.gc().getStatistics());
                     LOGGER.debug("Before GC: Size - {}", getConfigRepoDisplaySize());
@@ -397,6 +445,8 @@ public class ConfigRepository {
                 } catch (GitAPIException e) {
                     LOGGER.error("Could not perform GC", e);
                     throw e;
+                } finally {
+                    gcLock.writeLock().unlock();
                 }
             }
         });
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.service;
+
+import com.thoughtworks.go.domain.GoConfigRevision;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * @understands which commit on master last recorded a given config md5
+ * <p>
+ * The index is kept next to the git repository (one {@code <commit-sha> <md5>} line per commit, plus a {@code tip <sha>}
+ * line after each batch) and is brought up to date by walking only the commits added to master since the recorded tip.
+ */
+class ConfigRevisionIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigRevisionIndex.class);
+    static final String INDEX_FILE = "go-config-md5-index";
+    private static final String MASTER = "refs/heads/master";
+    private static final String TIP = "tip";
+    private static final String MD5_PREFIX = GoConfigRevision.Fragment.md5.represent("");
+
+    private final Repository repository;
+    private final File indexFile;
+    private final Map<String, ObjectId> commitsByMd5 = new ConcurrentHashMap<>();
+    private ObjectId indexedTip;
+    private boolean loaded;
+
+    ConfigRevisionIndex(Repository repository) {
+        this.repository = repository;
+        this.indexFile = new File(repository.getDirectory(), INDEX_FILE);
+    }
+
+    ObjectId commitFor(String escapedMd5) throws IOException {
+        refresh();
+        return commitsByMd5.get(escapedMd5);
+    }
+
+    synchronized void refresh() throws IOException {
+        if (!loaded) {
+            load();
+            loaded = true;
+        }
+
+        Ref master = repository.exactRef(MASTER);
+        if (master == null || master.getObjectId() == null) {
+            return;
+        }
+
+        ObjectId tip = master.getObjectId();
+        if (tip.equals(indexedTip)) {
+            return;
+        }
+
+        boolean incremental = indexedTip != null && isAncestorOf(indexedTip, tip);
+        List<String[]> entries = new ArrayList<>();
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.markStart(walk.parseCommit(tip));
+            if (incremental) {
+                walk.markUninteresting(walk.parseCommit(indexedTip));
+            }
+            for (RevCommit commit : walk) {
+                String md5 = md5Of(commit.getFullMessage());
+                if (md5 != null) {
+                    entries.add(new String[]{commit.name(), md5});
+                }
+            }
+        }
+        // the walk returns newest commits first, apply oldest first so that the latest commit wins for a repeated md5
+        Collections.reverse(entries);
+
+        if (!incremental) {
+            commitsByMd5.clear();
+        }
+        for (String[] entry : entries) {
+            commitsByMd5.put(entry[1], ObjectId.fromString(entry[0]));
+        }
+        indexedTip = tip.copy();
+        persist(entries, incremental);
+    }
+
+    private boolean isAncestorOf(ObjectId ancestor, ObjectId tip) throws IOException {
+        try (RevWalk walk = new RevWalk(repository)) {
+            return walk.isMergedInto(walk.parseCommit(ancestor), walk.parseCommit(tip));
+        } catch (MissingObjectException e) {
+            return false;
+        }
+    }
+
+    static String md5Of(String message) {
+        int index = message.lastIndexOf(MD5_PREFIX);
+        return index < 0 ? null : message.substring(index + MD5_PREFIX.length());
+    }
+
+    private void load() {
+        if (!indexFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(' ');
+                String key = line.substring(0, separator);
+                String value = line.substring(separator + 1);
+                if (TIP.equals(key)) {
+                    indexedTip = ObjectId.fromString(value);
+                } else {
+                    commitsByMd5.put(value, ObjectId.fromString(key));
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("[CONFIG REPOSITORY] Could not read the config revision index at '{}', it will be rebuilt.", indexFile.getAbsolutePath(), e);
+            commitsByMd5.clear();
+            indexedTip = null;
+        }
+    }
+
+    private void persist(List<String[]> entries, boolean append) {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(indexFile, append), UTF_8))) {
+            for (String[] entry : entries) {
+                writer.write(entry[0] + " " + entry[1] + "\n");
+            }
+            writer.write(TIP + " " + indexedTip.name() + "\n");
+        } catch (IOException e) {
+            LOGGER.warn("[CONFIG REPOSITORY] Could not write the config revision index at '{}'.", indexFile.getAbsolutePath(), e);
+        }
+    }
+}
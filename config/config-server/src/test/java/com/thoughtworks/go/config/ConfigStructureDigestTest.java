@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.materials.MaterialConfigs;
+import com.thoughtworks.go.helper.PipelineConfigMother;
+import com.thoughtworks.go.util.ConfigElementImplementationRegistryMother;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+public class ConfigStructureDigestTest {
+    private ConfigStructureDigest digest;
+
+    @Before
+    public void setUp() {
+        digest = new ConfigStructureDigest(new ConfigCache(), ConfigElementImplementationRegistryMother.withNoPlugins());
+    }
+
+    @Test
+    public void shouldComputeTheSameDigestForStructurallyEqualConfigs() {
+        PipelineConfig first = PipelineConfigMother.pipelineConfig("p1", new MaterialConfigs(git("http://git")));
+        PipelineConfig second = PipelineConfigMother.pipelineConfig("p1", new MaterialConfigs(git("http://git")));
+
+        assertThat(digest.md5Of(first), is(digest.md5Of(second)));
+    }
+
+    @Test
+    public void shouldChangeDigestWhenAnAttributeChanges() {
+        PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig("p1");
+        String before = digest.md5Of(pipelineConfig);
+
+        pipelineConfig.setLabelTemplate("${COUNT}-foo");
+
+        assertThat(digest.md5Of(pipelineConfig), is(not(before)));
+    }
+
+    @Test
+    public void shouldChangeDigestWhenANestedElementChanges() {
+        PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig("p1", new MaterialConfigs(git("http://git")));
+        String before = digest.md5Of(pipelineConfig);
+
+        pipelineConfig.materialConfigs().clear();
+        pipelineConfig.materialConfigs().add(git("http://another-git"));
+
+        assertThat(digest.md5Of(pipelineConfig), is(not(before)));
+    }
+
+    @Test
+    public void shouldChangeDigestWhenItemsAreAddedToACollection() {
+        PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig("p1");
+        String before = digest.md5Of(pipelineConfig);
+
+        pipelineConfig.addEnvironmentVariable("foo", "bar");
+
+        assertThat(digest.md5Of(pipelineConfig), is(not(before)));
+    }
+
+    @Test
+    public void shouldDistinguishValuesMovedBetweenFields() {
+        EnvironmentVariableConfig first = new EnvironmentVariableConfig("foo", "bar");
+        EnvironmentVariableConfig second = new EnvironmentVariableConfig("foobar", "");
+
+        assertThat(digest.md5Of(first), is(not(digest.md5Of(second))));
+    }
+}
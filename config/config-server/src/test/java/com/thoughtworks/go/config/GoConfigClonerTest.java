@@ -98,6 +98,22 @@ public class GoConfigClonerTest {
         assertThat(ReflectionUtil.getField(cloned.getAllPipelineConfigs().get(0), "fetchExternalArtifactTasks"), is(nullValue()));
     }
 
+    @Test
+    public void shouldShareValuesWhichNeverChangeInsteadOfCloningThem() {
+        BasicCruiseConfig config = GoConfigMother.configWithPipelines("p1", "p2");
+        EnvironmentVariableConfig variable = new EnvironmentVariableConfig("foo", "bar");
+        config.getAllPipelineConfigs().get(0).addEnvironmentVariable(variable);
+
+        BasicCruiseConfig cloned = new GoConfigCloner().deepClone(config);
+
+        PipelineConfig clonedPipeline = cloned.getAllPipelineConfigs().get(0);
+        assertThat(clonedPipeline, is(not(sameInstance(config.getAllPipelineConfigs().get(0)))));
+        assertThat(clonedPipeline.name(), is(sameInstance(config.getAllPipelineConfigs().get(0).name())));
+        EnvironmentVariableConfig clonedVariable = clonedPipeline.getVariables().get(0);
+        assertThat(clonedVariable, is(not(sameInstance(variable))));
+        assertThat(ReflectionUtil.getField(clonedVariable, "goCipher"), is(sameInstance(ReflectionUtil.getField(variable, "goCipher"))));
+    }
+
     @Test
     public void shouldDeepCloneObject() {
         BasicCruiseConfig config = GoConfigMother.configWithPipelines("p1", "p2");
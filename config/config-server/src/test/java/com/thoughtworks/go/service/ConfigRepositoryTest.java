@@ -23,6 +23,7 @@ import com.thoughtworks.go.helper.ConfigFileFixture;
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TimeProvider;
 import org.eclipse.jgit.api.ListBranchCommand;
+import org.eclipse.jgit.api.ResetCommand.ResetType;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.revwalk.RevCommit;
@@ -399,6 +400,60 @@ public class ConfigRepositoryTest {
         assertThat(configRepo.commitCountOnMaster(), is(2L));
     }
 
+    @Test
+    public void shouldFindTheLatestCommitForAnMd5ThatWasCheckedInMoreThanOnce() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        configRepo.checkin(goConfigRevision("v2", "md5-2"));
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+
+        assertThat(configRepo.getRevCommitForMd5("md5-1"), is(configRepo.getCurrentRevCommit()));
+    }
+
+    @Test
+    public void shouldPersistTheRevisionIndexAndPickUpCommitsMadeSince() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        configRepo.checkin(goConfigRevision("v2", "md5-2"));
+        assertThat(new File(configRepo.getGitRepo().getDirectory(), ConfigRevisionIndex.INDEX_FILE).exists(), is(true));
+
+        configRepo.checkin(goConfigRevision("v3", "md5-3"));
+        ConfigRepository reloaded = new ConfigRepository(systemEnvironment);
+        try {
+            assertThat(reloaded.getRevision("md5-1").getContent(), is("v1"));
+            assertThat(reloaded.getRevision("md5-3").getContent(), is("v3"));
+        } finally {
+            reloaded.getGitRepo().close();
+        }
+    }
+
+    @Test
+    public void shouldRebuildTheRevisionIndexWhenMasterIsRewritten() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        RevCommit first = configRepo.getCurrentRevCommit();
+        configRepo.checkin(goConfigRevision("v2", "md5-2"));
+        assertThat(configRepo.getRevision("md5-2").getContent(), is("v2"));
+
+        configRepo.git().reset().setMode(ResetType.HARD).setRef(first.getName()).call();
+        configRepo.checkin(goConfigRevision("v3", "md5-3"));
+
+        assertThat(configRepo.getRevision("md5-3").getContent(), is("v3"));
+        try {
+            configRepo.getRevision("md5-2");
+            fail("md5-2 is no longer on master");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("There is no config version corresponding to md5: 'md5-2'"));
+        }
+    }
+
+    @Test
+    public void shouldFailToFindACommitForAnUnknownSHA() {
+        try {
+            configRepo.getRevCommitForCommitSHA("not-a-sha");
+            fail("Should have failed");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("There is no commit corresponding to SHA: 'not-a-sha'"));
+        }
+    }
+
     private GoConfigRevision goConfigRevision(String fileContent, String md5) {
         return new GoConfigRevision(fileContent, md5, "user-1", "13.2", new TimeProvider());
     }
@@ -48,6 +48,7 @@ public class Stage extends PersistentObject {
     private boolean cleanWorkingDir = StageConfig.DEFAULT_CLEAN_WORKING_DIR;
     private Integer rerunOfCounter;
     private boolean artifactsDeleted;
+    private Long artifactsSize;
 
     private static final StageResult DEFAULT_RESULT = StageResult.Unknown;
     private static final Cloner CLONER = new Cloner();
@@ -483,6 +484,18 @@ public class Stage extends PersistentObject {
         this.artifactsDeleted = artifactsDeleted;
     }
 
+    /**
+     * @return the number of bytes uploaded as artifacts of this stage, or null when not known. Only looked up for stages
+     * which are candidates for artifact cleanup.
+     */
+    public Long getArtifactsSize() {
+        return artifactsSize;
+    }
+
+    public void setArtifactsSize(Long artifactsSize) {
+        this.artifactsSize = artifactsSize;
+    }
+
     public String getConfigVersion() {
         return this.configVersion;
     }
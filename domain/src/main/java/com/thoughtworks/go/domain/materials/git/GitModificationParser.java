@@ -24,6 +24,8 @@ import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static com.thoughtworks.go.domain.materials.ModifiedAction.parseGitAction;
+
 public class GitModificationParser {
     private LinkedList<Modification> modifications = new LinkedList<>();
     private static final String SPACES = "\\s+";
@@ -36,6 +38,7 @@ public class GitModificationParser {
     private static final Pattern AUTHOR_PATTERN = Pattern.compile("^Author:"+ SPACES + AUTHOR + "$");
     private static final Pattern DATE_PATTERN = Pattern.compile("^Date:" + SPACES + DATE + "$");
     private static final Pattern COMMENT_PATTERN = Pattern.compile("^" + COMMENT_INDENT + COMMENT_TEXT + "$");
+    private static final Pattern NAME_STATUS_PATTERN = Pattern.compile("^([A-Z])[0-9]*\t(.+)$");
 
     public List<Modification> parse(List<String> output) {
         for (String line : output) {
@@ -52,14 +55,17 @@ public class GitModificationParser {
         Matcher matcher = COMMIT_PATTERN.matcher(line);
         if (matcher.matches()) {
             modifications.add(new Modification("", "", null, null, matcher.group(1)));
+            return;
         }
         Matcher authorMatcher = AUTHOR_PATTERN.matcher(line);
         if (authorMatcher.matches()) {
             modifications.getLast().setUserName(authorMatcher.group(1));
+            return;
         }
         Matcher dateMatcher = DATE_PATTERN.matcher(line);
         if (dateMatcher.matches()) {
             modifications.getLast().setModifiedTime(DateUtils.parseISO8601(dateMatcher.group(1)));
+            return;
         }
         Matcher commentMatcher = COMMENT_PATTERN.matcher(line);
         if (commentMatcher.matches()) {
@@ -67,6 +73,12 @@ public class GitModificationParser {
             String comment = Optional.ofNullable(last.getComment()).orElse("");
             if (!comment.isEmpty()) comment += "\n";
             last.setComment(comment + commentMatcher.group(1));
-       }
+            return;
+        }
+        // a file changed by the commit, as listed by git log --name-status
+        Matcher nameStatusMatcher = NAME_STATUS_PATTERN.matcher(line);
+        if (nameStatusMatcher.matches() && !modifications.isEmpty()) {
+            modifications.getLast().createModifiedFile(nameStatusMatcher.group(2), null, parseGitAction(nameStatusMatcher.group(1).charAt(0)));
+        }
     }
 }
@@ -0,0 +1,25 @@
+--
+-- Copyright 2019 ThoughtWorks, Inc.
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--    http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- NULL means the size is not known: existing stages are left NULL, since walking all their artifacts on disk to add
+-- them up would make this migration take as long as the artifacts are large. The artifacts disk cleaner deletes such
+-- stages one at a time and checks the free disk space after each. Stages created from now on start counting at 0.
+ALTER TABLE stages ADD COLUMN artifactsSize BIGINT DEFAULT NULL;
+ALTER TABLE stages ALTER COLUMN artifactsSize SET DEFAULT 0;
+
+--//@UNDO
+
+ALTER TABLE stages DROP COLUMN artifactsSize;
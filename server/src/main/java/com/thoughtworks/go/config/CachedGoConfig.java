@@ -50,9 +50,7 @@ public class CachedGoConfig {
     private MaintenanceModeService maintenanceModeService;
     private final ServerHealthService serverHealthService;
     private List<ConfigChangedListener> listeners = new ArrayList<>();
-    private volatile CruiseConfig currentConfig;
-    private volatile CruiseConfig currentConfigForEdit;
-    private volatile CruiseConfig mergedCurrentConfigForEdit;
+    //the config, config for edit and merged config for edit are only ever swapped together, so readers always see a consistent snapshot without locking
     private volatile GoConfigHolder configHolder;
     private volatile Exception lastException;
 
@@ -114,27 +112,34 @@ public class CachedGoConfig {
 
     public CruiseConfig loadForEditing() {
         loadConfigIfNull();
-        return currentConfigForEdit;
+        GoConfigHolder holder = configHolder;
+        return holder == null ? null : holder.configForEdit;
     }
 
     public CruiseConfig loadMergedForEditing() {
         loadConfigIfNull();
-        if (mergedCurrentConfigForEdit == null) {
+        GoConfigHolder holder = configHolder;
+        if (holder == null) {
+            return null;
+        }
+        if (holder.mergedConfigForEdit == null) {
             // when there are no partials, just return standard config for edit
-            return currentConfigForEdit;
+            return holder.configForEdit;
         }
-        return mergedCurrentConfigForEdit;
+        return holder.mergedConfigForEdit;
     }
 
     public CruiseConfig currentConfig() {
-        if (currentConfig == null) {
-            currentConfig = new BasicCruiseConfig();
+        GoConfigHolder holder = configHolder;
+        if (holder == null || holder.config == null) {
+            return new BasicCruiseConfig();
         }
-        return currentConfig;
+        return holder.config;
     }
 
     public void loadConfigIfNull() {
-        if (currentConfig == null || currentConfigForEdit == null || configHolder == null || (mergedCurrentConfigForEdit == null && !cachedGoPartials.lastValidPartials().isEmpty())) {
+        GoConfigHolder holder = configHolder;
+        if (holder == null || holder.config == null || holder.configForEdit == null || (holder.mergedConfigForEdit == null && !cachedGoPartials.lastValidPartials().isEmpty())) {
             forceReload();
         }
     }
@@ -186,9 +191,6 @@ public class CachedGoConfig {
             LOGGER.debug("[Config Save] Saving config to the cache");
             this.lastException = null;
             this.configHolder = configHolder;
-            this.currentConfig = this.configHolder.config;
-            this.currentConfigForEdit = this.configHolder.configForEdit;
-            this.mergedCurrentConfigForEdit = configHolder.mergedConfigForEdit;
             serverHealthService.update(ServerHealthState.success(HealthStateType.invalidConfig()));
         }
     }
@@ -196,7 +198,7 @@ public class CachedGoConfig {
     private synchronized void saveValidConfigToCacheAndNotifyConfigChangeListeners(GoConfigHolder configHolder) {
         saveValidConfigToCache(configHolder);
         if (configHolder != null) {
-            notifyListeners(currentConfig);
+            notifyListeners(configHolder.config);
         }
     }
 
@@ -214,8 +216,9 @@ public class CachedGoConfig {
 
     public synchronized void registerListener(ConfigChangedListener listener) {
         this.listeners.add(listener);
-        if (currentConfig != null) {
-            listener.onConfigChange(currentConfig);
+        GoConfigHolder holder = configHolder;
+        if (holder != null && holder.config != null) {
+            listener.onConfigChange(holder.config);
         }
     }
 
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.listener;
+
+import com.thoughtworks.go.domain.JobPlan;
+
+import java.util.List;
+
+/**
+ * @understands being told that jobs which were not known before are now waiting for an agent
+ */
+public interface ScheduledJobsListener {
+
+    void newJobsScheduled(List<JobPlan> newJobs);
+
+}
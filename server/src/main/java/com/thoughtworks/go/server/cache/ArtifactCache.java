@@ -32,6 +32,7 @@ public abstract class ArtifactCache<T> {
     protected ConcurrentSkipListSet<T> pendingCacheFiles = new ConcurrentSkipListSet<>();
     protected ConcurrentMap<T, Exception> pendingExceptions = new ConcurrentHashMap<>();
     public static final String CACHE_ARTIFACTS_FOLDER = "cache/artifacts/";
+    private final CacheRegionStatistics statistics = new CacheRegionStatistics(getClass().getSimpleName());
 
     public ArtifactCache(ArtifactsDirHolder artifactsDirHolder) {
         this.artifactsDirHolder = artifactsDirHolder;
@@ -47,7 +48,10 @@ public abstract class ArtifactCache<T> {
                 return false;
             }
         }
-        if (cacheAlreadyCreated(artifactLocation)) { return true; }
+        if (cacheAlreadyCreated(artifactLocation)) {
+            statistics.recordHit();
+            return true;
+        }
 
         startCacheCreationThread(artifactLocation);
         return false;
@@ -68,11 +72,13 @@ public abstract class ArtifactCache<T> {
     protected void startCacheCreationThread(final T artifactLocation) {
         boolean inserted = pendingCacheFiles.add(artifactLocation);
         if (inserted) {
+            statistics.recordMiss();
             Thread cacheCreatorThread = new Thread("cache-creator-thread-" + UUID.randomUUID().toString()) {
                 @Override
                 public void run() {
                     try {
                         createCachedFile(artifactLocation);
+                        statistics.recordPut();
                     } catch (Exception e) {
                         pendingExceptions.putIfAbsent(artifactLocation, e);
                     } finally {
@@ -86,5 +92,13 @@ public abstract class ArtifactCache<T> {
 
     public abstract File cachedFile(T artifactLocation);
 
+    /**
+     * Cached files live on disk under {@link #CACHE_ARTIFACTS_FOLDER}; they are not counted here since that means
+     * walking the whole cache folder.
+     */
+    public CacheRegionUsage usage() {
+        return new CacheRegionUsage("artifacts", statistics, CacheRegionUsage.UNKNOWN_ENTRIES);
+    }
+
     abstract void createCachedFile(T artifactLocation) throws IOException;
 }
@@ -53,6 +53,7 @@ public class CacheEvictionListener implements CacheEventListener {
     }
 
     private void removeCompositeKeyFromParentCache(Element element) {
+        goCache.recordEviction((String) element.getKey(), element);
         goCache.removeAssociations((String) element.getKey(), element);
     }
 
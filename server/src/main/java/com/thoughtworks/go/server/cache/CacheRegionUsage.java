@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @understands a point-in-time view of how one region of a cache is being used
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class CacheRegionUsage {
+    public static final long UNKNOWN_ENTRIES = -1;
+
+    private final String cache;
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final long removals;
+    private final long evictions;
+    private final long entries;
+
+    public CacheRegionUsage(String cache, CacheRegionStatistics statistics, long entries) {
+        this(cache, statistics.getRegion(), statistics.getHits(), statistics.getMisses(), statistics.getPuts(),
+                statistics.getRemovals(), statistics.getEvictions(), entries);
+    }
+
+    public CacheRegionUsage(String cache, String region, long hits, long misses, long puts, long removals, long evictions, long entries) {
+        this.cache = cache;
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.removals = removals;
+        this.evictions = evictions;
+        this.entries = entries;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @understands attributing cache usage to regions derived from cache keys
+ */
+public class CacheStatistics {
+    static final String KEY_GENERATOR_DELIMITER = ".$";
+    static final String OTHER_REGION = "other";
+    private static final int MAX_REGION_LENGTH = 128;
+
+    private final ConcurrentMap<String, CacheRegionStatistics> regions = new ConcurrentHashMap<>();
+
+    public CacheRegionStatistics forKey(String key) {
+        return forRegion(regionOf(key));
+    }
+
+    public CacheRegionStatistics forRegion(String region) {
+        return regions.computeIfAbsent(region, CacheRegionStatistics::new);
+    }
+
+    public List<CacheRegionStatistics> all() {
+        List<CacheRegionStatistics> all = new ArrayList<>(regions.values());
+        all.sort(Comparator.comparing(CacheRegionStatistics::getRegion));
+        return all;
+    }
+
+    public void clear() {
+        regions.clear();
+    }
+
+    /**
+     * Keys built by {@link CacheKeyGenerator} belong to the region named by their class and identifier. Any other key
+     * belongs to the region named by its leading run of non-digit characters, so that keys carrying ids or counters
+     * (for example <code>pipeline_history_42</code>) share a region.
+     */
+    static String regionOf(String key) {
+        if (key == null) {
+            return OTHER_REGION;
+        }
+        int subKeyStart = key.indexOf(GoCache.SUB_KEY_DELIMITER);
+        if (subKeyStart >= 0) {
+            key = key.substring(0, subKeyStart);
+        }
+
+        int classEnd = key.indexOf(KEY_GENERATOR_DELIMITER);
+        if (classEnd >= 0) {
+            int identifierEnd = key.indexOf(KEY_GENERATOR_DELIMITER, classEnd + KEY_GENERATOR_DELIMITER.length());
+            return truncate(identifierEnd >= 0 ? key.substring(0, identifierEnd) : key);
+        }
+
+        int end = 0;
+        while (end < key.length() && !Character.isDigit(key.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? OTHER_REGION : truncate(key.substring(0, end));
+    }
+
+    private static String truncate(String region) {
+        return region.length() > MAX_REGION_LENGTH ? region.substring(0, MAX_REGION_LENGTH) : region;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.server.cache;
 
+import com.google.common.util.concurrent.Striped;
 import com.thoughtworks.go.domain.NullUser;
 import com.thoughtworks.go.domain.PersistentObject;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
@@ -28,9 +29,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.support.TransactionSynchronizationAdapter;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
@@ -41,6 +46,7 @@ public class GoCache {
     private final ThreadLocal<Boolean> doNotServeForTransaction = new ThreadLocal<>();
 
     public static final String SUB_KEY_DELIMITER = "!_#$#_!";
+    private static final int LOCK_STRIPES = 256;
 
     private Ehcache ehCache;
 
@@ -48,6 +54,8 @@ public class GoCache {
     private TransactionSynchronizationManager transactionSynchronizationManager;
 
     private final Set<Class<? extends PersistentObject>> nullObjectClasses;
+    private final Striped<Lock> keyLocks = Striped.lock(LOCK_STRIPES);
+    private final CacheStatistics statistics = new CacheStatistics();
 
     static class KeyList extends HashSet<String> {
     }
@@ -102,6 +110,9 @@ public class GoCache {
             return;
         }
         ehCache.put(new Element(key, value));
+        if (!(value instanceof KeyList)) {
+            statistics.forKey(key).recordPut();
+        }
     }
 
     public List<String> getKeys() {
@@ -145,7 +156,14 @@ public class GoCache {
         if (doNotServeForTransaction()) {
             return null;
         }
-        return getWithoutTransactionCheck(key);
+        Object value = getWithoutTransactionCheck(key);
+        CacheRegionStatistics regionStatistics = statistics.forKey(key);
+        if (value == null) {
+            regionStatistics.recordMiss();
+        } else {
+            regionStatistics.recordHit();
+        }
+        return value;
     }
 
     private Object getWithoutTransactionCheck(String key) {
@@ -167,14 +185,18 @@ public class GoCache {
     }
 
     public boolean remove(String key) {
-        synchronized (key.intern()) {
+        Lock lock = lockFor(key);
+        try {
             Object value = getWithoutTransactionCheck(key);
             if (value instanceof KeyList) {
                 for (String subKey : (KeyList) value) {
-                    ehCache.remove(compositeKey(key, subKey));
+                    removeElement(compositeKey(key, subKey));
                 }
+                return ehCache.remove(key);
             }
-            return ehCache.remove(key);
+            return removeElement(key);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -192,13 +214,16 @@ public class GoCache {
 
     public void put(String key, String subKey, Object value) {
         KeyList subKeys;
-        synchronized (key.intern()) {
+        Lock lock = lockFor(key);
+        try {
             subKeys = subKeyFamily(key);
             if (subKeys == null) {
                 subKeys = new KeyList();
                 put(key, subKeys);
             }
             subKeys.add(subKey);
+        } finally {
+            lock.unlock();
         }
         put(compositeKey(key, subKey), value);
     }
@@ -211,24 +236,68 @@ public class GoCache {
 
     public void removeAssociations(String key, Element element) {
         if (element.getObjectValue() instanceof KeyList) {
-            synchronized (key.intern()) {
+            Lock lock = lockFor(key);
+            try {
                 for (String subkey : (KeyList) element.getObjectValue()) {
-                    remove(compositeKey(key, subkey));
+                    removeElement(compositeKey(key, subkey));
                 }
+            } finally {
+                lock.unlock();
             }
         } else if (key.contains(SUB_KEY_DELIMITER)) {
             String[] parts = StringUtils.splitByWholeSeparator(key, SUB_KEY_DELIMITER);
             String parentKey = parts[0];
             String childKey = parts[1];
-            synchronized (parentKey.intern()) {
+            Lock lock = lockFor(parentKey);
+            try {
                 Element parent = ehCache.get(parentKey);
                 if (parent == null) {
                     return;
                 }
                 KeyList subKeys = (KeyList) parent.getObjectValue();
                 subKeys.remove(childKey);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    void recordEviction(String key, Element element) {
+        if (!(element.getObjectValue() instanceof KeyList)) {
+            statistics.forKey(key).recordEviction();
+        }
+    }
+
+    /**
+     * @return hit, miss, put, removal and eviction counts for each region of this cache. Keys in a region share the
+     * class and identifier they were generated with by {@link CacheKeyGenerator}.
+     */
+    public List<CacheRegionStatistics> regionStatistics() {
+        return statistics.all();
+    }
+
+    /**
+     * @return usage of each region of this cache, including how many entries it currently holds. Counting entries
+     * walks every key in the cache, so this is meant for diagnostics rather than for request paths.
+     */
+    public List<CacheRegionUsage> regionUsage() {
+        Map<String, Long> entries = new HashMap<>();
+        for (Object key : ehCache.getKeys()) {
+            if (key instanceof String && !isSubKeyFamily((String) key)) {
+                entries.merge(CacheStatistics.regionOf((String) key), 1L, Long::sum);
             }
         }
+
+        List<CacheRegionUsage> usage = new ArrayList<>();
+        for (CacheRegionStatistics regionStatistics : statistics.all()) {
+            usage.add(new CacheRegionUsage(ehCache.getName(), regionStatistics, entries.getOrDefault(regionStatistics.getRegion(), 0L)));
+        }
+        return usage;
+    }
+
+    private boolean isSubKeyFamily(String key) {
+        Element element = ehCache.getQuiet(key);
+        return element != null && element.getObjectValue() instanceof KeyList;
     }
 
     public boolean isKeyInCache(Object key) {
@@ -236,7 +305,10 @@ public class GoCache {
     }
 
     private KeyList subKeyFamily(String parentKey) {
-        return (KeyList) get(parentKey);
+        if (doNotServeForTransaction()) {
+            return null;
+        }
+        return (KeyList) getWithoutTransactionCheck(parentKey);
     }
 
     private String compositeKey(String key, String subKey) {
@@ -248,16 +320,33 @@ public class GoCache {
     }
 
     public void remove(String key, String subKey) {
-        synchronized (key.intern()) {
+        Lock lock = lockFor(key);
+        try {
             KeyList subKeys = subKeyFamily(key);
             if(subKeys == null) {
                 return;
             }
             subKeys.remove(subKey);
-            remove(compositeKey(key, subKey));
+            removeElement(compositeKey(key, subKey));
+        } finally {
+            lock.unlock();
         }
     }
 
+    private boolean removeElement(String key) {
+        boolean removed = ehCache.remove(key);
+        if (removed) {
+            statistics.forKey(key).recordRemoval();
+        }
+        return removed;
+    }
+
+    private Lock lockFor(String key) {
+        Lock lock = keyLocks.get(key);
+        lock.lock();
+        return lock;
+    }
+
     public StatisticsGateway statistics() {
         return ehCache.getStatistics();
     }
@@ -17,10 +17,10 @@ package com.thoughtworks.go.server.cache;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.zip.Deflater;
 
 import com.thoughtworks.go.server.service.ArtifactsDirHolder;
 import com.thoughtworks.go.server.web.ArtifactFolder;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.ZipUtil;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -32,11 +32,17 @@ import static com.thoughtworks.go.util.StringUtil.removeTrailingSlash;
 @Component
 public class ZipArtifactCache extends ArtifactCache<ArtifactFolder> {
     private final ZipUtil zipUtil;
+    private final SystemEnvironment systemEnvironment;
 
-    @Autowired
     public ZipArtifactCache(ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil) {
+        this(artifactsDirHolder, zipUtil, new SystemEnvironment());
+    }
+
+    @Autowired
+    public ZipArtifactCache(ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, SystemEnvironment systemEnvironment) {
         super(artifactsDirHolder);
         this.zipUtil = zipUtil;
+        this.systemEnvironment = systemEnvironment;
     }
 
     @Override void createCachedFile(ArtifactFolder artifactFolder) throws IOException {
@@ -45,7 +51,7 @@ public class ZipArtifactCache extends ArtifactCache<ArtifactFolder> {
         File cachedTempZip = zipToTempFile(cachedZip);
         cachedTempZip.getParentFile().mkdirs();
         try {
-            zipUtil.zip(originalFolder, cachedTempZip, Deflater.DEFAULT_COMPRESSION);
+            zipUtil.zip(originalFolder, cachedTempZip, systemEnvironment.artifactZipCompressionLevel());
         } catch (IOException e) {
             cachedTempZip.delete();
             throw e;
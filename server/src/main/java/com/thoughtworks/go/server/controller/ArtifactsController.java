@@ -52,6 +52,7 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static com.thoughtworks.go.server.web.ZipArtifactFolderViewFactory.zipViewFactory;
 import static com.thoughtworks.go.util.ArtifactLogUtil.isConsoleOutput;
@@ -84,7 +85,7 @@ public class ArtifactsController {
 
         this.folderViewFactory = FileModelAndView.htmlViewFactory();
         this.jsonViewFactory = FileModelAndView.jsonViewfactory();
-        this.zipViewFactory = zipViewFactory(zipArtifactCache);
+        this.zipViewFactory = zipViewFactory(zipArtifactCache, systemEnvironment);
         this.headerConstraint = new HeaderConstraint(systemEnvironment);
         this.consoleLogCharset = systemEnvironment.consoleLogCharsetAsCharset();
     }
@@ -170,7 +171,7 @@ public class ArtifactsController {
                 return FileModelAndView.invalidUploadRequest();
             }
 
-            boolean success = saveFile(convertedAttempt, artifact, multipartFile, shouldUnzipStream(multipartFile));
+            boolean success = saveFile(convertedAttempt, artifact, multipartFile, shouldUnzipStream(multipartFile), jobIdentifier);
 
             if (!success) {
                 return FileModelAndView.errorSavingFile(filePath);
@@ -203,9 +204,9 @@ public class ArtifactsController {
         return true;
     }
 
-    private boolean saveFile(int convertedAttempt, File artifact, MultipartFile multipartFile, boolean shouldUnzip) throws IOException {
+    private boolean saveFile(int convertedAttempt, File artifact, MultipartFile multipartFile, boolean shouldUnzip, JobIdentifier jobIdentifier) throws IOException {
         try (InputStream inputStream = multipartFile.getInputStream()) {
-            return artifactsService.saveFile(artifact, inputStream, shouldUnzip, convertedAttempt);
+            return artifactsService.saveFile(artifact, inputStream, shouldUnzip, convertedAttempt, jobIdentifier);
         }
     }
 
@@ -232,7 +233,7 @@ public class ArtifactsController {
         }
 
         if (isConsoleOutput(filePath)) {
-            return putConsoleOutput(jobIdentifier, request.getInputStream());
+            return putConsoleOutput(jobIdentifier, consoleInputStream(request));
         } else {
             return putArtifact(jobIdentifier, filePath, request.getInputStream());
         }
@@ -309,6 +310,13 @@ public class ArtifactsController {
         return request.getFile(CHECKSUM_MULTIPART_FILENAME);
     }
 
+    private InputStream consoleInputStream(HttpServletRequest request) throws IOException {
+        if ("gzip".equalsIgnoreCase(request.getHeader("Content-Encoding"))) {
+            return new GZIPInputStream(request.getInputStream(), 8 * 1024);
+        }
+        return request.getInputStream();
+    }
+
     private ModelAndView putConsoleOutput(final JobIdentifier jobIdentifier, final InputStream inputStream) throws Exception {
         File consoleLogFile = consoleService.consoleLogFile(jobIdentifier);
         boolean updated = consoleService.updateConsoleLog(consoleLogFile, inputStream);
@@ -323,7 +331,7 @@ public class ArtifactsController {
     private ModelAndView putArtifact(JobIdentifier jobIdentifier, String filePath,
                                      InputStream inputStream) throws Exception {
         File artifact = artifactsService.findArtifact(jobIdentifier, filePath);
-        if (artifactsService.saveOrAppendFile(artifact, inputStream)) {
+        if (artifactsService.saveOrAppendFile(artifact, inputStream, jobIdentifier)) {
             return FileModelAndView.fileAppended(filePath);
         } else {
             return FileModelAndView.errorSavingFile(filePath);
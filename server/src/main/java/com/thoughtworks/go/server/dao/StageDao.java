@@ -96,6 +96,8 @@ public interface StageDao extends JobDurationStrategy {
 
     void markArtifactsDeletedFor(Stage stage);
 
+    void addToArtifactsSize(long buildId, long bytes);
+
     void clearCachedStage(StageIdentifier stageIdentifier);
 
     int getTotalStageCountForChart(String pipelineName, String stageName);
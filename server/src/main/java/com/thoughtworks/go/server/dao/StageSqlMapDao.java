@@ -727,6 +727,11 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         getSqlMapClientTemplate().update("markStageArtifactDeleted", arguments("stageId", stage.getId()).asMap());
     }
 
+    @Override
+    public void addToArtifactsSize(long buildId, long bytes) {
+        getSqlMapClientTemplate().update("addToArtifactsSizeOfStageOfJob", arguments("buildId", buildId).and("bytes", bytes).asMap());
+    }
+
     String cacheKeyForPipelineAndCounter(String pipelineName, int counter) {
         return cacheKeyGenerator.generate("allStagesOfPipelineInstance", pipelineName, counter);
     }
@@ -16,6 +16,8 @@
 package com.thoughtworks.go.server.dashboard;
 
 import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.server.cache.CacheRegionStatistics;
+import com.thoughtworks.go.server.cache.CacheRegionUsage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -23,6 +25,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /* Understands how to cache dashboard statuses, for every pipeline. */
 @Component
@@ -36,35 +39,51 @@ public class GoDashboardCache {
      */
     private LinkedHashMap<CaseInsensitiveString, GoDashboardPipeline> cache;
     private volatile GoDashboardPipelines dashboardPipelines;
+    private long layoutVersion;
+    private final CacheRegionStatistics statistics = new CacheRegionStatistics("pipelines");
 
     @Autowired
     public GoDashboardCache(TimeStampBasedCounter timeStampBasedCounter) {
         this.timeStampBasedCounter = timeStampBasedCounter;
         cache = new LinkedHashMap<>();
-        dashboardPipelines = new GoDashboardPipelines(new HashMap<>(), timeStampBasedCounter);
+        dashboardPipelines = new GoDashboardPipelines(new HashMap<>(), timeStampBasedCounter, layoutVersion);
     }
 
     public void put(GoDashboardPipeline pipeline) {
-        cache.put(pipeline.name(), pipeline);
+        GoDashboardPipeline previous = cache.put(pipeline.name(), pipeline);
+        if (previous == null || !Objects.equals(previous.permissions(), pipeline.permissions())) {
+            layoutVersion++;
+        }
+        statistics.recordPut();
         cacheHasChanged();
     }
 
     public void remove(CaseInsensitiveString pipelineName) {
-        cache.remove(pipelineName);
+        if (cache.remove(pipelineName) != null) {
+            layoutVersion++;
+            statistics.recordRemoval();
+        }
     }
 
     public void replaceAllEntriesInCacheWith(List<GoDashboardPipeline> newPipelinesToCache) {
         cache.clear();
         cache.putAll(createMapFor(newPipelinesToCache));
+        layoutVersion++;
+        newPipelinesToCache.forEach(pipeline -> statistics.recordPut());
         cacheHasChanged();
     }
 
     public GoDashboardPipelines allEntries() {
+        statistics.recordHit();
         return dashboardPipelines;
     }
 
+    public CacheRegionUsage usage() {
+        return new CacheRegionUsage("dashboard", statistics, cache.size());
+    }
+
     private void cacheHasChanged() {
-        dashboardPipelines = new GoDashboardPipelines(new HashMap<>(cache), timeStampBasedCounter);
+        dashboardPipelines = new GoDashboardPipelines(new HashMap<>(cache), timeStampBasedCounter, layoutVersion);
     }
 
     private Map<CaseInsensitiveString, GoDashboardPipeline> createMapFor(List<GoDashboardPipeline> pipelines) {
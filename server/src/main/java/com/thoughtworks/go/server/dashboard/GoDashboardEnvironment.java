@@ -35,4 +35,8 @@ public class GoDashboardEnvironment extends AbstractDashboardGroup {
     public String etag() {
         return digest(Integer.toString(allowedUsers.hashCode()));
     }
+
+    Users allowedUsers() {
+        return allowedUsers;
+    }
 }
@@ -43,4 +43,8 @@ public class GoDashboardPipelineGroup extends AbstractDashboardGroup {
     public boolean hasPermissions() {
         return permissions != null;
     }
+
+    Permissions permissions() {
+        return permissions;
+    }
 }
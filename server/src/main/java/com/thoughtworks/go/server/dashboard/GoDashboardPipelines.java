@@ -21,18 +21,38 @@ import java.util.Collection;
 import java.util.HashMap;
 
 public class GoDashboardPipelines {
+    private static final long UNKNOWN_LAYOUT = -1;
+
     private HashMap<CaseInsensitiveString, GoDashboardPipeline> pipelines;
     private long lastUpdatedTimeStamp;
+    private long layoutVersion;
 
     public GoDashboardPipelines(HashMap<CaseInsensitiveString, GoDashboardPipeline> pipelines, TimeStampBasedCounter timeStampBasedCounter) {
+        this(pipelines, timeStampBasedCounter, UNKNOWN_LAYOUT);
+    }
+
+    /**
+     * @param layoutVersion changes whenever a pipeline is added or removed, or its permissions change. Snapshots
+     *                      sharing a layout version only differ in the state of their pipelines.
+     */
+    public GoDashboardPipelines(HashMap<CaseInsensitiveString, GoDashboardPipeline> pipelines, TimeStampBasedCounter timeStampBasedCounter, long layoutVersion) {
         this.pipelines = pipelines;
         this.lastUpdatedTimeStamp = timeStampBasedCounter.getNext();
+        this.layoutVersion = layoutVersion;
     }
 
     public long lastUpdatedTimeStamp() {
         return lastUpdatedTimeStamp;
     }
 
+    public long layoutVersion() {
+        return layoutVersion;
+    }
+
+    public boolean hasLayoutVersion(long layoutVersion) {
+        return this.layoutVersion != UNKNOWN_LAYOUT && this.layoutVersion == layoutVersion;
+    }
+
     public Collection<GoDashboardPipeline> getPipelines() {
         return pipelines.values();
     }
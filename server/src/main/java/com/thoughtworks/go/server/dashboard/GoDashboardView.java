@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.dashboard;
+
+import com.thoughtworks.go.server.domain.Username;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/* Understands the pipeline groups and environments a user sees on one of their dashboard views, along with their etag. */
+public class GoDashboardView {
+    private static final String SEP_CHAR = "/";
+
+    private final Username username;
+    private final List<GoDashboardPipelineGroup> pipelineGroups;
+    private final List<GoDashboardEnvironment> environments;
+    private final String etag;
+
+    public GoDashboardView(Username username, List<GoDashboardPipelineGroup> pipelineGroups, List<GoDashboardEnvironment> environments) {
+        this.username = username;
+        this.pipelineGroups = pipelineGroups;
+        this.environments = environments;
+        this.etag = calcEtag();
+    }
+
+    public List<GoDashboardPipelineGroup> pipelineGroups() {
+        return pipelineGroups;
+    }
+
+    public List<GoDashboardEnvironment> environments() {
+        return environments;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    /**
+     * Builds the same view out of the latest state of its pipelines. Only valid when the pipelines have the same
+     * layout as the ones this view was worked out from, since which pipelines show up where stays the same.
+     */
+    public GoDashboardView refreshedWith(GoDashboardPipelines pipelines) {
+        List<GoDashboardPipelineGroup> refreshedGroups = new ArrayList<>();
+        for (GoDashboardPipelineGroup group : pipelineGroups) {
+            GoDashboardPipelineGroup refreshed = new GoDashboardPipelineGroup(group.name(), group.permissions(), group.hasDefinedPipelines());
+            group.allPipelines().forEach(pipeline -> refreshed.addPipeline(pipelines.find(pipeline.name())));
+            refreshedGroups.add(refreshed);
+        }
+
+        List<GoDashboardEnvironment> refreshedEnvironments = new ArrayList<>();
+        for (GoDashboardEnvironment environment : environments) {
+            GoDashboardEnvironment refreshed = new GoDashboardEnvironment(environment.name(), environment.allowedUsers(), environment.hasDefinedPipelines());
+            environment.allPipelines().forEach(pipeline -> refreshed.addPipeline(pipelines.find(pipeline.name())));
+            refreshedEnvironments.add(refreshed);
+        }
+
+        return new GoDashboardView(username, refreshedGroups, refreshedEnvironments);
+    }
+
+    private String calcEtag() {
+        final String pipelineSegment = pipelineGroups.stream().
+                map(GoDashboardPipelineGroup::etag).collect(Collectors.joining(SEP_CHAR));
+        final String environmentSegment = environments.stream().
+                map(GoDashboardEnvironment::etag).collect(Collectors.joining(SEP_CHAR));
+        return DigestUtils.md5Hex(StringUtils.joinWith(SEP_CHAR, username.getUsername(), pipelineSegment, environmentSegment));
+    }
+}
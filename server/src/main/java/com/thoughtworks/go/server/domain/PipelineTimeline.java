@@ -41,7 +41,7 @@ public class PipelineTimeline {
     private static final Logger LOGGER = LoggerFactory.getLogger(PipelineTimeline.class);
 
     private final Map<CaseInsensitiveString, TreeSet<PipelineTimelineEntry>> naturalOrderPmm;
-    private final Map<CaseInsensitiveString, ArrayList<PipelineTimelineEntry>> scheduleOrderPmm;
+    private final Map<CaseInsensitiveString, ScheduledRuns> scheduleOrderPmm;
     private volatile long maximumId;
     private final PipelineRepository pipelineRepository;
     private TransactionTemplate transactionTemplate;
@@ -187,21 +187,8 @@ public class PipelineTimeline {
      * @return PMM which was before the pipeline with this id at the time of insertion of the PTE with the id or null if there was nothing before this pipeline during insertion
      */
     public PipelineTimelineEntry runBefore(long id, final CaseInsensitiveString pipelineName) {
-        naturalOrderLock.readLock().lock();
-        try {
-            TreeSet<PipelineTimelineEntry> treeForPipeline = naturalOrderPmm.get(pipelineName);
-            if (treeForPipeline == null) {
-                return null;
-            }
-            for (PipelineTimelineEntry pipelineTimelineEntry : treeForPipeline) {
-                if (id == pipelineTimelineEntry.getId()) {
-                    return pipelineTimelineEntry.insertedAfter();
-                }
-            }
-            throw new RuntimeException("Cannot find pipeline with id: " + id);
-        } finally {
-            naturalOrderLock.readLock().unlock();
-        }
+        PipelineTimelineEntry entry = entryWithId(id, pipelineName);
+        return entry == null ? null : entry.insertedAfter();
     }
 
     /**
@@ -210,20 +197,24 @@ public class PipelineTimeline {
      * @return PMM which was after the pipeline with this id at the time of insertion of the PTE with the id or null if there was nothing after this pipeline during insertion
      */
     public PipelineTimelineEntry runAfter(long id, final CaseInsensitiveString pipelineName) {
-        naturalOrderLock.readLock().lock();
+        PipelineTimelineEntry entry = entryWithId(id, pipelineName);
+        return entry == null ? null : entry.insertedBefore();
+    }
+
+    private PipelineTimelineEntry entryWithId(long id, CaseInsensitiveString pipelineName) {
+        scheduleOrderLock.readLock().lock();
         try {
-            TreeSet<PipelineTimelineEntry> treeForPipeline = naturalOrderPmm.get(pipelineName);
-            if (treeForPipeline == null) {
+            ScheduledRuns runs = scheduleOrderPmm.get(pipelineName);
+            if (runs == null) {
                 return null;
             }
-            for (PipelineTimelineEntry pipelineTimelineEntry : treeForPipeline) {
-                if (id == pipelineTimelineEntry.getId()) {
-                    return pipelineTimelineEntry.insertedBefore();
-                }
+            PipelineTimelineEntry entry = runs.withId(id);
+            if (entry == null) {
+                throw new RuntimeException("Cannot find pipeline with id: " + id);
             }
-            throw new RuntimeException("Cannot find pipeline with id: " + id);
+            return entry;
         } finally {
-            naturalOrderLock.readLock().unlock();
+            scheduleOrderLock.readLock().unlock();
         }
     }
 
@@ -238,11 +229,8 @@ public class PipelineTimeline {
         return naturalOrderPmm.get(pipelineName);
     }
 
-    private ArrayList<PipelineTimelineEntry> initializedScheduleOrderCollection(final CaseInsensitiveString pipelineName) {
-        if (!scheduleOrderPmm.containsKey(pipelineName)) {
-            scheduleOrderPmm.put(pipelineName, new ArrayList<>());
-        }
-        return scheduleOrderPmm.get(pipelineName);
+    private ScheduledRuns initializedScheduleOrderCollection(final CaseInsensitiveString pipelineName) {
+        return scheduleOrderPmm.computeIfAbsent(pipelineName, name -> new ScheduledRuns());
     }
 
     private PipelineTimelineEntry naturalOrderAfter(PipelineTimelineEntry pipelineTimelineEntry) {
@@ -280,7 +268,7 @@ public class PipelineTimeline {
     public int instanceCount(CaseInsensitiveString pipelineName) {
         scheduleOrderLock.readLock().lock();
         try {
-            ArrayList<PipelineTimelineEntry> instances = scheduleOrderPmm.get(pipelineName);
+            ScheduledRuns instances = scheduleOrderPmm.get(pipelineName);
             return instances == null ? 0 : instances.size();
         } finally {
             scheduleOrderLock.readLock().unlock();
@@ -290,7 +278,7 @@ public class PipelineTimeline {
     public PipelineTimelineEntry instanceFor(CaseInsensitiveString pipelineName, int index) {
         scheduleOrderLock.readLock().lock();
         try {
-            ArrayList<PipelineTimelineEntry> instances = scheduleOrderPmm.get(pipelineName);
+            ScheduledRuns instances = scheduleOrderPmm.get(pipelineName);
             return instances == null ? null : instances.get(index);
         } finally {
             scheduleOrderLock.readLock().unlock();
@@ -301,14 +289,8 @@ public class PipelineTimeline {
     public PipelineTimelineEntry getEntryFor(CaseInsensitiveString pipelineName, Integer pipelineCounter) {
         scheduleOrderLock.readLock().lock();
         try {
-            ArrayList<PipelineTimelineEntry> instances = scheduleOrderPmm.get(pipelineName);
-            for (int i = instances.size() - 1; i >= 0; i--) {
-                PipelineTimelineEntry instance = instances.get(i);
-                if (instance.getCounter() == pipelineCounter) {
-                    return instance;
-                }
-            }
-            return null;
+            ScheduledRuns instances = scheduleOrderPmm.get(pipelineName);
+            return instances == null ? null : instances.withCounter(pipelineCounter);
         } finally {
             scheduleOrderLock.readLock().unlock();
         }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.thoughtworks.go.domain.PipelineTimelineEntry;
+
+import java.util.Arrays;
+
+/**
+ * @understands the runs of a single pipeline in the order they were scheduled, looked up by id or counter
+ * <p/>
+ * Ids and counters are kept in primitive arrays next to the entries. Runs are loaded in id order, so lookups are
+ * binary searches; should ids or counters ever arrive out of order, lookups fall back to a scan.
+ */
+class ScheduledRuns {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] counters = new int[INITIAL_CAPACITY];
+    private PipelineTimelineEntry[] entries = new PipelineTimelineEntry[INITIAL_CAPACITY];
+    private int size;
+    private boolean idsAscending = true;
+    private boolean countersAscending = true;
+
+    void add(PipelineTimelineEntry entry) {
+        ensureCapacity(size + 1);
+        long id = entry.getId();
+        int counter = entry.getCounter();
+        if (size > 0) {
+            idsAscending &= ids[size - 1] < id;
+            countersAscending &= counters[size - 1] < counter;
+        }
+        ids[size] = id;
+        counters[size] = counter;
+        entries[size] = entry;
+        size++;
+    }
+
+    boolean remove(PipelineTimelineEntry entry) {
+        int index = indexOfId(entry.getId());
+        if (index < 0) {
+            return false;
+        }
+        int moved = size - index - 1;
+        System.arraycopy(ids, index + 1, ids, index, moved);
+        System.arraycopy(counters, index + 1, counters, index, moved);
+        System.arraycopy(entries, index + 1, entries, index, moved);
+        entries[--size] = null;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    PipelineTimelineEntry get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return entries[index];
+    }
+
+    PipelineTimelineEntry withId(long id) {
+        int index = indexOfId(id);
+        return index < 0 ? null : entries[index];
+    }
+
+    PipelineTimelineEntry withCounter(int counter) {
+        if (countersAscending) {
+            int index = Arrays.binarySearch(counters, 0, size, counter);
+            return index < 0 ? null : entries[index];
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            if (counters[i] == counter) {
+                return entries[i];
+            }
+        }
+        return null;
+    }
+
+    private int indexOfId(long id) {
+        if (idsAscending) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            return index < 0 ? -1 : index;
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        counters = Arrays.copyOf(counters, newCapacity);
+        entries = Arrays.copyOf(entries, newCapacity);
+    }
+}
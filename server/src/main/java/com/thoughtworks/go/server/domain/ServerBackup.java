@@ -19,8 +19,12 @@ import com.thoughtworks.go.domain.PersistentObject;
 import lombok.EqualsAndHashCode;
 
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
 /**
  * @understands A single backup of the server
  */
@@ -32,6 +36,8 @@ public class ServerBackup extends PersistentObject {
     private BackupStatus status;
     private String message;
     private BackupProgressStatus backupProgressStatus;
+    // persisted as STEP=millis pairs separated by commas, in the order the steps completed
+    private String stepTimings;
 
     private ServerBackup() {
     }
@@ -99,6 +105,23 @@ public class ServerBackup extends PersistentObject {
         this.message = status.getMessage();
     }
 
+    public void recordTimeTaken(BackupProgressStatus step, long timeTakenInMillis) {
+        String timing = step.name() + "=" + timeTakenInMillis;
+        this.stepTimings = isBlank(stepTimings) ? timing : stepTimings + "," + timing;
+    }
+
+    public Map<BackupProgressStatus, Long> getTimeTakenBySteps() {
+        Map<BackupProgressStatus, Long> timeTakenBySteps = new LinkedHashMap<>();
+        if (isBlank(stepTimings)) {
+            return timeTakenBySteps;
+        }
+        for (String timing : stepTimings.split(",")) {
+            String[] stepAndTime = timing.split("=");
+            timeTakenBySteps.put(BackupProgressStatus.valueOf(stepAndTime[0]), Long.parseLong(stepAndTime[1]));
+        }
+        return timeTakenBySteps;
+    }
+
     public void markCompleted() {
         this.status = BackupStatus.COMPLETED;
     }
@@ -147,6 +147,9 @@ public class PipelineSelections extends PersistentObject implements Serializable
             modified = modified || f.allowPipeline(pipelineToAdd);
         }
 
+        if (modified) {
+            updateEtag();
+        }
         return modified;
     }
 
@@ -89,6 +89,7 @@ public class ApplicationInitializer implements ApplicationListener<ContextRefres
     @Autowired private DataSharingSettingsService dataSharingSettingsService;
     @Autowired private DataSharingUsageStatisticsReportingService dataSharingUsageStatisticsReportingService;
     @Autowired private BackupService backupService;
+    @Autowired private CacheStatisticsService cacheStatisticsService;
     @Autowired private DataSource dataSource;
 
     @Value("${cruise.daemons.enabled}")
@@ -101,6 +102,7 @@ public class ApplicationInitializer implements ApplicationListener<ContextRefres
         }
         try {
             resourceMonitoring.enableIfDiagnosticsModeIsEnabled();
+            cacheStatisticsService.initialize();
             //plugin
             defaultPluginJarLocationMonitor.initialize();
             pluginsInitializer.initialize();
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.materials;
+
+import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.util.Clock;
+import com.thoughtworks.go.util.SystemEnvironment;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @understands how often a material needs to be polled, backing off materials which keep failing to update and
+ * relaxing materials which are kept up to date through webhooks, for as long as their webhooks keep coming
+ */
+class MaterialPollingIntervals {
+    private static final int MAX_FAILURE_SHIFT = 16;
+    // a material is polled as usual again once this many relaxed polls went by without a webhook for it
+    private static final int RELAXED_POLLS_WITHOUT_WEBHOOK = 2;
+
+    private final SystemEnvironment systemEnvironment;
+    private final Clock clock;
+    private final ConcurrentMap<String, PollingState> states = new ConcurrentHashMap<>();
+
+    MaterialPollingIntervals(SystemEnvironment systemEnvironment, Clock clock) {
+        this.systemEnvironment = systemEnvironment;
+        this.clock = clock;
+    }
+
+    boolean isDue(Material material) {
+        PollingState state = existingStateFor(material);
+        if (state == null) {
+            return true;
+        }
+        long factor = factorFor(state);
+        return factor <= 1 || clock.currentTimeMillis() - state.lastCompletedAt >= systemEnvironment.getMaterialUpdateIdleInterval() * factor;
+    }
+
+    long intervalFor(Material material) {
+        PollingState state = existingStateFor(material);
+        return systemEnvironment.getMaterialUpdateIdleInterval() * (state == null ? 1 : factorFor(state));
+    }
+
+    void updateSucceeded(Material material) {
+        PollingState state = stateFor(material);
+        if (state != null) {
+            state.consecutiveFailures = 0;
+            state.lastCompletedAt = clock.currentTimeMillis();
+        }
+    }
+
+    void updateFailed(Material material) {
+        PollingState state = stateFor(material);
+        if (state != null) {
+            state.consecutiveFailures++;
+            state.lastCompletedAt = clock.currentTimeMillis();
+        }
+    }
+
+    void webhookReceived(Material material) {
+        PollingState state = stateFor(material);
+        if (state != null) {
+            state.lastWebhookAt = clock.currentTimeMillis();
+            state.notifiedByWebhook = true;
+        }
+    }
+
+    void retainOnly(Set<String> fingerprints) {
+        states.keySet().retainAll(fingerprints);
+    }
+
+    private PollingState existingStateFor(Material material) {
+        String fingerprint = material.getFingerprint();
+        return fingerprint == null ? null : states.get(fingerprint);
+    }
+
+    private PollingState stateFor(Material material) {
+        String fingerprint = material.getFingerprint();
+        return fingerprint == null ? null : states.computeIfAbsent(fingerprint, f -> new PollingState());
+    }
+
+    private long factorFor(PollingState state) {
+        int maxFactor = intValue(SystemEnvironment.MATERIAL_UPDATE_MAX_BACKOFF_FACTOR);
+        if (maxFactor <= 1) {
+            return 1;
+        }
+        long factor = 1L << Math.min(state.consecutiveFailures, MAX_FAILURE_SHIFT);
+        int webhookFactor = Math.max(1, intValue(SystemEnvironment.MATERIAL_UPDATE_WEBHOOK_POLL_FACTOR));
+        if (hasRecentWebhook(state, webhookFactor)) {
+            factor *= webhookFactor;
+        }
+        return Math.min(factor, maxFactor);
+    }
+
+    private boolean hasRecentWebhook(PollingState state, int webhookFactor) {
+        long relaxedInterval = systemEnvironment.getMaterialUpdateIdleInterval() * webhookFactor;
+        return state.notifiedByWebhook && clock.currentTimeMillis() - state.lastWebhookAt < RELAXED_POLLS_WITHOUT_WEBHOOK * relaxedInterval;
+    }
+
+    private int intValue(SystemEnvironment.GoSystemProperty<Integer> property) {
+        Integer value = systemEnvironment.get(property);
+        return value == null ? 0 : value;
+    }
+
+    private static class PollingState {
+        private volatile int consecutiveFailures;
+        private volatile long lastCompletedAt;
+        private volatile boolean notifiedByWebhook;
+        private volatile long lastWebhookAt;
+    }
+}
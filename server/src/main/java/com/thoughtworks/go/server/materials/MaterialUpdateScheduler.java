@@ -0,0 +1,202 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.materials;
+
+import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * @understands handing material updates over to the update queues without letting a single SCM host take up more than
+ * its share of material update threads, sending webhook triggered updates ahead of polled ones
+ */
+class MaterialUpdateScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MaterialUpdateScheduler.class);
+
+    enum Priority {
+        WEBHOOK, POLL
+    }
+
+    private final Consumer<Material> dispatcher;
+    private final MDUPerformanceLogger mduPerformanceLogger;
+    private final Map<String, Integer> inFlightByHost = new HashMap<>();
+    private final Map<String, InFlight> inFlightByFingerprint = new HashMap<>();
+    private final Map<String, PriorityQueue<PendingUpdate>> pendingByHost = new HashMap<>();
+    private long sequence;
+
+    MaterialUpdateScheduler(Consumer<Material> dispatcher, MDUPerformanceLogger mduPerformanceLogger) {
+        this.dispatcher = dispatcher;
+        this.mduPerformanceLogger = mduPerformanceLogger;
+    }
+
+    /**
+     * @param host the host to hold the update against, or null when the update should not be held at all
+     */
+    void schedule(Material material, String host, int maxConcurrentForHost, Priority priority) {
+        if (host == null || maxConcurrentForHost <= 0) {
+            dispatcher.accept(material);
+            return;
+        }
+
+        synchronized (this) {
+            if (inFlightByHost.getOrDefault(host, 0) >= maxConcurrentForHost) {
+                PriorityQueue<PendingUpdate> pending = pendingByHost.computeIfAbsent(host, h -> new PriorityQueue<>());
+                pending.add(new PendingUpdate(material, priority, sequence++));
+                mduPerformanceLogger.materialHeldForHost(material, host, pending.size());
+                return;
+            }
+            acquire(material, host);
+        }
+
+        try {
+            dispatcher.accept(material);
+        } catch (RuntimeException e) {
+            completed(material);
+            throw e;
+        }
+    }
+
+    /**
+     * Moves an update which is already waiting for its host ahead of the polled updates waiting for the same host.
+     */
+    synchronized void prioritize(Material material, String host) {
+        PriorityQueue<PendingUpdate> pending = host == null ? null : pendingByHost.get(host);
+        if (pending == null) {
+            return;
+        }
+        Optional<PendingUpdate> polled = pending.stream()
+                .filter(update -> update.priority != Priority.WEBHOOK && update.material.equals(material))
+                .findFirst();
+        polled.ifPresent(update -> {
+            pending.remove(update);
+            pending.add(new PendingUpdate(update.material, Priority.WEBHOOK, update.sequence));
+        });
+    }
+
+    void completed(Material material) {
+        Material next = release(material);
+        while (next != null) {
+            try {
+                mduPerformanceLogger.materialReleasedForHost(next);
+                dispatcher.accept(next);
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("[Material Update] Failed to send held update of material {} to the update queue", next, e);
+                next = release(next);
+            }
+        }
+    }
+
+    synchronized int pendingCount() {
+        return pendingByHost.values().stream().mapToInt(PriorityQueue::size).sum();
+    }
+
+    synchronized int inFlightCount(String host) {
+        return inFlightByHost.getOrDefault(host, 0);
+    }
+
+    static String hostOf(Material material) {
+        String uri = material.getUriForDisplay();
+        if (uri == null) {
+            return null;
+        }
+        if (uri.contains("://")) {
+            try {
+                String host = new URI(uri).getHost();
+                return host == null ? null : host.toLowerCase();
+            } catch (URISyntaxException ignored) {
+            }
+        }
+
+        //scp like urls (git@host:repo.git) and perforce ports (host:1666) are not hierarchical urls
+        String withoutUser = uri.substring(uri.lastIndexOf('@') + 1);
+        int end = withoutUser.length();
+        for (char separator : new char[]{':', '/', '\\'}) {
+            int index = withoutUser.indexOf(separator);
+            if (index >= 0) {
+                end = Math.min(end, index);
+            }
+        }
+        String host = withoutUser.substring(0, end).trim();
+        return host.isEmpty() ? null : host.toLowerCase();
+    }
+
+    private void acquire(Material material, String host) {
+        inFlightByHost.merge(host, 1, Integer::sum);
+        inFlightByFingerprint.computeIfAbsent(material.getFingerprint(), f -> new InFlight(host)).count++;
+    }
+
+    /**
+     * Frees up the slot held by the material, handing it straight to the next update waiting for the same host.
+     */
+    private synchronized Material release(Material material) {
+        InFlight inFlight = inFlightByFingerprint.get(material.getFingerprint());
+        if (inFlight == null) {
+            return null;
+        }
+        if (--inFlight.count == 0) {
+            inFlightByFingerprint.remove(material.getFingerprint());
+        }
+        inFlightByHost.merge(inFlight.host, -1, Integer::sum);
+        if (inFlightByHost.get(inFlight.host) <= 0) {
+            inFlightByHost.remove(inFlight.host);
+        }
+
+        PriorityQueue<PendingUpdate> pending = pendingByHost.get(inFlight.host);
+        if (pending == null) {
+            return null;
+        }
+        PendingUpdate next = pending.poll();
+        if (pending.isEmpty()) {
+            pendingByHost.remove(inFlight.host);
+        }
+        acquire(next.material, inFlight.host);
+        return next.material;
+    }
+
+    private static class InFlight {
+        private final String host;
+        private int count;
+
+        private InFlight(String host) {
+            this.host = host;
+        }
+    }
+
+    private static class PendingUpdate implements Comparable<PendingUpdate> {
+        private final Material material;
+        private final Priority priority;
+        private final long sequence;
+
+        private PendingUpdate(Material material, Priority priority, long sequence) {
+            this.material = material;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(PendingUpdate other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
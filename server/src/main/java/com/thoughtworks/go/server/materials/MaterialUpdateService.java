@@ -17,6 +17,7 @@
 package com.thoughtworks.go.server.materials;
 
 import com.thoughtworks.go.config.*;
+import com.thoughtworks.go.config.materials.ScmMaterial;
 import com.thoughtworks.go.config.materials.dependency.DependencyMaterial;
 import com.thoughtworks.go.config.materials.git.GitMaterial;
 import com.thoughtworks.go.config.materials.svn.SvnMaterial;
@@ -43,6 +44,7 @@ import com.thoughtworks.go.serverhealth.ServerHealthState;
 import com.thoughtworks.go.util.MaterialFingerprintTag;
 import com.thoughtworks.go.util.ProcessManager;
 import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.SystemTimeClock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -81,6 +83,8 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
     private final MaterialConfigConverter materialConfigConverter;
     private final Set<MaterialSource> materialSources = new HashSet<>();
     private final Set<MaterialUpdateCompleteListener> materialUpdateCompleteListeners = new HashSet<>();
+    private final MaterialUpdateScheduler scheduler;
+    private final MaterialPollingIntervals pollingIntervals;
     public static final String TYPE = "post_commit_hook_material_type";
 
     @Autowired
@@ -103,6 +107,8 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
         this.dependencyMaterialUpdateQueue = dependencyMaterialUpdateQueue;
         this.maintenanceModeService = maintenanceModeService;
         this.secretParamResolver = secretParamResolver;
+        this.scheduler = new MaterialUpdateScheduler(this::postUpdate, mduPerformanceLogger);
+        this.pollingIntervals = new MaterialPollingIntervals(systemEnvironment, new SystemTimeClock());
         completed.addListener(this);
     }
 
@@ -122,7 +128,11 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
             LOGGER.debug("[Material Update] [On Timer] materials IN-PROGRESS: {}, ALL-MATERIALS: {}", inProgress, materialsForUpdate);
 
             for (Material material : materialsForUpdate) {
-                updateMaterial(material);
+                if (pollingIntervals.isDue(material)) {
+                    updateMaterial(material);
+                } else {
+                    mduPerformanceLogger.materialPollDeferred(material, pollingIntervals.intervalFor(material));
+                }
             }
         }
     }
@@ -151,7 +161,7 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
             }
 
             for (Material material : prunedMaterialList) {
-                updateMaterial(material);
+                updateMaterialOnWebhook(material);
             }
 
             result.accepted("The material is now scheduled for an update. Please check relevant pipeline(s) for status.");
@@ -167,25 +177,30 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
         Predicate<Material> predicate = new MaterialPredicate(branchName, possibleUrls);
         Set<Material> allGitMaterials = allUniquePostCommitSchedulableMaterials.stream().filter(predicate).collect(Collectors.toSet());
 
-        allGitMaterials.forEach(MaterialUpdateService.this::updateMaterial);
+        allGitMaterials.forEach(MaterialUpdateService.this::updateMaterialOnWebhook);
 
         return !allGitMaterials.isEmpty();
     }
 
     public boolean updateMaterial(Material material) {
+        return updateMaterial(material, MaterialUpdateScheduler.Priority.POLL);
+    }
+
+    private boolean updateMaterialOnWebhook(Material material) {
+        pollingIntervals.webhookReceived(material);
+        return updateMaterial(material, MaterialUpdateScheduler.Priority.WEBHOOK);
+    }
+
+    private boolean updateMaterial(Material material, MaterialUpdateScheduler.Priority priority) {
         Date inProgressSince = inProgress.putIfAbsent(material, new Date());
         if (inProgressSince == null || !material.isAutoUpdate()) {
             LOGGER.debug("[Material Update] Starting update of material {}", material);
-            try {
-                long trackingId = mduPerformanceLogger.materialSentToUpdateQueue(material);
-                queueFor(material).post(new MaterialUpdateMessage(material, trackingId));
-
-                return true;
-            } catch (RuntimeException e) {
-                inProgress.remove(material);
-                throw e;
-            }
+            scheduler.schedule(material, hostToLimit(material), maxConcurrentUpdatesPerHost(), priority);
+            return true;
         } else {
+            if (priority == MaterialUpdateScheduler.Priority.WEBHOOK) {
+                scheduler.prioritize(material, hostToLimit(material));
+            }
             LOGGER.warn("[Material Update] Skipping update of material {} which has been in-progress since {}", material, inProgressSince);
             long idleTime = getProcessManager().getIdleTimeFor(new MaterialFingerprintTag(material.getFingerprint()));
             if (idleTime > getMaterialUpdateInActiveTimeoutInMillis()) {
@@ -199,6 +214,16 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
         }
     }
 
+    private void postUpdate(Material material) {
+        try {
+            long trackingId = mduPerformanceLogger.materialSentToUpdateQueue(material);
+            queueFor(material).post(new MaterialUpdateMessage(material, trackingId));
+        } catch (RuntimeException e) {
+            inProgress.remove(material);
+            throw e;
+        }
+    }
+
     private void resolveSecretForSvnMaterials(Set<Material> allUniquePostCommitSchedulableMaterials) {
 //      Secrets are resolved only for SvnMaterials, since only SvnMaterial prune requires resolved password.
 
@@ -215,9 +240,16 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
     public void onMessage(MaterialUpdateCompletedMessage message) {
         if (message instanceof MaterialUpdateSkippedMessage) {
             inProgress.remove(message.getMaterial());
+            scheduler.completed(message.getMaterial());
             return;
         }
 
+        if (message instanceof MaterialUpdateFailedMessage) {
+            pollingIntervals.updateFailed(message.getMaterial());
+        } else {
+            pollingIntervals.updateSucceeded(message.getMaterial());
+        }
+
         try {
             LOGGER.debug("[Material Update] Material update completed for material {}", message.getMaterial());
 
@@ -232,12 +264,16 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
             }
         } finally {
             mduPerformanceLogger.completionMessageForMaterialReceived(message.trackingId(), message.getMaterial());
+            scheduler.completed(message.getMaterial());
         }
     }
 
     @Override
     public void onConfigChange(CruiseConfig newCruiseConfig) {
-        Set<HealthStateScope> materialScopes = toHealthStateScopes(newCruiseConfig.getAllUniqueMaterials());
+        Set<MaterialConfig> allUniqueMaterials = newCruiseConfig.getAllUniqueMaterials();
+        pollingIntervals.retainOnly(allUniqueMaterials.stream().map(MaterialConfig::getFingerprint).collect(Collectors.toSet()));
+
+        Set<HealthStateScope> materialScopes = toHealthStateScopes(allUniqueMaterials);
         for (ServerHealthState state : serverHealthService.logs()) {
             HealthStateScope currentScope = state.getType().getScope();
             if (currentScope.isForMaterial() && !materialScopes.contains(currentScope)) {
@@ -268,6 +304,22 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
         return watchList.hasConfigRepoWithFingerprint(material.getFingerprint());
     }
 
+    /**
+     * Only SCM materials going through the general update queue are held back per host, config repositories and
+     * dependency materials have queues of their own.
+     */
+    private String hostToLimit(Material material) {
+        if (maxConcurrentUpdatesPerHost() <= 0 || !(material instanceof ScmMaterial) || isConfigMaterial(material)) {
+            return null;
+        }
+        return MaterialUpdateScheduler.hostOf(material);
+    }
+
+    private int maxConcurrentUpdatesPerHost() {
+        Integer maxConcurrent = systemEnvironment.get(SystemEnvironment.MATERIAL_UPDATE_MAX_CONCURRENT_PER_HOST);
+        return maxConcurrent == null ? 0 : maxConcurrent;
+    }
+
     private Long getMaterialUpdateInActiveTimeoutInMillis() {
         return systemEnvironment.get(SystemEnvironment.MATERIAL_UPDATE_INACTIVE_TIMEOUT) * 60 * 1000L;
     }
@@ -29,6 +29,8 @@ import com.thoughtworks.go.server.service.AgentRuntimeInfo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.function.Consumer;
+
 @Component
 public class BuildRepositoryMessageProducer implements BuildRepositoryRemote {
     private BuildRepositoryRemoteImpl buildRepository;
@@ -57,6 +59,26 @@ public class BuildRepositoryMessageProducer implements BuildRepositoryRemote {
         return work;
     }
 
+    /**
+     * Like {@link #getWork(AgentRuntimeInfo)}, but lets the request be parked while the agent waits for work.
+     */
+    public void getWork(AgentRuntimeInfo runtimeInfo, Consumer<Work> callback) {
+        long startTime = System.currentTimeMillis();
+
+        workAssignments.getWork(runtimeInfo, work -> {
+            workAssignmentPerformanceLogger.retrievedWorkForAgent(runtimeInfo, work, startTime, System.currentTimeMillis());
+            callback.accept(work);
+        });
+    }
+
+    public boolean isLongPollingForWork() {
+        return workAssignments.isLongPolling();
+    }
+
+    public long workLongPollTimeoutInMillis() {
+        return workAssignments.longPollTimeoutInMillis();
+    }
+
     @Override
     public void reportCurrentStatus(AgentRuntimeInfo agentRuntimeInfo, JobIdentifier jobIdentifier, JobState jobState) {
         buildRepository.reportCurrentStatus(agentRuntimeInfo, jobIdentifier, jobState);
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging;
+
+import com.thoughtworks.go.remote.BuildRepositoryRemote;
+import com.thoughtworks.go.remote.work.NoWork;
+import com.thoughtworks.go.remote.work.Work;
+import com.thoughtworks.go.server.service.AgentRuntimeInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.remoting.httpinvoker.HttpInvokerServiceExporter;
+import org.springframework.remoting.support.RemoteInvocation;
+import org.springframework.remoting.support.RemoteInvocationResult;
+import org.springframework.web.util.NestedServletException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @understands exposing the build repository to agents over http, answering their requests for work asynchronously
+ * while long polling is enabled, so that an agent waiting for work does not hold on to a request thread
+ */
+public class BuildRepositoryServiceExporter extends HttpInvokerServiceExporter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildRepositoryServiceExporter.class);
+    private static final String GET_WORK = "getWork";
+    // a parked request is answered by the long poll timing out; jetty only gives up on it if that somehow never happens
+    private static final long ASYNC_TIMEOUT_GRACE_IN_MILLIS = 10_000;
+
+    private final BuildRepositoryMessageProducer buildRepository;
+
+    public BuildRepositoryServiceExporter(BuildRepositoryMessageProducer buildRepository) {
+        this.buildRepository = buildRepository;
+        setService(buildRepository);
+        setServiceInterface(BuildRepositoryRemote.class);
+    }
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        if (!buildRepository.isLongPollingForWork() || !request.isAsyncSupported()) {
+            super.handleRequest(request, response);
+            return;
+        }
+        try {
+            RemoteInvocation invocation = readRemoteInvocation(request);
+            if (isGetWork(invocation)) {
+                getWorkAsynchronously(request, (AgentRuntimeInfo) invocation.getArguments()[0]);
+                return;
+            }
+            RemoteInvocationResult result = invokeAndCreateResult(invocation, getProxy());
+            writeRemoteInvocationResult(request, response, result);
+        } catch (ClassNotFoundException e) {
+            throw new NestedServletException("Class not found during deserialization", e);
+        }
+    }
+
+    private void getWorkAsynchronously(HttpServletRequest request, AgentRuntimeInfo runtimeInfo) {
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(buildRepository.workLongPollTimeoutInMillis() + ASYNC_TIMEOUT_GRACE_IN_MILLIS);
+        AsyncAnswer answer = new AsyncAnswer(asyncContext, runtimeInfo);
+        asyncContext.addListener(answer);
+        try {
+            buildRepository.getWork(runtimeInfo, answer::handOver);
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not find work for agent {}", runtimeInfo.getIdentifier(), e);
+            answer.with(new RemoteInvocationResult(e));
+        }
+    }
+
+    private boolean isGetWork(RemoteInvocation invocation) {
+        Object[] arguments = invocation.getArguments();
+        return GET_WORK.equals(invocation.getMethodName()) && arguments.length == 1 && arguments[0] instanceof AgentRuntimeInfo;
+    }
+
+    /**
+     * Answers a parked request exactly once, with the work found for the agent, the error finding it, or no work at all
+     * should jetty time the request out first.
+     */
+    private class AsyncAnswer implements AsyncListener {
+        private final AsyncContext asyncContext;
+        private final AgentRuntimeInfo runtimeInfo;
+        private final AtomicBoolean answered = new AtomicBoolean(false);
+
+        private AsyncAnswer(AsyncContext asyncContext, AgentRuntimeInfo runtimeInfo) {
+            this.asyncContext = asyncContext;
+            this.runtimeInfo = runtimeInfo;
+        }
+
+        void handOver(Work work) {
+            try {
+                asyncContext.start(() -> with(new RemoteInvocationResult(work)));
+            } catch (IllegalStateException e) {
+                LOGGER.warn("Agent {} stopped waiting before its work could be handed over", runtimeInfo.getIdentifier(), e);
+            }
+        }
+
+        void with(RemoteInvocationResult result) {
+            if (!answered.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                writeRemoteInvocationResult((HttpServletRequest) asyncContext.getRequest(), (HttpServletResponse) asyncContext.getResponse(), result);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Could not hand over work to agent {}", runtimeInfo.getIdentifier(), e);
+            } finally {
+                asyncContext.complete();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            with(new RemoteInvocationResult(new NoWork()));
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            if (answered.compareAndSet(false, true)) {
+                asyncContext.complete();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            answered.set(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -15,8 +15,6 @@
  */
 package com.thoughtworks.go.server.messaging;
 
-import com.thoughtworks.go.server.messaging.activemq.JMSMessageListenerAdapter;
-
 public class GoMessageTopic<T extends GoMessage> implements GoMessageChannel<T> {
     private MessagingService messaging;
     private String topic;
@@ -35,7 +33,7 @@ public class GoMessageTopic<T extends GoMessage> implements GoMessageChannel<T>
     }
 
     @Override
-    public JMSMessageListenerAdapter addListener(GoMessageListener<T> listener) {
+    public GoMessageSubscription addListener(GoMessageListener<T> listener) {
         return messaging.addListener(topic, listener);
     }
 
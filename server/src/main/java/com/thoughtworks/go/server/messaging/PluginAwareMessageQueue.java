@@ -15,17 +15,15 @@
  */
 package com.thoughtworks.go.server.messaging;
 
-import com.thoughtworks.go.server.messaging.activemq.JMSMessageListenerAdapter;
 import org.slf4j.LoggerFactory;
 
-import javax.jms.JMSException;
 import java.util.ArrayList;
 import java.util.HashMap;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
 public class PluginAwareMessageQueue extends GoMessageQueue {
-    protected final HashMap<String, ArrayList<JMSMessageListenerAdapter>> listeners = new HashMap<>();
+    protected final HashMap<String, ArrayList<GoMessageSubscription>> listeners = new HashMap<>();
     private final String pluginId;
     private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(PluginAwareMessageQueue.class.getName());
 
@@ -34,7 +32,7 @@ public class PluginAwareMessageQueue extends GoMessageQueue {
         super(messaging, queueName);
         this.pluginId = pluginId;
         for (int i = 0; i < numberOfListeners; i++) {
-            JMSMessageListenerAdapter listenerAdapter = this.addListener(listenerFactory.create());
+            GoMessageSubscription listenerAdapter = this.addListener(listenerFactory.create());
             if (!listeners.containsKey(pluginId)) {
                 this.listeners.put(pluginId, new ArrayList<>());
             }
@@ -45,12 +43,12 @@ public class PluginAwareMessageQueue extends GoMessageQueue {
     @Override
     public void stop() {
         super.stop();
-        ArrayList<JMSMessageListenerAdapter> listenerAdapters = listeners.get(pluginId);
-        for (JMSMessageListenerAdapter listenerAdapter : listenerAdapters) {
+        ArrayList<GoMessageSubscription> listenerAdapters = listeners.get(pluginId);
+        for (GoMessageSubscription listenerAdapter : listenerAdapters) {
             try {
                 listenerAdapter.stop();
-            } catch (JMSException e) {
-                LOGGER.error("Unable to stop listener for {} {}, ERROR: {}", queueName, listenerAdapter.thread.getName(), e.getMessage(), e);
+            } catch (Exception e) {
+                LOGGER.error("Unable to stop listener for {} {}, ERROR: {}", queueName, listenerAdapter.name(), e.getMessage(), e);
                 bomb(e);
             } finally {
                 this.listeners.remove(pluginId);
@@ -18,6 +18,7 @@ package com.thoughtworks.go.server.messaging.activemq;
 
 import com.thoughtworks.go.server.messaging.GoMessage;
 import com.thoughtworks.go.server.messaging.GoMessageListener;
+import com.thoughtworks.go.server.messaging.GoMessageSubscription;
 import com.thoughtworks.go.server.service.support.DaemonThreadStatsCollector;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
@@ -33,7 +34,7 @@ import javax.jms.ObjectMessage;
 
 import static com.thoughtworks.go.serverhealth.HealthStateScope.GLOBAL;
 
-public class JMSMessageListenerAdapter implements Runnable {
+public class JMSMessageListenerAdapter implements Runnable, GoMessageSubscription {
     private static final Logger LOG = LoggerFactory.getLogger(JMSMessageListenerAdapter.class);
 
     private final MessageConsumer consumer;
@@ -67,10 +68,16 @@ public class JMSMessageListenerAdapter implements Runnable {
         }
     }
 
+    @Override
     public void stop() throws JMSException {
         consumer.close();
     }
 
+    @Override
+    public String name() {
+        return thread.getName();
+    }
+
     protected boolean runImpl() {
         try {
             Message message = consumer.receive();
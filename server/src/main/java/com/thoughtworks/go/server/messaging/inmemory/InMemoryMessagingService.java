@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.*;
+import com.thoughtworks.go.server.service.support.DaemonThreadStatsCollector;
+import com.thoughtworks.go.util.SystemEnvironment;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @understands passing server-internal messages between threads through bounded in-memory queues, without a broker
+ * <p>
+ * Queues deliver each message to one of their listeners; topics deliver each message to every listener subscribed at
+ * the time it is posted. Every listener gets its own worker thread, as with the ActiveMQ implementation.
+ */
+public class InMemoryMessagingService implements MessagingService {
+    private final ConcurrentMap<String, InMemoryQueue> queues = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<InMemoryQueue>> topics = new ConcurrentHashMap<>();
+    private final DaemonThreadStatsCollector daemonThreadStatsCollector;
+    private final int capacity;
+
+    public InMemoryMessagingService(DaemonThreadStatsCollector daemonThreadStatsCollector, SystemEnvironment systemEnvironment) {
+        this.daemonThreadStatsCollector = daemonThreadStatsCollector;
+        this.capacity = systemEnvironment.get(SystemEnvironment.IN_MEMORY_MESSAGING_QUEUE_CAPACITY);
+    }
+
+    @Override
+    public MessageSender createSender(String topic) {
+        return new InMemoryMessageSender(envelope -> publish(topic, envelope));
+    }
+
+    @Override
+    public GoMessageSubscription addListener(String topic, GoMessageListener listener) {
+        InMemoryQueue subscriberQueue = new InMemoryQueue(topic, capacity, daemonThreadStatsCollector);
+        QueueWorker worker = subscriberQueue.addWorker(listener);
+        subscribers(topic).add(subscriberQueue);
+        return worker;
+    }
+
+    @Override
+    public MessageSender createQueueSender(String queueName) {
+        return new InMemoryMessageSender(envelope -> queue(queueName).put(envelope));
+    }
+
+    @Override
+    public GoMessageSubscription addQueueListener(String queueName, GoMessageListener listener) {
+        return queue(queueName).addWorker(listener);
+    }
+
+    @Override
+    public void removeQueue(String queueName) {
+        InMemoryQueue queue = queues.remove(queueName);
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    @Override
+    public void stop() {
+        queues.values().forEach(InMemoryQueue::close);
+        queues.clear();
+        topics.values().forEach(subscribers -> subscribers.forEach(InMemoryQueue::close));
+        topics.clear();
+    }
+
+    private InMemoryQueue queue(String queueName) {
+        return queues.computeIfAbsent(queueName, name -> new InMemoryQueue(name, capacity, daemonThreadStatsCollector));
+    }
+
+    private List<InMemoryQueue> subscribers(String topic) {
+        return topics.computeIfAbsent(topic, name -> new CopyOnWriteArrayList<>());
+    }
+
+    private void publish(String topic, Envelope envelope) {
+        List<InMemoryQueue> subscribers = subscribers(topic);
+        subscribers.removeIf(subscriber -> !subscriber.hasWorkers());
+        for (InMemoryQueue subscriber : subscribers) {
+            subscriber.put(envelope);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.GoMessageListener;
+import com.thoughtworks.go.server.service.support.DaemonThreadStatsCollector;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+
+/**
+ * @understands a bounded in-memory queue whose messages are shared out between competing workers
+ */
+class InMemoryQueue {
+    private final String name;
+    private final BlockingQueue<Envelope> messages;
+    private final List<QueueWorker> workers = new CopyOnWriteArrayList<>();
+    private final DaemonThreadStatsCollector daemonThreadStatsCollector;
+
+    InMemoryQueue(String name, int capacity, DaemonThreadStatsCollector daemonThreadStatsCollector) {
+        this.name = name;
+        this.messages = new LinkedBlockingQueue<>(capacity);
+        this.daemonThreadStatsCollector = daemonThreadStatsCollector;
+    }
+
+    String name() {
+        return name;
+    }
+
+    BlockingQueue<Envelope> messages() {
+        return messages;
+    }
+
+    void put(Envelope envelope) {
+        try {
+            messages.put(envelope);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw bomb("Interrupted while posting a message to " + name, e);
+        }
+    }
+
+    QueueWorker addWorker(GoMessageListener listener) {
+        QueueWorker worker = new QueueWorker(this, listener, daemonThreadStatsCollector);
+        workers.add(worker);
+        worker.start();
+        return worker;
+    }
+
+    void removeWorker(QueueWorker worker) {
+        workers.remove(worker);
+    }
+
+    boolean hasWorkers() {
+        return !workers.isEmpty();
+    }
+
+    void close() {
+        for (QueueWorker worker : workers) {
+            worker.stop();
+        }
+        messages.clear();
+    }
+}
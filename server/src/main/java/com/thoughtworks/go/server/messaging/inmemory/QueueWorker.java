@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.GoMessageListener;
+import com.thoughtworks.go.server.messaging.GoMessageSubscription;
+import com.thoughtworks.go.server.service.support.DaemonThreadStatsCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @understands taking messages off an in-memory queue and handing them to a listener on a dedicated thread
+ */
+class QueueWorker implements Runnable, GoMessageSubscription {
+    private static final Logger LOG = LoggerFactory.getLogger(QueueWorker.class);
+    private static final long POLL_INTERVAL_MILLIS = 500;
+
+    private final InMemoryQueue queue;
+    private final GoMessageListener listener;
+    private final DaemonThreadStatsCollector daemonThreadStatsCollector;
+    private final Thread thread;
+    private volatile boolean stopped;
+
+    QueueWorker(InMemoryQueue queue, GoMessageListener listener, DaemonThreadStatsCollector daemonThreadStatsCollector) {
+        this.queue = queue;
+        this.listener = listener;
+        this.daemonThreadStatsCollector = daemonThreadStatsCollector;
+
+        thread = new Thread(this);
+        thread.setName(thread.getId() + "@MessageListener for " + listener.getClass().getSimpleName());
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        BlockingQueue<Envelope> messages = queue.messages();
+        while (!stopped) {
+            try {
+                Envelope envelope = messages.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (envelope != null) {
+                    deliver(envelope);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        LOG.debug("Message listener {} was stopped.", thread.getName());
+    }
+
+    private void deliver(Envelope envelope) {
+        if (envelope.hasExpired()) {
+            LOG.debug("Dropping expired message {} on {}", envelope.message(), queue.name());
+            return;
+        }
+        try {
+            daemonThreadStatsCollector.captureStats(thread.getId());
+            listener.onMessage(envelope.message());
+        } catch (Exception e) {
+            LOG.error("Exception thrown in message handling by listener {}", listener, e);
+        } finally {
+            daemonThreadStatsCollector.clearStats(thread.getId());
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        queue.removeWorker(this);
+    }
+
+    @Override
+    public String name() {
+        return thread.getName();
+    }
+}
@@ -15,35 +15,112 @@
  */
 package com.thoughtworks.go.server.messaging.scheduling;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import com.thoughtworks.go.domain.JobPlan;
+import com.thoughtworks.go.listener.ScheduledJobsListener;
 import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.work.NoWork;
 import com.thoughtworks.go.remote.work.Work;
 import com.thoughtworks.go.server.messaging.GoMessageChannel;
 import com.thoughtworks.go.server.messaging.GoMessageListener;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
+import com.thoughtworks.go.server.service.BuildAssignmentService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import static com.thoughtworks.go.util.SystemEnvironment.AGENT_REQUEST_IDLE_TIMEOUT_IN_SECONDS;
+import static com.thoughtworks.go.util.SystemEnvironment.AGENT_WORK_LONG_POLL_TIMEOUT_IN_MILLIS;
+
+/**
+ * @understands handing over work found for an agent the next time it asks for it. When long polling is enabled
+ * (go.agent.work.long.poll.timeout.millis), an idle agent's request is parked until work is assigned to it or the
+ * timeout expires, instead of returning immediately and waiting for the agent's next poll. A parked request is only a
+ * callback, so it does not hold on to a request thread while it waits.
+ */
 @Service
-public class WorkAssignments implements GoMessageListener<WorkAssignedMessage> {
+public class WorkAssignments implements GoMessageListener<WorkAssignedMessage>, ScheduledJobsListener {
     private GoMessageChannel<IdleAgentMessage> idleAgentsTopic;
     private ConcurrentMap<AgentIdentifier, Work> assignments;
+    private final ConcurrentMap<AgentIdentifier, ParkedRequest> parkedRequests = new ConcurrentHashMap<>();
+    private final ConcurrentMap<AgentIdentifier, Object> agentLocks = new ConcurrentHashMap<>();
+    private final BuildAssignmentService buildAssignmentService;
+    private final SystemEnvironment systemEnvironment;
+    private final ScheduledExecutorService parkingTimeouts = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "work-assignments-long-poll-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
     private static final NoWork NO_WORK = new NoWork();
 
-    @Autowired
     public WorkAssignments(IdleAgentTopic idleAgentsTopic,
                            WorkAssignedTopic assignedWorkTopic) {
         this.idleAgentsTopic = idleAgentsTopic;
+        this.buildAssignmentService = null;
+        this.systemEnvironment = new SystemEnvironment();
         assignedWorkTopic.addListener(this);
         this.assignments = new ConcurrentHashMap<>();
     }
 
+    @Autowired
+    public WorkAssignments(IdleAgentTopic idleAgentsTopic,
+                           WorkAssignedTopic assignedWorkTopic,
+                           BuildAssignmentService buildAssignmentService,
+                           SystemEnvironment systemEnvironment) {
+        this.idleAgentsTopic = idleAgentsTopic;
+        this.buildAssignmentService = buildAssignmentService;
+        this.systemEnvironment = systemEnvironment;
+        assignedWorkTopic.addListener(this);
+        this.assignments = new ConcurrentHashMap<>();
+        buildAssignmentService.registerScheduledJobsListener(this);
+    }
+
     public Work getWork(AgentRuntimeInfo runtimeInfo) {
+        return takeAssignedWork(runtimeInfo);
+    }
+
+    /**
+     * Hands the work for the agent over to the callback, which is called right away unless the agent has nothing to do
+     * and long polling is enabled. In that case the request is parked, and the callback is called on the thread which
+     * assigns work to the agent, or with no work once the long poll times out.
+     */
+    public void getWork(AgentRuntimeInfo runtimeInfo, Consumer<Work> callback) {
+        AgentIdentifier agent = runtimeInfo.getIdentifier();
+        long timeout = longPollTimeoutInMillis();
+        Work work;
+        ParkedRequest replaced = null;
+        synchronized (lockFor(agent)) {
+            work = takeAssignedWork(runtimeInfo);
+            if (work instanceof NoWork && timeout > 0) {
+                ParkedRequest parked = new ParkedRequest(runtimeInfo, callback);
+                replaced = parkedRequests.put(agent, parked);
+                parked.timeout = parkingTimeouts.schedule(() -> timeOut(agent, parked), timeout, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (replaced != null) {
+            // the agent gave up on its previous request and asked again
+            replaced.handOver(NO_WORK);
+        }
+        if (!(work instanceof NoWork) || timeout <= 0) {
+            callback.accept(work);
+        }
+    }
+
+    public boolean isLongPolling() {
+        return longPollTimeoutInMillis() > 0;
+    }
+
+    private Work takeAssignedWork(AgentRuntimeInfo runtimeInfo) {
         AgentIdentifier agent = runtimeInfo.getIdentifier();
-        synchronized (agentMutex(agent)) {
+        synchronized (lockFor(agent)) {
             Work work = assignments.get(agent);
             if (work == null) {
                 assignments.put(agent, NO_WORK);
@@ -59,8 +136,24 @@ public class WorkAssignments implements GoMessageListener<WorkAssignedMessage> {
         }
     }
 
-    private String agentMutex(AgentIdentifier agent) {
-        return agent.getUuid().intern();
+    private void timeOut(AgentIdentifier agent, ParkedRequest parked) {
+        if (parkedRequests.remove(agent, parked)) {
+            parked.handOver(NO_WORK);
+        }
+    }
+
+    public long longPollTimeoutInMillis() {
+        Integer configured = systemEnvironment.get(AGENT_WORK_LONG_POLL_TIMEOUT_IN_MILLIS);
+        if (configured == null || configured <= 0) {
+            return 0;
+        }
+        // the agent's request must come back well before jetty gives up on it
+        long limit = systemEnvironment.get(AGENT_REQUEST_IDLE_TIMEOUT_IN_SECONDS) * 1000L / 2;
+        return Math.min(configured, limit);
+    }
+
+    private Object lockFor(AgentIdentifier agent) {
+        return agentLocks.computeIfAbsent(agent, key -> new Object());
     }
 
     @Override
@@ -68,14 +161,61 @@ public class WorkAssignments implements GoMessageListener<WorkAssignedMessage> {
         AgentIdentifier agentIdentifier = message.getAgent();
         Work work = message.getWork();
         if (work instanceof NoWork) {
-            synchronized (agentMutex(agentIdentifier)) {
+            synchronized (lockFor(agentIdentifier)) {
                 assignments.remove(agentIdentifier);
             }
-        } else {
-            synchronized (agentMutex(agentIdentifier)) {
-                assignments.replace(agentIdentifier, NO_WORK, work);
+            return;
+        }
+
+        ParkedRequest parked;
+        synchronized (lockFor(agentIdentifier)) {
+            if (!assignments.replace(agentIdentifier, NO_WORK, work)) {
+                return;
+            }
+            parked = parkedRequests.remove(agentIdentifier);
+            if (parked == null) {
+                return;
             }
+            assignments.remove(agentIdentifier);
         }
+        parked.handOver(work);
     }
 
+    /**
+     * Parked agents found nothing to do the last time they were considered; give those which could run one of the new
+     * jobs another chance, leaving the others parked.
+     */
+    @Override
+    public void newJobsScheduled(List<JobPlan> newJobs) {
+        for (ParkedRequest parked : parkedRequests.values()) {
+            AgentIdentifier agent = parked.runtimeInfo.getIdentifier();
+            if (!buildAssignmentService.couldRunAnyOf(agent, newJobs)) {
+                continue;
+            }
+            synchronized (lockFor(agent)) {
+                if (assignments.putIfAbsent(agent, NO_WORK) == null) {
+                    idleAgentsTopic.post(new IdleAgentMessage(parked.runtimeInfo));
+                }
+            }
+        }
+    }
+
+    private static class ParkedRequest {
+        private final AgentRuntimeInfo runtimeInfo;
+        private final Consumer<Work> callback;
+        private volatile ScheduledFuture<?> timeout;
+
+        ParkedRequest(AgentRuntimeInfo runtimeInfo, Consumer<Work> callback) {
+            this.runtimeInfo = runtimeInfo;
+            this.callback = callback;
+        }
+
+        void handOver(Work work) {
+            ScheduledFuture<?> timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            callback.accept(work);
+        }
+    }
 }
@@ -52,4 +52,16 @@ public class MDUPerformanceLogger {
         performanceLogger.log("MDU-QUEUE-REMOVE {} {} {}", trackingId, material.getFingerprint(), material.getDisplayName());
     }
 
+    public void materialHeldForHost(Material material, String host, int pendingForHost) {
+        performanceLogger.log("MDU-HOLD {} {} {} {}", material.getFingerprint(), material.getDisplayName(), host, pendingForHost);
+    }
+
+    public void materialReleasedForHost(Material material) {
+        performanceLogger.log("MDU-RELEASE {} {}", material.getFingerprint(), material.getDisplayName());
+    }
+
+    public void materialPollDeferred(Material material, long intervalInMillis) {
+        performanceLogger.log("MDU-DEFER {} {} {}", material.getFingerprint(), material.getDisplayName(), intervalInMillis);
+    }
+
 }
@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.server.persistence;
 
+import com.google.common.collect.Lists;
 import com.thoughtworks.go.config.CaseInsensitiveString;
 import com.thoughtworks.go.config.materials.AbstractMaterial;
 import com.thoughtworks.go.config.materials.MaterialConfigs;
@@ -63,12 +64,15 @@ import static org.hibernate.criterion.Restrictions.isNull;
 @Component
 public class MaterialRepository extends HibernateDaoSupport {
     private static final Logger LOGGER = LoggerFactory.getLogger(MaterialRepository.class.getName());
+    private static final int DUPLICATE_CHECK_CHUNK_SIZE = 1000;
 
     private final GoCache goCache;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
     private final MaterialConfigConverter materialConfigConverter;
     private final QueryExtensions queryExtensions;
     private final CacheKeyGenerator cacheKeyGenerator;
+    private final SystemEnvironment systemEnvironment;
+    private final boolean driverReturnsKeysOfBatchedRows;
     private int latestModificationsCacheLimit;
     private MaterialExpansionService materialExpansionService;
 
@@ -79,13 +83,17 @@ public class MaterialRepository extends HibernateDaoSupport {
                               TransactionSynchronizationManager transactionSynchronizationManager,
                               MaterialConfigConverter materialConfigConverter,
                               MaterialExpansionService materialExpansionService,
-                              Database databaseStrategy) {
+                              Database databaseStrategy,
+                              SystemEnvironment systemEnvironment) {
         this.goCache = goCache;
         this.latestModificationsCacheLimit = latestModificationsCacheLimit;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
         this.materialConfigConverter = materialConfigConverter;
         this.materialExpansionService = materialExpansionService;
         this.queryExtensions = databaseStrategy.getQueryExtensions();
+        this.systemEnvironment = systemEnvironment;
+        // H2 only returns the key of the last row of a batch
+        this.driverReturnsKeysOfBatchedRows = !"h2".equalsIgnoreCase(databaseStrategy.getType());
         setSessionFactory(sessionFactory);
         this.cacheKeyGenerator = new CacheKeyGenerator(getClass());
     }
@@ -762,8 +770,12 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
 
         try {
             checkAndRemoveDuplicates(materialInstance, newChanges, list);
-            for (Modification modification : list) {
-                getHibernateTemplate().saveOrUpdate(modification);
+            if (list.size() >= systemEnvironment.get(SystemEnvironment.MODIFICATIONS_BULK_INSERT_THRESHOLD)) {
+                bulkInsert(materialInstance, list);
+            } else {
+                for (Modification modification : list) {
+                    getHibernateTemplate().saveOrUpdate(modification);
+                }
             }
         } catch (Exception e) {
             String message = "Cannot save modification: ";
@@ -777,26 +789,37 @@ List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
         removeCachedModificationsFor(materialInstance);
     }
 
+    private void bulkInsert(MaterialInstance materialInstance, List<Modification> modifications) {
+        LOGGER.info("Bulk inserting {} modifications for material [{}]", modifications.size(), materialInstance.getFingerprint());
+        ModificationBatchInserter inserter = new ModificationBatchInserter(systemEnvironment.get(SystemEnvironment.MODIFICATIONS_BULK_INSERT_BATCH_SIZE), driverReturnsKeysOfBatchedRows);
+        getHibernateTemplate().execute((HibernateCallback) session -> {
+            session.flush();
+            session.doWork(connection -> inserter.insert(connection, materialInstance, modifications));
+            return null;
+        });
+    }
+
     private void checkAndRemoveDuplicates(MaterialInstance materialInstance,
                                           List<Modification> newChanges,
                                           ArrayList<Modification> list) {
-        if (!new SystemEnvironment().get(SystemEnvironment.CHECK_AND_REMOVE_DUPLICATE_MODIFICATIONS)) {
+        if (!systemEnvironment.get(SystemEnvironment.CHECK_AND_REMOVE_DUPLICATE_MODIFICATIONS)) {
             return;
         }
-        DetachedCriteria criteria = DetachedCriteria.forClass(Modification.class);
-        criteria.setProjection(Projections.projectionList().add(Projections.property("revision")));
-        criteria.add(Restrictions.eq("materialInstance.id", materialInstance.getId()));
         ArrayList<String> revisions = new ArrayList<>();
         for (Modification modification : newChanges) {
             revisions.add(modification.getRevision());
         }
-        criteria.add(Restrictions.in("revision", revisions));
-        List<String> matchingRevisionsFromDb = (List<String>) getHibernateTemplate().findByCriteria(criteria);
+        List<String> matchingRevisionsFromDb = new ArrayList<>();
+        for (List<String> chunk : Lists.partition(revisions, DUPLICATE_CHECK_CHUNK_SIZE)) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(Modification.class);
+            criteria.setProjection(Projections.projectionList().add(Projections.property("revision")));
+            criteria.add(Restrictions.eq("materialInstance.id", materialInstance.getId()));
+            criteria.add(Restrictions.in("revision", chunk));
+            matchingRevisionsFromDb.addAll((List<String>) getHibernateTemplate().findByCriteria(criteria));
+        }
         if (!matchingRevisionsFromDb.isEmpty()) {
-            for (final String revision : matchingRevisionsFromDb) {
-                Modification modification = list.stream().filter(item -> item.getRevision().equals(revision)).findFirst().orElse(null);
-                list.remove(modification);
-            }
+            Set<String> duplicates = new HashSet<>(matchingRevisionsFromDb);
+            list.removeIf(modification -> duplicates.contains(modification.getRevision()));
         }
         if (!newChanges.isEmpty() && list.isEmpty()) {
             LOGGER.debug("All modifications already exist in db [{}]", revisions);
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.persistence;
+
+import com.google.common.collect.Lists;
+import com.thoughtworks.go.domain.MaterialInstance;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.domain.materials.ModifiedFile;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @understands inserting a large number of modifications and their modified files over plain JDBC
+ *
+ * Modified files are sent in JDBC batches, and so are modifications when the driver returns a generated key for every
+ * row of a batch. Drivers which do not, like H2's, get the modifications one at a time. Either way the generated ids are
+ * set on the modifications before their modified files are batched, since the files refer to them; ids of modified files
+ * are not set.
+ */
+class ModificationBatchInserter {
+    private static final String INSERT_MODIFICATION = "INSERT INTO modifications " +
+            "(revision, comment, emailAddress, modifiedTime, userName, pipelineLabel, pipelineId, additionalData, materialId) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MODIFIED_FILE = "INSERT INTO modifiedFiles (action, fileName, folderName, modificationId) VALUES (?, ?, ?, ?)";
+
+    private final int batchSize;
+    private final boolean batchModifications;
+
+    ModificationBatchInserter(int batchSize, boolean batchModifications) {
+        this.batchSize = Math.max(1, batchSize);
+        this.batchModifications = batchModifications;
+    }
+
+    void insert(Connection connection, MaterialInstance materialInstance, List<Modification> modifications) throws SQLException {
+        try (PreparedStatement insertModification = connection.prepareStatement(INSERT_MODIFICATION, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement insertModifiedFile = connection.prepareStatement(INSERT_MODIFIED_FILE)) {
+            int pendingFiles = 0;
+            for (List<Modification> batch : Lists.partition(modifications, batchSize)) {
+                List<Long> ids = batchModifications ? insertBatch(insertModification, materialInstance, batch) : insertOneByOne(insertModification, materialInstance, batch);
+
+                for (int i = 0; i < batch.size(); i++) {
+                    Modification modification = batch.get(i);
+                    modification.setId(ids.get(i));
+                    for (ModifiedFile file : modification.getModifiedFiles()) {
+                        addModifiedFile(insertModifiedFile, modification.getId(), file);
+                        if (++pendingFiles >= batchSize) {
+                            insertModifiedFile.executeBatch();
+                            pendingFiles = 0;
+                        }
+                    }
+                }
+            }
+            if (pendingFiles > 0) {
+                insertModifiedFile.executeBatch();
+            }
+        }
+    }
+
+    private List<Long> insertBatch(PreparedStatement statement, MaterialInstance materialInstance, List<Modification> batch) throws SQLException {
+        for (Modification modification : batch) {
+            setModification(statement, materialInstance, modification);
+            statement.addBatch();
+        }
+        statement.executeBatch();
+        List<Long> ids = generatedIds(statement);
+        if (ids.size() != batch.size()) {
+            throw new SQLException("Expected " + batch.size() + " ids for the inserted modifications of material " + materialInstance.getId() + " but the driver returned " + ids.size());
+        }
+        return ids;
+    }
+
+    private List<Long> insertOneByOne(PreparedStatement statement, MaterialInstance materialInstance, List<Modification> batch) throws SQLException {
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Modification modification : batch) {
+            setModification(statement, materialInstance, modification);
+            statement.executeUpdate();
+            List<Long> generated = generatedIds(statement);
+            if (generated.size() != 1) {
+                throw new SQLException("Expected an id for the inserted modification " + modification.getRevision() + " of material " + materialInstance.getId() + " but the driver returned " + generated.size());
+            }
+            ids.add(generated.get(0));
+        }
+        return ids;
+    }
+
+    private void setModification(PreparedStatement statement, MaterialInstance materialInstance, Modification modification) throws SQLException {
+        statement.setString(1, modification.getRevision());
+        statement.setString(2, modification.getComment());
+        statement.setString(3, modification.getEmailAddress());
+        statement.setTimestamp(4, timestamp(modification.getModifiedTime()));
+        statement.setString(5, modification.getUserName());
+        statement.setString(6, modification.getPipelineLabel());
+        if (modification.getPipelineId() == null) {
+            statement.setNull(7, Types.BIGINT);
+        } else {
+            statement.setLong(7, modification.getPipelineId());
+        }
+        statement.setString(8, modification.getAdditionalData());
+        statement.setLong(9, materialInstance.getId());
+    }
+
+    private List<Long> generatedIds(PreparedStatement statement) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+            while (generatedKeys.next()) {
+                ids.add(generatedKeys.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private void addModifiedFile(PreparedStatement statement, long modificationId, ModifiedFile file) throws SQLException {
+        statement.setString(1, file.getAction() == null ? null : file.getAction().name());
+        statement.setString(2, file.getFileName());
+        statement.setString(3, file.getFolderName());
+        statement.setLong(4, modificationId);
+        statement.addBatch();
+    }
+
+    private static Timestamp timestamp(Date date) {
+        return date == null ? null : new Timestamp(date.getTime());
+    }
+}
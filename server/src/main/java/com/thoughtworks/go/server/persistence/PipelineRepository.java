@@ -121,9 +121,9 @@ public void updatePipelineTimeline(final PipelineTimeline pipelineTimeline, fina
                     long id1 = id(m1);
                     long id2 = id(m2);
                     if (id1 == id2) {
-                        return (int) (pmrId(m1) - pmrId(m2));
+                        return Long.compare(pmrId(m1), pmrId(m2));
                     }
-                    return (int) (id1 - id2);
+                    return Long.compare(id1, id2);
                 });
             }
 
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.util.ArtifactLogUtil;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @understands keeping a single copy of artifact files with identical contents, by hard linking every such file to a
+ * blob named after its sha256 checksum. The link count of a blob is its reference count, so a blob is only released
+ * once none of the artifacts linked to it are left.
+ */
+class ArtifactBlobStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactBlobStore.class);
+    static final String BLOBS_FOLDER = "blobs";
+    private static final String LINK_COUNT = "unix:nlink";
+    private static final String IN_PROGRESS_SUFFIX = ".tmp";
+    private static final int LOCK_STRIPES = 64;
+
+    private final ArtifactsDirHolder artifactsDirHolder;
+    private final SystemEnvironment systemEnvironment;
+    private final Object[] blobLocks = new Object[LOCK_STRIPES];
+
+    ArtifactBlobStore(ArtifactsDirHolder artifactsDirHolder, SystemEnvironment systemEnvironment) {
+        this.artifactsDirHolder = artifactsDirHolder;
+        this.systemEnvironment = systemEnvironment;
+        for (int i = 0; i < blobLocks.length; i++) {
+            blobLocks[i] = new Object();
+        }
+    }
+
+    boolean isEnabled() {
+        return Boolean.TRUE.equals(systemEnvironment.get(SystemEnvironment.ARTIFACT_DEDUPLICATION_ENABLED))
+                && FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+    }
+
+    /**
+     * Replaces the files saved at the given path, or under it, with links to blobs of the same contents, making them
+     * the blob where there is none yet. Console logs and plugin metadata are left alone since they get appended to.
+     */
+    void deduplicate(File saved) {
+        if (!isEnabled() || !saved.exists()) {
+            return;
+        }
+        for (Path file : regularFilesUnder(saved.toPath())) {
+            if (!isAppendedTo(file)) {
+                share(file);
+            }
+        }
+    }
+
+    /**
+     * Gives the file its own copy of its contents, so that a blob linked to other artifacts is never written to.
+     */
+    void unshare(File file) throws IOException {
+        Path path = file.toPath();
+        if (!isEnabled() || !Files.isRegularFile(path) || linkCount(path) <= 1) {
+            return;
+        }
+        Path copy = path.resolveSibling(path.getFileName() + IN_PROGRESS_SUFFIX);
+        Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(copy, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Finds the blobs nothing but the files under the given path link to, which are the ones to {@link #release} once
+     * the path is deleted. Only files whose links all lie under the path are read to find their blob.
+     */
+    List<File> blobsOnlyReferencedFrom(File path) {
+        if (!isEnabled() || !path.exists()) {
+            return Collections.emptyList();
+        }
+        Map<Object, List<Path>> linksByFile = new HashMap<>();
+        for (Path file : regularFilesUnder(path.toPath())) {
+            if (linkCount(file) > 1) {
+                linksByFile.computeIfAbsent(fileKey(file), key -> new ArrayList<>()).add(file);
+            }
+        }
+
+        List<File> blobs = new ArrayList<>();
+        for (List<Path> links : linksByFile.values()) {
+            Path link = links.get(0);
+            if (linkCount(link) - links.size() != 1) {
+                continue;
+            }
+            try {
+                File blob = blobFor(sha256Of(link));
+                if (blob.exists() && Files.isSameFile(blob.toPath(), link)) {
+                    blobs.add(blob);
+                }
+            } catch (IOException e) {
+                LOGGER.warn("[Artifact Deduplication] Could not find the blob of artifact {}", link, e);
+            }
+        }
+        return blobs;
+    }
+
+    /**
+     * Deletes those of the given blobs no artifact links to anymore.
+     */
+    void release(Collection<File> blobs) {
+        long released = 0;
+        for (File blob : blobs) {
+            synchronized (lockFor(blob.getName())) {
+                if (blob.exists() && linkCount(blob.toPath()) == 1) {
+                    released += blob.length();
+                    FileUtils.deleteQuietly(blob);
+                }
+            }
+        }
+        LOGGER.debug("[Artifact Deduplication] Released {} bytes of unreferenced blobs", released);
+    }
+
+    File blobFor(String sha256) {
+        return blobsDir().resolve(sha256.substring(0, 2)).resolve(sha256).toFile();
+    }
+
+    private void share(Path file) {
+        try {
+            if (Files.size(file) == 0 || linkCount(file) > 1) {
+                return;
+            }
+            String sha256 = sha256Of(file);
+            synchronized (lockFor(sha256)) {
+                Path blob = blobFor(sha256).toPath();
+                if (!Files.exists(blob)) {
+                    Files.createDirectories(blob.getParent());
+                    Files.createLink(blob, file);
+                } else if (Files.size(blob) == Files.size(file) && !Files.isSameFile(blob, file)) {
+                    Path link = file.resolveSibling(file.getFileName() + IN_PROGRESS_SUFFIX);
+                    Files.deleteIfExists(link);
+                    Files.createLink(link, blob);
+                    Files.move(link, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            // links do not work across file systems, or past the link limit of a blob; keeping the copy is harmless
+            LOGGER.warn("[Artifact Deduplication] Could not deduplicate artifact {}", file, e);
+        }
+    }
+
+    private boolean isAppendedTo(Path file) {
+        for (Path element : file) {
+            String name = element.toString();
+            if (name.equals(ArtifactLogUtil.CRUISE_OUTPUT_FOLDER) || name.equals(ArtifactLogUtil.PLUGGABLE_ARTIFACT_METADATA_FOLDER)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object lockFor(String sha256) {
+        return blobLocks[Math.floorMod(sha256.hashCode(), blobLocks.length)];
+    }
+
+    private Path blobsDir() {
+        return artifactsDirHolder.getArtifactsDir().toPath().resolve(BLOBS_FOLDER);
+    }
+
+    private static List<Path> regularFilesUnder(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.warn("[Artifact Deduplication] Could not list files under {}", root, e);
+            return List.of();
+        }
+    }
+
+    private static int linkCount(Path file) {
+        try {
+            return (Integer) Files.getAttribute(file, LINK_COUNT);
+        } catch (IOException e) {
+            return 1;
+        }
+    }
+
+    private static Object fileKey(Path file) {
+        try {
+            Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            return key == null ? file : key;
+        } catch (IOException e) {
+            return file;
+        }
+    }
+
+    private static String sha256Of(Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            return DigestUtils.sha256Hex(stream);
+        }
+    }
+}
@@ -25,7 +25,12 @@ import com.thoughtworks.go.util.SystemEnvironment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ArtifactsDiskCleaner extends DiskSpaceChecker {
     private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactsDiskCleaner.class);
@@ -62,25 +67,109 @@ public class ArtifactsDiskCleaner extends DiskSpaceChecker {
         Double requiredSpaceInGb = serverConfig.getPurgeUpto();
         if (serverConfig.isArtifactPurgingAllowed()) {
             double requiredSpace = requiredSpaceInGb * GoConstants.GIGA_BYTE;
-            LOGGER.info("Clearing old artifacts as the disk space is low. Current space: '{}'. Need to clear till we hit: '{}'.", availableSpace(), requiredSpace);
+            long spaceBeforeCleanup = availableSpace();
+            LOGGER.info("Clearing old artifacts as the disk space is low. Current space: '{}'. Need to clear till we hit: '{}'.", spaceBeforeCleanup, requiredSpace);
             List<Stage> stages;
             int numberOfStagesPurged = 0;
-            do {
-                configDbStateRepository.flushConfigState();
-                stages = stageService.oldestStagesWithDeletableArtifacts();
-                for (Stage stage : stages) {
-                    if (availableSpace() > requiredSpace) {
-                        break;
+            ExecutorService deleters = parallelism() > 1 ? Executors.newFixedThreadPool(parallelism()) : null;
+            try {
+                do {
+                    configDbStateRepository.flushConfigState();
+                    stages = stageService.oldestStagesWithDeletableArtifacts();
+                    int next = 0;
+                    while (next < stages.size() && availableSpace() <= requiredSpace) {
+                        List<Stage> batch = nextBatch(stages, next, requiredSpace - availableSpace());
+                        purge(batch, deleters);
+                        numberOfStagesPurged += batch.size();
+                        next += batch.size();
                     }
-                    numberOfStagesPurged++;
-                    artifactService.purgeArtifactsForStage(stage);
+                } while ((availableSpace() < requiredSpace) && !stages.isEmpty());
+            } finally {
+                if (deleters != null) {
+                    deleters.shutdown();
                 }
-            } while ((availableSpace() < requiredSpace) && !stages.isEmpty());
+            }
             if (availableSpace() < requiredSpace) {
                 LOGGER.warn("Ran out of stages to clear artifacts from but the disk space is still low");
             }
-            LOGGER.info("Finished clearing old artifacts. Deleted artifacts for '{}' stages. Current space: '{}'", numberOfStagesPurged, availableSpace());
+            LOGGER.info("Finished clearing old artifacts. Deleted artifacts for '{}' stages, reclaiming '{}' bytes. Current space: '{}'",
+                    numberOfStagesPurged, Math.max(0, availableSpace() - spaceBeforeCleanup), availableSpace());
+        }
+    }
+
+    /**
+     * Picks the oldest stages whose artifacts add up to the space still needed, as many as get deleted in parallel.
+     * A stage whose artifacts size is not known is deleted on its own, so that the disk space is checked right after.
+     */
+    private List<Stage> nextBatch(List<Stage> stages, int from, double spaceNeeded) {
+        List<Stage> batch = new ArrayList<>();
+        long batchSize = 0;
+        for (int i = from; i < stages.size() && batch.size() < parallelism(); i++) {
+            Stage stage = stages.get(i);
+            if (stage.getArtifactsSize() == null) {
+                if (batch.isEmpty()) {
+                    batch.add(stage);
+                }
+                break;
+            }
+            batch.add(stage);
+            batchSize += stage.getArtifactsSize();
+            if (batchSize >= spaceNeeded) {
+                break;
+            }
+        }
+        return batch;
+    }
+
+    private void purge(List<Stage> batch, ExecutorService deleters) {
+        long startedAt = System.currentTimeMillis();
+        if (deleters == null || batch.size() == 1) {
+            batch.forEach(artifactService::purgeArtifactsForStage);
+        } else {
+            List<Future<?>> deletions = new ArrayList<>();
+            for (Stage stage : batch) {
+                deletions.add(deleters.submit(() -> artifactService.purgeArtifactsForStage(stage)));
+            }
+            for (Future<?> deletion : deletions) {
+                awaitQuietly(deletion);
+            }
         }
+        throttle(batch.stream().filter(stage -> stage.getArtifactsSize() != null).mapToLong(Stage::getArtifactsSize).sum(), startedAt);
+    }
+
+    private void awaitQuietly(Future<?> deletion) {
+        try {
+            deletion.get();
+        } catch (ExecutionException e) {
+            LOGGER.error("Error occurred while clearing artifacts. Error: '{}'", e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Keeps deletions from using up more disk bandwidth than configured, leaving room for artifacts being uploaded.
+     */
+    private void throttle(long bytesDeleted, long startedAt) {
+        Long maxBytesPerSecond = systemEnvironment.get(SystemEnvironment.ARTIFACT_CLEANUP_MAX_BYTES_PER_SECOND);
+        if (maxBytesPerSecond == null || maxBytesPerSecond <= 0) {
+            return;
+        }
+        long pause = bytesDeleted * 1000 / maxBytesPerSecond - (System.currentTimeMillis() - startedAt);
+        if (pause > 0) {
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private int parallelism() {
+        Integer parallelism = systemEnvironment.get(SystemEnvironment.ARTIFACT_CLEANUP_PARALLELISM);
+        return parallelism == null ? 1 : Math.max(1, parallelism);
     }
 
     @Override
@@ -34,6 +34,7 @@ import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.zip.ZipInputStream;
 
 import static java.lang.String.format;
@@ -48,15 +49,16 @@ public class ArtifactsService implements ArtifactUrlReader {
     public static final Logger LOGGER = LoggerFactory.getLogger(ArtifactsService.class);
     public static final String LOG_XML_NAME = "log.xml";
     private ArtifactDirectoryChooser chooser;
+    private final ArtifactBlobStore blobStore;
 
     @Autowired
-    public ArtifactsService(JobResolverService jobResolverService, StageDao stageDao,
-                            ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, SystemService systemService) {
-        this(jobResolverService, stageDao, artifactsDirHolder, zipUtil, systemService, new ArtifactDirectoryChooser());
+    public ArtifactsService(JobResolverService jobResolverService, StageDao stageDao, ArtifactsDirHolder artifactsDirHolder,
+                            ZipUtil zipUtil, SystemService systemService, SystemEnvironment systemEnvironment) {
+        this(jobResolverService, stageDao, artifactsDirHolder, zipUtil, systemService, new ArtifactDirectoryChooser(), new ArtifactBlobStore(artifactsDirHolder, systemEnvironment));
     }
 
-    protected ArtifactsService(JobResolverService jobResolverService, StageDao stageDao,
-                               ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, SystemService systemService, ArtifactDirectoryChooser chooser) {
+    ArtifactsService(JobResolverService jobResolverService, StageDao stageDao, ArtifactsDirHolder artifactsDirHolder,
+                     ZipUtil zipUtil, SystemService systemService, ArtifactDirectoryChooser chooser, ArtifactBlobStore blobStore) {
         this.artifactsDirHolder = artifactsDirHolder;
         this.zipUtil = zipUtil;
         this.jobResolverService = jobResolverService;
@@ -65,7 +67,7 @@ public class ArtifactsService implements ArtifactUrlReader {
 
         //This is a Chain of Responsibility to decide which view should be shown for a particular artifact URL
         this.chooser = chooser;
-
+        this.blobStore = blobStore;
     }
 
     public void initialize() {
@@ -74,15 +76,29 @@ public class ArtifactsService implements ArtifactUrlReader {
     }
 
     public boolean saveFile(File dest, InputStream stream, boolean shouldUnzip, int attempt) {
+        return saveFile(dest, stream, shouldUnzip, attempt, null);
+    }
+
+    /**
+     * @param jobIdentifier the job the saved bytes count towards the artifacts size of its stage for, or null when they
+     *                      should not count
+     */
+    public boolean saveFile(File dest, InputStream stream, boolean shouldUnzip, int attempt, JobIdentifier jobIdentifier) {
         String destPath = dest.getAbsolutePath();
         try {
             LOGGER.trace("Saving file [{}]", destPath);
+            long bytesSaved;
             if (shouldUnzip) {
-                zipUtil.unzip(new ZipInputStream(stream), dest);
+                CountingZipInputStream zipStream = new CountingZipInputStream(stream);
+                zipUtil.unzip(zipStream, dest);
+                bytesSaved = zipStream.count;
             } else {
-                systemService.streamToFile(stream, dest);
+                blobStore.unshare(dest);
+                bytesSaved = systemService.streamToFile(stream, dest);
             }
             LOGGER.trace("File [{}] saved.", destPath);
+            blobStore.deduplicate(dest);
+            addToArtifactsSize(jobIdentifier, bytesSaved);
             return true;
         } catch (IOException e) {
             final String message = format("Failed to save the file to: [%s]", destPath);
@@ -100,11 +116,21 @@ public class ArtifactsService implements ArtifactUrlReader {
     }
 
     public boolean saveOrAppendFile(File dest, InputStream stream) {
+        return saveOrAppendFile(dest, stream, null);
+    }
+
+    /**
+     * @param jobIdentifier the job the appended bytes count towards the artifacts size of its stage for, or null when
+     *                      they should not count
+     */
+    public boolean saveOrAppendFile(File dest, InputStream stream, JobIdentifier jobIdentifier) {
         String destPath = dest.getAbsolutePath();
         try {
             LOGGER.trace("Appending file [{}]", destPath);
-            systemService.streamToFile(stream, dest);
+            blobStore.unshare(dest);
+            long bytesAppended = systemService.streamToFile(stream, dest);
             LOGGER.trace("File [{}] appended.", destPath);
+            addToArtifactsSize(jobIdentifier, bytesAppended);
             return true;
         } catch (IOException e) {
             LOGGER.error("Failed to save the file to : [{}]", destPath, e);
@@ -112,6 +138,21 @@ public class ArtifactsService implements ArtifactUrlReader {
         }
     }
 
+    /**
+     * Keeps count of the bytes uploaded for the stage of the job, so that artifact cleanup knows how much deleting the
+     * artifacts of a stage frees up without walking them on disk.
+     */
+    private void addToArtifactsSize(JobIdentifier jobIdentifier, long bytes) {
+        if (bytes <= 0 || jobIdentifier == null || jobIdentifier.getBuildId() == null) {
+            return;
+        }
+        try {
+            stageDao.addToArtifactsSize(jobIdentifier.getBuildId(), bytes);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to add the size of artifacts uploaded for job [{}]", jobIdentifier.buildLocator(), e);
+        }
+    }
+
     public File findArtifact(JobIdentifier identifier, String path) throws IllegalArtifactLocationException {
         return chooser.findArtifact(identifier, path);
     }
@@ -160,7 +201,9 @@ public class ArtifactsService implements ArtifactUrlReader {
             File stageRoot = chooser.findArtifact(stageIdentifier, "");
             File cachedStageRoot = chooser.findCachedArtifact(stageIdentifier);
             deleteFile(cachedStageRoot);
+            List<File> blobsToRelease = blobStore.blobsOnlyReferencedFrom(stageRoot);
             boolean didDelete = deleteArtifactsExceptCruiseOutputAndPluggableArtifactMetadata(stageRoot);
+            blobStore.release(blobsToRelease);
 
             if (!didDelete) {
                 LOGGER.error("Artifacts for stage '{}' at path '{}' was not deleted", stageIdentifier.entityLocator(), stageRoot.getAbsolutePath());
@@ -199,4 +242,23 @@ public class ArtifactsService implements ArtifactUrlReader {
         return FileUtils.deleteQuietly(file);
     }
 
+    /**
+     * Counts the bytes unzipped, rather than the compressed bytes read, since the former is what the artifacts take up.
+     */
+    private static class CountingZipInputStream extends ZipInputStream {
+        private long count;
+
+        CountingZipInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
 }
@@ -31,6 +31,7 @@ import com.thoughtworks.go.server.messaging.StartServerBackupMessage;
 import com.thoughtworks.go.server.persistence.ServerBackupRepository;
 import com.thoughtworks.go.server.service.backup.BackupStatusUpdater;
 import com.thoughtworks.go.server.service.backup.BackupUpdateListener;
+import com.thoughtworks.go.server.service.backup.IncrementalDirectoryBackup;
 import com.thoughtworks.go.server.web.BackupStatusProvider;
 import com.thoughtworks.go.service.ConfigRepository;
 import com.thoughtworks.go.util.SystemEnvironment;
@@ -48,6 +49,10 @@ import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -87,6 +92,7 @@ public class BackupService implements BackupStatusProvider {
     private static final String CONFIG_BACKUP_ZIP = "config-dir.zip";
 
     private static final String CONFIG_REPOSITORY_BACKUP_ZIP = "config-repo.zip";
+    private static final String CONFIG_REPOSITORY_BACKUP_DIR = "config-repo";
     private static final String VERSION_BACKUP_FILE = "version.txt";
 
     private static final Object BACKUP_MUTEX = new Object();
@@ -163,6 +169,8 @@ public class BackupService implements BackupStatusProvider {
         GoMailSender mailSender = goConfigService.getMailSender();
         File destDir = new File(backup.getPath());
         synchronized (BACKUP_MUTEX) {
+            ExecutorService databaseBackupExecutor = null;
+            Future<Long> databaseBackup = null;
             try {
                 runningBackup = backup;
                 notifyUpdateToListeners(backupUpdateListeners, BackupProgressStatus.CREATING_DIR);
@@ -170,10 +178,14 @@ public class BackupService implements BackupStatusProvider {
                     notifyErrorToListeners(backupUpdateListeners, "Failed to perform backup. Reason: Could not create the backup directory.");
                     return backup;
                 }
+                if (isIncremental()) {
+                    databaseBackupExecutor = Executors.newSingleThreadExecutor();
+                    databaseBackup = databaseBackupExecutor.submit(() -> timeTakenBy(() -> databaseStrategy.backup(destDir)));
+                }
                 backupVersion(destDir, backupUpdateListeners);
                 backupConfig(destDir, backupUpdateListeners);
                 backupConfigRepo(backupUpdateListeners, destDir);
-                backupDb(destDir, backupUpdateListeners);
+                backupDb(destDir, backupUpdateListeners, databaseBackup);
                 boolean passed = executePostBackupScript(backup.getUsername(), initiatedBy, backup, backupUpdateListeners);
                 if (passed) {
                     sendBackupSuccessEmail(backup.getUsername(), mailSender, destDir);
@@ -181,11 +193,15 @@ public class BackupService implements BackupStatusProvider {
                     LOGGER.debug("Backup Completed Successfully");
                 }
             } catch (Exception e) {
+                awaitQuietly(databaseBackup);
                 FileUtils.deleteQuietly(destDir);
                 sendBackupFailedEmail(mailSender, e);
                 notifyErrorToListeners(backupUpdateListeners, String.format("Failed to perform backup. Reason: %s", e.getMessage()));
                 LOGGER.error("[Backup] Failed to backup Go.", e);
             } finally {
+                if (databaseBackupExecutor != null) {
+                    databaseBackupExecutor.shutdown();
+                }
                 runningBackup = null;
             }
         }
@@ -201,15 +217,34 @@ public class BackupService implements BackupStatusProvider {
 
     private void backupConfigRepo(List<BackupUpdateListener> backupUpdateListeners, File destDir) throws IOException {
         notifyUpdateToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_CONFIG_REPO);
+        long startedAt = System.currentTimeMillis();
         configRepository.doLocked(new VoidThrowingFn<IOException>() {
             @Override
             public void run() throws IOException {
                 File configRepoDir = systemEnvironment.getConfigRepoDir();
+                if (isIncremental()) {
+                    IncrementalDirectoryBackup repoBackup = new IncrementalDirectoryBackup(configRepoDir, previousBackupOf(CONFIG_REPOSITORY_BACKUP_DIR));
+                    repoBackup.backupTo(new File(destDir, CONFIG_REPOSITORY_BACKUP_DIR));
+                    LOGGER.info("[Backup] Copied {} and linked {} unchanged files of the config repository.", repoBackup.copiedFiles(), repoBackup.linkedFiles());
+                    return;
+                }
                 try (ZipOutputStream configRepoZipStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(destDir, CONFIG_REPOSITORY_BACKUP_ZIP))))) {
                     new DirectoryStructureWalker(configRepoDir.getAbsolutePath(), configRepoZipStream).walk();
                 }
             }
         });
+        notifyStepCompletedToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_CONFIG_REPO, System.currentTimeMillis() - startedAt);
+    }
+
+    private boolean isIncremental() {
+        return Boolean.TRUE.equals(systemEnvironment.get(SystemEnvironment.INCREMENTAL_BACKUPS_ENABLED));
+    }
+
+    private File previousBackupOf(String name) {
+        return serverBackupRepository.lastSuccessfulBackup()
+                .map(previousBackup -> new File(previousBackup.getPath(), name))
+                .filter(File::isDirectory)
+                .orElse(null);
     }
 
     private void notifyUpdateToListeners(List<BackupUpdateListener> listeners, BackupProgressStatus status) {
@@ -217,6 +252,11 @@ public class BackupService implements BackupStatusProvider {
         listeners.forEach(backupUpdateListener -> backupUpdateListener.updateStep(status));
     }
 
+    private void notifyStepCompletedToListeners(List<BackupUpdateListener> listeners, BackupProgressStatus status, long timeTakenInMillis) {
+        LOGGER.info("[Backup] {} took {} ms.", status.getMessage(), timeTakenInMillis);
+        listeners.forEach(backupUpdateListener -> backupUpdateListener.stepCompleted(status, timeTakenInMillis));
+    }
+
     private void notifyErrorToListeners(List<BackupUpdateListener> listeners, String message) {
         LOGGER.debug(message);
         listeners.forEach(backupUpdateListener -> backupUpdateListener.error(message));
@@ -286,12 +326,15 @@ public class BackupService implements BackupStatusProvider {
 
     private void backupVersion(File backupDir, List<BackupUpdateListener> backupUpdateListeners) throws IOException {
         notifyUpdateToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_VERSION_FILE);
+        long startedAt = System.currentTimeMillis();
         File versionFile = new File(backupDir, VERSION_BACKUP_FILE);
         FileUtils.writeStringToFile(versionFile, CurrentGoCDVersion.getInstance().formatted(), UTF_8);
+        notifyStepCompletedToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_VERSION_FILE, System.currentTimeMillis() - startedAt);
     }
 
     private void backupConfig(File backupDir, List<BackupUpdateListener> backupUpdateListeners) throws IOException {
         notifyUpdateToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_CONFIG);
+        long startedAt = System.currentTimeMillis();
         String configDirectory = systemEnvironment.getConfigDir();
         try (ZipOutputStream configZip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(backupDir, CONFIG_BACKUP_ZIP))))) {
             File cruiseConfigFile = new File(systemEnvironment.getCruiseConfigFile());
@@ -310,11 +353,47 @@ public class BackupService implements BackupStatusProvider {
             configZip.putNextEntry(new ZipEntry(aesCipherFile.getName()));
             IOUtils.write(encodeHexString(new AESCipherProvider(systemEnvironment).getKey()), configZip, UTF_8);
         }
+        notifyStepCompletedToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_CONFIG, System.currentTimeMillis() - startedAt);
     }
 
-    private void backupDb(File backupDir, List<BackupUpdateListener> backupUpdateListener) {
+    /**
+     * @param databaseBackup the backup of the database already running alongside the other steps, or null to run it now
+     */
+    private void backupDb(File backupDir, List<BackupUpdateListener> backupUpdateListener, Future<Long> databaseBackup) throws InterruptedException {
         notifyUpdateToListeners(backupUpdateListener, BackupProgressStatus.BACKUP_DATABASE);
-        databaseStrategy.backup(backupDir);
+        long timeTaken;
+        if (databaseBackup == null) {
+            timeTaken = timeTakenBy(() -> databaseStrategy.backup(backupDir));
+        } else {
+            try {
+                timeTaken = databaseBackup.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        notifyStepCompletedToListeners(backupUpdateListener, BackupProgressStatus.BACKUP_DATABASE, timeTaken);
+    }
+
+    private long timeTakenBy(Runnable step) {
+        long startedAt = System.currentTimeMillis();
+        step.run();
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    private void awaitQuietly(Future<Long> databaseBackup) {
+        if (databaseBackup == null) {
+            return;
+        }
+        try {
+            databaseBackup.get();
+        } catch (ExecutionException e) {
+            LOGGER.debug("[Backup] Database backup failed along with the rest of the backup.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     public String backupLocation() {
@@ -17,15 +17,19 @@
 package com.thoughtworks.go.server.service;
 
 import com.thoughtworks.go.config.*;
+import com.thoughtworks.go.config.elastic.ClusterProfile;
+import com.thoughtworks.go.config.elastic.ElasticProfile;
 import com.thoughtworks.go.config.exceptions.RecordNotFoundException;
 import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.domain.builder.Builder;
 import com.thoughtworks.go.domain.exception.IllegalArtifactLocationException;
 import com.thoughtworks.go.listener.ConfigChangedListener;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
+import com.thoughtworks.go.listener.ScheduledJobsListener;
 import com.thoughtworks.go.plugin.access.exceptions.SecretResolutionFailureException;
 import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.work.*;
+import com.thoughtworks.go.server.domain.ElasticAgentMetadata;
 import com.thoughtworks.go.server.exceptions.RulesViolationException;
 import com.thoughtworks.go.server.materials.StaleMaterialsOnBuildCause;
 import com.thoughtworks.go.server.messaging.JobStatusMessage;
@@ -33,6 +37,7 @@ import com.thoughtworks.go.server.messaging.JobStatusTopic;
 import com.thoughtworks.go.server.service.builders.BuilderFactory;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.TimeProvider;
 import com.thoughtworks.go.util.command.EnvironmentVariableContext;
 import org.apache.commons.collections4.IterableUtils;
 import org.slf4j.LoggerFactory;
@@ -41,13 +46,18 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.thoughtworks.go.util.command.EnvironmentVariableContext.GO_ENVIRONMENT_NAME;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.collections4.CollectionUtils.forAllDo;
 
 
@@ -68,10 +78,15 @@ public class BuildAssignmentService implements ConfigChangedListener {
     private final ScheduledPipelineLoader scheduledPipelineLoader;
 
     private List<JobPlan> jobPlans = new ArrayList<>();
+    private final Set<Long> jobsBeingAssigned = ConcurrentHashMap.newKeySet();
+    private final List<JobPlan> jobsAssignedSinceReload = new ArrayList<>();
+    private final Set<String> agentsBeingAssigned = new HashSet<>();
+    private final List<ScheduledJobsListener> scheduledJobsListeners = new CopyOnWriteArrayList<>();
     private final UpstreamPipelineResolver resolver;
     private final BuilderFactory builderFactory;
     private MaintenanceModeService maintenanceModeService;
     private final ElasticAgentPluginService elasticAgentPluginService;
+    private final ElasticAgentAssignmentDecisions elasticAgentAssignmentDecisions;
     private final SystemEnvironment systemEnvironment;
     private SecretParamResolver secretParamResolver;
     private JobStatusTopic jobStatusTopic;
@@ -101,11 +116,32 @@ public class BuildAssignmentService implements ConfigChangedListener {
         this.secretParamResolver = secretParamResolver;
         this.jobStatusTopic = jobStatusTopic;
         this.consoleService = consoleService;
+        this.elasticAgentAssignmentDecisions = new ElasticAgentAssignmentDecisions(systemEnvironment.getElasticAgentAssignmentDecisionTtl(), new TimeProvider());
     }
 
     public void initialize() {
         goConfigService.register(this);
         goConfigService.register(pipelineConfigChangedListener());
+        goConfigService.register(elasticProfileChangedListener());
+        goConfigService.register(clusterProfileChangedListener());
+    }
+
+    protected EntityConfigChangedListener<ElasticProfile> elasticProfileChangedListener() {
+        return new EntityConfigChangedListener<ElasticProfile>() {
+            @Override
+            public void onEntityConfigChange(ElasticProfile profile) {
+                elasticAgentAssignmentDecisions.invalidateAll();
+            }
+        };
+    }
+
+    protected EntityConfigChangedListener<ClusterProfile> clusterProfileChangedListener() {
+        return new EntityConfigChangedListener<ClusterProfile>() {
+            @Override
+            public void onEntityConfigChange(ClusterProfile profile) {
+                elasticAgentAssignmentDecisions.invalidateAll();
+            }
+        };
     }
 
 
@@ -168,25 +204,93 @@ public class BuildAssignmentService implements ConfigChangedListener {
             return new DeniedAgentWork(agent.getUuid());
         }
 
+        if (agent.isElastic() && elasticAgentAssignmentDecisions.isEnabled()) {
+            // ask the plugin before taking the lock, so a slow plugin does not hold up assignment to every other agent
+            evaluateElasticAgentAssignments(agent);
+        }
+
+        final JobPlan job;
         synchronized (this) {
 //          check to ensure agent is not disabled after entering the synchronized block
             if (agent.isDisabled()) {
                 return new DeniedAgentWork(agent.getUuid());
             }
-            //check if agent already has assigned build, if so, reschedule it
-            scheduleService.rescheduleAbandonedBuildIfNecessary(agent.getAgentIdentifier());
-            final JobPlan job = findMatchingJob(agent);
-            if (job != null) {
-                Work buildWork = createWork(agent, job);
-                AgentBuildingInfo buildingInfo = new AgentBuildingInfo(job.getIdentifier().buildLocatorForDisplay(),
-                        job.getIdentifier().buildLocator());
-                agentService.building(agent.getUuid(), buildingInfo);
-                LOGGER.info("[Agent Assignment] Assigned job [{}] to agent [{}]", job.getIdentifier(), agent.getAgent().getAgentIdentifier());
-
-                return buildWork;
+            // the job being handed to another request of this agent is not committed yet, so the check for an
+            // abandoned build below would miss it and the agent would end up with two jobs
+            if (!agentsBeingAssigned.add(agent.getUuid())) {
+                return NO_WORK;
+            }
+            boolean claimed = false;
+            try {
+                //check if agent already has assigned build, if so, reschedule it
+                scheduleService.rescheduleAbandonedBuildIfNecessary(agent.getAgentIdentifier());
+                job = findMatchingJob(agent);
+                if (job == null) {
+                    return NO_WORK;
+                }
+                jobsBeingAssigned.add(job.getJobId());
+                claimed = true;
+            } finally {
+                if (!claimed) {
+                    agentsBeingAssigned.remove(agent.getUuid());
+                }
+            }
+        }
+
+        // the job has been claimed, so the (slow) work creation does not need to hold up other agents
+        try {
+            Work buildWork = createWork(agent, job);
+            AgentBuildingInfo buildingInfo = new AgentBuildingInfo(job.getIdentifier().buildLocatorForDisplay(),
+                    job.getIdentifier().buildLocator());
+            agentService.building(agent.getUuid(), buildingInfo);
+            LOGGER.info("[Agent Assignment] Assigned job [{}] to agent [{}]", job.getIdentifier(), agent.getAgent().getAgentIdentifier());
+
+            return buildWork;
+        } finally {
+            jobsBeingAssigned.remove(job.getJobId());
+            synchronized (this) {
+                agentsBeingAssigned.remove(agent.getUuid());
+            }
+        }
+    }
+
+    private void evaluateElasticAgentAssignments(AgentInstance agent) {
+        List<JobPlan> candidates;
+        synchronized (this) {
+            candidates = new ArrayList<>(jobPlans);
+        }
+        for (JobPlan jobPlan : environmentConfigService.filterJobsByAgent(candidates, agent.getUuid())) {
+            if (jobPlan.requiresElasticAgent() && shouldAssignWork(agent, jobPlan)) {
+                return;
             }
         }
-        return NO_WORK;
+    }
+
+    private boolean shouldAssignWork(AgentInstance agent, JobPlan jobPlan) {
+        ElasticAgentMetadata metadata = agent.elasticAgentMetadata();
+        String environment = environmentConfigService.envForPipeline(jobPlan.getPipelineName());
+        return elasticAgentAssignmentDecisions.shouldAssignWork(metadata, environment, jobPlan,
+                () -> elasticAgentPluginService.shouldAssignWork(metadata, environment, jobPlan.getElasticProfile(), jobPlan.getClusterProfile(), jobPlan.getIdentifier()));
+    }
+
+    /**
+     * Tells whether the agent could be assigned one of the given jobs, going by its environments and resources, or by
+     * the jobs needing an elastic agent if it is one. Whether the elastic agent plugin would agree is not asked.
+     */
+    public boolean couldRunAnyOf(AgentIdentifier agentIdentifier, List<JobPlan> jobs) {
+        AgentInstance agent = agentService.findAgent(agentIdentifier.getUuid());
+        if (agent == null || !agent.isRegistered() || agent.isDisabled()) {
+            return false;
+        }
+        List<JobPlan> filteredJobPlans = environmentConfigService.filterJobsByAgent(jobs, agent.getUuid());
+        if (agent.isElastic()) {
+            return filteredJobPlans.stream().anyMatch(JobPlan::requiresElasticAgent);
+        }
+        return agent.firstMatching(filteredJobPlans) != null;
+    }
+
+    public Map<String, Object> elasticAgentAssignmentStats() {
+        return elasticAgentAssignmentDecisions.stats();
     }
 
     JobPlan findMatchingJob(AgentInstance agent) {
@@ -196,7 +300,7 @@ public class BuildAssignmentService implements ConfigChangedListener {
             match = agent.firstMatching(filteredJobPlans);
         } else {
             for (JobPlan jobPlan : filteredJobPlans) {
-                if (jobPlan.requiresElasticAgent() && elasticAgentPluginService.shouldAssignWork(agent.elasticAgentMetadata(), environmentConfigService.envForPipeline(jobPlan.getPipelineName()), jobPlan.getElasticProfile(), jobPlan.getClusterProfile(), jobPlan.getIdentifier())) {
+                if (jobPlan.requiresElasticAgent() && shouldAssignWork(agent, jobPlan)) {
                     match = jobPlan;
                     break;
                 }
@@ -204,6 +308,7 @@ public class BuildAssignmentService implements ConfigChangedListener {
         }
         if (match != null) {
             jobPlans.remove(match);
+            jobsAssignedSinceReload.add(match);
         }
         return match;
     }
@@ -217,23 +322,75 @@ public class BuildAssignmentService implements ConfigChangedListener {
         reloadJobPlans();
     }
 
+    public void registerScheduledJobsListener(ScheduledJobsListener listener) {
+        scheduledJobsListeners.add(listener);
+    }
+
     private void reloadJobPlans() {
+        List<JobPlan> newJobs;
         synchronized (this) {
+            // snapshot before querying, so a job whose assignment commits in between is either excluded here or no longer scheduled
+            Set<Long> claimedJobIds = new HashSet<>(jobsBeingAssigned);
             if (jobPlans == null) {
-                jobPlans = jobInstanceService.orderedScheduledBuilds();
+                jobPlans = withoutClaimedJobs(jobInstanceService.orderedScheduledBuilds(), claimedJobIds);
                 elasticAgentPluginService.createAgentsFor(jobPlans, new ArrayList<>());
+                newJobs = jobPlans;
             } else {
                 List<JobPlan> old = jobPlans;
-                List<JobPlan> newPlan = jobInstanceService.orderedScheduledBuilds();
+                List<JobPlan> newPlan = withoutClaimedJobs(jobInstanceService.orderedScheduledBuilds(), claimedJobIds);
                 jobPlans = newPlan;
-                elasticAgentPluginService.createAgentsFor(old, newPlan);
+                elasticAgentPluginService.createAgentsFor(withJobsAssignedSinceReload(old), newPlan);
+                newJobs = newJobs(old, newPlan);
+            }
+            jobsAssignedSinceReload.clear();
+            elasticAgentAssignmentDecisions.retainDecisionsForJobs(jobPlans.stream().map(JobPlan::getJobId).collect(toSet()));
+        }
+
+        if (!newJobs.isEmpty()) {
+            notifyScheduledJobsListeners(newJobs);
+        }
+    }
+
+    // a job already handed to an agent is not new when it shows up again, say because its assignment failed, so it
+    // must not get another elastic agent created for it
+    private List<JobPlan> withJobsAssignedSinceReload(List<JobPlan> old) {
+        if (jobsAssignedSinceReload.isEmpty()) {
+            return old;
+        }
+        List<JobPlan> known = new ArrayList<>(old);
+        known.addAll(jobsAssignedSinceReload);
+        return known;
+    }
+
+    private List<JobPlan> newJobs(List<JobPlan> old, List<JobPlan> newPlan) {
+        Set<Long> knownJobIds = old.stream().map(JobPlan::getJobId).collect(toSet());
+        return newPlan.stream().filter(jobPlan -> !knownJobIds.contains(jobPlan.getJobId())).collect(toList());
+    }
+
+    private void notifyScheduledJobsListeners(List<JobPlan> newJobs) {
+        List<JobPlan> jobs = Collections.unmodifiableList(new ArrayList<>(newJobs));
+        for (ScheduledJobsListener listener : scheduledJobsListeners) {
+            try {
+                listener.newJobsScheduled(jobs);
+            } catch (Exception e) {
+                LOGGER.warn("Failed to notify listener {} of newly scheduled jobs", listener, e);
             }
         }
     }
 
+    private List<JobPlan> withoutClaimedJobs(List<JobPlan> scheduledJobs, Set<Long> claimedJobIds) {
+        if (claimedJobIds.isEmpty()) {
+            return scheduledJobs;
+        }
+        return scheduledJobs.stream()
+                .filter(jobPlan -> !claimedJobIds.contains(jobPlan.getJobId()))
+                .collect(toList());
+    }
+
     @Override
     public void onConfigChange(CruiseConfig newCruiseConfig) {
         LOGGER.info("[Configuration Changed] Removing jobs for pipelines that no longer exist in configuration.");
+        elasticAgentAssignmentDecisions.invalidateAll();
         synchronized (this) {
             List<JobPlan> jobsToRemove = new ArrayList<>();
             for (JobPlan jobPlan : jobPlans) {
@@ -300,7 +457,9 @@ public class BuildAssignmentService implements ConfigChangedListener {
                 });
             });
         } catch (RecordNotFoundException e) {
-            removeJobIfNotPresentInCruiseConfig(goConfigService.getCurrentConfig(), job);
+            synchronized (this) {
+                removeJobIfNotPresentInCruiseConfig(goConfigService.getCurrentConfig(), job);
+            }
             throw e;
         } catch (SecretResolutionFailureException e) {
             JobInstance instance = jobInstanceService.buildById(job.getJobId());
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.server.cache.CacheRegionUsage;
+import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.cache.ZipArtifactCache;
+import com.thoughtworks.go.server.dashboard.GoDashboardCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @understands reporting per-region usage of the server's caches, over the API and JMX
+ */
+@Service
+public class CacheStatisticsService implements CacheStatisticsMXBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheStatisticsService.class);
+    static final String OBJECT_NAME = "com.thoughtworks.go:type=CacheStatistics";
+
+    private final GoCache goCache;
+    private final GoDashboardCache dashboardCache;
+    private final ZipArtifactCache zipArtifactCache;
+
+    @Autowired
+    public CacheStatisticsService(GoCache goCache, GoDashboardCache dashboardCache, ZipArtifactCache zipArtifactCache) {
+        this.goCache = goCache;
+        this.dashboardCache = dashboardCache;
+        this.zipArtifactCache = zipArtifactCache;
+    }
+
+    public void initialize() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(name)) {
+                mBeanServer.unregisterMBean(name);
+            }
+            mBeanServer.registerMBean(this, name);
+        } catch (JMException e) {
+            LOGGER.warn("Could not register cache statistics with JMX.", e);
+        }
+    }
+
+    @Override
+    public List<CacheRegionUsage> getRegions() {
+        List<CacheRegionUsage> regions = new ArrayList<>(goCache.regionUsage());
+        regions.add(dashboardCache.usage());
+        regions.add(zipArtifactCache.usage());
+        return regions;
+    }
+}
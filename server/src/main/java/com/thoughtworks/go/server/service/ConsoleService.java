@@ -16,6 +16,7 @@
 package com.thoughtworks.go.server.service;
 
 import com.thoughtworks.go.domain.ConsoleConsumer;
+import com.thoughtworks.go.domain.ConsoleLogLineIndex;
 import com.thoughtworks.go.domain.ConsoleStreamer;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.LocatableEntity;
@@ -24,6 +25,7 @@ import com.thoughtworks.go.server.dao.JobInstanceDao;
 import com.thoughtworks.go.server.view.artifacts.ArtifactDirectoryChooser;
 import com.thoughtworks.go.server.view.artifacts.BuildIdArtifactLocator;
 import com.thoughtworks.go.server.view.artifacts.PathBasedArtifactsLocator;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
@@ -35,6 +37,7 @@ import java.io.*;
 import java.nio.file.Path;
 
 import static com.thoughtworks.go.util.ArtifactLogUtil.getConsoleOutputFolderAndFileName;
+import static com.thoughtworks.go.util.SystemEnvironment.CONSOLE_LOG_LINE_INDEX_INTERVAL;
 
 @Component
 public class ConsoleService {
@@ -43,10 +46,16 @@ public class ConsoleService {
     private ArtifactDirectoryChooser chooser;
     public static final int DEFAULT_CONSOLE_LOG_LINE_BUFFER_SIZE = 1024;
     private ArtifactsDirHolder artifactsDirHolder;
+    private SystemEnvironment systemEnvironment;
 
 
     public ConsoleService(ArtifactDirectoryChooser chooser) {
+        this(chooser, new SystemEnvironment());
+    }
+
+    ConsoleService(ArtifactDirectoryChooser chooser, SystemEnvironment systemEnvironment) {
         this.chooser = chooser;
+        this.systemEnvironment = systemEnvironment;
     }
 
     @Autowired
@@ -61,8 +70,9 @@ public class ConsoleService {
     }
 
     public ConsoleConsumer getStreamer(long startingLine, JobIdentifier identifier) throws IllegalArtifactLocationException {
-        Path path = consoleLogFile(identifier).toPath();
-        return new ConsoleStreamer(path, startingLine);
+        File consoleLog = consoleLogFile(identifier);
+        Path path = consoleLog.toPath();
+        return new ConsoleStreamer(path, startingLine, isTemporaryConsoleLog(consoleLog) ? lineIndexFor(path) : null);
     }
 
     public File consoleLogArtifact(LocatableEntity jobIdentifier) throws IllegalArtifactLocationException {
@@ -98,6 +108,10 @@ public class ConsoleService {
             return false;
         }
         LOGGER.trace("Console log [{}] saved.", dest.getAbsolutePath());
+        // the log of a completed job lives with its artifacts, which an index should not be added to
+        if (isTemporaryConsoleLog(dest)) {
+            updateLineIndex(dest);
+        }
         return true;
     }
 
@@ -110,8 +124,36 @@ public class ConsoleService {
 
             File to = consoleLogArtifact(locatableEntity);
             FileUtils.moveFile(from, to);
+            // completed logs no longer grow; don't leave the index behind in data/console
+            FileUtils.deleteQuietly(ConsoleLogLineIndex.indexFileFor(from.toPath()).toFile());
         } catch (IOException | IllegalArtifactLocationException e) {
             throw new RuntimeException(e);
         }
     }
+
+    ConsoleLogLineIndex lineIndexFor(Path consoleLog) {
+        int interval = systemEnvironment.get(CONSOLE_LOG_LINE_INDEX_INTERVAL);
+        if (interval <= 0 || !ConsoleLogLineIndex.supports(systemEnvironment.consoleLogCharsetAsCharset())) {
+            return null;
+        }
+        return new ConsoleLogLineIndex(consoleLog, interval);
+    }
+
+    private boolean isTemporaryConsoleLog(File consoleLog) {
+        File parent = consoleLog.getAbsoluteFile().getParentFile();
+        return parent != null && parent.equals(chooser.temporaryConsoleDir().getAbsoluteFile());
+    }
+
+    private void updateLineIndex(File consoleLog) {
+        ConsoleLogLineIndex index = lineIndexFor(consoleLog.toPath());
+        if (index == null) {
+            return;
+        }
+
+        try {
+            index.update();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to update line index for console log [{}]; readers will fall back to scanning the log.", consoleLog.getAbsolutePath(), e);
+        }
+    }
 }
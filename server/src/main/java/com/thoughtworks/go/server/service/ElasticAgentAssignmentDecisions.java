@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.domain.JobPlan;
+import com.thoughtworks.go.server.domain.ElasticAgentMetadata;
+import com.thoughtworks.go.util.Clock;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @understands remembering what elastic agent plugins answered when asked whether an agent should pick up a job
+ */
+class ElasticAgentAssignmentDecisions {
+    private final Map<DecisionKey, Decision> decisions = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder pluginCalls = new LongAdder();
+    private final LongAdder pluginCallNanos = new LongAdder();
+    private final AtomicLong maxPluginCallNanos = new AtomicLong();
+
+    ElasticAgentAssignmentDecisions(long ttlMillis, Clock clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    boolean isEnabled() {
+        return ttlMillis > 0;
+    }
+
+    boolean shouldAssignWork(ElasticAgentMetadata metadata, String environment, JobPlan jobPlan, BooleanSupplier pluginCall) {
+        if (!isEnabled()) {
+            return callPlugin(pluginCall);
+        }
+
+        DecisionKey key = new DecisionKey(metadata, environment, jobPlan);
+        long now = clock.currentTimeMillis();
+        Decision decision = decisions.get(key);
+        if (decision != null && !decision.hasExpired(now)) {
+            hits.increment();
+            return decision.shouldAssign;
+        }
+
+        misses.increment();
+        boolean shouldAssign = callPlugin(pluginCall);
+        decisions.put(key, new Decision(shouldAssign, now + ttlMillis));
+        return shouldAssign;
+    }
+
+    void retainDecisionsForJobs(Set<Long> jobIds) {
+        long now = clock.currentTimeMillis();
+        decisions.entrySet().removeIf(entry -> entry.getValue().hasExpired(now) || !jobIds.contains(entry.getKey().jobId));
+    }
+
+    void invalidateAll() {
+        decisions.clear();
+    }
+
+    int size() {
+        return decisions.size();
+    }
+
+    Map<String, Object> stats() {
+        long calls = pluginCalls.sum();
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("Decision cache enabled", isEnabled());
+        json.put("Decision TTL in milliseconds", ttlMillis);
+        json.put("Cached decisions", decisions.size());
+        json.put("Cache hits", hits.sum());
+        json.put("Cache misses", misses.sum());
+        json.put("Plugin calls", calls);
+        json.put("Average plugin call time in milliseconds", calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(pluginCallNanos.sum() / calls));
+        json.put("Max plugin call time in milliseconds", TimeUnit.NANOSECONDS.toMillis(maxPluginCallNanos.get()));
+        return json;
+    }
+
+    private boolean callPlugin(BooleanSupplier pluginCall) {
+        long start = System.nanoTime();
+        try {
+            return pluginCall.getAsBoolean();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            pluginCalls.increment();
+            pluginCallNanos.add(elapsed);
+            maxPluginCallNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private static class Decision {
+        private final boolean shouldAssign;
+        private final long expiresAt;
+
+        private Decision(boolean shouldAssign, long expiresAt) {
+            this.shouldAssign = shouldAssign;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean hasExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private static class DecisionKey {
+        private final String agentUuid;
+        private final String elasticAgentId;
+        private final String elasticProfileId;
+        private final String clusterProfileId;
+        private final String environment;
+        private final long jobId;
+
+        private DecisionKey(ElasticAgentMetadata metadata, String environment, JobPlan jobPlan) {
+            this.agentUuid = metadata.uuid();
+            this.elasticAgentId = metadata.elasticAgentId();
+            this.elasticProfileId = jobPlan.getElasticProfile() == null ? null : jobPlan.getElasticProfile().getId();
+            this.clusterProfileId = jobPlan.getClusterProfile() == null ? null : jobPlan.getClusterProfile().getId();
+            this.environment = environment;
+            this.jobId = jobPlan.getJobId();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DecisionKey that = (DecisionKey) o;
+            return jobId == that.jobId &&
+                    Objects.equals(agentUuid, that.agentUuid) &&
+                    Objects.equals(elasticAgentId, that.elasticAgentId) &&
+                    Objects.equals(elasticProfileId, that.elasticProfileId) &&
+                    Objects.equals(clusterProfileId, that.clusterProfileId) &&
+                    Objects.equals(environment, that.environment);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(agentUuid, elasticAgentId, elasticProfileId, clusterProfileId, environment, jobId);
+        }
+    }
+}
@@ -47,8 +47,11 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -62,15 +65,18 @@ public class EntityHashingService implements ConfigChangedListener, Initializer
     private GoConfigService goConfigService;
     private GoCache goCache;
     private static final String ETAG_CACHE_KEY = "GO_ETAG_CACHE".intern();
-    private ConfigCache configCache;
-    private ConfigElementImplementationRegistry registry;
+    private final ConfigStructureDigest structureDigest;
+    private final Map<String, String> digestedEntityMd5s = new ConcurrentHashMap<>();
 
     @Autowired
     public EntityHashingService(GoConfigService goConfigService, GoCache goCache, ConfigCache configCache, ConfigElementImplementationRegistry registry) {
+        this(goConfigService, goCache, new ConfigStructureDigest(configCache, registry));
+    }
+
+    EntityHashingService(GoConfigService goConfigService, GoCache goCache, ConfigStructureDigest structureDigest) {
         this.goConfigService = goConfigService;
         this.goCache = goCache;
-        this.configCache = configCache;
-        this.registry = registry;
+        this.structureDigest = structureDigest;
     }
 
     @Override
@@ -101,7 +107,63 @@ public class EntityHashingService implements ConfigChangedListener, Initializer
 
     @Override
     public void onConfigChange(CruiseConfig newCruiseConfig) {
-        goCache.remove(ETAG_CACHE_KEY);
+        //a full config write does not say which entities it changed, so only the ones whose digest differs are dropped
+        Map<String, Object> entities = configEntities(newCruiseConfig);
+        for (Map.Entry<String, String> digested : digestedEntityMd5s.entrySet()) {
+            Object entity = entities.get(digested.getKey());
+            if (entity == null || !digested.getValue().equals(md5Of(entity))) {
+                removeFromCache(digested.getKey());
+            }
+        }
+    }
+
+    private Map<String, Object> configEntities(CruiseConfig config) {
+        Map<String, Object> entities = new HashMap<>();
+        for (PipelineConfigs group : config.getGroups()) {
+            entities.put(cacheKey(group, group.getGroup()), group);
+            for (PipelineConfig pipelineConfig : group) {
+                entities.put(cacheKey(pipelineConfig, pipelineConfig.name()), pipelineConfig);
+            }
+        }
+        for (PipelineTemplateConfig template : config.getTemplates()) {
+            entities.put(cacheKey(template, template.name()), template);
+        }
+        for (EnvironmentConfig environment : config.getEnvironments()) {
+            entities.put(cacheKey(environment, environment.name()), environment);
+        }
+        for (SCM scm : config.getSCMs()) {
+            entities.put(cacheKey(scm, scm.getName()), scm);
+        }
+        for (PackageRepository repository : config.getPackageRepositories()) {
+            entities.put(cacheKey(repository, repository.getId()), repository);
+            for (PackageDefinition packageDefinition : repository.getPackages()) {
+                entities.put(cacheKey(packageDefinition, packageDefinition.getId()), packageDefinition);
+            }
+        }
+        for (ConfigRepoConfig configRepo : config.getConfigRepos()) {
+            entities.put(cacheKey(configRepo, configRepo.getId()), configRepo);
+        }
+        for (ElasticProfile profile : config.getElasticConfig().getProfiles()) {
+            entities.put(cacheKey(profile, profile.getId()), profile);
+        }
+        for (ClusterProfile profile : config.getElasticConfig().getClusterProfiles()) {
+            entities.put(cacheKey(profile, profile.getId()), profile);
+        }
+        for (SecretConfig secretConfig : config.getSecretConfigs()) {
+            entities.put(cacheKey(secretConfig, secretConfig.getId()), secretConfig);
+        }
+        for (ArtifactStore artifactStore : config.getArtifactStores()) {
+            entities.put(cacheKey(artifactStore, artifactStore.getId()), artifactStore);
+        }
+        SecurityConfig security = config.server().security();
+        for (SecurityAuthConfig authConfig : security.securityAuthConfigs()) {
+            entities.put(cacheKey(authConfig, authConfig.getId()), authConfig);
+        }
+        for (Role role : security.getRoles()) {
+            entities.put(cacheKey(role, role.getName()), role);
+        }
+        entities.put(cacheKey(security.adminsConfig(), "cacheKey"), security.adminsConfig());
+        return entities;
     }
 
     public String md5ForEntity(PipelineTemplateConfig config) {
@@ -227,7 +289,7 @@ public class EntityHashingService implements ConfigChangedListener, Initializer
 
     public String md5ForEntity(ArtifactStore artifactStore) {
         String cacheKey = cacheKey(artifactStore, artifactStore.getId());
-        return getDbEntityMd5FromCache(cacheKey, artifactStore);
+        return getDomainEntityMd5FromCache(artifactStore, cacheKey);
     }
 
     private String cacheKey(Object domainObject, CaseInsensitiveString name) {
@@ -243,7 +305,23 @@ public class EntityHashingService implements ConfigChangedListener, Initializer
     }
 
     private String getDomainEntityMd5FromCache(Object domainObject, String cacheKey) {
-        return getFromCache(cacheKey, () -> getDomainObjectXmlPartial(domainObject));
+        String cachedMD5 = getFromCache(cacheKey);
+
+        if (cachedMD5 != null) {
+            return cachedMD5;
+        }
+        String md5 = md5Of(domainObject);
+        digestedEntityMd5s.put(cacheKey, md5);
+        goCache.put(ETAG_CACHE_KEY, cacheKey, md5);
+
+        return md5;
+    }
+
+    private String md5Of(Object domainObject) {
+        if (domainObject instanceof ArtifactStore) {
+            return CachedDigestUtils.md5Hex(new GsonBuilder().create().toJson(domainObject));
+        }
+        return structureDigest.md5Of(domainObject);
     }
 
     private String getFromCache(String cacheKey, Supplier<String> fingerprintSupplier) {
@@ -263,7 +341,12 @@ public class EntityHashingService implements ConfigChangedListener, Initializer
     }
 
     public void removeFromCache(Object domainObject, String name) {
-        goCache.remove(ETAG_CACHE_KEY, cacheKey(domainObject, name));
+        removeFromCache(cacheKey(domainObject, name));
+    }
+
+    private void removeFromCache(String cacheKey) {
+        digestedEntityMd5s.remove(cacheKey);
+        goCache.remove(ETAG_CACHE_KEY, cacheKey);
     }
 
     private String getFromCache(String cacheKey) {
@@ -274,10 +357,6 @@ public class EntityHashingService implements ConfigChangedListener, Initializer
         return entity.getClass().getName();
     }
 
-    private String getDomainObjectXmlPartial(Object domainObject) {
-        return new MagicalGoConfigXmlWriter(configCache, registry).toXmlPartial(domainObject);
-    }
-
     public String md5ForEntity(RolesConfig roles) {
         List<String> md5s = new ArrayList<>();
         for (Role role : roles) {
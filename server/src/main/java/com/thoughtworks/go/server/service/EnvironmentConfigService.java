@@ -43,6 +43,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static com.thoughtworks.go.config.CaseInsensitiveString.str;
@@ -98,7 +99,8 @@ public class EnvironmentConfigService implements ConfigChangedListener, AgentCha
     }
 
     List<JobPlan> filterJobsByAgent(List<JobPlan> jobPlans, String agentUuid) {
-        return jobPlans.stream().filter(jobPlan -> matchers.match(jobPlan.getPipelineName(), agentUuid)).collect(toList());
+        Predicate<String> runnableOnAgent = matchers.pipelinesMatching(agentUuid);
+        return jobPlans.stream().filter(jobPlan -> runnableOnAgent.test(jobPlan.getPipelineName())).collect(toList());
     }
 
     String envForPipeline(String pipelineName) {
@@ -27,6 +27,7 @@ import com.thoughtworks.go.server.domain.user.DashboardFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.lang.ref.WeakReference;
 import java.util.*;
 
 import static com.thoughtworks.go.config.security.util.SecurityConfigUtils.*;
@@ -34,21 +35,66 @@ import static com.thoughtworks.go.config.security.util.SecurityConfigUtils.*;
 /* Understands how to interact with the GoDashboardCache cache. */
 @Service
 public class GoDashboardService {
+    private static final int MAX_MATERIALIZED_VIEWS = 1_000;
+
     private final GoDashboardCache cache;
     private final GoDashboardCurrentStateLoader dashboardCurrentStateLoader;
     private final GoConfigService goConfigService;
     private GoConfigPipelinePermissionsAuthority permissionsAuthority;
+    private final Map<ViewKey, MaterializedView> views;
 
     @Autowired
     public GoDashboardService(GoDashboardCache cache, GoDashboardCurrentStateLoader dashboardCurrentStateLoader, GoConfigPipelinePermissionsAuthority permissionsAuthority, GoConfigService goConfigService) {
+        this(cache, dashboardCurrentStateLoader, permissionsAuthority, goConfigService, MAX_MATERIALIZED_VIEWS);
+    }
+
+    GoDashboardService(GoDashboardCache cache, GoDashboardCurrentStateLoader dashboardCurrentStateLoader, GoConfigPipelinePermissionsAuthority permissionsAuthority, GoConfigService goConfigService, int maxMaterializedViews) {
         this.cache = cache;
         this.dashboardCurrentStateLoader = dashboardCurrentStateLoader;
         this.permissionsAuthority = permissionsAuthority;
         this.goConfigService = goConfigService;
+        this.views = Collections.synchronizedMap(new LinkedHashMap<ViewKey, MaterializedView>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ViewKey, MaterializedView> eldest) {
+                return size() > maxMaterializedViews;
+            }
+        });
     }
 
-    public List<GoDashboardEnvironment> allEnvironmentsForDashboard(DashboardFilter filter, Username user) {
+    /**
+     * Hands out what the user sees on one of their dashboard views. Views are remembered until the config, plugin role
+     * memberships or the dashboard cache change. When only the state of pipelines has changed since, the remembered
+     * view is brought up to date without going through every group, permission and filter again.
+     *
+     * @param filterEtag identifies the version of the user's filters, so that changing a filter is never answered with a stale view
+     */
+    public GoDashboardView dashboardViewFor(DashboardFilter filter, String filterEtag, Username user, boolean allowEmpty) {
+        CruiseConfig config = goConfigService.currentCruiseConfig();
+        long pluginRolesVersion = PluginRoleUsersStore.instance().version();
         GoDashboardPipelines allPipelines = cache.allEntries();
+        ViewKey key = new ViewKey(user.getUsername(), filter.name(), filterEtag, allowEmpty);
+
+        MaterializedView materialized = views.get(key);
+        if (materialized != null && materialized.wasComputedFrom(config, pluginRolesVersion)) {
+            if (materialized.pipelinesTimeStamp == allPipelines.lastUpdatedTimeStamp()) {
+                return materialized.view;
+            }
+            if (allPipelines.hasLayoutVersion(materialized.layoutVersion)) {
+                return remember(key, new MaterializedView(materialized.view.refreshedWith(allPipelines), config, pluginRolesVersion, allPipelines));
+            }
+        }
+
+        GoDashboardView view = new GoDashboardView(user,
+                allPipelineGroupsForDashboard(filter, user, allowEmpty, allPipelines),
+                allEnvironmentsForDashboard(filter, user, allPipelines));
+        return remember(key, new MaterializedView(view, config, pluginRolesVersion, allPipelines));
+    }
+
+    public List<GoDashboardEnvironment> allEnvironmentsForDashboard(DashboardFilter filter, Username user) {
+        return allEnvironmentsForDashboard(filter, user, cache.allEntries());
+    }
+
+    private List<GoDashboardEnvironment> allEnvironmentsForDashboard(DashboardFilter filter, Username user, GoDashboardPipelines allPipelines) {
         List<GoDashboardEnvironment> environments = new ArrayList<>();
 
         final Users admins = superAdmins();
@@ -69,7 +115,10 @@ public class GoDashboardService {
     }
 
     public List<GoDashboardPipelineGroup> allPipelineGroupsForDashboard(DashboardFilter filter, Username user, final boolean allowEmpty) {
-        GoDashboardPipelines allPipelines = cache.allEntries();
+        return allPipelineGroupsForDashboard(filter, user, allowEmpty, cache.allEntries());
+    }
+
+    private List<GoDashboardPipelineGroup> allPipelineGroupsForDashboard(DashboardFilter filter, Username user, final boolean allowEmpty, GoDashboardPipelines allPipelines) {
         List<GoDashboardPipelineGroup> pipelineGroups = new ArrayList<>();
 
         goConfigService.groups().accept(group -> {
@@ -187,4 +236,59 @@ public class GoDashboardService {
         cache.remove(pipelineName);
         dashboardCurrentStateLoader.clearEntryFor(pipelineName);
     }
+
+    private GoDashboardView remember(ViewKey key, MaterializedView materialized) {
+        views.put(key, materialized);
+        return materialized.view;
+    }
+
+    private static class ViewKey {
+        private final CaseInsensitiveString username;
+        private final String filterName;
+        private final String filterEtag;
+        private final boolean allowEmpty;
+
+        private ViewKey(CaseInsensitiveString username, String filterName, String filterEtag, boolean allowEmpty) {
+            this.username = username;
+            this.filterName = filterName;
+            this.filterEtag = filterEtag;
+            this.allowEmpty = allowEmpty;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ViewKey that = (ViewKey) o;
+            return allowEmpty == that.allowEmpty &&
+                    Objects.equals(username, that.username) &&
+                    Objects.equals(filterName, that.filterName) &&
+                    Objects.equals(filterEtag, that.filterEtag);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(username, filterName, filterEtag, allowEmpty);
+        }
+    }
+
+    private static class MaterializedView {
+        private final GoDashboardView view;
+        private final WeakReference<CruiseConfig> config;
+        private final long pluginRolesVersion;
+        private final long pipelinesTimeStamp;
+        private final long layoutVersion;
+
+        private MaterializedView(GoDashboardView view, CruiseConfig config, long pluginRolesVersion, GoDashboardPipelines pipelines) {
+            this.view = view;
+            this.config = new WeakReference<>(config);
+            this.pluginRolesVersion = pluginRolesVersion;
+            this.pipelinesTimeStamp = pipelines.lastUpdatedTimeStamp();
+            this.layoutVersion = pipelines.layoutVersion();
+        }
+
+        private boolean wasComputedFrom(CruiseConfig config, long pluginRolesVersion) {
+            return this.config.get() == config && this.pluginRolesVersion == pluginRolesVersion;
+        }
+    }
 }
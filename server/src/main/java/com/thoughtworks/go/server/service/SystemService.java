@@ -46,9 +46,12 @@ public class SystemService {
         return new File(StringUtils.defaultString(artifactsDir)).isAbsolute();
     }
 
-    public void streamToFile(InputStream stream, File dest) throws IOException {
+    /**
+     * @return the number of bytes written to the file
+     */
+    public long streamToFile(InputStream stream, File dest) throws IOException {
         try (FileOutputStream out = FileUtils.openOutputStream(dest, true)) {
-            IOUtils.copyLarge(stream, out);
+            return IOUtils.copyLarge(stream, out);
         }
     }
 
@@ -35,6 +35,12 @@ public class BackupStatusUpdater implements BackupUpdateListener {
         this.serverBackupRepository.update(serverBackup);
     }
 
+    @Override
+    public void stepCompleted(BackupProgressStatus status, long timeTakenInMillis) {
+        serverBackup.recordTimeTaken(status, timeTakenInMillis);
+        this.serverBackupRepository.update(serverBackup);
+    }
+
     @Override
     public void error(String message) {
         serverBackup.markError(message);
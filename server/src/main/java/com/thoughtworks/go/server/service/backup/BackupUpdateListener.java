@@ -21,6 +21,9 @@ import com.thoughtworks.go.server.domain.BackupProgressStatus;
 public interface BackupUpdateListener {
     void updateStep(BackupProgressStatus status);
 
+    default void stepCompleted(BackupProgressStatus status, long timeTakenInMillis) {
+    }
+
     void error(String message);
 
     void completed();
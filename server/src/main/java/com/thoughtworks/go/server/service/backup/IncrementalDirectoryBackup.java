@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.backup;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * @understands copying a directory into a backup, hard linking the files which have not changed since the previous
+ * backup to their copy in that backup instead of copying them again, so that every backup is still complete on its own
+ */
+public class IncrementalDirectoryBackup {
+    // git never changes an object once written, and names it after its checksum
+    private static final Pattern GIT_OBJECT = Pattern.compile("objects/([0-9a-f]{2}/[0-9a-f]{38}|pack/pack-[0-9a-f]{40}\\.(pack|idx))");
+
+    private final File source;
+    private final File previousBackup;
+    private int copiedFiles;
+    private int linkedFiles;
+
+    /**
+     * @param previousBackup the copy of the directory in the previous backup, or null when there is none
+     */
+    public IncrementalDirectoryBackup(File source, File previousBackup) {
+        this.source = source;
+        this.previousBackup = previousBackup;
+    }
+
+    public void backupTo(File destination) throws IOException {
+        Path sourceRoot = source.toPath();
+        try (Stream<Path> paths = Files.walk(sourceRoot)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path relativePath = sourceRoot.relativize(path);
+                Path target = destination.toPath().resolve(relativePath);
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target);
+                } else if (Files.isRegularFile(path)) {
+                    if (isUnchanged(relativePath, path) && link(previousBackup.toPath().resolve(relativePath), target)) {
+                        linkedFiles++;
+                    } else {
+                        Files.copy(path, target, StandardCopyOption.COPY_ATTRIBUTES);
+                        copiedFiles++;
+                    }
+                }
+            }
+        }
+    }
+
+    public int copiedFiles() {
+        return copiedFiles;
+    }
+
+    public int linkedFiles() {
+        return linkedFiles;
+    }
+
+    private boolean isUnchanged(Path relativePath, Path file) throws IOException {
+        if (previousBackup == null) {
+            return false;
+        }
+        File previous = previousBackup.toPath().resolve(relativePath).toFile();
+        if (!previous.isFile() || previous.length() != Files.size(file)) {
+            return false;
+        }
+        return GIT_OBJECT.matcher(FilenameUtils.separatorsToUnix(relativePath.toString())).matches() || FileUtils.contentEquals(previous, file.toFile());
+    }
+
+    private boolean link(Path previous, Path target) {
+        try {
+            Files.createLink(target, previous);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            // links do not work across file systems, or on some of them at all
+            return false;
+        }
+    }
+}
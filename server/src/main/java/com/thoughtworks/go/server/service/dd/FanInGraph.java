@@ -141,6 +141,16 @@ public class FanInGraph {
         return scmMaterials;
     }
 
+    Set<CaseInsensitiveString> pipelineNames() {
+        Set<CaseInsensitiveString> pipelineNames = new HashSet<>();
+        for (FanInNode node : nodes.values()) {
+            if (node.materialConfig instanceof DependencyMaterialConfig) {
+                pipelineNames.add(((DependencyMaterialConfig) node.materialConfig).getPipelineName());
+            }
+        }
+        return pipelineNames;
+    }
+
     public Map<DependencyMaterialConfig, Set<MaterialConfig>> getPipelineScmDepMap() {
         Map<DependencyMaterialConfig, Set<MaterialConfig>> dependencyMaterialListMap = new HashMap<>();
 
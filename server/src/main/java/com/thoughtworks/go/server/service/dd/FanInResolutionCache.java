@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.dd;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.MaterialRevisions;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.server.domain.PipelineTimeline;
+import com.thoughtworks.go.server.domain.StageStatusListener;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * @understands remembering fan-in resolutions for pipelines until something they were computed from changes
+ */
+@Component
+public class FanInResolutionCache implements StageStatusListener {
+    private final SystemEnvironment systemEnvironment;
+    private final Map<CaseInsensitiveString, Resolution> resolutions = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public FanInResolutionCache(SystemEnvironment systemEnvironment) {
+        this.systemEnvironment = systemEnvironment;
+    }
+
+    public MaterialRevisions computeRevisions(CaseInsensitiveString pipelineName, CruiseConfig cruiseConfig, MaterialRevisions actualRevisions,
+                                              PipelineTimeline pipelineTimeline, Supplier<FanInGraph> fanInGraph) {
+        String configMd5 = cruiseConfig.getMd5();
+        if (!isEnabled() || configMd5 == null) {
+            return fanInGraph.get().computeRevisions(actualRevisions, pipelineTimeline);
+        }
+
+        List<String> actualRevisionKey = revisionKey(actualRevisions);
+        Resolution resolution = resolutions.get(pipelineName);
+        if (resolution != null && resolution.isValidFor(configMd5, actualRevisionKey, pipelineTimeline)) {
+            return copyOf(resolution.revisions);
+        }
+
+        long generationAtStart = generation.get();
+        FanInGraph graph = fanInGraph.get();
+        Map<CaseInsensitiveString, Integer> instanceCounts = instanceCounts(graph.pipelineNames(), pipelineTimeline);
+        MaterialRevisions computed = graph.computeRevisions(actualRevisions, pipelineTimeline);
+
+        //actual revisions are handed back as is when there is nothing to fan-in, no point remembering those
+        if (computed != actualRevisions && generation.get() == generationAtStart) {
+            resolutions.put(pipelineName, new Resolution(configMd5, actualRevisionKey, instanceCounts, copyOf(computed)));
+        }
+        return computed;
+    }
+
+    @Override
+    public void stageStatusChanged(Stage stage) {
+        if (!stage.getState().completed()) {
+            return;
+        }
+        generation.incrementAndGet();
+        CaseInsensitiveString completedPipeline = new CaseInsensitiveString(stage.getIdentifier().getPipelineName());
+        resolutions.values().removeIf(resolution -> resolution.dependsOn(completedPipeline));
+    }
+
+    int size() {
+        return resolutions.size();
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(systemEnvironment.get(SystemEnvironment.RESOLVE_FANIN_CACHE_ENABLED));
+    }
+
+    private static List<String> revisionKey(MaterialRevisions revisions) {
+        List<String> key = new ArrayList<>();
+        for (MaterialRevision revision : revisions) {
+            key.add(revision.getMaterial().getFingerprint() + ":" + revision.getLatestRevisionString() + ":" + revision.numberOfModifications() + ":" + revision.isChanged());
+        }
+        return key;
+    }
+
+    private static Map<CaseInsensitiveString, Integer> instanceCounts(Set<CaseInsensitiveString> pipelineNames, PipelineTimeline pipelineTimeline) {
+        Map<CaseInsensitiveString, Integer> counts = new HashMap<>();
+        for (CaseInsensitiveString pipelineName : pipelineNames) {
+            counts.put(pipelineName, pipelineTimeline.instanceCount(pipelineName));
+        }
+        return counts;
+    }
+
+    private static MaterialRevisions copyOf(MaterialRevisions revisions) {
+        List<MaterialRevision> copy = new ArrayList<>();
+        for (MaterialRevision revision : revisions) {
+            copy.add(new MaterialRevision(revision.getMaterial(), revision.isChanged(), new ArrayList<>(revision.getModifications())));
+        }
+        return new MaterialRevisions(copy);
+    }
+
+    private static class Resolution {
+        private final String configMd5;
+        private final List<String> actualRevisionKey;
+        private final Map<CaseInsensitiveString, Integer> instanceCounts;
+        private final MaterialRevisions revisions;
+
+        private Resolution(String configMd5, List<String> actualRevisionKey, Map<CaseInsensitiveString, Integer> instanceCounts, MaterialRevisions revisions) {
+            this.configMd5 = configMd5;
+            this.actualRevisionKey = actualRevisionKey;
+            this.instanceCounts = instanceCounts;
+            this.revisions = revisions;
+        }
+
+        private boolean dependsOn(CaseInsensitiveString pipelineName) {
+            return instanceCounts.containsKey(pipelineName);
+        }
+
+        private boolean isValidFor(String configMd5, List<String> actualRevisionKey, PipelineTimeline pipelineTimeline) {
+            if (!this.configMd5.equals(configMd5) || !this.actualRevisionKey.equals(actualRevisionKey)) {
+                return false;
+            }
+            for (Map.Entry<CaseInsensitiveString, Integer> entry : instanceCounts.entrySet()) {
+                if (pipelineTimeline.instanceCount(entry.getKey()) != entry.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
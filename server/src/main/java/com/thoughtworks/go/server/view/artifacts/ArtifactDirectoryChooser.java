@@ -74,7 +74,11 @@ public class ArtifactDirectoryChooser {
     }
 
     public File temporaryConsoleFile(LocatableEntity locatableEntity) {
-        return new File("data/console", format("%s.log", DigestUtils.md5Hex(locatableEntity.entityLocator())));
+        return new File(temporaryConsoleDir(), format("%s.log", DigestUtils.md5Hex(locatableEntity.entityLocator())));
+    }
+
+    public File temporaryConsoleDir() {
+        return new File("data/console");
     }
 
 }
@@ -25,15 +25,26 @@ import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 
 public class ConfigGitRepoFilter extends GitFilter {
+    private static final String REPOSITORY_PATH = "/api/config-repository.git/";
+
     @Override
     public void destroy() {
     }
 
     @Override
     public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain) throws ServletException, IOException {
+        if (!isForConfigRepository((HttpServletRequest) req)) {
+            chain.doFilter(req, resp);
+            return;
+        }
         super.doFilter(req, resp, chain);
     }
 
+    private boolean isForConfigRepository(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith(REPOSITORY_PATH);
+    }
+
     @Override
     public void init(FilterConfig config) throws ServletException {
         ConfigRepository configRepository = ContextLoader.getCurrentWebApplicationContext().getBean(ConfigRepository.class);
@@ -32,6 +32,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.zip.Deflater;
 
 @Component
@@ -41,6 +43,7 @@ public class FileView implements View, ServletContextAware {
 
     private ServletContext servletContext;
     public static final String NEED_TO_ZIP = "need_to_zip";
+    public static final String ZIP_COMPRESSION_LEVEL = "zip_compression_level";
 
     private ServletContext getServletContext() {
         return this.servletContext;
@@ -56,18 +59,49 @@ public class FileView implements View, ServletContextAware {
         return "application/octet-stream";
     }
 
-    private void handleFile(File file, boolean needToZip, HttpServletResponse response) throws Exception {
+    private void handleFile(File file, boolean needToZip, int zipLevel, HttpServletRequest request, HttpServletResponse response) throws Exception {
         String filename = file.getName();
         seContentType(needToZip, response, filename);
         setHeaders(response, filename);
+
+        if (!needToZip) {
+            response.setHeader("Accept-Ranges", "bytes");
+            String rangeHeader = request.getHeader("Range");
+            if (rangeHeader != null) {
+                ByteRange range = ByteRange.parse(rangeHeader, file.length());
+                if (range == null) {
+                    response.setHeader("Content-Range", "bytes */" + file.length());
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                if (range.length() < file.length()) {
+                    setPartialOutput(file, range, response);
+                    return;
+                }
+            }
+        }
+
         setContentLength(needToZip, file, response);
-        setOutput(needToZip, file, response);
+        setOutput(needToZip, zipLevel, file, response);
+    }
+
+    private void setPartialOutput(File file, ByteRange range, HttpServletResponse response) throws IOException {
+        LOGGER.info("[Artifact Download] Sending bytes {}-{} of {}", range.start, range.end, file.getAbsolutePath());
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader("Content-Range", String.format("bytes %d-%d/%d", range.start, range.end, file.length()));
+        response.addHeader("Content-Length", Long.toString(range.length()));
+
+        ServletOutputStream out = response.getOutputStream();
+        try (FileInputStream input = new FileInputStream(file)) {
+            IOUtils.copyLarge(input, out, range.start, range.length(), new byte[32 * 1024]);
+        }
+        out.flush();
     }
 
-    private void setOutput(boolean needToZip, File file, HttpServletResponse response) throws IOException {
+    private void setOutput(boolean needToZip, int zipLevel, File file, HttpServletResponse response) throws IOException {
         ServletOutputStream out = response.getOutputStream();
         if (needToZip) {
-            new ZipUtil().zip(file, out, Deflater.NO_COMPRESSION);
+            new ZipUtil().zip(file, out, zipLevel);
         } else {
             try (FileInputStream input = new FileInputStream(file)) {
                 IOUtils.copy(input, out, 32 * 1024);
@@ -108,17 +142,63 @@ public class FileView implements View, ServletContextAware {
     public void render(Map map, HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) throws Exception {
         File file = (File) map.get("targetFile");
         boolean needToZip = map.containsKey(NEED_TO_ZIP);
-        handleFileWithLogging(httpServletResponse, file, needToZip);
+        int zipLevel = map.containsKey(ZIP_COMPRESSION_LEVEL) ? (Integer) map.get(ZIP_COMPRESSION_LEVEL) : Deflater.NO_COMPRESSION;
+        handleFileWithLogging(httpServletRequest, httpServletResponse, file, needToZip, zipLevel);
     }
 
-    private void handleFileWithLogging(HttpServletResponse httpServletResponse, File file, boolean needToZip) throws Exception {
+    private void handleFileWithLogging(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, File file, boolean needToZip, int zipLevel) throws Exception {
         LOGGER.info("[Artifact Download] About to download: {}. ShouldZip? = {}", file.getAbsolutePath(), needToZip);
         long before = System.currentTimeMillis();
 
-        handleFile(file, needToZip, httpServletResponse);
+        handleFile(file, needToZip, zipLevel, httpServletRequest, httpServletResponse);
 
         long timeTaken = System.currentTimeMillis() - before;
         LOGGER.info("[Artifact Download] Finished downloading: {}. ShouldZip? = {}. The time taken is: {}ms", file.getAbsolutePath(), needToZip, timeTaken);
     }
 
+    /**
+     * A single range of bytes out of a file, as asked for through a range header. Multiple ranges are not supported,
+     * the whole file is sent instead, which the spec allows.
+     */
+    static class ByteRange {
+        private static final Pattern SINGLE_BYTE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+        final long start;
+        final long end;
+
+        private ByteRange(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        long length() {
+            return end - start + 1;
+        }
+
+        /**
+         * @return the range to send, the whole file when the header is not understood, or null when the range cannot be
+         * satisfied
+         */
+        static ByteRange parse(String header, long fileLength) {
+            Matcher matcher = SINGLE_BYTE_RANGE.matcher(header.trim());
+            ByteRange wholeFile = new ByteRange(0, fileLength - 1);
+            if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                return wholeFile;
+            }
+            try {
+                if (matcher.group(1).isEmpty()) {
+                    long suffixLength = Long.parseLong(matcher.group(2));
+                    return suffixLength == 0 || fileLength == 0 ? null : new ByteRange(Math.max(0, fileLength - suffixLength), fileLength - 1);
+                }
+                long start = Long.parseLong(matcher.group(1));
+                long end = matcher.group(2).isEmpty() ? fileLength - 1 : Long.parseLong(matcher.group(2));
+                if (end < start) {
+                    return wholeFile;
+                }
+                return start >= fileLength ? null : new ByteRange(start, Math.min(end, fileLength - 1));
+            } catch (NumberFormatException e) {
+                return wholeFile;
+            }
+        }
+    }
 }
@@ -20,28 +20,61 @@ import java.util.Map;
 
 import com.thoughtworks.go.server.view.artifacts.PreparingArtifactFile;
 import com.thoughtworks.go.server.cache.ZipArtifactCache;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.web.servlet.ModelAndView;
 import com.thoughtworks.go.domain.JobIdentifier;
 
+/**
+ * @understands serving an artifact folder as a zip, either streamed while walking the folder or from the zip cache
+ */
 public class ZipArtifactFolderViewFactory implements ArtifactFolderViewFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZipArtifactFolderViewFactory.class);
     private final ZipArtifactCache zipArtifactCache;
+    private final SystemEnvironment systemEnvironment;
 
-    public ZipArtifactFolderViewFactory(ZipArtifactCache zipArtifactCache) {
+    public ZipArtifactFolderViewFactory(ZipArtifactCache zipArtifactCache, SystemEnvironment systemEnvironment) {
         this.zipArtifactCache = zipArtifactCache;
+        this.systemEnvironment = systemEnvironment;
     }
 
     @Override
     public ModelAndView createView(JobIdentifier identifier, ArtifactFolder artifactFolder) throws Exception {
+        if (systemEnvironment.isArtifactZipStreamingEnabled()) {
+            return streamingView(artifactFolder);
+        }
         if (zipArtifactCache.cacheCreated(artifactFolder)) {
-            Map<String, Object> data = new HashMap<>();
-            data.put("targetFile", zipArtifactCache.cachedFile(artifactFolder));
-            return new ModelAndView("fileView", data);
+            return cachedZipView(artifactFolder);
         } else {
             return new ModelAndView(new PreparingArtifactFile());
         }
     }
 
-    public static ArtifactFolderViewFactory zipViewFactory(ZipArtifactCache zipArtifactCache) {
-        return new ZipArtifactFolderViewFactory(zipArtifactCache);
+    private ModelAndView streamingView(ArtifactFolder artifactFolder) {
+        if (systemEnvironment.isArtifactZipCacheEnabled()) {
+            try {
+                if (zipArtifactCache.cacheCreated(artifactFolder)) {
+                    return cachedZipView(artifactFolder);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("[Artifact Download] Failed to cache zip for {}, streaming it instead.", artifactFolder.getRootFolderPath(), e);
+            }
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("targetFile", artifactFolder.getRootFolder());
+        data.put(FileView.NEED_TO_ZIP, true);
+        data.put(FileView.ZIP_COMPRESSION_LEVEL, systemEnvironment.artifactZipCompressionLevel());
+        return new ModelAndView("fileView", data);
+    }
+
+    private ModelAndView cachedZipView(ArtifactFolder artifactFolder) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("targetFile", zipArtifactCache.cachedFile(artifactFolder));
+        return new ModelAndView("fileView", data);
+    }
+
+    public static ArtifactFolderViewFactory zipViewFactory(ZipArtifactCache zipArtifactCache, SystemEnvironment systemEnvironment) {
+        return new ZipArtifactFolderViewFactory(zipArtifactCache, systemEnvironment);
     }
 }
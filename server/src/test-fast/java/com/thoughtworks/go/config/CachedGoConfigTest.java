@@ -30,6 +30,7 @@ import org.junit.Test;
 import org.mockito.Mock;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -81,6 +82,20 @@ public class CachedGoConfigTest {
         verify(dataSource).writeEntityWithLock(saveCommand, holderBeforeUpdate, user);
     }
 
+    @Test
+    public void shouldHandOutConfigsFromTheLatestSavedSnapshot() throws Exception {
+        BasicCruiseConfig mergedForEdit = new BasicCruiseConfig();
+        GoConfigHolder savedConfig = new GoConfigHolder(new BasicCruiseConfig(), new BasicCruiseConfig(), mergedForEdit);
+        when(dataSource.writeWithLock(any(UpdateConfigCommand.class), any(GoConfigHolder.class))).thenReturn(new GoFileConfigDataSource.GoConfigSaveResult(savedConfig, ConfigSaveState.UPDATED));
+        cachedGoConfig.forceReload();
+
+        cachedGoConfig.writeWithLock(cruiseConfig -> cruiseConfig);
+
+        assertThat(cachedGoConfig.currentConfig(), is(sameInstance(savedConfig.config)));
+        assertThat(cachedGoConfig.loadForEditing(), is(sameInstance(savedConfig.configForEdit)));
+        assertThat(cachedGoConfig.loadMergedForEditing(), is(sameInstance(mergedForEdit)));
+    }
+
     @Test
     public void shouldLoadConfigHolderIfNotAvailable() throws Exception {
         cachedGoConfig.forceReload();
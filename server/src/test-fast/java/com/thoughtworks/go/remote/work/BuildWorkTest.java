@@ -358,7 +358,7 @@ class BuildWorkTest {
         Map<String, File> uploadedFiles = httpService.getUploadedFiles();
 
         assertThat(uploadedFiles.size()).isEqualTo(1);
-        assertThat(uploadedFiles.get(url).getAbsolutePath()).contains(artifactFile + ".zip");
+        assertThat(uploadedFiles.get(url).getAbsolutePath()).endsWith(artifactFile);
     }
 
     @Test
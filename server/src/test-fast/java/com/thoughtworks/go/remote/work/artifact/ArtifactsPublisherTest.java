@@ -22,6 +22,7 @@ import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.plugin.access.artifact.ArtifactExtension;
 import com.thoughtworks.go.plugin.access.artifact.model.PublishArtifactResponse;
 import com.thoughtworks.go.plugin.infra.PluginRequestProcessorRegistry;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TestFileUtil;
 import com.thoughtworks.go.util.command.EnvironmentVariableContext;
 import com.thoughtworks.go.work.GoPublisher;
@@ -82,6 +83,28 @@ public class ArtifactsPublisherTest {
     public void tearDown() throws Exception {
         workingFolder.setWritable(true);
         workingFolder.delete();
+        new SystemEnvironment().clearProperty(SystemEnvironment.ARTIFACT_PUBLISH_CONCURRENCY.propertyName());
+    }
+
+    @Test
+    public void shouldUploadAllArtifactPlansWhenUploadingConcurrently() throws Exception {
+        new SystemEnvironment().setProperty(SystemEnvironment.ARTIFACT_PUBLISH_CONCURRENCY.propertyName(), "3");
+        TestFileUtil.createTestFile(workingFolder, "installer.zip");
+        TestFileUtil.createTestFile(workingFolder, "readme.txt");
+        TestFileUtil.createTestFile(workingFolder, "checksums.txt");
+        List<ArtifactPlan> artifactPlans = Arrays.asList(
+                new ArtifactPlan(ArtifactPlanType.file, "installer.zip", "dist"),
+                new ArtifactPlan(ArtifactPlanType.file, "readme.txt", "docs"),
+                new ArtifactPlan(ArtifactPlanType.file, "checksums.txt", "meta")
+        );
+        final GoPublisher publisher = mock(GoPublisher.class);
+
+        new ArtifactsPublisher(publisher, artifactExtension, new ArtifactStores(), registry, workingFolder)
+                .publishArtifacts(artifactPlans, env);
+
+        verify(publisher).upload(any(File.class), eq("dist"));
+        verify(publisher).upload(any(File.class), eq("docs"));
+        verify(publisher).upload(any(File.class), eq("meta"));
     }
 
     @Test
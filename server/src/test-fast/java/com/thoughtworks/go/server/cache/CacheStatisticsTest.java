@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import com.thoughtworks.go.domain.Pipeline;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheStatisticsTest {
+    @Test
+    void shouldUseClassAndIdentifierOfGeneratedKeysAsRegion() {
+        String key = new CacheKeyGenerator(Pipeline.class).generate("history", "up42", 12L);
+
+        assertThat(CacheStatistics.regionOf(key)).isEqualTo("com.thoughtworks.go.domain.Pipeline.$history");
+    }
+
+    @Test
+    void shouldUseParentKeyOfCompositeKeysAsRegion() {
+        String parent = new CacheKeyGenerator(Pipeline.class).generate("stages", "up42");
+
+        assertThat(CacheStatistics.regionOf(parent + GoCache.SUB_KEY_DELIMITER + "child")).isEqualTo("com.thoughtworks.go.domain.Pipeline.$stages");
+    }
+
+    @Test
+    void shouldGroupOtherKeysByLeadingNonDigitCharacters() {
+        assertThat(CacheStatistics.regionOf("pipeline_history_42")).isEqualTo("pipeline_history_");
+        assertThat(CacheStatistics.regionOf("enabledUserCount")).isEqualTo("enabledUserCount");
+        assertThat(CacheStatistics.regionOf("42")).isEqualTo(CacheStatistics.OTHER_REGION);
+    }
+
+    @Test
+    void shouldAccumulateCountsPerRegion() {
+        CacheStatistics statistics = new CacheStatistics();
+        statistics.forKey("job_1").recordHit();
+        statistics.forKey("job_2").recordHit();
+        statistics.forKey("job_3").recordMiss();
+        statistics.forKey("stage_1").recordPut();
+
+        assertThat(statistics.all()).extracting(CacheRegionStatistics::getRegion).containsExactly("job_", "stage_");
+        CacheRegionStatistics jobs = statistics.forRegion("job_");
+        assertThat(jobs.getHits()).isEqualTo(2);
+        assertThat(jobs.getMisses()).isEqualTo(1);
+        assertThat(jobs.getHitRatio()).isEqualTo(2.0 / 3);
+    }
+}
@@ -287,6 +287,33 @@ public class GoCacheTest {
         assertThat(goCache.get("unrelatedkey"), is("value"));
     }
 
+    @Test
+    public void shouldTrackUsagePerRegion() throws InterruptedException {
+        goCache.configuration().setMaxEntriesLocalHeap(2);
+        goCache.put("job_1", "value");
+        goCache.get("job_1");
+        goCache.get("job_2");
+        goCache.remove("job_1");
+        goCache.put("stage_1", "value");
+        Thread.sleep(1);//so that the timestamps on the cache entries are different
+        goCache.put("stage_2", "value");
+        Thread.sleep(1);
+        goCache.put("stage_3", "value");
+
+        CacheRegionStatistics jobs = regionStatistics("job_");
+        assertThat(jobs.getPuts(), is(1L));
+        assertThat(jobs.getHits(), is(1L));
+        assertThat(jobs.getMisses(), is(1L));
+        assertThat(jobs.getRemovals(), is(1L));
+        CacheRegionStatistics stages = regionStatistics("stage_");
+        assertThat(stages.getPuts(), is(3L));
+        assertThat(stages.getEvictions(), is(1L));
+    }
+
+    private CacheRegionStatistics regionStatistics(String region) {
+        return goCache.regionStatistics().stream().filter(statistics -> statistics.getRegion().equals(region)).findFirst().orElse(null);
+    }
+
     @Test
     public void shouldHandleNonSerializableValuesDuringEviction() throws InterruptedException {
         goCache.configuration().setMaxEntriesLocalHeap(1);
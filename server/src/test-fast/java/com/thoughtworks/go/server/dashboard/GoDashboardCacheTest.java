@@ -16,6 +16,7 @@
 package com.thoughtworks.go.server.dashboard;
 
 import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.server.cache.CacheRegionUsage;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -41,6 +42,21 @@ public class GoDashboardCacheTest {
         assertNull(cache.allEntries().find(cis("pipeline1")));
     }
 
+    @Test
+    public void shouldReportUsageOfTheCache() {
+        cache.replaceAllEntriesInCacheWith(asList(pipeline("pipeline1"), pipeline("pipeline2")));
+        cache.put(pipeline("pipeline3"));
+        cache.remove(cis("pipeline1"));
+        cache.allEntries();
+
+        CacheRegionUsage usage = cache.usage();
+
+        assertThat(usage.getPuts(), is(3L));
+        assertThat(usage.getRemovals(), is(1L));
+        assertThat(usage.getHits(), is(1L));
+        assertThat(usage.getEntries(), is(2L));
+    }
+
     @Test
     public void shouldBeAbleToPutAndGetAPipeline() {
         GoDashboardPipeline expectedPipeline = pipeline("pipeline1");
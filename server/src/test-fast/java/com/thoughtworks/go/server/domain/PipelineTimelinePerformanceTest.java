@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.domain.PipelineTimelineEntry;
+import com.thoughtworks.go.server.persistence.PipelineRepository;
+import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
+import com.thoughtworks.go.server.transaction.TransactionTemplate;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures how long it takes to load a large pipeline timeline in memory, how much heap it holds on to and how fast
+ * runs can be looked up afterwards.
+ */
+@Ignore
+public class PipelineTimelinePerformanceTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelineTimelinePerformanceTest.class);
+    private static final int NUMBER_OF_ENTRIES = 1_000_000;
+    private static final int NUMBER_OF_PIPELINES = 100;
+    private static final int NUMBER_OF_LOOKUPS = 100_000;
+
+    @Test
+    public void shouldLoadAndLookUpAMillionTimelineEntries() {
+        PipelineTimeline timeline = new PipelineTimeline(mock(PipelineRepository.class), mock(TransactionTemplate.class), mock(TransactionSynchronizationManager.class));
+        long heapBefore = usedHeap();
+        long start = System.currentTimeMillis();
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= NUMBER_OF_ENTRIES; i++) {
+            String pipeline = "pipeline-" + (i % NUMBER_OF_PIPELINES);
+            int counter = i / NUMBER_OF_PIPELINES + 1;
+            Map<String, List<PipelineTimelineEntry.Revision>> revisions = Collections.singletonMap("material",
+                    Collections.singletonList(new PipelineTimelineEntry.Revision(new Date(now + i), "rev-" + i, "folder", i)));
+            timeline.add(new PipelineTimelineEntry(pipeline, i, counter, revisions));
+        }
+        long loadTime = System.currentTimeMillis() - start;
+        long heapAfter = usedHeap();
+
+        Random random = new Random(42);
+        start = System.currentTimeMillis();
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            long id = random.nextInt(NUMBER_OF_ENTRIES) + 1;
+            CaseInsensitiveString pipeline = new CaseInsensitiveString("pipeline-" + (id % NUMBER_OF_PIPELINES));
+            timeline.runBefore(id, pipeline);
+            timeline.runAfter(id, pipeline);
+            timeline.getEntryFor(pipeline, (int) (id / NUMBER_OF_PIPELINES + 1));
+        }
+        long lookupTime = System.currentTimeMillis() - start;
+
+        LOGGER.info("Loaded {} timeline entries for {} pipelines in {}ms using about {}MB of heap; {} lookups of each kind took {}ms",
+                NUMBER_OF_ENTRIES, NUMBER_OF_PIPELINES, loadTime, (heapAfter - heapBefore) / (1024 * 1024), NUMBER_OF_LOOKUPS, lookupTime);
+    }
+
+    private long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -310,6 +310,36 @@ public class PipelineTimelineTest {
         assertThat(timeline.runAfter(2, new CaseInsensitiveString("not-present")), is(nullValue()));
     }
 
+    @Test
+    public void shouldFindEntriesByCounterAndScheduleOrderIndex() throws Exception {
+        PipelineTimeline timeline = new PipelineTimeline(pipelineRepository, transactionTemplate, transactionSynchronizationManager);
+        timeline.add(first);
+        timeline.add(second);
+        timeline.add(third);
+        timeline.add(fourth);
+
+        CaseInsensitiveString pipeline = new CaseInsensitiveString(pipelineName);
+        assertThat(timeline.instanceCount(pipeline), is(4));
+        assertThat(timeline.instanceFor(pipeline, 0), is(first));
+        assertThat(timeline.instanceFor(pipeline, 3), is(fourth));
+        assertThat(timeline.getEntryFor(pipeline, 3), is(third));
+        assertThat(timeline.getEntryFor(pipeline, 5), is(nullValue()));
+        assertThat(timeline.getEntryFor(new CaseInsensitiveString("not-present"), 1), is(nullValue()));
+    }
+
+    @Test
+    public void shouldThrowWhenLookingUpBeforeAndAfterForAnUnknownIdOfAKnownPipeline() throws Exception {
+        PipelineTimeline timeline = new PipelineTimeline(pipelineRepository, transactionTemplate, transactionSynchronizationManager);
+        timeline.add(first);
+        timeline.add(second);
+        try {
+            timeline.runBefore(42, new CaseInsensitiveString(pipelineName));
+            fail("should have failed to find pipeline with id 42");
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("Cannot find pipeline with id: 42"));
+        }
+    }
+
     @Test
     public void shouldCreateANaturalOrderingHalfWayBetweenEachPipeline() throws Exception {
         PipelineTimeline mods = new PipelineTimeline(pipelineRepository, transactionTemplate, transactionSynchronizationManager);
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.thoughtworks.go.domain.PipelineTimelineEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScheduledRunsTest {
+    @Test
+    void shouldLookUpRunsByIdAndCounter() {
+        ScheduledRuns runs = new ScheduledRuns();
+        for (int i = 1; i <= 100; i++) {
+            runs.add(entry(i * 10, i));
+        }
+
+        assertThat(runs.size()).isEqualTo(100);
+        assertThat(runs.withId(500).getCounter()).isEqualTo(50);
+        assertThat(runs.withId(505)).isNull();
+        assertThat(runs.withCounter(77).getId()).isEqualTo(770L);
+        assertThat(runs.withCounter(101)).isNull();
+        assertThat(runs.get(0).getId()).isEqualTo(10L);
+        assertThat(runs.get(99).getId()).isEqualTo(1000L);
+    }
+
+    @Test
+    void shouldStillFindRunsAddedOutOfOrder() {
+        ScheduledRuns runs = new ScheduledRuns();
+        runs.add(entry(1, 1));
+        runs.add(entry(3, 3));
+        runs.add(entry(2, 2));
+
+        assertThat(runs.withId(2).getCounter()).isEqualTo(2);
+        assertThat(runs.withId(3).getCounter()).isEqualTo(3);
+        assertThat(runs.withCounter(1).getId()).isEqualTo(1L);
+        assertThat(runs.get(2).getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldKeepScheduleOrderWhenRemovingARun() {
+        ScheduledRuns runs = new ScheduledRuns();
+        PipelineTimelineEntry second = entry(2, 2);
+        runs.add(entry(1, 1));
+        runs.add(second);
+        runs.add(entry(3, 3));
+
+        assertThat(runs.remove(second)).isTrue();
+        assertThat(runs.remove(second)).isFalse();
+
+        assertThat(runs.size()).isEqualTo(2);
+        assertThat(runs.get(1).getId()).isEqualTo(3L);
+        assertThat(runs.withId(2)).isNull();
+        assertThat(runs.withId(3).getCounter()).isEqualTo(3);
+        assertThatThrownBy(() -> runs.get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    private PipelineTimelineEntry entry(long id, int counter) {
+        return new PipelineTimelineEntry("pipeline", id, counter, new HashMap<>());
+    }
+}
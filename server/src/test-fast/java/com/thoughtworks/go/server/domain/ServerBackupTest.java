@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import java.util.Date;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 public class ServerBackupTest {
 
@@ -65,4 +66,17 @@ public class ServerBackupTest {
         assertThat(backup.getMessage()).isEqualTo(BackupProgressStatus.BACKUP_CONFIG.getMessage());
         assertThat(backup.getStatus()).isEqualTo(BackupStatus.IN_PROGRESS);
     }
+
+    @Test
+    void shouldRecordTheTimeTakenByEachStepInTheOrderTheyCompleted() {
+        ServerBackup backup = new ServerBackup("path", new Date(), "admin", "");
+        assertThat(backup.getTimeTakenBySteps()).isEmpty();
+
+        backup.recordTimeTaken(BackupProgressStatus.BACKUP_CONFIG, 12);
+        backup.recordTimeTaken(BackupProgressStatus.BACKUP_DATABASE, 3456);
+
+        assertThat(backup.getTimeTakenBySteps()).containsExactly(
+                entry(BackupProgressStatus.BACKUP_CONFIG, 12L),
+                entry(BackupProgressStatus.BACKUP_DATABASE, 3456L));
+    }
 }
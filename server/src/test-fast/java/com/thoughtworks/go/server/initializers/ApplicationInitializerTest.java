@@ -105,6 +105,8 @@ public class ApplicationInitializerTest {
     @Mock
     private BackupService backupService;
     @Mock
+    private CacheStatisticsService cacheStatisticsService;
+    @Mock
     private ArtifactsService artifactsService;
     @Mock
     private RailsAssetsService railsAssetsService;
@@ -165,6 +167,11 @@ public class ApplicationInitializerTest {
         verify(backupService).initialize();
     }
 
+    @Test
+    public void shouldRegisterCacheStatistics() {
+        verify(cacheStatisticsService).initialize();
+    }
+
     @Test
     public void shouldRunConfigCipherUpdaterBeforeInitializationOfOtherConfigRelatedServicesAndDatastores() throws Exception {
         InOrder inOrder = inOrder(configCipherUpdater, configElementImplementationRegistrar, configRepository, goFileConfigDataSource, cachedGoConfig, goConfigService);
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.materials;
+
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.TestingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MaterialPollingIntervalsTest {
+    private static final long IDLE_INTERVAL = 60000L;
+
+    private final GitMaterial material = new GitMaterial("https://github.com/gocd/gocd.git");
+    private SystemEnvironment systemEnvironment;
+    private TestingClock clock;
+    private MaterialPollingIntervals intervals;
+
+    @BeforeEach
+    void setUp() {
+        systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.getMaterialUpdateIdleInterval()).thenReturn(IDLE_INTERVAL);
+        when(systemEnvironment.get(SystemEnvironment.MATERIAL_UPDATE_MAX_BACKOFF_FACTOR)).thenReturn(16);
+        when(systemEnvironment.get(SystemEnvironment.MATERIAL_UPDATE_WEBHOOK_POLL_FACTOR)).thenReturn(4);
+        clock = new TestingClock();
+        intervals = new MaterialPollingIntervals(systemEnvironment, clock);
+    }
+
+    @Test
+    void shouldPollMaterialsAtTheIdleIntervalUntilSomethingIsKnownAboutThem() {
+        assertThat(intervals.isDue(material)).isTrue();
+
+        intervals.updateSucceeded(material);
+
+        assertThat(intervals.isDue(material)).isTrue();
+        assertThat(intervals.intervalFor(material)).isEqualTo(IDLE_INTERVAL);
+    }
+
+    @Test
+    void shouldBackOffExponentiallyWhileUpdatesKeepFailing() {
+        intervals.updateFailed(material);
+        assertThat(intervals.intervalFor(material)).isEqualTo(2 * IDLE_INTERVAL);
+
+        intervals.updateFailed(material);
+        intervals.updateFailed(material);
+        assertThat(intervals.intervalFor(material)).isEqualTo(8 * IDLE_INTERVAL);
+        assertThat(intervals.isDue(material)).isFalse();
+
+        clock.addMillis((int) (8 * IDLE_INTERVAL));
+        assertThat(intervals.isDue(material)).isTrue();
+    }
+
+    @Test
+    void shouldCapBackOffAtTheConfiguredFactor() {
+        for (int i = 0; i < 10; i++) {
+            intervals.updateFailed(material);
+        }
+
+        assertThat(intervals.intervalFor(material)).isEqualTo(16 * IDLE_INTERVAL);
+    }
+
+    @Test
+    void shouldGoBackToTheIdleIntervalOnceAnUpdateSucceeds() {
+        intervals.updateFailed(material);
+        intervals.updateFailed(material);
+
+        intervals.updateSucceeded(material);
+
+        assertThat(intervals.intervalFor(material)).isEqualTo(IDLE_INTERVAL);
+    }
+
+    @Test
+    void shouldPollMaterialsNotifiedThroughWebhooksLessOften() {
+        intervals.webhookReceived(material);
+        intervals.updateSucceeded(material);
+
+        assertThat(intervals.intervalFor(material)).isEqualTo(4 * IDLE_INTERVAL);
+        assertThat(intervals.isDue(material)).isFalse();
+    }
+
+    @Test
+    void shouldPollMaterialsAsUsualAgainOnceTheirWebhooksStopComing() {
+        intervals.webhookReceived(material);
+        intervals.updateSucceeded(material);
+
+        clock.addMillis((int) (8 * IDLE_INTERVAL));
+        assertThat(intervals.intervalFor(material)).isEqualTo(IDLE_INTERVAL);
+        assertThat(intervals.isDue(material)).isTrue();
+
+        intervals.webhookReceived(material);
+        assertThat(intervals.intervalFor(material)).isEqualTo(4 * IDLE_INTERVAL);
+    }
+
+    @Test
+    void shouldNotAdaptIntervalsWhenBackOffIsTurnedOff() {
+        when(systemEnvironment.get(SystemEnvironment.MATERIAL_UPDATE_MAX_BACKOFF_FACTOR)).thenReturn(1);
+        intervals.webhookReceived(material);
+        intervals.updateFailed(material);
+
+        assertThat(intervals.isDue(material)).isTrue();
+    }
+
+    @Test
+    void shouldForgetMaterialsNoLongerInConfig() {
+        intervals.updateFailed(material);
+
+        intervals.retainOnly(Collections.emptySet());
+
+        assertThat(intervals.intervalFor(material)).isEqualTo(IDLE_INTERVAL);
+    }
+}
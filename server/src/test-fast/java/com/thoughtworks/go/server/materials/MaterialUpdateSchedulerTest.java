@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.materials;
+
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.config.materials.perforce.P4Material;
+import com.thoughtworks.go.config.materials.svn.SvnMaterial;
+import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.thoughtworks.go.server.materials.MaterialUpdateScheduler.Priority.POLL;
+import static com.thoughtworks.go.server.materials.MaterialUpdateScheduler.Priority.WEBHOOK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class MaterialUpdateSchedulerTest {
+    private static final String HOST = "github.com";
+
+    private List<Material> dispatched;
+    private MaterialUpdateScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        dispatched = new ArrayList<>();
+        scheduler = new MaterialUpdateScheduler(dispatched::add, mock(MDUPerformanceLogger.class));
+    }
+
+    @Test
+    void shouldDispatchRightAwayWhenNotLimitedByHost() {
+        GitMaterial first = git("first");
+        GitMaterial second = git("second");
+
+        scheduler.schedule(first, null, 1, POLL);
+        scheduler.schedule(second, HOST, 0, POLL);
+
+        assertThat(dispatched).containsExactly(first, second);
+        assertThat(scheduler.pendingCount()).isZero();
+    }
+
+    @Test
+    void shouldHoldUpdatesOnceAHostHasReachedItsLimitAndReleaseThemAsUpdatesComplete() {
+        GitMaterial first = git("first");
+        GitMaterial second = git("second");
+        GitMaterial third = git("third");
+
+        scheduler.schedule(first, HOST, 2, POLL);
+        scheduler.schedule(second, HOST, 2, POLL);
+        scheduler.schedule(third, HOST, 2, POLL);
+
+        assertThat(dispatched).containsExactly(first, second);
+        assertThat(scheduler.pendingCount()).isEqualTo(1);
+
+        scheduler.completed(first);
+
+        assertThat(dispatched).containsExactly(first, second, third);
+        assertThat(scheduler.inFlightCount(HOST)).isEqualTo(2);
+
+        scheduler.completed(second);
+        scheduler.completed(third);
+
+        assertThat(scheduler.inFlightCount(HOST)).isZero();
+        assertThat(scheduler.pendingCount()).isZero();
+    }
+
+    @Test
+    void shouldNotHoldUpdatesForOtherHosts() {
+        scheduler.schedule(git("first"), HOST, 1, POLL);
+        GitMaterial elsewhere = git("elsewhere");
+
+        scheduler.schedule(elsewhere, "gitlab.com", 1, POLL);
+
+        assertThat(dispatched).contains(elsewhere);
+    }
+
+    @Test
+    void shouldReleaseWebhookTriggeredUpdatesBeforePolledOnes() {
+        GitMaterial running = git("running");
+        GitMaterial polled = git("polled");
+        GitMaterial notified = git("notified");
+        scheduler.schedule(running, HOST, 1, POLL);
+        scheduler.schedule(polled, HOST, 1, POLL);
+        scheduler.schedule(notified, HOST, 1, WEBHOOK);
+
+        scheduler.completed(running);
+
+        assertThat(dispatched).containsExactly(running, notified);
+    }
+
+    @Test
+    void shouldMoveAnAlreadyHeldUpdateAheadWhenAWebhookArrivesForIt() {
+        GitMaterial running = git("running");
+        GitMaterial polled = git("polled");
+        GitMaterial laterNotified = git("later-notified");
+        scheduler.schedule(running, HOST, 1, POLL);
+        scheduler.schedule(polled, HOST, 1, POLL);
+        scheduler.schedule(laterNotified, HOST, 1, POLL);
+
+        scheduler.prioritize(laterNotified, HOST);
+        scheduler.completed(running);
+
+        assertThat(dispatched).containsExactly(running, laterNotified);
+    }
+
+    @Test
+    void shouldFreeUpTheSlotWhenDispatchFails() {
+        GitMaterial failing = git("failing");
+        scheduler = new MaterialUpdateScheduler(material -> {
+            if (material == failing) {
+                throw new RuntimeException("queue is down");
+            }
+            dispatched.add(material);
+        }, mock(MDUPerformanceLogger.class));
+
+        assertThatThrownBy(() -> scheduler.schedule(failing, HOST, 1, POLL)).hasMessage("queue is down");
+
+        assertThat(scheduler.inFlightCount(HOST)).isZero();
+    }
+
+    @Test
+    void shouldMoveOnToTheNextHeldUpdateWhenSendingAHeldUpdateFails() {
+        GitMaterial running = git("running");
+        GitMaterial failing = git("failing");
+        GitMaterial next = git("next");
+        scheduler = new MaterialUpdateScheduler(material -> {
+            if (material == failing) {
+                throw new RuntimeException("queue is down");
+            }
+            dispatched.add(material);
+        }, mock(MDUPerformanceLogger.class));
+        scheduler.schedule(running, HOST, 1, POLL);
+        scheduler.schedule(failing, HOST, 1, POLL);
+        scheduler.schedule(next, HOST, 1, POLL);
+
+        scheduler.completed(running);
+
+        assertThat(dispatched).containsExactly(running, next);
+        assertThat(scheduler.inFlightCount(HOST)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldIgnoreCompletionOfUpdatesWhichWereNeverLimited() {
+        scheduler.schedule(git("first"), HOST, 1, POLL);
+
+        scheduler.completed(git("unrelated"));
+
+        assertThat(scheduler.inFlightCount(HOST)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWorkOutHostFromMaterialUrls() {
+        assertThat(MaterialUpdateScheduler.hostOf(new GitMaterial("https://user@GitHub.com/gocd/gocd.git"))).isEqualTo("github.com");
+        assertThat(MaterialUpdateScheduler.hostOf(new GitMaterial("git@github.com:gocd/gocd.git"))).isEqualTo("github.com");
+        assertThat(MaterialUpdateScheduler.hostOf(new SvnMaterial("svn://svn.example.com/repo", "user", "pass", false))).isEqualTo("svn.example.com");
+        assertThat(MaterialUpdateScheduler.hostOf(new P4Material("perforce.example.com:1666", "view"))).isEqualTo("perforce.example.com");
+        assertThat(MaterialUpdateScheduler.hostOf(new GitMaterial("file:///tmp/repo"))).isNull();
+        assertThat(MaterialUpdateScheduler.hostOf(new GitMaterial("/tmp/repo"))).isNull();
+    }
+
+    private GitMaterial git(String repo) {
+        return new GitMaterial("https://" + HOST + "/gocd/" + repo + ".git");
+    }
+}
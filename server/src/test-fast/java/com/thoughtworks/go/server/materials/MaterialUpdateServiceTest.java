@@ -130,6 +130,7 @@ public class MaterialUpdateServiceTest {
     @AfterEach
     void teardown() throws Exception {
         systemEnvironment.reset(SystemEnvironment.MATERIAL_UPDATE_INACTIVE_TIMEOUT);
+        systemEnvironment.reset(SystemEnvironment.MATERIAL_UPDATE_MAX_CONCURRENT_PER_HOST);
     }
 
     @Test
@@ -151,6 +152,66 @@ public class MaterialUpdateServiceTest {
         Mockito.verifyZeroInteractions(queue);
     }
 
+    @Test
+    void shouldNotPollMaterialsBackingOffAfterFailedUpdates_onTimer() {
+        when(scmMaterialSource.materialsForUpdate()).thenReturn(new HashSet<>(Arrays.asList(svnMaterial)));
+        service.updateMaterial(svnMaterial);
+        service.onMessage(new MaterialUpdateFailedMessage(svnMaterial, 0, new RuntimeException("failed")));
+
+        service.onTimer();
+
+        verify(queue, times(1)).post(matchMaterialUpdateMessage(svnMaterial));
+    }
+
+    @Nested
+    class limitingUpdatesPerHost {
+        private final GitMaterial first = new GitMaterial("https://github.com/gocd/first.git");
+        private final GitMaterial second = new GitMaterial("https://github.com/gocd/second.git");
+        private final GitMaterial third = new GitMaterial("https://github.com/gocd/third.git");
+
+        @BeforeEach
+        void setUp() {
+            systemEnvironment.set(SystemEnvironment.MATERIAL_UPDATE_MAX_CONCURRENT_PER_HOST, 1);
+        }
+
+        @Test
+        void shouldHoldUpdatesForAHostUntilTheRunningUpdateCompletes() {
+            service.updateMaterial(first);
+            service.updateMaterial(second);
+
+            verify(queue).post(matchMaterialUpdateMessage(first));
+            verify(queue, never()).post(matchMaterialUpdateMessage(second));
+
+            service.onMessage(new MaterialUpdateSuccessfulMessage(first, 0));
+
+            verify(queue).post(matchMaterialUpdateMessage(second));
+        }
+
+        @Test
+        void shouldReleaseWebhookTriggeredUpdatesFirst() {
+            when(goConfigService.currentCruiseConfig()).thenReturn(mock(CruiseConfig.class));
+            when(materialConfigConverter.toMaterials(any())).thenReturn(new HashSet<>(Arrays.asList(third)));
+            service.updateMaterial(first);
+            service.updateMaterial(second);
+            service.updateGitMaterial("master", Collections.singletonList("https://github.com/gocd/third.git"));
+
+            service.onMessage(new MaterialUpdateSuccessfulMessage(first, 0));
+
+            verify(queue).post(matchMaterialUpdateMessage(third));
+            verify(queue, never()).post(matchMaterialUpdateMessage(second));
+        }
+
+        @Test
+        void shouldNotHoldConfigRepositoryUpdates() {
+            when(watchList.hasConfigRepoWithFingerprint(second.getFingerprint())).thenReturn(true);
+            service.updateMaterial(first);
+
+            service.updateMaterial(second);
+
+            verify(configQueue).post(matchMaterialUpdateMessage(second));
+        }
+    }
+
     @Nested
     class updateMaterial {
 
@@ -21,13 +21,19 @@ import com.thoughtworks.go.domain.JobResult;
 import com.thoughtworks.go.domain.JobState;
 import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.BuildRepositoryRemoteImpl;
+import com.thoughtworks.go.remote.work.NoWork;
+import com.thoughtworks.go.remote.work.Work;
 import com.thoughtworks.go.server.messaging.scheduling.WorkAssignments;
 import com.thoughtworks.go.server.perf.WorkAssignmentPerformanceLogger;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static com.thoughtworks.go.util.SystemUtil.currentWorkingDirectory;
 import static org.hamcrest.Matchers.is;
@@ -42,6 +48,7 @@ public class BuildRepositoryMessageProducerTest {
 
     private BuildRepositoryRemoteImpl oldImplementation;
     private WorkAssignments newImplementation;
+    private WorkAssignmentPerformanceLogger workAssignmentPerformanceLogger;
     private BuildRepositoryMessageProducer producer;
     private static final AgentIdentifier AGENT = new AgentIdentifier("localhost", "127.0.0.1", "uuid");
     private static final AgentRuntimeInfo AGENT_INFO = new AgentRuntimeInfo(AGENT, AgentRuntimeStatus.Idle, currentWorkingDirectory(), "cookie");
@@ -50,7 +57,7 @@ public class BuildRepositoryMessageProducerTest {
     public void setUp() {
         oldImplementation = mock(BuildRepositoryRemoteImpl.class);
         newImplementation = mock(WorkAssignments.class);
-        WorkAssignmentPerformanceLogger workAssignmentPerformanceLogger = mock(WorkAssignmentPerformanceLogger.class);
+        workAssignmentPerformanceLogger = mock(WorkAssignmentPerformanceLogger.class);
         producer = new BuildRepositoryMessageProducer(oldImplementation, newImplementation, workAssignmentPerformanceLogger);
     }
 
@@ -84,6 +91,21 @@ public class BuildRepositoryMessageProducerTest {
         verify(newImplementation).getWork(AGENT_INFO);
     }
 
+    @Test
+    public void shouldHandOverWorkFromAParkedRequestToTheCallback() {
+        Work work = new NoWork();
+        doAnswer(invocation -> {
+            invocation.<Consumer<Work>>getArgument(1).accept(work);
+            return null;
+        }).when(newImplementation).getWork(eq(AGENT_INFO), any());
+        List<Work> handedOver = new ArrayList<>();
+
+        producer.getWork(AGENT_INFO, handedOver::add);
+
+        assertThat(handedOver, is(Collections.singletonList(work)));
+        verify(workAssignmentPerformanceLogger).retrievedWorkForAgent(eq(AGENT_INFO), eq(work), anyLong(), anyLong());
+    }
+
     @Test
     public void shouldAllocateNewCookieForEveryGetCookieRequest() throws Exception {
         AgentIdentifier identifier = new AgentIdentifier("host", "192.168.1.1", "uuid");
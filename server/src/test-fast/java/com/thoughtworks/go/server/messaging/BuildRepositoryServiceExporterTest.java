@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging;
+
+import com.thoughtworks.go.domain.AgentRuntimeStatus;
+import com.thoughtworks.go.remote.AgentIdentifier;
+import com.thoughtworks.go.remote.work.NoWork;
+import com.thoughtworks.go.server.service.AgentRuntimeInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.remoting.support.RemoteInvocation;
+import org.springframework.remoting.support.RemoteInvocationResult;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+
+import static com.thoughtworks.go.util.SystemUtil.currentWorkingDirectory;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BuildRepositoryServiceExporterTest {
+    private static final AgentRuntimeInfo AGENT_INFO = new AgentRuntimeInfo(new AgentIdentifier("localhost", "127.0.0.1", "uuid"), AgentRuntimeStatus.Idle, currentWorkingDirectory(), "cookie");
+
+    private BuildRepositoryMessageProducer buildRepository;
+    private BuildRepositoryServiceExporter exporter;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private AsyncContext asyncContext;
+    private ByteArrayOutputStream written;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        buildRepository = mock(BuildRepositoryMessageProducer.class);
+        exporter = new BuildRepositoryServiceExporter(buildRepository);
+        exporter.afterPropertiesSet();
+        request = mock(HttpServletRequest.class);
+        response = mock(HttpServletResponse.class);
+        asyncContext = mock(AsyncContext.class);
+        written = new ByteArrayOutputStream();
+        when(request.getInputStream()).thenReturn(servletInputStreamOf(new RemoteInvocation("getWork", new Class[]{AgentRuntimeInfo.class}, new Object[]{AGENT_INFO})));
+        when(request.isAsyncSupported()).thenReturn(true);
+        when(request.startAsync()).thenReturn(asyncContext);
+        when(response.getOutputStream()).thenReturn(servletOutputStreamTo(written));
+        when(asyncContext.getRequest()).thenReturn(request);
+        when(asyncContext.getResponse()).thenReturn(response);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(asyncContext).start(any(Runnable.class));
+    }
+
+    @Test
+    void shouldAnswerAgentsAskingForWorkRightAwayWhenNotLongPolling() throws Exception {
+        when(buildRepository.isLongPollingForWork()).thenReturn(false);
+        when(buildRepository.getWork(AGENT_INFO)).thenReturn(new NoWork());
+
+        exporter.handleRequest(request, response);
+
+        verify(request, never()).startAsync();
+        verify(buildRepository).getWork(AGENT_INFO);
+        assertThat(result().getValue()).isInstanceOf(NoWork.class);
+    }
+
+    @Test
+    void shouldParkAgentsAskingForWorkForALittleLongerThanTheLongPollWhenLongPolling() throws Exception {
+        when(buildRepository.isLongPollingForWork()).thenReturn(true);
+        when(buildRepository.workLongPollTimeoutInMillis()).thenReturn(30_000L);
+
+        exporter.handleRequest(request, response);
+
+        verify(asyncContext).setTimeout(40_000L);
+        verify(buildRepository).getWork(eq(AGENT_INFO), any());
+        verify(asyncContext, never()).complete();
+    }
+
+    @Test
+    void shouldAnswerTheAgentWithTheErrorWhenFindingWorkForAParkedRequestFails() throws Exception {
+        when(buildRepository.isLongPollingForWork()).thenReturn(true);
+        doThrow(new IllegalStateException("queue is full")).when(buildRepository).getWork(eq(AGENT_INFO), any());
+
+        exporter.handleRequest(request, response);
+
+        assertThat(result().getException()).isInstanceOf(IllegalStateException.class).hasMessage("queue is full");
+        verify(asyncContext).complete();
+    }
+
+    private RemoteInvocationResult result() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(written.toByteArray()))) {
+            return (RemoteInvocationResult) in.readObject();
+        }
+    }
+
+    private ServletInputStream servletInputStreamOf(RemoteInvocation invocation) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(invocation);
+        }
+        ByteArrayInputStream in = new ByteArrayInputStream(bytes.toByteArray());
+        return new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+        };
+    }
+
+    private ServletOutputStream servletOutputStreamTo(OutputStream out) {
+        return new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+    }
+}
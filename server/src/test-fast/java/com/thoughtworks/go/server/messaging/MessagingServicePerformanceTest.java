@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging;
+
+import com.thoughtworks.go.server.messaging.activemq.ActiveMqMessagingService;
+import com.thoughtworks.go.server.messaging.inmemory.InMemoryMessagingService;
+import com.thoughtworks.go.server.service.support.DaemonThreadStatsCollector;
+import com.thoughtworks.go.serverhealth.ServerHealthService;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares throughput and delivery latency of the ActiveMQ and in-memory messaging implementations, posting
+ * from several threads to a queue with a handful of competing listeners.
+ */
+@Ignore
+public class MessagingServicePerformanceTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessagingServicePerformanceTest.class);
+    private static final int NUMBER_OF_MESSAGES = 200_000;
+    private static final int NUMBER_OF_SENDERS = 4;
+    private static final int NUMBER_OF_LISTENERS = 4;
+
+    @Test
+    public void shouldCompareActiveMqWithInMemoryQueues() throws Exception {
+        SystemEnvironment systemEnvironment = new SystemEnvironment();
+        DaemonThreadStatsCollector statsCollector = new DaemonThreadStatsCollector();
+
+        MessagingService activeMq = new ActiveMqMessagingService(statsCollector, systemEnvironment, new ServerHealthService());
+        try {
+            run("activemq", activeMq);
+        } finally {
+            activeMq.stop();
+        }
+
+        MessagingService inMemory = new InMemoryMessagingService(statsCollector, systemEnvironment);
+        try {
+            run("in-memory", inMemory);
+        } finally {
+            inMemory.stop();
+        }
+    }
+
+    private void run(String name, MessagingService messaging) throws Exception {
+        GoMessageQueue<TimedMessage> queue = new GoMessageQueue<>(messaging, "performance-" + name);
+        CountDownLatch received = new CountDownLatch(NUMBER_OF_MESSAGES);
+        long[] latencies = new long[NUMBER_OF_MESSAGES];
+        for (int i = 0; i < NUMBER_OF_LISTENERS; i++) {
+            queue.addListener(message -> {
+                latencies[message.index] = System.nanoTime() - message.sentAt;
+                received.countDown();
+            });
+        }
+
+        long start = System.nanoTime();
+        Thread[] senders = new Thread[NUMBER_OF_SENDERS];
+        for (int s = 0; s < NUMBER_OF_SENDERS; s++) {
+            int sender = s;
+            senders[s] = new Thread(() -> {
+                for (int i = sender; i < NUMBER_OF_MESSAGES; i += NUMBER_OF_SENDERS) {
+                    queue.post(new TimedMessage(i, System.nanoTime()));
+                }
+            });
+            senders[s].start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        received.await(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        LOGGER.info("{}: {} messages/second, latency p50 {}us, p99 {}us, max {}us", name,
+                NUMBER_OF_MESSAGES * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                TimeUnit.NANOSECONDS.toMicros(latencies[NUMBER_OF_MESSAGES / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[NUMBER_OF_MESSAGES * 99 / 100]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[NUMBER_OF_MESSAGES - 1]));
+    }
+
+    private static class TimedMessage implements GoMessage {
+        private final int index;
+        private final long sentAt;
+
+        private TimedMessage(int index, long sentAt) {
+            this.index = index;
+            this.sentAt = sentAt;
+        }
+    }
+}
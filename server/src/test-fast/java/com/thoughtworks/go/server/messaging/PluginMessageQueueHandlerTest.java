@@ -60,7 +60,7 @@ public class PluginMessageQueueHandlerTest {
 
         assertThat(handler.queues.containsKey(pluginId), is(true));
         assertThat(handler.queues.get(pluginId).listeners.containsKey(pluginId), is(true));
-        ArrayList<JMSMessageListenerAdapter> listeners = handler.queues.get(pluginId).listeners.get(pluginId);
+        ArrayList<GoMessageSubscription> listeners = handler.queues.get(pluginId).listeners.get(pluginId);
         assertThat(listeners.size(), is(10));
         ArgumentCaptor<GoMessageListener> argumentCaptor = ArgumentCaptor.forClass(GoMessageListener.class);
         verify(messaging, times(10)).addQueueListener(eq(queueName), argumentCaptor.capture());
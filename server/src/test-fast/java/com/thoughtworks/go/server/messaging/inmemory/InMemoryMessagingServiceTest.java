@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.GoMessageQueue;
+import com.thoughtworks.go.server.messaging.GoMessageSubscription;
+import com.thoughtworks.go.server.messaging.GoMessageTopic;
+import com.thoughtworks.go.server.messaging.GoTextMessage;
+import com.thoughtworks.go.server.service.support.DaemonThreadStatsCollector;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryMessagingServiceTest {
+    private InMemoryMessagingService messaging;
+
+    @BeforeEach
+    void setUp() {
+        messaging = new InMemoryMessagingService(new DaemonThreadStatsCollector(), new SystemEnvironment());
+    }
+
+    @AfterEach
+    void tearDown() {
+        messaging.stop();
+    }
+
+    @Test
+    void shouldDeliverTopicMessagesToEverySubscriber() throws Exception {
+        GoMessageTopic<GoTextMessage> topic = new GoMessageTopic<>(messaging, "topic");
+        CountDownLatch received = new CountDownLatch(2);
+        List<String> texts = new CopyOnWriteArrayList<>();
+        topic.addListener(message -> {
+            texts.add(message.getText());
+            received.countDown();
+        });
+        topic.addListener(message -> {
+            texts.add(message.getText());
+            received.countDown();
+        });
+
+        topic.post(new GoTextMessage("Hello World!"));
+
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(texts).containsExactly("Hello World!", "Hello World!");
+    }
+
+    @Test
+    void shouldShareQueueMessagesBetweenCompetingListeners() throws Exception {
+        GoMessageQueue<GoTextMessage> queue = new GoMessageQueue<>(messaging, "queue");
+        CountDownLatch hang = new CountDownLatch(1);
+        CountDownLatch received = new CountDownLatch(4);
+        List<String> fast = new CopyOnWriteArrayList<>();
+        queue.addListener(message -> {
+            try {
+                hang.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        queue.addListener(message -> {
+            fast.add(message.getText());
+            received.countDown();
+        });
+
+        for (int i = 1; i <= 5; i++) {
+            queue.post(new GoTextMessage("message " + i));
+        }
+
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fast).hasSize(4);
+        hang.countDown();
+    }
+
+    @Test
+    void shouldKeepDeliveringWhenAListenerThrows() throws Exception {
+        GoMessageQueue<GoTextMessage> queue = new GoMessageQueue<>(messaging, "queue");
+        CountDownLatch received = new CountDownLatch(3);
+        queue.addListener(message -> {
+            received.countDown();
+            throw new RuntimeException("boom");
+        });
+
+        queue.post(new GoTextMessage("1"));
+        queue.post(new GoTextMessage("2"));
+        queue.post(new GoTextMessage("3"));
+
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldDropMessagesWhoseTimeToLiveHasPassed() throws Exception {
+        GoMessageQueue<GoTextMessage> queue = new GoMessageQueue<>(messaging, "queue");
+        queue.post(new GoTextMessage("expired"), 1);
+        queue.post(new GoTextMessage("fresh"), 60000);
+        Thread.sleep(10);
+
+        CountDownLatch received = new CountDownLatch(1);
+        List<String> texts = new CopyOnWriteArrayList<>();
+        queue.addListener(message -> {
+            texts.add(message.getText());
+            received.countDown();
+        });
+
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(texts).containsExactly("fresh");
+    }
+
+    @Test
+    void shouldStopDeliveringToAListenerOnceItIsStopped() throws Exception {
+        GoMessageTopic<GoTextMessage> topic = new GoMessageTopic<>(messaging, "topic");
+        List<String> texts = new CopyOnWriteArrayList<>();
+        GoMessageSubscription subscription = topic.addListener(message -> texts.add(message.getText()));
+
+        subscription.stop();
+        topic.post(new GoTextMessage("ignored"));
+        Thread.sleep(100);
+
+        assertThat(texts).isEmpty();
+    }
+
+    @Test
+    void shouldDropPendingMessagesWhenAQueueIsRemoved() throws Exception {
+        GoMessageQueue<GoTextMessage> queue = new GoMessageQueue<>(messaging, "queue");
+        queue.post(new GoTextMessage("pending"));
+        queue.stop();
+
+        CountDownLatch received = new CountDownLatch(1);
+        queue.addListener(message -> received.countDown());
+
+        assertThat(received.await(200, TimeUnit.MILLISECONDS)).isFalse();
+    }
+}
@@ -16,22 +16,33 @@
 package com.thoughtworks.go.server.messaging.scheduling;
 
 import com.thoughtworks.go.domain.AgentRuntimeStatus;
+import com.thoughtworks.go.domain.JobPlan;
 import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.work.NoWork;
 import com.thoughtworks.go.remote.work.Work;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
+import com.thoughtworks.go.server.service.BuildAssignmentService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.work.FakeWork;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.thoughtworks.go.util.SystemEnvironment.AGENT_REQUEST_IDLE_TIMEOUT_IN_SECONDS;
+import static com.thoughtworks.go.util.SystemEnvironment.AGENT_WORK_LONG_POLL_TIMEOUT_IN_MILLIS;
 import static com.thoughtworks.go.util.SystemUtil.currentWorkingDirectory;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 
 public class WorkAssignmentsTest {
     private static final Work NO_WORK = new NoWork();
@@ -42,11 +53,13 @@ public class WorkAssignmentsTest {
     private IdleAgentTopic idleAgentsTopic;
     private AgentIdentifier agentIdentifier;
     private WorkAssignedTopic assignedWorkTopic;
+    private BuildAssignmentService buildAssignmentService;
 
     @Before
     public void setup() {
         idleAgentsTopic = mock(IdleAgentTopic.class, "idle_topic");
         assignedWorkTopic = mock(WorkAssignedTopic.class, "assigned_work_topic");
+        buildAssignmentService = mock(BuildAssignmentService.class);
         assignments = new WorkAssignments(idleAgentsTopic, assignedWorkTopic);
         agentIdentifier = new AgentIdentifier("localhost", "127.0.0.1", "uuid");
         agent = new AgentRuntimeInfo(agentIdentifier, AgentRuntimeStatus.Idle, currentWorkingDirectory(), "cookie");
@@ -103,4 +116,92 @@ public class WorkAssignmentsTest {
         assertThat(assignments.getWork(agent), is(NO_WORK));
         verify(idleAgentsTopic, times(2)).post(new IdleAgentMessage(agent));
     }
+
+    @Test
+    public void shouldHandOverWorkAssignedWhileTheRequestIsParked() {
+        assignments = longPollingAssignments(10000);
+        List<Work> handedOver = new ArrayList<>();
+
+        assignments.getWork(agent, handedOver::add);
+        assertThat(handedOver.isEmpty(), is(true));
+        verify(idleAgentsTopic).post(new IdleAgentMessage(agent));
+
+        assignments.onMessage(new WorkAssignedMessage(agentIdentifier, REAL_WORK));
+        assertThat(handedOver, is(singletonList(REAL_WORK)));
+        assertThat(assignments.getWork(agent), is(NO_WORK));
+    }
+
+    @Test
+    public void shouldHandOverWorkRightAwayWhenLongPollingIsTurnedOff() {
+        assignments = longPollingAssignments(0);
+        List<Work> handedOver = new ArrayList<>();
+
+        assignments.getWork(agent, handedOver::add);
+
+        assertThat(handedOver, is(singletonList(NO_WORK)));
+    }
+
+    @Test
+    public void shouldReturnNoWorkWhenNothingIsAssignedBeforeTheLongPollTimesOut() throws Exception {
+        assignments = longPollingAssignments(50);
+        CountDownLatch handedOver = new CountDownLatch(1);
+        List<Work> work = new CopyOnWriteArrayList<>();
+
+        assignments.getWork(agent, assigned -> {
+            work.add(assigned);
+            handedOver.countDown();
+        });
+
+        assertThat(handedOver.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(work, is(singletonList(NO_WORK)));
+        verify(idleAgentsTopic).post(new IdleAgentMessage(agent));
+    }
+
+    @Test
+    public void shouldAnswerAParkedRequestWithNoWorkWhenTheAgentAsksAgain() {
+        assignments = longPollingAssignments(10000);
+        List<Work> firstRequest = new ArrayList<>();
+        List<Work> secondRequest = new ArrayList<>();
+
+        assignments.getWork(agent, firstRequest::add);
+        assignments.getWork(agent, secondRequest::add);
+        assignments.onMessage(new WorkAssignedMessage(agentIdentifier, REAL_WORK));
+
+        assertThat(firstRequest, is(singletonList(NO_WORK)));
+        assertThat(secondRequest, is(singletonList(REAL_WORK)));
+    }
+
+    @Test
+    public void shouldAskForWorkAgainOnlyForParkedAgentsWhichCouldRunTheNewJobs() {
+        assignments = longPollingAssignments(10000);
+        AgentIdentifier otherAgentIdentifier = new AgentIdentifier("otherhost", "127.0.0.2", "other-uuid");
+        AgentRuntimeInfo otherAgent = new AgentRuntimeInfo(otherAgentIdentifier, AgentRuntimeStatus.Idle, currentWorkingDirectory(), "cookie");
+        List<JobPlan> newJobs = singletonList(mock(JobPlan.class));
+        when(buildAssignmentService.couldRunAnyOf(agentIdentifier, newJobs)).thenReturn(true);
+        when(buildAssignmentService.couldRunAnyOf(otherAgentIdentifier, newJobs)).thenReturn(false);
+        List<Work> handedOver = new ArrayList<>();
+
+        assignments.getWork(agent, handedOver::add);
+        assignments.getWork(otherAgent, work -> fail("the other agent should stay parked"));
+        assignments.onMessage(new WorkAssignedMessage(agentIdentifier, NO_WORK));
+        assignments.onMessage(new WorkAssignedMessage(otherAgentIdentifier, NO_WORK));
+
+        assignments.newJobsScheduled(newJobs);
+
+        verify(idleAgentsTopic, times(2)).post(new IdleAgentMessage(agent));
+        verify(idleAgentsTopic, times(1)).post(new IdleAgentMessage(otherAgent));
+        assignments.onMessage(new WorkAssignedMessage(agentIdentifier, REAL_WORK));
+        assertThat(handedOver, is(singletonList(REAL_WORK)));
+    }
+
+    private WorkAssignments longPollingAssignments(int timeoutInMillis) {
+        return new WorkAssignments(idleAgentsTopic, mock(WorkAssignedTopic.class), buildAssignmentService, longPolling(timeoutInMillis));
+    }
+
+    private SystemEnvironment longPolling(int timeoutInMillis) {
+        SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.get(AGENT_WORK_LONG_POLL_TIMEOUT_IN_MILLIS)).thenReturn(timeoutInMillis);
+        when(systemEnvironment.get(AGENT_REQUEST_IDLE_TIMEOUT_IN_SECONDS)).thenReturn(30);
+        return systemEnvironment;
+    }
 }
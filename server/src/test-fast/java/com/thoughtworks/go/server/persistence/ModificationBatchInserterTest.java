@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.persistence;
+
+import com.thoughtworks.go.domain.MaterialInstance;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.domain.materials.ModifiedAction;
+import com.thoughtworks.go.domain.materials.git.GitMaterialInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.sql.*;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class ModificationBatchInserterTest {
+    private Connection connection;
+    private PreparedStatement insertModification;
+    private PreparedStatement insertModifiedFile;
+    private MaterialInstance materialInstance;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        insertModification = mock(PreparedStatement.class);
+        insertModifiedFile = mock(PreparedStatement.class);
+        when(connection.prepareStatement(startsWith("INSERT INTO modifications"), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(insertModification);
+        when(connection.prepareStatement(startsWith("INSERT INTO modifiedFiles"))).thenReturn(insertModifiedFile);
+        materialInstance = new GitMaterialInstance("url", null, "branch", null, "flyweight");
+        materialInstance.setId(42);
+    }
+
+    @Test
+    void shouldBatchModificationsAndSetTheirGeneratedIdsBeforeBatchingTheirFiles() throws SQLException {
+        List<Modification> modifications = List.of(modification("r1"), modification("r2"), modification("r3"));
+        ResultSet firstBatchKeys = resultSetOf(11L, 12L);
+        ResultSet secondBatchKeys = resultSetOf(13L);
+        when(insertModification.getGeneratedKeys()).thenReturn(firstBatchKeys, secondBatchKeys);
+
+        new ModificationBatchInserter(2, true).insert(connection, materialInstance, modifications);
+
+        verify(insertModification, times(3)).addBatch();
+        verify(insertModification, never()).executeUpdate();
+        verify(insertModification, times(2)).executeBatch();
+        assertThat(modifications).extracting(Modification::getId).containsExactly(11L, 12L, 13L);
+        InOrder inOrder = inOrder(insertModification, insertModifiedFile);
+        inOrder.verify(insertModification).executeBatch();
+        inOrder.verify(insertModifiedFile).setLong(4, 11L);
+        inOrder.verify(insertModifiedFile).setLong(4, 12L);
+        inOrder.verify(insertModification).executeBatch();
+        inOrder.verify(insertModifiedFile).setLong(4, 13L);
+        verify(insertModifiedFile, times(2)).executeBatch();
+    }
+
+    @Test
+    void shouldInsertModificationsOneAtATimeWhenTheDriverDoesNotReturnTheKeysOfBatchedRows() throws SQLException {
+        List<Modification> modifications = List.of(modification("r1"), modification("r2"));
+        ResultSet firstKey = resultSetOf(11L);
+        ResultSet secondKey = resultSetOf(12L);
+        when(insertModification.getGeneratedKeys()).thenReturn(firstKey, secondKey);
+
+        new ModificationBatchInserter(10, false).insert(connection, materialInstance, modifications);
+
+        verify(insertModification, times(2)).executeUpdate();
+        verify(insertModification, never()).addBatch();
+        verify(insertModification, never()).executeBatch();
+        assertThat(modifications).extracting(Modification::getId).containsExactly(11L, 12L);
+        verify(insertModifiedFile).setLong(4, 11L);
+        verify(insertModifiedFile).setLong(4, 12L);
+        verify(insertModifiedFile).executeBatch();
+    }
+
+    @Test
+    void shouldFailWhenTheDriverDoesNotReturnTheKeyOfEveryBatchedModification() throws SQLException {
+        List<Modification> modifications = List.of(modification("r1"), modification("r2"));
+        ResultSet lastKeyOnly = resultSetOf(12L);
+        when(insertModification.getGeneratedKeys()).thenReturn(lastKeyOnly);
+
+        assertThatThrownBy(() -> new ModificationBatchInserter(10, true).insert(connection, materialInstance, modifications))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("Expected 2 ids for the inserted modifications of material 42 but the driver returned 1");
+        verify(insertModifiedFile, never()).addBatch();
+    }
+
+    private Modification modification(String revision) {
+        Modification modification = new Modification("user", "comment", "email", new Date(), revision);
+        modification.createModifiedFile("file", "folder", ModifiedAction.added);
+        return modification;
+    }
+
+    private ResultSet resultSetOf(Long... ids) throws SQLException {
+        Iterator<Long> remaining = List.of(ids).iterator();
+        AtomicLong current = new AtomicLong();
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenAnswer(invocation -> {
+            if (!remaining.hasNext()) {
+                return false;
+            }
+            current.set(remaining.next());
+            return true;
+        });
+        when(resultSet.getLong(1)).thenAnswer(invocation -> current.get());
+        return resultSet;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisabledOnOs(OS.WINDOWS)
+class ArtifactBlobStoreTest {
+    @TempDir
+    File artifactsDir;
+
+    private SystemEnvironment systemEnvironment;
+    private ArtifactBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        ArtifactsDirHolder artifactsDirHolder = mock(ArtifactsDirHolder.class);
+        when(artifactsDirHolder.getArtifactsDir()).thenReturn(artifactsDir);
+        systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.get(SystemEnvironment.ARTIFACT_DEDUPLICATION_ENABLED)).thenReturn(true);
+        blobStore = new ArtifactBlobStore(artifactsDirHolder, systemEnvironment);
+    }
+
+    @Test
+    void shouldLinkFilesWithIdenticalContentsToTheSameBlob() throws IOException {
+        File first = artifact("pipelines/up42/1/stage/1/job/dist/app.jar", "contents");
+        File second = artifact("pipelines/up42/2/stage/1/job/dist/app.jar", "contents");
+
+        blobStore.deduplicate(first.getParentFile());
+        blobStore.deduplicate(second);
+
+        File blob = blobStore.blobFor(DigestUtils.sha256Hex("contents"));
+        assertThat(Files.isSameFile(first.toPath(), blob.toPath())).isTrue();
+        assertThat(Files.isSameFile(second.toPath(), blob.toPath())).isTrue();
+        assertThat(FileUtils.readFileToString(second, UTF_8)).isEqualTo("contents");
+    }
+
+    @Test
+    void shouldNotDeduplicateFilesWhichGetAppendedTo() throws IOException {
+        File consoleLog = artifact("pipelines/up42/1/stage/1/job/cruise-output/console.log", "contents");
+
+        blobStore.deduplicate(consoleLog.getParentFile().getParentFile());
+
+        assertThat(blobStore.blobFor(DigestUtils.sha256Hex("contents"))).doesNotExist();
+    }
+
+    @Test
+    void shouldNotDeduplicateWhenTurnedOff() throws IOException {
+        when(systemEnvironment.get(SystemEnvironment.ARTIFACT_DEDUPLICATION_ENABLED)).thenReturn(false);
+        File artifact = artifact("pipelines/up42/1/stage/1/job/app.jar", "contents");
+
+        blobStore.deduplicate(artifact);
+
+        assertThat(blobStore.blobFor(DigestUtils.sha256Hex("contents"))).doesNotExist();
+    }
+
+    @Test
+    void shouldGiveAFileItsOwnCopyBeforeItIsWrittenTo() throws IOException {
+        File first = artifact("pipelines/up42/1/stage/1/job/app.jar", "contents");
+        File second = artifact("pipelines/up42/2/stage/1/job/app.jar", "contents");
+        blobStore.deduplicate(first);
+        blobStore.deduplicate(second);
+
+        blobStore.unshare(second);
+        FileUtils.writeStringToFile(second, " and more", UTF_8, true);
+
+        assertThat(FileUtils.readFileToString(first, UTF_8)).isEqualTo("contents");
+        assertThat(FileUtils.readFileToString(blobStore.blobFor(DigestUtils.sha256Hex("contents")), UTF_8)).isEqualTo("contents");
+    }
+
+    @Test
+    void shouldReleaseBlobsOnlyOnceNoArtifactReferencesThem() throws IOException {
+        File first = artifact("pipelines/up42/1/stage/1/job/app.jar", "contents");
+        File second = artifact("pipelines/up42/2/stage/1/job/app.jar", "contents");
+        blobStore.deduplicate(first);
+        blobStore.deduplicate(second);
+        File blob = blobStore.blobFor(DigestUtils.sha256Hex("contents"));
+
+        assertThat(blobStore.blobsOnlyReferencedFrom(first.getParentFile())).isEmpty();
+        FileUtils.deleteQuietly(first);
+        blobStore.release(List.of(blob));
+        assertThat(blob).exists();
+
+        List<File> blobsToRelease = blobStore.blobsOnlyReferencedFrom(second.getParentFile());
+        assertThat(blobsToRelease).containsExactly(blob);
+        FileUtils.deleteQuietly(second);
+        blobStore.release(blobsToRelease);
+        assertThat(blob).doesNotExist();
+    }
+
+    @Test
+    void shouldReleaseBlobsLinkedMoreThanOnceFromTheDeletedPath() throws IOException {
+        File jar = artifact("pipelines/up42/1/stage/1/job/app.jar", "contents");
+        File copy = artifact("pipelines/up42/1/stage/1/job/copy/app.jar", "contents");
+        blobStore.deduplicate(jar.getParentFile());
+
+        List<File> blobsToRelease = blobStore.blobsOnlyReferencedFrom(jar.getParentFile());
+
+        assertThat(blobsToRelease).containsExactly(blobStore.blobFor(DigestUtils.sha256Hex("contents")));
+        assertThat(Files.isSameFile(jar.toPath(), copy.toPath())).isTrue();
+    }
+
+    private File artifact(String path, String contents) throws IOException {
+        File file = new File(artifactsDir, path);
+        FileUtils.writeStringToFile(file, contents, UTF_8);
+        return file;
+    }
+}
@@ -61,6 +61,8 @@ public class ArtifactsDiskCleanerTest {
     @Before
     public void setUp() throws Exception {
         sysEnv = mock(SystemEnvironment.class);
+        when(sysEnv.get(SystemEnvironment.ARTIFACT_CLEANUP_PARALLELISM)).thenReturn(4);
+        when(sysEnv.get(SystemEnvironment.ARTIFACT_CLEANUP_MAX_BYTES_PER_SECOND)).thenReturn(0L);
 
         serverConfig = new ServerConfig();
         goConfigService = mock(GoConfigService.class);
@@ -149,6 +151,73 @@ public class ArtifactsDiskCleanerTest {
         verifyNoMoreInteractions(artifactService);
     }
 
+    @Test
+    public void shouldDeleteStagesOfKnownSizeInParallel_untilTheirSizeAddsUpToTheSpaceNeeded() {
+        serverConfig.setPurgeLimits(5.0, 9.0);
+        Stage stageOne = stageWithArtifactsOf("stage", 2 * GoConstants.GIGA_BYTE);
+        Stage stageTwo = stageWithArtifactsOf("another", 2 * GoConstants.GIGA_BYTE);
+        Stage stageThree = stageWithArtifactsOf("yet-another", 2 * GoConstants.GIGA_BYTE);
+        Stage stageFour = stageWithArtifactsOf("foo-stage", 2 * GoConstants.GIGA_BYTE);
+
+        when(stageService.oldestStagesWithDeletableArtifacts()).thenReturn(Arrays.asList(stageOne, stageTwo, stageThree, stageFour));
+        when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(4 * GoConstants.GIGA_BYTE);
+
+        doAnswer(invocation -> {
+            when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(10 * GoConstants.GIGA_BYTE);
+            return null;
+        }).when(artifactService).purgeArtifactsForStage(stageThree);
+
+        artifactsDiskCleaner.deleteOldArtifacts();
+
+        verify(artifactService).purgeArtifactsForStage(stageOne);
+        verify(artifactService).purgeArtifactsForStage(stageTwo);
+        verify(artifactService).purgeArtifactsForStage(stageThree);
+        verifyNoMoreInteractions(artifactService);
+    }
+
+    @Test
+    public void shouldDeleteAStageOfUnknownSizeOnItsOwn_andCheckTheDiskSpaceRightAfter() {
+        serverConfig.setPurgeLimits(5.0, 9.0);
+        Stage stageOne = stageWithArtifactsOf("stage", 2 * GoConstants.GIGA_BYTE);
+        Stage stageTwo = StageMother.passedStageInstance("another", "job", "pipeline");
+        Stage stageThree = stageWithArtifactsOf("yet-another", 2 * GoConstants.GIGA_BYTE);
+
+        when(stageService.oldestStagesWithDeletableArtifacts()).thenReturn(Arrays.asList(stageOne, stageTwo, stageThree));
+        when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(4 * GoConstants.GIGA_BYTE);
+
+        doAnswer(invocation -> {
+            when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(10 * GoConstants.GIGA_BYTE);
+            return null;
+        }).when(artifactService).purgeArtifactsForStage(stageTwo);
+
+        artifactsDiskCleaner.deleteOldArtifacts();
+
+        verify(artifactService).purgeArtifactsForStage(stageOne);
+        verify(artifactService).purgeArtifactsForStage(stageTwo);
+        verifyNoMoreInteractions(artifactService);
+    }
+
+    @Test
+    public void shouldDeleteStagesOneByOneWhenParallelismIsTurnedOff() {
+        when(sysEnv.get(SystemEnvironment.ARTIFACT_CLEANUP_PARALLELISM)).thenReturn(1);
+        serverConfig.setPurgeLimits(5.0, 9.0);
+        Stage stageOne = stageWithArtifactsOf("stage", 2 * GoConstants.GIGA_BYTE);
+        Stage stageTwo = stageWithArtifactsOf("another", 2 * GoConstants.GIGA_BYTE);
+
+        when(stageService.oldestStagesWithDeletableArtifacts()).thenReturn(Arrays.asList(stageOne, stageTwo));
+        when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(4 * GoConstants.GIGA_BYTE);
+
+        doAnswer(invocation -> {
+            when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(10 * GoConstants.GIGA_BYTE);
+            return null;
+        }).when(artifactService).purgeArtifactsForStage(stageOne);
+
+        artifactsDiskCleaner.deleteOldArtifacts();
+
+        verify(artifactService).purgeArtifactsForStage(stageOne);
+        verifyNoMoreInteractions(artifactService);
+    }
+
     @Test
     public void shouldDeleteMultiplePagesOfOldestStagesHavingArtifacts() {
         serverConfig.setPurgeLimits(5.0, 9.0);
@@ -205,4 +274,10 @@ public class ArtifactsDiskCleanerTest {
         OperationResult operationResult = artifactsDiskCleaner.resultFor(new DiskSpaceOperationResult(serverHealthService));
         assertThat(operationResult, is(instanceOf(ServerHealthStateOperationResult.class)));
     }
+
+    private Stage stageWithArtifactsOf(String stageName, long size) {
+        Stage stage = StageMother.passedStageInstance(stageName, "job", "pipeline");
+        stage.setArtifactsSize(size);
+        return stage;
+    }
 }
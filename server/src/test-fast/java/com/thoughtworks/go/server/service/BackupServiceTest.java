@@ -16,17 +16,21 @@
 package com.thoughtworks.go.server.service;
 
 import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.ServerConfig;
 import com.thoughtworks.go.database.Database;
+import com.thoughtworks.go.server.domain.BackupProgressStatus;
 import com.thoughtworks.go.server.domain.BackupStatus;
 import com.thoughtworks.go.server.domain.ServerBackup;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.messaging.StartServerBackupMessage;
 import com.thoughtworks.go.server.messaging.ServerBackupQueue;
 import com.thoughtworks.go.server.persistence.ServerBackupRepository;
+import com.thoughtworks.go.server.service.backup.BackupUpdateListener;
 import com.thoughtworks.go.service.ConfigRepository;
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.ThrowingFn;
 import com.thoughtworks.go.util.TimeProvider;
+import org.apache.commons.io.FileUtils;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.junit.Before;
@@ -35,14 +39,20 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.mockito.Answers;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static com.thoughtworks.go.server.service.BackupService.ABORTED_BACKUPS_MESSAGE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
@@ -183,4 +193,67 @@ public class BackupServiceTest {
 
         verifyZeroInteractions(serverBackupRepository);
     }
+
+    @Test
+    public void shouldBackUpTheDatabaseAlongsideTheOtherStepsWhenIncrementalAndReportEveryStepToTheListeners() throws Exception {
+        CountDownLatch databaseBackupStarted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            databaseBackupStarted.countDown();
+            return null;
+        }).when(databaseStrategy).backup(any(File.class));
+        when(configRepo.doLocked(any(ThrowingFn.class))).thenAnswer(invocation -> {
+            assertThat(databaseBackupStarted.await(10, TimeUnit.SECONDS), is(true));
+            return invocation.callRealMethod();
+        });
+        BackupService backupService = backupServiceForBackup(true);
+        BackupUpdateListener listener = mock(BackupUpdateListener.class);
+
+        ServerBackup backup = backupService.startBackup(new Username("admin"), listener);
+
+        assertThat(backup.isSuccessful(), is(true));
+        assertThat(new File(backup.getPath(), "config-repo/HEAD").exists(), is(true));
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).updateStep(BackupProgressStatus.CREATING_DIR);
+        for (BackupProgressStatus step : asList(BackupProgressStatus.BACKUP_VERSION_FILE, BackupProgressStatus.BACKUP_CONFIG, BackupProgressStatus.BACKUP_CONFIG_REPO, BackupProgressStatus.BACKUP_DATABASE)) {
+            inOrder.verify(listener).updateStep(step);
+            inOrder.verify(listener).stepCompleted(eq(step), anyLong());
+        }
+        inOrder.verify(listener).completed();
+        verify(listener, never()).error(anyString());
+        assertThat(new ArrayList<>(backup.getTimeTakenBySteps().keySet()), is(asList(BackupProgressStatus.BACKUP_VERSION_FILE, BackupProgressStatus.BACKUP_CONFIG, BackupProgressStatus.BACKUP_CONFIG_REPO, BackupProgressStatus.BACKUP_DATABASE)));
+    }
+
+    @Test
+    public void shouldReportAFailedDatabaseBackupRunningAlongsideTheOtherSteps() throws Exception {
+        doThrow(new RuntimeException("disk full")).when(databaseStrategy).backup(any(File.class));
+        BackupService backupService = backupServiceForBackup(true);
+        BackupUpdateListener listener = mock(BackupUpdateListener.class);
+
+        ServerBackup backup = backupService.startBackup(new Username("admin"), listener);
+
+        assertThat(backup.hasFailed(), is(true));
+        assertThat(backup.getMessage(), is("Failed to perform backup. Reason: disk full"));
+        assertThat(new File(backup.getPath()).exists(), is(false));
+        verify(listener).error("Failed to perform backup. Reason: disk full");
+        verify(listener, never()).stepCompleted(eq(BackupProgressStatus.BACKUP_DATABASE), anyLong());
+        verify(listener, never()).completed();
+    }
+
+    private BackupService backupServiceForBackup(boolean incremental) throws Exception {
+        File configDir = new File(systemEnvironment.getConfigDir());
+        File configRepoDir = temporaryFolder.newFolder("config.git");
+        FileUtils.writeStringToFile(new File(configRepoDir, "HEAD"), "ref: refs/heads/master", UTF_8);
+        when(systemEnvironment.get(SystemEnvironment.INCREMENTAL_BACKUPS_ENABLED)).thenReturn(incremental);
+        when(systemEnvironment.getConfigRepoDir()).thenReturn(configRepoDir);
+        when(systemEnvironment.getCruiseConfigFile()).thenReturn(new File(configDir, "cruise-config.xml").getAbsolutePath());
+        when(systemEnvironment.getDESCipherFile()).thenReturn(new File(configDir, "cipher"));
+        when(systemEnvironment.getAESCipherFile()).thenReturn(new File(configDir, "cipher.aes"));
+        when(artifactsDirHolder.getBackupsDir()).thenReturn(temporaryFolder.newFolder("backups"));
+        when(timeProvider.currentDateTime()).thenReturn(new DateTime(2019, 10, 1, 0, 0));
+        when(serverBackupRepository.save(any(ServerBackup.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        GoConfigService goConfigService = mock(GoConfigService.class);
+        when(goConfigService.serverConfig()).thenReturn(new ServerConfig());
+        when(goConfigService.xml()).thenReturn("<cruise/>");
+        return new BackupService(artifactsDirHolder, goConfigService, timeProvider, serverBackupRepository, systemEnvironment, configRepo, databaseStrategy, backupQueue);
+    }
 }
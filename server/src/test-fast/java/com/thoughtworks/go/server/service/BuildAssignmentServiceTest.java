@@ -25,11 +25,14 @@ import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.domain.buildcause.BuildCause;
 import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.helper.*;
+import com.thoughtworks.go.listener.ScheduledJobsListener;
 import com.thoughtworks.go.plugin.access.exceptions.SecretResolutionFailureException;
+import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.work.BuildAssignment;
 import com.thoughtworks.go.remote.work.BuildWork;
 import com.thoughtworks.go.server.domain.ElasticAgentMetadata;
 import com.thoughtworks.go.server.exceptions.RulesViolationException;
+import com.thoughtworks.go.server.materials.StaleMaterialsOnBuildCause;
 import com.thoughtworks.go.server.messaging.JobStatusMessage;
 import com.thoughtworks.go.server.messaging.JobStatusTopic;
 import com.thoughtworks.go.server.service.builders.BuilderFactory;
@@ -46,9 +49,11 @@ import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.UUID;
 
 import static com.thoughtworks.go.util.command.EnvironmentVariableContext.GO_ENVIRONMENT_NAME;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
@@ -166,6 +171,29 @@ class BuildAssignmentServiceTest {
         assertThat(buildAssignmentService.jobPlans().size()).isEqualTo(1);
     }
 
+    @Test
+    void shouldRememberThePluginDecisionForAnElasticAgentUntilTheProfileChanges() {
+        when(systemEnvironment.getElasticAgentAssignmentDecisionTtl()).thenReturn(60000L);
+        buildAssignmentService = new BuildAssignmentService(goConfigService, jobInstanceService, scheduleService, agentService,
+                environmentConfigService, transactionTemplate, scheduledPipelineLoader, pipelineService, builderFactory,
+                maintenanceModeService, elasticAgentPluginService, systemEnvironment, secretParamResolver,
+                jobStatusTopic, consoleService);
+        PipelineConfig pipelineWithElasticJob = PipelineConfigMother.pipelineWithElasticJob(elasticProfileId1);
+        JobPlan jobPlan = new InstanceFactory().createJobPlan(pipelineWithElasticJob.first().getJobs().first(), schedulingContext);
+        jobPlans.add(jobPlan);
+        buildAssignmentService.onTimer();
+
+        assertThat(buildAssignmentService.findMatchingJob(elasticAgentInstance)).isNull();
+        assertThat(buildAssignmentService.findMatchingJob(elasticAgentInstance)).isNull();
+        verify(elasticAgentPluginService, times(1)).shouldAssignWork(elasticAgentInstance.elasticAgentMetadata(), null, jobPlan.getElasticProfile(), jobPlan.getClusterProfile(), jobPlan.getIdentifier());
+
+        buildAssignmentService.elasticProfileChangedListener().onEntityConfigChange(elasticProfile1);
+        when(elasticAgentPluginService.shouldAssignWork(elasticAgentInstance.elasticAgentMetadata(), null, jobPlan.getElasticProfile(), jobPlan.getClusterProfile(), jobPlan.getIdentifier())).thenReturn(true);
+
+        assertThat(buildAssignmentService.findMatchingJob(elasticAgentInstance)).isEqualTo(jobPlan);
+        assertThat(buildAssignmentService.elasticAgentAssignmentStats()).containsEntry("Plugin calls", 2L);
+    }
+
     @Test
     void shouldMatchNonElasticJobToNonElasticAgentIfResourcesMatch() {
         PipelineConfig pipeline = PipelineConfigMother.pipelineConfig(UUID.randomUUID().toString());
@@ -405,6 +433,120 @@ class BuildAssignmentServiceTest {
         }
     }
 
+    @Test
+    void shouldNotReloadAJobThatIsBeingAssignedToAnAgent() {
+        final PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig(UUID.randomUUID().toString());
+        pipelineConfig.get(0).getJobs().add(JobConfigMother.jobWithNoResourceRequirement());
+        final JobPlan jobPlan = getJobPlan(pipelineConfig.getName(), pipelineConfig.get(0).name(), pipelineConfig.get(0).getJobs().last());
+        final AgentInstance agentInstance = mock(AgentInstance.class);
+        jobPlans.add(jobPlan);
+
+        when(agentInstance.isRegistered()).thenReturn(true);
+        when(agentInstance.getAgent()).thenReturn(mock(Agent.class));
+        when(agentInstance.firstMatching(anyList())).thenReturn(jobPlan);
+        when(jobInstanceService.orderedScheduledBuilds()).thenAnswer(invocation -> new ArrayList<>(singletonList(jobPlan)));
+        when(scheduledPipelineLoader.pipelineWithPasswordAwareBuildCauseByBuildId(anyLong())).thenAnswer(invocation -> {
+            buildAssignmentService.onTimer();
+            assertThat(buildAssignmentService.jobPlans()).doesNotContain(jobPlan);
+            throw new StaleMaterialsOnBuildCause("materials changed");
+        });
+        buildAssignmentService.onTimer();
+
+        assertThat(buildAssignmentService.assignWorkToAgent(agentInstance)).isEqualTo(BuildAssignmentService.NO_WORK);
+
+        buildAssignmentService.onTimer();
+        assertThat(buildAssignmentService.jobPlans()).containsExactly(jobPlan);
+    }
+
+    @Test
+    void shouldNotAssignAnotherJobToAnAgentWhileAJobIsBeingAssignedToIt() {
+        final JobPlan firstJob = jobWithNoResourceRequirement(1);
+        final JobPlan secondJob = jobWithNoResourceRequirement(2);
+        final List<JobPlan> scheduled = new ArrayList<>(singletonList(firstJob));
+        final AgentInstance agentInstance = mock(AgentInstance.class);
+
+        when(agentInstance.isRegistered()).thenReturn(true);
+        when(agentInstance.getUuid()).thenReturn("uuid");
+        when(agentInstance.getAgent()).thenReturn(mock(Agent.class));
+        when(agentInstance.firstMatching(anyList())).thenAnswer(invocation -> {
+            List<JobPlan> candidates = invocation.getArgument(0);
+            return candidates.isEmpty() ? null : candidates.get(0);
+        });
+        when(jobInstanceService.orderedScheduledBuilds()).thenAnswer(invocation -> new ArrayList<>(scheduled));
+        when(environmentConfigService.filterJobsByAgent(anyList(), any(String.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(scheduledPipelineLoader.pipelineWithPasswordAwareBuildCauseByBuildId(anyLong())).thenAnswer(invocation -> {
+            scheduled.add(secondJob);
+            buildAssignmentService.onTimer();
+            assertThat(buildAssignmentService.assignWorkToAgent(agentInstance)).isEqualTo(BuildAssignmentService.NO_WORK);
+            throw new StaleMaterialsOnBuildCause("materials changed");
+        });
+        buildAssignmentService.onTimer();
+
+        assertThat(buildAssignmentService.assignWorkToAgent(agentInstance)).isEqualTo(BuildAssignmentService.NO_WORK);
+
+        verify(scheduleService, times(1)).rescheduleAbandonedBuildIfNecessary(any());
+        verify(scheduledPipelineLoader, times(1)).pipelineWithPasswordAwareBuildCauseByBuildId(anyLong());
+        assertThat(buildAssignmentService.jobPlans()).containsExactly(secondJob);
+    }
+
+    @Test
+    void shouldNotCreateAnotherElasticAgentForAJobAlreadyAssignedWhenItIsScheduledAgain() {
+        PipelineConfig pipelineWithElasticJob = PipelineConfigMother.pipelineWithElasticJob(elasticProfileId1);
+        JobPlan jobPlan = new InstanceFactory().createJobPlan(pipelineWithElasticJob.first().getJobs().first(), schedulingContext);
+        when(jobInstanceService.orderedScheduledBuilds()).thenAnswer(invocation -> new ArrayList<>(singletonList(jobPlan)));
+        when(environmentConfigService.filterJobsByAgent(anyList(), any(String.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(elasticAgentPluginService.shouldAssignWork(elasticAgentInstance.elasticAgentMetadata(), null, jobPlan.getElasticProfile(), jobPlan.getClusterProfile(), jobPlan.getIdentifier())).thenReturn(true);
+        buildAssignmentService.onTimer();
+        assertThat(buildAssignmentService.findMatchingJob(elasticAgentInstance)).isEqualTo(jobPlan);
+
+        buildAssignmentService.onTimer();
+
+        verify(elasticAgentPluginService).createAgentsFor(singletonList(jobPlan), singletonList(jobPlan));
+        verify(elasticAgentPluginService, never()).createAgentsFor(emptyList(), singletonList(jobPlan));
+        assertThat(buildAssignmentService.jobPlans()).containsExactly(jobPlan);
+    }
+
+    @Test
+    void shouldNotifyListenersOnlyWhenNewJobsAreScheduled() {
+        ScheduledJobsListener listener = mock(ScheduledJobsListener.class);
+        buildAssignmentService.registerScheduledJobsListener(listener);
+        PipelineConfig pipeline = PipelineConfigMother.pipelineConfig(UUID.randomUUID().toString());
+        pipeline.first().getJobs().add(JobConfigMother.jobWithNoResourceRequirement());
+        JobPlan jobPlan = new InstanceFactory().createJobPlan(pipeline.first().getJobs().first(), schedulingContext);
+
+        buildAssignmentService.onTimer();
+        verify(listener, never()).newJobsScheduled(anyList());
+
+        jobPlans.add(jobPlan);
+        buildAssignmentService.onTimer();
+        verify(listener).newJobsScheduled(singletonList(jobPlan));
+
+        buildAssignmentService.onTimer();
+        verify(listener).newJobsScheduled(anyList());
+    }
+
+    @Test
+    void shouldTellWhetherAnAgentCouldRunAnyOfTheGivenJobs() {
+        JobPlan jobPlan = mock(JobPlan.class);
+        List<JobPlan> jobs = singletonList(jobPlan);
+        AgentInstance agentInstance = mock(AgentInstance.class);
+        AgentIdentifier agentIdentifier = new AgentIdentifier("localhost", "127.0.0.1", "uuid");
+        when(agentService.findAgent("uuid")).thenReturn(agentInstance);
+        when(agentInstance.getUuid()).thenReturn("uuid");
+        when(agentInstance.isRegistered()).thenReturn(true);
+        when(environmentConfigService.filterJobsByAgent(jobs, "uuid")).thenReturn(jobs);
+
+        when(agentInstance.firstMatching(jobs)).thenReturn(jobPlan);
+        assertThat(buildAssignmentService.couldRunAnyOf(agentIdentifier, jobs)).isTrue();
+
+        when(agentInstance.firstMatching(jobs)).thenReturn(null);
+        assertThat(buildAssignmentService.couldRunAnyOf(agentIdentifier, jobs)).isFalse();
+
+        when(agentInstance.isElastic()).thenReturn(true);
+        when(jobPlan.requiresElasticAgent()).thenReturn(true);
+        assertThat(buildAssignmentService.couldRunAnyOf(agentIdentifier, jobs)).isTrue();
+    }
+
     @Test
     void shouldGetEnvironmentVariableContextIncludingGO_ENVIRONMENT_NAMEVariable() {
         String pipelineName = "pipeline1";
@@ -426,6 +568,14 @@ class BuildAssignmentServiceTest {
         assertThat(context).isNull();
     }
 
+    private JobPlan jobWithNoResourceRequirement(long jobId) {
+        PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig(UUID.randomUUID().toString());
+        pipelineConfig.get(0).getJobs().add(JobConfigMother.jobWithNoResourceRequirement());
+        JobPlan jobPlan = getJobPlan(pipelineConfig.getName(), pipelineConfig.get(0).name(), pipelineConfig.get(0).getJobs().last());
+        ((DefaultJobPlan) jobPlan).setJobId(jobId);
+        return jobPlan;
+    }
+
     private JobPlan getJobPlan(CaseInsensitiveString pipelineName, CaseInsensitiveString stageName, JobConfig job) {
         JobPlan jobPlan = new InstanceFactory().createJobPlan(job, schedulingContext);
 
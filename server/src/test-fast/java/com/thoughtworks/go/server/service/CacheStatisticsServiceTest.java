@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.server.cache.CacheRegionUsage;
+import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.cache.ZipArtifactCache;
+import com.thoughtworks.go.server.dashboard.GoDashboardCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CacheStatisticsServiceTest {
+    private GoCache goCache;
+    private GoDashboardCache dashboardCache;
+    private ZipArtifactCache zipArtifactCache;
+    private CacheStatisticsService service;
+
+    @BeforeEach
+    void setUp() {
+        goCache = mock(GoCache.class);
+        dashboardCache = mock(GoDashboardCache.class);
+        zipArtifactCache = mock(ZipArtifactCache.class);
+        service = new CacheStatisticsService(goCache, dashboardCache, zipArtifactCache);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(CacheStatisticsService.OBJECT_NAME);
+        if (mBeanServer.isRegistered(name)) {
+            mBeanServer.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    void shouldReportRegionsOfAllCaches() {
+        CacheRegionUsage goCacheRegion = new CacheRegionUsage("goCache", "pipeline_history_", 1, 2, 3, 4, 5, 6);
+        CacheRegionUsage dashboard = new CacheRegionUsage("dashboard", "pipelines", 1, 0, 1, 0, 0, 1);
+        CacheRegionUsage artifacts = new CacheRegionUsage("artifacts", "ZipArtifactCache", 0, 1, 1, 0, 0, CacheRegionUsage.UNKNOWN_ENTRIES);
+        when(goCache.regionUsage()).thenReturn(singletonList(goCacheRegion));
+        when(dashboardCache.usage()).thenReturn(dashboard);
+        when(zipArtifactCache.usage()).thenReturn(artifacts);
+
+        assertThat(service.getRegions()).containsExactly(goCacheRegion, dashboard, artifacts);
+    }
+
+    @Test
+    void shouldExposeRegionsOverJmx() throws Exception {
+        when(goCache.regionUsage()).thenReturn(singletonList(new CacheRegionUsage("goCache", "pipeline_history_", 1, 2, 3, 4, 5, 6)));
+        when(dashboardCache.usage()).thenReturn(new CacheRegionUsage("dashboard", "pipelines", 1, 0, 1, 0, 0, 1));
+        when(zipArtifactCache.usage()).thenReturn(new CacheRegionUsage("artifacts", "ZipArtifactCache", 0, 1, 1, 0, 0, CacheRegionUsage.UNKNOWN_ENTRIES));
+
+        service.initialize();
+        service.initialize();
+
+        CompositeData[] regions = (CompositeData[]) ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(CacheStatisticsService.OBJECT_NAME), "Regions");
+        assertThat(regions).hasSize(3);
+        assertThat(regions[0].get("region")).isEqualTo("pipeline_history_");
+        assertThat(regions[0].get("misses")).isEqualTo(2L);
+    }
+}
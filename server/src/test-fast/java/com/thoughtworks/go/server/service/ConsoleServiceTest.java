@@ -15,19 +15,29 @@
  */
 package com.thoughtworks.go.server.service;
 
+import com.thoughtworks.go.domain.ConsoleConsumer;
+import com.thoughtworks.go.domain.ConsoleLogLineIndex;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.helper.JobIdentifierMother;
 import com.thoughtworks.go.server.view.artifacts.ArtifactDirectoryChooser;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.thoughtworks.go.util.ArtifactLogUtil.getConsoleOutputFolderAndFileName;
+import static com.thoughtworks.go.util.SystemEnvironment.CONSOLE_LOG_LINE_INDEX_INTERVAL;
+import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -42,6 +52,7 @@ public class ConsoleServiceTest {
     @Before
     public void setUp() throws Exception {
         chooser = mock(ArtifactDirectoryChooser.class);
+        when(chooser.temporaryConsoleDir()).thenReturn(testFolder.getRoot());
         service = new ConsoleService(chooser);
     }
 
@@ -138,4 +149,87 @@ public class ConsoleServiceTest {
         assertThat(finalConsoleLog.exists(), is(true));
     }
 
+    @Test
+    public void shouldMaintainLineIndexWhenConsoleLogIsUpdated() throws Exception {
+        SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.get(CONSOLE_LOG_LINE_INDEX_INTERVAL)).thenReturn(2);
+        when(systemEnvironment.consoleLogCharsetAsCharset()).thenReturn(StandardCharsets.UTF_8);
+        service = new ConsoleService(chooser, systemEnvironment);
+        File consoleLog = new File(testFolder.getRoot(), "console.log");
+
+        service.updateConsoleLog(consoleLog, new ByteArrayInputStream("l0\nl1\nl2\n".getBytes()));
+        service.updateConsoleLog(consoleLog, new ByteArrayInputStream("l3\nl4\n".getBytes()));
+
+        ConsoleLogLineIndex.Position position = service.lineIndexFor(consoleLog.toPath()).positionAtOrBefore(5);
+        assertThat(position.line(), is(4L));
+        assertThat(position.byteOffset(), is(12L));
+    }
+
+    @Test
+    public void shouldNotAddALineIndexToTheConsoleLogOfACompletedJob() throws Exception {
+        SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.get(CONSOLE_LOG_LINE_INDEX_INTERVAL)).thenReturn(2);
+        when(systemEnvironment.consoleLogCharsetAsCharset()).thenReturn(StandardCharsets.UTF_8);
+        service = new ConsoleService(chooser, systemEnvironment);
+        JobIdentifier jobIdentifier = JobIdentifierMother.anyBuildIdentifier();
+        File artifactConsoleLog = new File(testFolder.newFolder("cruise-output"), "console.log");
+        when(chooser.findArtifact(jobIdentifier, getConsoleOutputFolderAndFileName())).thenReturn(artifactConsoleLog);
+
+        service.updateConsoleLog(artifactConsoleLog, new ByteArrayInputStream("l0\nl1\nl2\n".getBytes()));
+        service.appendToConsoleLog(jobIdentifier, "l3\nl4\n");
+
+        assertThat(ConsoleLogLineIndex.indexFileFor(artifactConsoleLog.toPath()).toFile().exists(), is(false));
+        List<String> lines = new ArrayList<>();
+        try (ConsoleConsumer streamer = service.getStreamer(3L, jobIdentifier)) {
+            streamer.stream(lines::add);
+        }
+        assertThat(lines, is(asList("l3", "l4")));
+    }
+
+    @Test
+    public void shouldStreamFromIndexedPosition() throws Exception {
+        SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.get(CONSOLE_LOG_LINE_INDEX_INTERVAL)).thenReturn(2);
+        when(systemEnvironment.consoleLogCharsetAsCharset()).thenReturn(StandardCharsets.UTF_8);
+        service = new ConsoleService(chooser, systemEnvironment);
+        JobIdentifier jobIdentifier = JobIdentifierMother.anyBuildIdentifier();
+        File consoleLog = new File(testFolder.getRoot(), "console.log");
+        when(chooser.temporaryConsoleFile(jobIdentifier)).thenReturn(consoleLog);
+        when(chooser.findArtifact(jobIdentifier, getConsoleOutputFolderAndFileName())).thenReturn(new File(testFolder.getRoot(), "final_console.log"));
+
+        service.updateConsoleLog(consoleLog, new ByteArrayInputStream("l0\nl1\nl2\nl3\nl4\n".getBytes()));
+
+        List<String> lines = new ArrayList<>();
+        try (ConsoleConsumer streamer = service.getStreamer(3L, jobIdentifier)) {
+            streamer.stream(lines::add);
+        }
+        assertThat(lines, is(asList("l3", "l4")));
+    }
+
+    @Test
+    public void shouldNotUseLineIndexWhenDisabled() {
+        SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.get(CONSOLE_LOG_LINE_INDEX_INTERVAL)).thenReturn(0);
+        when(systemEnvironment.consoleLogCharsetAsCharset()).thenReturn(StandardCharsets.UTF_8);
+        service = new ConsoleService(chooser, systemEnvironment);
+
+        assertThat(service.lineIndexFor(new File(testFolder.getRoot(), "console.log").toPath()), is(nullValue()));
+    }
+
+    @Test
+    public void shouldDeleteLineIndexOfTemporaryConsoleLogWhenMovingConsoleArtifacts() throws Exception {
+        JobIdentifier jobIdentifier = JobIdentifierMother.anyBuildIdentifier();
+
+        File temporaryConsoleLog = testFolder.newFile("temporary_console.log");
+        File temporaryIndex = testFolder.newFile("temporary_console.log" + ConsoleLogLineIndex.INDEX_FILE_EXTENSION);
+        File finalConsoleLog = new File(testFolder.getRoot(), "final_console.log");
+
+        when(chooser.temporaryConsoleFile(jobIdentifier)).thenReturn(temporaryConsoleLog);
+        when(chooser.findArtifact(jobIdentifier, getConsoleOutputFolderAndFileName())).thenReturn(finalConsoleLog);
+
+        service.moveConsoleArtifacts(jobIdentifier);
+
+        assertThat(temporaryIndex.exists(), is(false));
+        assertThat(finalConsoleLog.exists(), is(true));
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.domain.JobPlan;
+import com.thoughtworks.go.server.domain.ElasticAgentMetadata;
+import com.thoughtworks.go.util.TestingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ElasticAgentAssignmentDecisionsTest {
+    private TestingClock clock;
+    private ElasticAgentAssignmentDecisions decisions;
+    private ElasticAgentMetadata agent;
+    private JobPlan jobPlan;
+    private AtomicInteger pluginCalls;
+
+    @BeforeEach
+    void setUp() {
+        clock = new TestingClock();
+        decisions = new ElasticAgentAssignmentDecisions(1000L, clock);
+        agent = new ElasticAgentMetadata("agent-uuid", "elastic-agent-id", "docker", null, null);
+        jobPlan = mock(JobPlan.class);
+        when(jobPlan.getJobId()).thenReturn(42L);
+        pluginCalls = new AtomicInteger();
+    }
+
+    @Test
+    void shouldAskThePluginOnlyOnceWhileTheDecisionIsFresh() {
+        assertThat(decisions.shouldAssignWork(agent, "prod", jobPlan, this::pluginSaysNo)).isFalse();
+        assertThat(decisions.shouldAssignWork(agent, "prod", jobPlan, this::pluginSaysNo)).isFalse();
+
+        assertThat(pluginCalls.get()).isEqualTo(1);
+        assertThat(decisions.stats())
+                .containsEntry("Cache hits", 1L)
+                .containsEntry("Cache misses", 1L)
+                .containsEntry("Plugin calls", 1L);
+    }
+
+    @Test
+    void shouldAskThePluginAgainForADifferentEnvironmentOrAgent() {
+        decisions.shouldAssignWork(agent, "prod", jobPlan, this::pluginSaysNo);
+        decisions.shouldAssignWork(agent, "dev", jobPlan, this::pluginSaysNo);
+        decisions.shouldAssignWork(new ElasticAgentMetadata("other-uuid", "other-id", "docker", null, null), "prod", jobPlan, this::pluginSaysNo);
+
+        assertThat(pluginCalls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldAskThePluginAgainOnceTheDecisionHasExpired() {
+        decisions.shouldAssignWork(agent, "prod", jobPlan, this::pluginSaysNo);
+        clock.addMillis(1000);
+        decisions.shouldAssignWork(agent, "prod", jobPlan, this::pluginSaysNo);
+
+        assertThat(pluginCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldForgetDecisionsWhenInvalidated() {
+        decisions.shouldAssignWork(agent, "prod", jobPlan, this::pluginSaysNo);
+        decisions.invalidateAll();
+
+        assertThat(decisions.size()).isEqualTo(0);
+        decisions.shouldAssignWork(agent, "prod", jobPlan, this::pluginSaysNo);
+        assertThat(pluginCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldOnlyRetainDecisionsForJobsThatAreStillScheduled() {
+        decisions.shouldAssignWork(agent, "prod", jobPlan, this::pluginSaysNo);
+
+        decisions.retainDecisionsForJobs(Collections.singleton(42L));
+        assertThat(decisions.size()).isEqualTo(1);
+
+        decisions.retainDecisionsForJobs(Collections.singleton(43L));
+        assertThat(decisions.size()).isEqualTo(0);
+    }
+
+    @Test
+    void shouldAlwaysAskThePluginWhenCachingIsDisabled() {
+        decisions = new ElasticAgentAssignmentDecisions(0L, clock);
+
+        decisions.shouldAssignWork(agent, "prod", jobPlan, this::pluginSaysNo);
+        decisions.shouldAssignWork(agent, "prod", jobPlan, this::pluginSaysNo);
+
+        assertThat(pluginCalls.get()).isEqualTo(2);
+        assertThat(decisions.size()).isEqualTo(0);
+    }
+
+    private boolean pluginSaysNo() {
+        pluginCalls.incrementAndGet();
+        return false;
+    }
+}
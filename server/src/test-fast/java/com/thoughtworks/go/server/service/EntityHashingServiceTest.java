@@ -16,12 +16,15 @@
 package com.thoughtworks.go.server.service;
 
 import com.thoughtworks.go.config.*;
+import com.thoughtworks.go.config.materials.Filter;
+import com.thoughtworks.go.config.materials.IgnoredFiles;
+import com.thoughtworks.go.config.materials.ScmMaterialConfig;
 import com.thoughtworks.go.config.merge.MergeEnvironmentConfig;
 import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
 import com.thoughtworks.go.helper.PipelineConfigMother;
 import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.domain.PluginSettings;
-import com.thoughtworks.go.util.CachedDigestUtils;
+import com.thoughtworks.go.server.transaction.TestTransactionSynchronizationManager;
 import com.thoughtworks.go.util.ConfigElementImplementationRegistryMother;
 import org.junit.Before;
 import org.junit.Rule;
@@ -29,6 +32,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -58,11 +62,39 @@ public class EntityHashingServiceTest {
     }
 
     @Test
-    public void shouldComputeTheMD5OfAGivenXmlPartialGeneratedFromAnObject() {
+    public void shouldComputeTheMD5OfTheStructureOfAGivenObject() {
         PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig("P1");
-        String xml = new MagicalGoConfigXmlWriter(configCache, registry).toXmlPartial(pipelineConfig);
+        String expectedMd5 = new ConfigStructureDigest(configCache, registry).md5Of(pipelineConfig);
 
-        assertThat(entityHashingService.md5ForEntity(pipelineConfig), is(CachedDigestUtils.md5Hex(xml)));
+        assertThat(entityHashingService.md5ForEntity(pipelineConfig), is(expectedMd5));
+        verify(goCache).put("GO_ETAG_CACHE", "com.thoughtworks.go.config.PipelineConfig.p1", expectedMd5);
+    }
+
+    @Test
+    public void shouldOnlyRecomputeMD5sOfEntitiesReplacedByAConfigChange() {
+        PipelineConfig unchanged = PipelineConfigMother.pipelineConfig("unchanged");
+        PipelineConfig changed = PipelineConfigMother.pipelineConfig("changed");
+        String unchangedMd5 = entityHashingService.md5ForEntity(unchanged);
+        String changedMd5 = entityHashingService.md5ForEntity(changed);
+
+        entityHashingService.onConfigChange(new BasicCruiseConfig());
+        PipelineConfig replacement = PipelineConfigMother.pipelineConfig("changed");
+        replacement.setLabelTemplate("${COUNT}-replaced");
+
+        assertThat(entityHashingService.md5ForEntity(unchanged), is(unchangedMd5));
+        assertThat(entityHashingService.md5ForEntity(replacement), is(not(changedMd5)));
+        assertThat(entityHashingService.md5ForEntity(replacement), is(new ConfigStructureDigest(configCache, registry).md5Of(replacement)));
+    }
+
+    @Test
+    public void shouldRecomputeMD5OfAnEntityRemovedFromCacheEvenIfItIsTheSameInstance() {
+        PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig("p1");
+        String before = entityHashingService.md5ForEntity(pipelineConfig);
+
+        pipelineConfig.setLabelTemplate("${COUNT}-changed");
+        entityHashingService.removeFromCache(pipelineConfig, pipelineConfig.name());
+
+        assertThat(entityHashingService.md5ForEntity(pipelineConfig), is(not(before)));
     }
 
     @Test
@@ -84,10 +116,48 @@ public class EntityHashingServiceTest {
     }
 
     @Test
-    public void shouldInvalidatePipelineConfigEtagsFromCacheOnConfigChange() {
-        entityHashingService.onConfigChange(null);
+    public void shouldOnlyInvalidateEtagsOfEntitiesChangedByAConfigChange() {
+        PipelineConfig unchanged = PipelineConfigMother.pipelineConfig("unchanged");
+        PipelineConfig changed = PipelineConfigMother.pipelineConfig("changed");
+        entityHashingService.md5ForEntity(unchanged);
+        entityHashingService.md5ForEntity(changed);
+
+        PipelineConfig edited = PipelineConfigMother.pipelineConfig("changed");
+        edited.setLabelTemplate("${COUNT}-edited");
+        entityHashingService.onConfigChange(new BasicCruiseConfig(new BasicPipelineConfigs("group", new Authorization(), PipelineConfigMother.pipelineConfig("unchanged"), edited)));
+
+        verify(goCache).remove("GO_ETAG_CACHE", "com.thoughtworks.go.config.PipelineConfig.changed");
+        verify(goCache, never()).remove("GO_ETAG_CACHE", "com.thoughtworks.go.config.PipelineConfig.unchanged");
+        verify(goCache, never()).remove("GO_ETAG_CACHE");
+    }
+
+    @Test
+    public void shouldReuseTheEtagOfAnUnrelatedEntityAfterAnotherOneIsEdited() {
+        GoCache cache = new StubGoCache(new TestTransactionSynchronizationManager());
+        entityHashingService = new EntityHashingService(goConfigService, cache, new ConfigStructureDigest(configCache, registry));
+        PipelineConfig unrelated = PipelineConfigMother.pipelineConfig("unrelated");
+        PipelineConfig edited = PipelineConfigMother.pipelineConfig("edited");
+        String md5 = entityHashingService.md5ForEntity(unrelated);
+        entityHashingService.md5ForEntity(edited);
+
+        edited.setLabelTemplate("${COUNT}-edited");
+        entityHashingService.new PipelineConfigChangedListener().onEntityConfigChange(edited);
+        entityHashingService.onConfigChange(new BasicCruiseConfig(new BasicPipelineConfigs("group", new Authorization(), PipelineConfigMother.pipelineConfig("unrelated"), edited)));
+
+        assertThat(cache.get("GO_ETAG_CACHE", "com.thoughtworks.go.config.PipelineConfig.unrelated"), is(md5));
+        assertThat(entityHashingService.md5ForEntity(PipelineConfigMother.pipelineConfig("unrelated")), is(md5));
+    }
+
+    @Test
+    public void shouldInvalidateTheEtagOfAnEntityWhoseChangeItsEqualsDoesNotNotice() {
+        PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig("filtered");
+        entityHashingService.md5ForEntity(pipelineConfig);
+
+        PipelineConfig filtered = PipelineConfigMother.pipelineConfig("filtered");
+        ((ScmMaterialConfig) filtered.materialConfigs().first()).setFilter(new Filter(new IgnoredFiles("**/*.md")));
+        entityHashingService.onConfigChange(new BasicCruiseConfig(new BasicPipelineConfigs("group", new Authorization(), filtered)));
 
-        verify(goCache).remove("GO_ETAG_CACHE");
+        verify(goCache).remove("GO_ETAG_CACHE", "com.thoughtworks.go.config.PipelineConfig.filtered");
     }
 
     @Test
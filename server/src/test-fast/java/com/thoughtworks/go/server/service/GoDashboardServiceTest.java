@@ -42,6 +42,7 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -321,6 +322,70 @@ public class GoDashboardServiceTest {
         verifyZeroInteractions(dashboardCurrentStateLoader);
     }
 
+    @Test
+    public void dashboardViewFor_shouldHandOutTheSameViewWhileNothingHasChanged() {
+        configMother.addPipelineWithGroup(config, "group1", "pipeline1", "stage1A", "job1A1");
+        addPipelinesToCache(pipeline("pipeline1", "group1"));
+        stubConfigForDashboardViews();
+
+        GoDashboardView first = service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user1"), false);
+        GoDashboardView second = service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user1"), false);
+
+        assertThat(second, is(sameInstance(first)));
+        verify(goConfigService, times(1)).groups();
+    }
+
+    @Test
+    public void dashboardViewFor_shouldRefreshTheViewWithLatestPipelinesWhenOnlyTheirStateHasChanged() {
+        configMother.addPipelineWithGroup(config, "group1", "pipeline1", "stage1A", "job1A1");
+        addPipelinesToCache(pipeline("pipeline1", "group1"));
+        stubConfigForDashboardViews();
+        GoDashboardView first = service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user1"), false);
+
+        GoDashboardPipeline updated = pipeline("pipeline1", "group1");
+        addPipelinesToCache(updated);
+        when(pipelines.lastUpdatedTimeStamp()).thenReturn(1L);
+        when(pipelines.hasLayoutVersion(anyLong())).thenReturn(true);
+        GoDashboardView second = service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user1"), false);
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.pipelineGroups().get(0).allPipelines(), contains(updated));
+        verify(goConfigService, times(1)).groups();
+    }
+
+    @Test
+    public void dashboardViewFor_shouldWorkOutTheViewAgainWhenTheConfigOrFiltersChange() {
+        configMother.addPipelineWithGroup(config, "group1", "pipeline1", "stage1A", "job1A1");
+        addPipelinesToCache(pipeline("pipeline1", "group1"));
+        stubConfigForDashboardViews();
+        GoDashboardView first = service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user1"), false);
+
+        GoDashboardView withChangedFilters = service.dashboardViewFor(Filters.WILDCARD_FILTER, "changed-etag", new Username("user1"), false);
+        when(goConfigService.currentCruiseConfig()).thenReturn(GoConfigMother.defaultCruiseConfig());
+        GoDashboardView withChangedConfig = service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user1"), false);
+
+        assertThat(withChangedFilters, is(not(sameInstance(first))));
+        assertThat(withChangedConfig, is(not(sameInstance(first))));
+        verify(goConfigService, times(3)).groups();
+    }
+
+    @Test
+    public void dashboardViewFor_shouldForgetTheLeastRecentlyUsedViewOnceThereAreTooMany() {
+        service = new GoDashboardService(cache, dashboardCurrentStateLoader, permissionsAuthority, goConfigService, 2);
+        configMother.addPipelineWithGroup(config, "group1", "pipeline1", "stage1A", "job1A1");
+        addPipelinesToCache(pipeline("pipeline1", "group1"));
+        stubConfigForDashboardViews();
+        GoDashboardView forUser1 = service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user1"), false);
+        GoDashboardView forUser2 = service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user2"), false);
+        service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user1"), false);
+
+        service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user3"), false);
+
+        assertThat(service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user1"), false), is(sameInstance(forUser1)));
+        assertThat(service.dashboardViewFor(Filters.WILDCARD_FILTER, "etag", new Username("user2"), false), is(not(sameInstance(forUser2))));
+        verify(goConfigService, times(4)).groups();
+    }
+
     private List<GoDashboardEnvironment> allEnvironmentsForDashboard(DashboardFilter filter, Username username) {
         when(goConfigService.getEnvironments()).thenReturn(config.getEnvironments());
         when(goConfigService.security()).thenReturn(config.server().security());
@@ -334,6 +399,13 @@ public class GoDashboardServiceTest {
         return service.allPipelineGroupsForDashboard(filter, username);
     }
 
+    private void stubConfigForDashboardViews() {
+        when(goConfigService.currentCruiseConfig()).thenReturn(config);
+        when(goConfigService.groups()).thenReturn(config.getGroups());
+        when(goConfigService.getEnvironments()).thenReturn(config.getEnvironments());
+        when(goConfigService.security()).thenReturn(config.server().security());
+    }
+
     private void addPipelinesToCache(GoDashboardPipeline... pipelines) {
         for (GoDashboardPipeline pipeline : pipelines) {
             when(this.pipelines.find(pipeline.name())).thenReturn(pipeline);
@@ -53,6 +53,17 @@ public class BackupStatusUpdaterTest {
         assertThat(serverBackup.getMessage()).isEqualTo(BackupProgressStatus.BACKUP_DATABASE.getMessage());
     }
 
+    @Test
+    void shouldPersistTheTimeTakenByACompletedStep() {
+        ServerBackup serverBackup = new ServerBackup("path", new Date(), "admin", "a message");
+        BackupStatusUpdater backupStatusUpdater = new BackupStatusUpdater(serverBackup, serverBackupRepository);
+
+        backupStatusUpdater.stepCompleted(BackupProgressStatus.BACKUP_CONFIG_REPO, 42);
+
+        verify(serverBackupRepository).update(serverBackup);
+        assertThat(serverBackup.getTimeTakenBySteps()).containsEntry(BackupProgressStatus.BACKUP_CONFIG_REPO, 42L);
+    }
+
     @Test
     void shouldUpdateError() {
         ServerBackup serverBackup = new ServerBackup("path", new Date(), "admin", "a message");
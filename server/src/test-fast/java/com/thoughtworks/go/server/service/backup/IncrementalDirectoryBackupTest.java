@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.backup;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalDirectoryBackupTest {
+    private static final String LOOSE_OBJECT = "objects/ab/" + "0123456789abcdef0123456789abcdef012345";
+
+    @TempDir
+    File tempDir;
+
+    private File source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        source = new File(tempDir, "config.git");
+        write(source, "HEAD", "ref: refs/heads/master");
+        write(source, "refs/heads/master", "first");
+        write(source, LOOSE_OBJECT, "object");
+    }
+
+    @Test
+    void shouldCopyEverythingWhenThereIsNoPreviousBackup() throws IOException {
+        File backup = new File(tempDir, "backup_1/config-repo");
+
+        IncrementalDirectoryBackup directoryBackup = new IncrementalDirectoryBackup(source, null);
+        directoryBackup.backupTo(backup);
+
+        assertThat(directoryBackup.copiedFiles()).isEqualTo(3);
+        assertThat(directoryBackup.linkedFiles()).isEqualTo(0);
+        assertThat(FileUtils.readFileToString(new File(backup, "refs/heads/master"), UTF_8)).isEqualTo("first");
+        assertThat(FileUtils.readFileToString(new File(backup, LOOSE_OBJECT), UTF_8)).isEqualTo("object");
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void shouldLinkFilesUnchangedSinceThePreviousBackupAndCopyTheRest() throws IOException {
+        File previousBackup = new File(tempDir, "backup_1/config-repo");
+        new IncrementalDirectoryBackup(source, null).backupTo(previousBackup);
+        write(source, "refs/heads/master", "second");
+        write(source, "objects/cd/0123456789abcdef0123456789abcdef012345", "new object");
+
+        File backup = new File(tempDir, "backup_2/config-repo");
+        IncrementalDirectoryBackup directoryBackup = new IncrementalDirectoryBackup(source, previousBackup);
+        directoryBackup.backupTo(backup);
+
+        assertThat(directoryBackup.copiedFiles()).isEqualTo(2);
+        assertThat(directoryBackup.linkedFiles()).isEqualTo(2);
+        assertThat(Files.isSameFile(new File(backup, LOOSE_OBJECT).toPath(), new File(previousBackup, LOOSE_OBJECT).toPath())).isTrue();
+        assertThat(FileUtils.readFileToString(new File(backup, "refs/heads/master"), UTF_8)).isEqualTo("second");
+        assertThat(FileUtils.readFileToString(new File(previousBackup, "refs/heads/master"), UTF_8)).isEqualTo("first");
+    }
+
+    @Test
+    void shouldKeepEveryBackupCompleteWhenThePreviousOneIsDeleted() throws IOException {
+        File previousBackup = new File(tempDir, "backup_1/config-repo");
+        new IncrementalDirectoryBackup(source, null).backupTo(previousBackup);
+        File backup = new File(tempDir, "backup_2/config-repo");
+        new IncrementalDirectoryBackup(source, previousBackup).backupTo(backup);
+
+        FileUtils.deleteDirectory(previousBackup);
+
+        assertThat(FileUtils.readFileToString(new File(backup, "HEAD"), UTF_8)).isEqualTo("ref: refs/heads/master");
+        assertThat(FileUtils.readFileToString(new File(backup, LOOSE_OBJECT), UTF_8)).isEqualTo("object");
+    }
+
+    private void write(File root, String path, String contents) throws IOException {
+        FileUtils.writeStringToFile(new File(root, path), contents, UTF_8);
+    }
+}
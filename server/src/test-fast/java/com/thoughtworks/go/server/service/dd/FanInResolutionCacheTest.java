@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.dd;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.MaterialRevisions;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.domain.StageIdentifier;
+import com.thoughtworks.go.domain.StageState;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.server.domain.PipelineTimeline;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class FanInResolutionCacheTest {
+    private static final CaseInsensitiveString DOWNSTREAM = new CaseInsensitiveString("downstream");
+    private static final CaseInsensitiveString UPSTREAM = new CaseInsensitiveString("upstream");
+
+    private SystemEnvironment systemEnvironment;
+    private CruiseConfig cruiseConfig;
+    private PipelineTimeline pipelineTimeline;
+    private FanInGraph fanInGraph;
+    private AtomicInteger graphsBuilt;
+    private Supplier<FanInGraph> graphSupplier;
+    private MaterialRevisions actualRevisions;
+    private FanInResolutionCache cache;
+
+    @Before
+    public void setUp() {
+        systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.get(SystemEnvironment.RESOLVE_FANIN_CACHE_ENABLED)).thenReturn(true);
+        cruiseConfig = mock(CruiseConfig.class);
+        when(cruiseConfig.getMd5()).thenReturn("md5-1");
+        pipelineTimeline = mock(PipelineTimeline.class);
+        when(pipelineTimeline.instanceCount(UPSTREAM)).thenReturn(3);
+        when(pipelineTimeline.instanceCount(DOWNSTREAM)).thenReturn(1);
+
+        fanInGraph = mock(FanInGraph.class);
+        when(fanInGraph.pipelineNames()).thenReturn(new HashSet<>(asList(DOWNSTREAM, UPSTREAM)));
+        when(fanInGraph.computeRevisions(any(), any())).thenAnswer(invocation -> revisions("computed"));
+        graphsBuilt = new AtomicInteger();
+        graphSupplier = () -> {
+            graphsBuilt.incrementAndGet();
+            return fanInGraph;
+        };
+
+        actualRevisions = revisions("actual");
+        cache = new FanInResolutionCache(systemEnvironment);
+    }
+
+    @Test
+    public void shouldReuseResolutionWhenNothingItWasComputedFromHasChanged() {
+        MaterialRevisions first = cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+        MaterialRevisions second = cache.computeRevisions(DOWNSTREAM, cruiseConfig, revisions("actual"), pipelineTimeline, graphSupplier);
+
+        assertThat(graphsBuilt.get(), is(1));
+        assertThat(second, is(first));
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void shouldHandOutCopiesSoCallersCannotCorruptTheCachedResolution() {
+        MaterialRevisions first = cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+        first.addRevision(new MaterialRevision(new GitMaterial("http://another"), new Modification("user", "comment", null, new Date(), "rev")));
+
+        MaterialRevisions second = cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+
+        assertThat(second.numberOfRevisions(), is(1));
+    }
+
+    @Test
+    public void shouldRecomputeWhenAnUpstreamPipelineHasRunAgain() {
+        cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+        when(pipelineTimeline.instanceCount(UPSTREAM)).thenReturn(4);
+
+        cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+
+        assertThat(graphsBuilt.get(), is(2));
+    }
+
+    @Test
+    public void shouldRecomputeWhenConfigOrActualRevisionsChange() {
+        cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+        cache.computeRevisions(DOWNSTREAM, cruiseConfig, revisions("newer"), pipelineTimeline, graphSupplier);
+        when(cruiseConfig.getMd5()).thenReturn("md5-2");
+        cache.computeRevisions(DOWNSTREAM, cruiseConfig, revisions("newer"), pipelineTimeline, graphSupplier);
+
+        assertThat(graphsBuilt.get(), is(3));
+    }
+
+    @Test
+    public void shouldForgetResolutionsDependingOnAPipelineWhoseStageCompleted() {
+        cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+
+        cache.stageStatusChanged(stage("unrelated", StageState.Passed));
+        cache.stageStatusChanged(stage("upstream", StageState.Building));
+        assertThat(cache.size(), is(1));
+
+        cache.stageStatusChanged(stage("upstream", StageState.Passed));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void shouldNotRememberAResolutionComputedWhileAStageCompleted() {
+        when(fanInGraph.computeRevisions(any(), any())).thenAnswer(invocation -> {
+            cache.stageStatusChanged(stage("unrelated", StageState.Failed));
+            return revisions("computed");
+        });
+
+        cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void shouldNotRememberAnythingWhenDisabledOrConfigHasNoMd5() {
+        when(cruiseConfig.getMd5()).thenReturn(null);
+        cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+        assertThat(cache.size(), is(0));
+
+        when(cruiseConfig.getMd5()).thenReturn("md5-1");
+        when(systemEnvironment.get(SystemEnvironment.RESOLVE_FANIN_CACHE_ENABLED)).thenReturn(false);
+        cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void shouldNotRememberActualRevisionsHandedBackWhenThereIsNothingToFanIn() {
+        when(fanInGraph.computeRevisions(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MaterialRevisions computed = cache.computeRevisions(DOWNSTREAM, cruiseConfig, actualRevisions, pipelineTimeline, graphSupplier);
+
+        assertThat(computed, is(sameInstance(actualRevisions)));
+        assertThat(cache.size(), is(0));
+    }
+
+    private MaterialRevisions revisions(String revision) {
+        return new MaterialRevisions(new MaterialRevision(new GitMaterial("http://git"), new Modification("user", "comment", null, new Date(0), revision)));
+    }
+
+    private Stage stage(String pipelineName, StageState state) {
+        Stage stage = mock(Stage.class);
+        when(stage.getState()).thenReturn(state);
+        when(stage.getIdentifier()).thenReturn(new StageIdentifier(pipelineName, 1, "stage", "1"));
+        return stage;
+    }
+}
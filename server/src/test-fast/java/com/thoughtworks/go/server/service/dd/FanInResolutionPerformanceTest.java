@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.dd;
+
+import com.thoughtworks.go.config.BasicCruiseConfig;
+import com.thoughtworks.go.config.BasicPipelineConfigs;
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.config.PipelineConfig;
+import com.thoughtworks.go.config.materials.MaterialConfigs;
+import com.thoughtworks.go.config.materials.dependency.DependencyMaterialConfig;
+import com.thoughtworks.go.config.materials.git.GitMaterialConfig;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.MaterialRevisions;
+import com.thoughtworks.go.domain.PipelineTimelineEntry;
+import com.thoughtworks.go.domain.StageIdentifier;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.helper.PipelineConfigMother;
+import com.thoughtworks.go.server.dao.PipelineDao;
+import com.thoughtworks.go.server.domain.PipelineTimeline;
+import com.thoughtworks.go.server.persistence.MaterialRepository;
+import com.thoughtworks.go.server.persistence.PipelineRepository;
+import com.thoughtworks.go.server.service.MaterialConfigConverter;
+import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
+import com.thoughtworks.go.server.transaction.TransactionTemplate;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Measures fan-in resolution for synthetic deep (long chains) and wide (many parallel upstreams) pipeline graphs,
+ * both when the graph is resolved from scratch every time and when resolutions are remembered between runs.
+ */
+@Ignore
+public class FanInResolutionPerformanceTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FanInResolutionPerformanceTest.class);
+    private static final int DEPTH = 50;
+    private static final int WIDTH = 100;
+    private static final int RUNS_PER_PIPELINE = 20;
+    private static final int ITERATIONS = 200;
+
+    private final GitMaterialConfig gitMaterial = git("http://git.example.com/repo.git");
+    private final Map<Long, StageIdentifier> stageIdentifiers = new HashMap<>();
+    private final MaterialConfigConverter materialConfigConverter = new MaterialConfigConverter();
+    private final SystemEnvironment systemEnvironment = new SystemEnvironment();
+    private PipelineTimeline pipelineTimeline;
+    private PipelineDao pipelineDao;
+    private MaterialRepository materialRepository;
+    private long nextId;
+
+    @Before
+    public void setUp() {
+        pipelineTimeline = new PipelineTimeline(mock(PipelineRepository.class), mock(TransactionTemplate.class), mock(TransactionSynchronizationManager.class));
+        pipelineDao = mock(PipelineDao.class);
+        when(pipelineDao.latestPassedStageIdentifier(anyLong(), anyString())).thenAnswer(invocation -> stageIdentifiers.get(invocation.<Long>getArgument(0)));
+        materialRepository = mock(MaterialRepository.class);
+        when(materialRepository.modificationFor(any(StageIdentifier.class))).thenAnswer(invocation -> {
+            StageIdentifier stageIdentifier = invocation.getArgument(0);
+            return Collections.singletonList(new Modification(new Date(), stageIdentifier.getStageLocator(), stageIdentifier.getPipelineLabel(), 1L));
+        });
+    }
+
+    @Test
+    public void shouldResolveADeepGraph() {
+        List<PipelineConfig> pipelines = new ArrayList<>();
+        PipelineConfig previous = PipelineConfigMother.pipelineConfig("chain-0", new MaterialConfigs(gitMaterial));
+        pipelines.add(previous);
+        addRuns(previous, null);
+        PipelineConfig first = previous;
+        for (int i = 1; i < DEPTH; i++) {
+            PipelineConfig next = PipelineConfigMother.pipelineConfig("chain-" + i, new MaterialConfigs(dependencyOn(previous)));
+            pipelines.add(next);
+            addRuns(next, previous);
+            previous = next;
+        }
+        PipelineConfig root = PipelineConfigMother.pipelineConfig("deep-root", new MaterialConfigs(dependencyOn(previous), dependencyOn(first)));
+        pipelines.add(root);
+
+        benchmark("deep", pipelines, root);
+    }
+
+    @Test
+    public void shouldResolveAWideGraph() {
+        List<PipelineConfig> pipelines = new ArrayList<>();
+        MaterialConfigs rootMaterials = new MaterialConfigs();
+        for (int i = 0; i < WIDTH; i++) {
+            PipelineConfig upstream = PipelineConfigMother.pipelineConfig("wide-" + i, new MaterialConfigs(gitMaterial));
+            pipelines.add(upstream);
+            addRuns(upstream, null);
+            rootMaterials.add(dependencyOn(upstream));
+        }
+        PipelineConfig root = PipelineConfigMother.pipelineConfig("wide-root", rootMaterials);
+        pipelines.add(root);
+
+        benchmark("wide", pipelines, root);
+    }
+
+    private void benchmark(String shape, List<PipelineConfig> pipelines, PipelineConfig root) {
+        CruiseConfig cruiseConfig = spy(new BasicCruiseConfig(new BasicPipelineConfigs(pipelines.toArray(new PipelineConfig[0]))));
+        doReturn("md5").when(cruiseConfig).getMd5();
+        MaterialRevisions actualRevisions = actualRevisionsFor(root);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            newGraph(cruiseConfig, root.name()).computeRevisions(actualRevisions, pipelineTimeline);
+        }
+        long uncachedNanos = System.nanoTime() - start;
+
+        FanInResolutionCache cache = new FanInResolutionCache(systemEnvironment);
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            cache.computeRevisions(root.name(), cruiseConfig, actualRevisions, pipelineTimeline, () -> newGraph(cruiseConfig, root.name()));
+        }
+        long cachedNanos = System.nanoTime() - start;
+
+        LOGGER.info("Resolved the {} graph ({} pipelines, {} runs each) {} times: {}ms from scratch, {}ms when remembering resolutions",
+                shape, pipelines.size() - 1, RUNS_PER_PIPELINE, ITERATIONS, uncachedNanos / 1_000_000, cachedNanos / 1_000_000);
+    }
+
+    private FanInGraph newGraph(CruiseConfig cruiseConfig, CaseInsensitiveString root) {
+        return new FanInGraph(cruiseConfig, root, materialRepository, pipelineDao, systemEnvironment, materialConfigConverter);
+    }
+
+    private DependencyMaterialConfig dependencyOn(PipelineConfig upstream) {
+        return new DependencyMaterialConfig(upstream.name(), upstream.get(0).name());
+    }
+
+    private void addRuns(PipelineConfig pipeline, PipelineConfig upstream) {
+        String pipelineName = CaseInsensitiveString.str(pipeline.name());
+        String stageName = CaseInsensitiveString.str(pipeline.get(0).name());
+        for (int counter = 1; counter <= RUNS_PER_PIPELINE; counter++) {
+            long id = ++nextId;
+            Map<String, List<PipelineTimelineEntry.Revision>> revisions = new HashMap<>();
+            if (upstream == null) {
+                revisions.put(gitMaterial.getFingerprint(), Collections.singletonList(new PipelineTimelineEntry.Revision(new Date(counter * 1000L), "git-" + counter, "", counter)));
+            } else {
+                String upstreamRevision = String.format("%s/%s/%s/1", upstream.name(), counter, upstream.get(0).name());
+                revisions.put(dependencyOn(upstream).getFingerprint(), Collections.singletonList(new PipelineTimelineEntry.Revision(new Date(counter * 1000L), upstreamRevision, "", id)));
+            }
+            pipelineTimeline.add(new PipelineTimelineEntry(pipelineName, id, counter, revisions));
+            stageIdentifiers.put(id, new StageIdentifier(pipelineName, counter, stageName, "1"));
+        }
+    }
+
+    private MaterialRevisions actualRevisionsFor(PipelineConfig root) {
+        MaterialRevisions actualRevisions = new MaterialRevisions();
+        for (DependencyMaterialConfig dependency : root.dependencyMaterialConfigs()) {
+            String revision = String.format("%s/%s/%s/1", dependency.getPipelineName(), RUNS_PER_PIPELINE, dependency.getStageName());
+            actualRevisions.addRevision(new MaterialRevision(materialConfigConverter.toMaterial(dependency), new Modification(new Date(), revision, null, 1L)));
+        }
+        return actualRevisions;
+    }
+}
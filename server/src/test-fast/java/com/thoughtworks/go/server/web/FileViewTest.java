@@ -17,6 +17,7 @@ package com.thoughtworks.go.server.web;
 
 import com.thoughtworks.go.util.ZipUtil;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -32,11 +33,13 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.Deflater;
 import java.util.zip.ZipInputStream;
 
 import static com.thoughtworks.go.util.GoConstants.RESPONSE_CHARSET;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -93,6 +96,56 @@ public class FileViewTest {
         assertEquals(5, getContentLength(mockResponse));
     }
 
+    @Test
+    public void shouldSendOnlyTheRequestedRangeOfAFile() throws Exception {
+        Map<String, Object> model = new HashMap<>();
+        model.put("targetFile", file);
+        mockRequest.addHeader("Range", "bytes=2-");
+
+        view.render(model, mockRequest, mockResponse);
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, mockResponse.getStatus());
+        assertEquals("bytes 2-4/5", mockResponse.getHeader("Content-Range"));
+        assertEquals("llo", mockResponse.getContentAsString());
+        assertEquals(3, getContentLength(mockResponse));
+    }
+
+    @Test
+    public void shouldSendTheWholeFileWhenTheRangeIsNotUnderstood() throws Exception {
+        Map<String, Object> model = new HashMap<>();
+        model.put("targetFile", file);
+        mockRequest.addHeader("Range", "bytes=0-1,3-4");
+
+        view.render(model, mockRequest, mockResponse);
+
+        assertEquals(HttpServletResponse.SC_OK, mockResponse.getStatus());
+        assertEquals("hello", mockResponse.getContentAsString());
+        assertEquals("bytes", mockResponse.getHeader("Accept-Ranges"));
+    }
+
+    @Test
+    public void shouldRejectRangesBeyondTheEndOfTheFile() throws Exception {
+        Map<String, Object> model = new HashMap<>();
+        model.put("targetFile", file);
+        mockRequest.addHeader("Range", "bytes=5-");
+
+        view.render(model, mockRequest, mockResponse);
+
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, mockResponse.getStatus());
+        assertEquals("bytes */5", mockResponse.getHeader("Content-Range"));
+    }
+
+    @Test
+    public void shouldWorkOutSuffixAndBoundedRanges() {
+        FileView.ByteRange suffix = FileView.ByteRange.parse("bytes=-2", 5);
+        FileView.ByteRange bounded = FileView.ByteRange.parse("bytes=1-10", 5);
+
+        assertEquals(3, suffix.start);
+        assertEquals(4, suffix.end);
+        assertEquals(1, bounded.start);
+        assertEquals(4, bounded.end);
+    }
+
     @Test
     public void testShouldZipFileIfZipIsRequired() throws Exception {
         Map<String, Object> model = new HashMap<>();
@@ -108,6 +161,25 @@ public class FileViewTest {
         assertEquals(FileUtils.readFileToString(new File(unzipHere, file.getName()), UTF_8), "hello");
     }
 
+    @Test
+    public void testShouldZipFolderWithRequestedCompressionLevel() throws Exception {
+        File folder = temporaryFolder.newFolder("folder");
+        FileUtils.writeStringToFile(new File(folder, "compressible.txt"), StringUtils.repeat("hello ", 10000), UTF_8);
+        Map<String, Object> model = new HashMap<>();
+        model.put("targetFile", folder);
+        model.put(FileView.NEED_TO_ZIP, true);
+        model.put(FileView.ZIP_COMPRESSION_LEVEL, Deflater.BEST_COMPRESSION);
+
+        view.render(model, mockRequest, mockResponse);
+
+        assertEquals("application/zip", mockResponse.getContentType());
+        assertTrue(mockResponse.getContentAsByteArray().length < 10000);
+        File unzipHere = temporaryFolder.newFolder();
+        new ZipUtil().unzip(
+                new ZipInputStream(new ByteArrayInputStream(mockResponse.getContentAsByteArray())), unzipHere);
+        assertEquals(StringUtils.repeat("hello ", 10000), FileUtils.readFileToString(new File(unzipHere, "folder/compressible.txt"), UTF_8));
+    }
+
     @Test
     public void testShouldNotZipIfZipIsNotRequired() throws Exception {
         Map<String, Object> model = new HashMap<>();
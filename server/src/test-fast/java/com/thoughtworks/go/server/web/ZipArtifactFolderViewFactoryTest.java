@@ -18,6 +18,7 @@ package com.thoughtworks.go.server.web;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.server.cache.ZipArtifactCache;
 import com.thoughtworks.go.server.view.artifacts.PreparingArtifactFile;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -25,16 +26,20 @@ import org.junit.rules.TemporaryFolder;
 import org.springframework.web.servlet.ModelAndView;
 
 import java.io.File;
+import java.util.zip.Deflater;
 
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class ZipArtifactFolderViewFactoryTest {
     private static final JobIdentifier JOB_IDENTIFIER = new JobIdentifier("pipeline-name", "label-111", "stage-name", 1, "job-name", 666L);
     private File folder;
     private ZipArtifactFolderViewFactory folderViewFactory;
     private File cacheZipFile;
+    private SystemEnvironment systemEnvironment;
 
     @Rule
     public final TemporaryFolder temporaryFolder = new TemporaryFolder();
@@ -44,17 +49,18 @@ public class ZipArtifactFolderViewFactoryTest {
         new File(folder, "dir").mkdirs();
         temporaryFolder.newFolder("cache");
         cacheZipFile = temporaryFolder.newFile("cache/dir.zip");
+        systemEnvironment = mock(SystemEnvironment.class);
     }
 
     @Test public void shouldCreateArtifactCacheIfDoesNotExist() throws Exception {
-        folderViewFactory = new ZipArtifactFolderViewFactory(cacheNotCreated());
+        folderViewFactory = new ZipArtifactFolderViewFactory(cacheNotCreated(), systemEnvironment);
 
         ModelAndView modelAndView = folderViewFactory.createView(JOB_IDENTIFIER, new ArtifactFolder(JOB_IDENTIFIER, folder, "dir"));
         assertThat(modelAndView.getView(), is(instanceOf(PreparingArtifactFile.class)));
     }
 
     @Test public void shouldViewCachedZipArtifactIfAlreadyCreated() throws Exception {
-        folderViewFactory = new ZipArtifactFolderViewFactory(cacheAlreadyCreated());
+        folderViewFactory = new ZipArtifactFolderViewFactory(cacheAlreadyCreated(), systemEnvironment);
 
         ModelAndView modelAndView = folderViewFactory.createView(JOB_IDENTIFIER, new ArtifactFolder(JOB_IDENTIFIER, folder, "dir"));
         assertThat(modelAndView.getViewName(), is("fileView"));
@@ -62,6 +68,38 @@ public class ZipArtifactFolderViewFactoryTest {
         assertThat(targetFile, is(cacheZipFile));
     }
 
+    @Test public void shouldStreamZipOfFolderWithConfiguredCompressionLevelWhenStreamingIsEnabled() throws Exception {
+        when(systemEnvironment.isArtifactZipStreamingEnabled()).thenReturn(true);
+        when(systemEnvironment.artifactZipCompressionLevel()).thenReturn(Deflater.NO_COMPRESSION);
+        folderViewFactory = new ZipArtifactFolderViewFactory(cacheNotCreated(), systemEnvironment);
+
+        ModelAndView modelAndView = folderViewFactory.createView(JOB_IDENTIFIER, new ArtifactFolder(JOB_IDENTIFIER, folder, "dir"));
+        assertThat(modelAndView.getViewName(), is("fileView"));
+        assertThat(modelAndView.getModel().get("targetFile"), is(folder));
+        assertThat(modelAndView.getModel().get(FileView.NEED_TO_ZIP), is(true));
+        assertThat(modelAndView.getModel().get(FileView.ZIP_COMPRESSION_LEVEL), is(Deflater.NO_COMPRESSION));
+    }
+
+    @Test public void shouldServeCachedZipWhenStreamingAndCacheIsEnabled() throws Exception {
+        when(systemEnvironment.isArtifactZipStreamingEnabled()).thenReturn(true);
+        when(systemEnvironment.isArtifactZipCacheEnabled()).thenReturn(true);
+        folderViewFactory = new ZipArtifactFolderViewFactory(cacheAlreadyCreated(), systemEnvironment);
+
+        ModelAndView modelAndView = folderViewFactory.createView(JOB_IDENTIFIER, new ArtifactFolder(JOB_IDENTIFIER, folder, "dir"));
+        assertThat(modelAndView.getModel().get("targetFile"), is(cacheZipFile));
+        assertThat(modelAndView.getModel().containsKey(FileView.NEED_TO_ZIP), is(false));
+    }
+
+    @Test public void shouldStreamWhileCacheIsBeingCreated() throws Exception {
+        when(systemEnvironment.isArtifactZipStreamingEnabled()).thenReturn(true);
+        when(systemEnvironment.isArtifactZipCacheEnabled()).thenReturn(true);
+        folderViewFactory = new ZipArtifactFolderViewFactory(cacheNotCreated(), systemEnvironment);
+
+        ModelAndView modelAndView = folderViewFactory.createView(JOB_IDENTIFIER, new ArtifactFolder(JOB_IDENTIFIER, folder, "dir"));
+        assertThat(modelAndView.getModel().get("targetFile"), is(folder));
+        assertThat(modelAndView.getModel().get(FileView.NEED_TO_ZIP), is(true));
+    }
+
     private ZipArtifactCache cacheAlreadyCreated() {
         return new ZipArtifactCache(null, null) {
             @Override
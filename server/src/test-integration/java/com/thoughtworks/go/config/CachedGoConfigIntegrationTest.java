@@ -687,7 +687,7 @@ public class CachedGoConfigIntegrationTest {
 
     @Test
     public void shouldReturnDefaultCruiseConfigIfLoadingTheConfigFailsForTheFirstTime() throws Exception {
-        ReflectionUtil.setField(cachedGoConfig, "currentConfig", null);
+        ReflectionUtil.setField(cachedGoConfig, "configHolder", null);
         configHelper.writeXmlToConfigFile("invalid-xml");
         assertThat(cachedGoConfig.currentConfig()).isEqualTo(new BasicCruiseConfig());
     }
@@ -1424,6 +1424,18 @@ public class StageSqlMapDaoIntegrationTest {
         assertThat(stageDao.oldestStagesHavingArtifacts().size(), is(0));
     }
 
+    @Test
+    public void shouldAddUpTheSizeOfArtifactsUploadedByJobsOfAStage() {
+        Pipeline pipeline = dbHelper.schedulePipeline(PipelineConfigMother.createPipelineConfig("foo", "stage1", "job1"), new TimeProvider());
+        dbHelper.pass(pipeline);
+        long buildId = pipeline.getFirstStage().getJobInstances().first().getId();
+
+        stageDao.addToArtifactsSize(buildId, 1024);
+        stageDao.addToArtifactsSize(buildId, 512);
+
+        assertThat(stageDao.oldestStagesHavingArtifacts().get(0).getArtifactsSize(), is(1536L));
+    }
+
     @Test
     public void shouldOnlyLoadCompletedStagesAsOldestStagesHavingArtifacts() {
         Pipeline pipeline = dbHelper.schedulePipeline(PipelineConfigMother.createPipelineConfig("foo", "stage1", "job1"), new TimeProvider());
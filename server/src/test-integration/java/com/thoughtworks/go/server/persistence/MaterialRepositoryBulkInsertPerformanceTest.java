@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 ThoughtWorks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.persistence;
+
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.MaterialInstance;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.domain.materials.ModifiedAction;
+import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.dao.DatabaseAccessHelper;
+import com.thoughtworks.go.server.transaction.TransactionTemplate;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compares saving the modifications of a large first poll through Hibernate and through the JDBC bulk insert path,
+ * against the in-memory H2 database used by integration tests.
+ */
+@Ignore
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = {
+        "classpath:WEB-INF/applicationContext-global.xml",
+        "classpath:WEB-INF/applicationContext-dataLocalAccess.xml",
+        "classpath:testPropertyConfigurer.xml",
+        "classpath:WEB-INF/spring-all-servlet.xml",
+})
+public class MaterialRepositoryBulkInsertPerformanceTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MaterialRepositoryBulkInsertPerformanceTest.class);
+    private static final int NUMBER_OF_MODIFICATIONS = 20000;
+    private static final int FILES_PER_MODIFICATION = 5;
+
+    @Autowired
+    private MaterialRepository repo;
+    @Autowired
+    private GoCache goCache;
+    @Autowired
+    private DatabaseAccessHelper dbHelper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Before
+    public void setUp() throws Exception {
+        dbHelper.onSetUp();
+        goCache.clear();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        new SystemEnvironment().clearProperty(SystemEnvironment.MODIFICATIONS_BULK_INSERT_THRESHOLD.propertyName());
+        goCache.clear();
+        dbHelper.onTearDown();
+    }
+
+    @Test
+    public void shouldCompareHibernateAndBulkInsertOfModifications() {
+        new SystemEnvironment().setProperty(SystemEnvironment.MODIFICATIONS_BULK_INSERT_THRESHOLD.propertyName(), String.valueOf(Integer.MAX_VALUE));
+        long hibernate = timeToSave(modifications());
+
+        new SystemEnvironment().setProperty(SystemEnvironment.MODIFICATIONS_BULK_INSERT_THRESHOLD.propertyName(), "1");
+        long bulk = timeToSave(modifications());
+
+        LOGGER.info("Saving {} modifications with {} files each took {}ms through Hibernate and {}ms through bulk insert",
+                NUMBER_OF_MODIFICATIONS, FILES_PER_MODIFICATION, hibernate, bulk);
+    }
+
+    private long timeToSave(List<Modification> modifications) {
+        MaterialInstance materialInstance = repo.findOrCreateFrom(new GitMaterial(UUID.randomUUID().toString(), "branch"));
+        long start = System.currentTimeMillis();
+        transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                repo.saveModifications(materialInstance, modifications);
+            }
+        });
+        return System.currentTimeMillis() - start;
+    }
+
+    private List<Modification> modifications() {
+        List<Modification> modifications = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_MODIFICATIONS; i++) {
+            Modification modification = new Modification("user", "comment " + i, "email", new Date(), UUID.randomUUID().toString());
+            for (int j = 0; j < FILES_PER_MODIFICATION; j++) {
+                modification.createModifiedFile("file-" + j, "src/module-" + (i % 100), ModifiedAction.modified);
+            }
+            modifications.add(modification);
+        }
+        return modifications;
+    }
+}
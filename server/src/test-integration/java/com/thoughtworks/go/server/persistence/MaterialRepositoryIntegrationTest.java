@@ -56,6 +56,7 @@ import com.thoughtworks.go.server.service.MaterialExpansionService;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.server.util.Pagination;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TestUtils;
 import com.thoughtworks.go.util.TimeProvider;
 import com.thoughtworks.go.util.json.JsonHelper;
@@ -216,7 +217,7 @@ public class MaterialRepositoryIntegrationTest {
         MaterialRevision second = saveOneScmModification(material, "user2", "file2");
 
         goCache.clear();
-        repo = new MaterialRepository(sessionFactory, goCache, 1, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        repo = new MaterialRepository(sessionFactory, goCache, 1, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, new SystemEnvironment());
 
         repo.findModificationsSince(material, first);
         assertThat(repo.cachedModifications(repo.findMaterialInstance(material)), is(nullValue()));
@@ -241,7 +242,7 @@ public class MaterialRepositoryIntegrationTest {
                 TestUtils.sleepQuietly(200); // sleep so we can have multiple threads enter the critical section
                 return value;
             }
-        }, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        }, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, new SystemEnvironment());
 
         Thread thread1 = new Thread(new Runnable() {
             @Override
@@ -355,7 +356,7 @@ public class MaterialRepositoryIntegrationTest {
         final Material svn = MaterialsMother.svnMaterial("url", null, "username", "password", false, null);
 
         HibernateTemplate mockTemplate = mock(HibernateTemplate.class);
-        repo = new MaterialRepository(repo.getSessionFactory(), goCache, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy) {
+        repo = new MaterialRepository(repo.getSessionFactory(), goCache, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, new SystemEnvironment()) {
             @Override
             public MaterialInstance findMaterialInstance(Material material) {
                 MaterialInstance result = super.findMaterialInstance(material);
@@ -642,7 +643,7 @@ public class MaterialRepositoryIntegrationTest {
         GoCache spyGoCache = spy(goCache);
         when(spyGoCache.get(any(String.class))).thenCallRealMethod();
         Mockito.doCallRealMethod().when(spyGoCache).put(any(String.class), any(Object.class));
-        repo = new MaterialRepository(sessionFactory, spyGoCache, 2, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        repo = new MaterialRepository(sessionFactory, spyGoCache, 2, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, new SystemEnvironment());
 
         pipelineSqlMapDao.save(pipeline);
 
@@ -1214,6 +1215,41 @@ public class MaterialRepositoryIntegrationTest {
         }
     }
 
+    @Test
+    public void shouldBulkInsertModificationsAndTheirFilesWhenThereAreManyOfThem() {
+        new SystemEnvironment().setProperty(SystemEnvironment.MODIFICATIONS_BULK_INSERT_THRESHOLD.propertyName(), "2");
+        new SystemEnvironment().setProperty(SystemEnvironment.MODIFICATIONS_BULK_INSERT_BATCH_SIZE.propertyName(), "2");
+        try {
+            final MaterialInstance materialInstance = repo.findOrCreateFrom(new GitMaterial(UUID.randomUUID().toString(), "branch"));
+            final ArrayList<Modification> modifications = getModifications(3);
+            for (Modification modification : modifications) {
+                modification.createModifiedFile("foo.c", "src", ModifiedAction.added);
+                modification.createModifiedFile("bar.c", "src", ModifiedAction.modified);
+            }
+            transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+                @Override
+                protected void doInTransactionWithoutResult(TransactionStatus status) {
+                    repo.saveModifications(materialInstance, modifications);
+                }
+            });
+
+            for (Modification modification : modifications) {
+                assertThat(modification.hasId(), is(true));
+            }
+            Modifications fromDb = repo.getModificationsFor(materialInstance, Pagination.pageByNumber(1, 10, 10));
+            assertThat(fromDb.size(), is(3));
+            for (Modification modification : fromDb) {
+                assertThat(modification.getModifiedFiles().size(), is(2));
+                assertThat(modification.getModifiedFiles().get(0).getAction(), is(ModifiedAction.added));
+                assertThat(modification.getModifiedFiles().get(0).getFolderName(), is("src"));
+            }
+            assertThat(fromDb.get(0).getRevision(), is("r0"));
+        } finally {
+            new SystemEnvironment().clearProperty(SystemEnvironment.MODIFICATIONS_BULK_INSERT_THRESHOLD.propertyName());
+            new SystemEnvironment().clearProperty(SystemEnvironment.MODIFICATIONS_BULK_INSERT_BATCH_SIZE.propertyName());
+        }
+    }
+
     @Test
     public void shouldNotBlowUpReportErrorIfAnAttemptIsMadeToInsertOnlyDuplicateModificationsForAGivenMaterial() {
         final MaterialInstance materialInstance = repo.findOrCreateFrom(new GitMaterial(UUID.randomUUID().toString(), "branch"));
@@ -90,7 +90,8 @@ export class BackupWidget extends MithrilComponent<Attrs> {
         </li>
         <li>
           <strong>Configuration History</strong> - An archive named <code>config-repo.zip</code> containing a Git repository of the
-          XML configuration file.
+          XML configuration file. With incremental backups turned on, this is a folder named <code>config-repo</code> instead,
+          which is restored by copying its contents into the <code>db/config.git</code> folder of the server.
         </li>
         <li>
           <strong>GoCD Version</strong> - A flat file named <code>version.txt</code> containing the version of GoCD that the backup was
@@ -47,6 +47,8 @@ describe("Backup Widget", () => {
         "GoCD Version - A flat file named version.txt containing the version of GoCD that the backup was taken with.");
     expect(helper.findByClass(styles.backupHelp))
       .toContainText("Database - The database is archived to a file named db.zip which is used to restore GoCD's database.");
+    expect(helper.findByClass(styles.backupHelp))
+      .toContainText("With incremental backups turned on, this is a folder named config-repo instead, which is restored by copying its contents into the db/config.git folder of the server.");
     expect(helper.findByClass(styles.backupConfigHelp))
       .toContainText("Backups are stored in /path/to/backup/directory");
   });
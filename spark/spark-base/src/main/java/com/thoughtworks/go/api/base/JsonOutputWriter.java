@@ -40,16 +40,25 @@ public class JsonOutputWriter {
 
     protected final Writer writer;
     private final RequestContext requestContext;
+    private final boolean prettyPrint;
     private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
 
     public JsonOutputWriter(Writer writer, RequestContext requestContext) {
+        this(writer, requestContext, true);
+    }
+
+    /**
+     * @param prettyPrint whether to indent the output, large responses are noticeably smaller and quicker to render without it
+     */
+    public JsonOutputWriter(Writer writer, RequestContext requestContext, boolean prettyPrint) {
         this.writer = writer;
         this.requestContext = requestContext;
+        this.prettyPrint = prettyPrint;
     }
 
     public JsonOutputWriter forTopLevelObject(Consumer<OutputWriter> consumer) {
         bufferWriterAndFlushWhenDone(writer, bufferedWriter -> {
-            try (JsonOutputWriterUsingJackson jacksonOutputWriter = new JsonOutputWriterUsingJackson(bufferedWriter, requestContext)) {
+            try (JsonOutputWriterUsingJackson jacksonOutputWriter = new JsonOutputWriterUsingJackson(bufferedWriter, requestContext, prettyPrint)) {
                 jacksonOutputWriter.forTopLevelObject(consumer);
             }
         });
@@ -59,7 +68,7 @@ public class JsonOutputWriter {
 
     public JsonOutputWriter forTopLevelArray(Consumer<OutputListWriter> consumer) {
         bufferWriterAndFlushWhenDone(writer, bufferedWriter -> {
-            try (JsonOutputWriterUsingJackson jacksonOutputWriter = new JsonOutputWriterUsingJackson(writer, requestContext)) {
+            try (JsonOutputWriterUsingJackson jacksonOutputWriter = new JsonOutputWriterUsingJackson(bufferedWriter, requestContext, prettyPrint)) {
                 jacksonOutputWriter.forTopLevelArray(consumer);
             }
         });
@@ -85,11 +94,13 @@ public class JsonOutputWriter {
         private final RequestContext requestContext;
         private final JsonGenerator jacksonWriter;
 
-        private JsonOutputWriterUsingJackson(Writer writer, RequestContext requestContext) {
+        private JsonOutputWriterUsingJackson(Writer writer, RequestContext requestContext, boolean prettyPrint) {
             this.requestContext = requestContext;
             try {
                 jacksonWriter = JSON_FACTORY.createGenerator(writer);
-                jacksonWriter.useDefaultPrettyPrinter();
+                if (prettyPrint) {
+                    jacksonWriter.useDefaultPrettyPrinter();
+                }
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -644,6 +644,10 @@ public class Routes {
         public static final String BASE = "/api/v1/health";
     }
 
+    public class CacheStatistics {
+        public static final String BASE = "/api/admin/cache_statistics";
+    }
+
     public class KitchenSink {
         public static final String SPA_BASE = "/kitchen-sink";
     }